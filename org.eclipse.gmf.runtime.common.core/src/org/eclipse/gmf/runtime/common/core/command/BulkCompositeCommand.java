@@ -0,0 +1,265 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.common.core.command;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+
+/**
+ * A composite command meant to be composed of a large number of children, as
+ * built by bulk operations such as layouts, canonical synchronizations and
+ * pastes. Adding a child and testing whether an operation is a child take a
+ * constant time instead of a time proportional to the number of children:
+ * <UL>
+ * <LI>the membership of the children is tested by identity in a hash map,
+ * rather than by equality in the list of children</LI>
+ * <LI>the number of children having each undo context is counted, so that
+ * adding or removing a child does not scan the other children for its
+ * contexts</LI>
+ * </UL>
+ * Removing a child still takes a time proportional to the number of children,
+ * to find it in the list and to shift the children after it, but the child is
+ * matched by identity, like the membership test, rather than by equality.
+ * The affected files of nested bulk composites are collected in a single
+ * set, and {@link #reduce()} flattens the nested bulk composites.
+ * <P>
+ * The children have to be added and removed through the methods and
+ * iterators of the composite, not through the list of {@link #getChildren()}.
+ * 
+ * @since 1.7
+ */
+public class BulkCompositeCommand
+    extends CompositeCommand {
+
+    /**
+     * My children, keyed by identity
+     */
+    private final Map childSet = new IdentityHashMap();
+
+    /**
+     * The number of my children having each undo context, as an
+     * <code>int[1]</code>
+     */
+    private final Map contextCounts = new HashMap();
+
+    /**
+     * Initializes me with a label.
+     *
+     * @param label
+     *            a user-readable label
+     */
+    public BulkCompositeCommand(String label) {
+        super(label);
+    }
+
+    /**
+     * Initializes me with a label and a list of child operations. Unlike the
+     * <code>CompositeCommand</code> constructor, the children are added one
+     * by one, so that duplicates are ignored and my undo contexts are the
+     * union of their contexts.
+     *
+     * @param label
+     *            a user-readable label
+     * @param children
+     *            a list of child {@link IUndoableOperation}s
+     */
+    public BulkCompositeCommand(String label, List children) {
+        super(label);
+
+        if (children != null) {
+            for (Iterator i = children.iterator(); i.hasNext();) {
+                add((IUndoableOperation) i.next());
+            }
+        }
+    }
+
+    protected boolean hasChild(Object operation) {
+        return childSet.containsKey(operation);
+    }
+
+    /**
+     * Removes a child operation from me, matching it by identity. Has no
+     * effect, without scanning my children, if I do not contain this
+     * operation as a child.
+     *
+     * @param operation
+     *            a child operation to remove
+     *
+     * @throws IllegalStateException
+     *             if I have already been successfully executed
+     */
+    public void remove(IUndoableOperation operation) {
+
+        assertNotExecuted();
+
+        if (hasChild(operation)) {
+            List children = getChildren();
+
+            // the children removed are usually the last ones added
+            for (int i = children.size() - 1; i >= 0; i--) {
+
+                if (children.get(i) == operation) {
+                    children.remove(i);
+                    didRemove(operation);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the new child and counts its undo contexts, adding those that
+     * none of my other children has.
+     */
+    protected void didAdd(IUndoableOperation operation) {
+        childSet.put(operation, operation);
+
+        IUndoContext[] childContexts = operation.getContexts();
+
+        for (int i = 0; i < childContexts.length; i++) {
+            int[] count = (int[]) contextCounts.get(childContexts[i]);
+
+            if (count == null) {
+                contextCounts.put(childContexts[i], new int[] {1});
+
+                if (!hasContext(childContexts[i])) {
+                    addContext(childContexts[i]);
+                }
+            } else {
+                count[0]++;
+            }
+        }
+    }
+
+    /**
+     * Forgets the removed child and uncounts its undo contexts, removing those
+     * that none of my other children has.
+     */
+    protected void didRemove(IUndoableOperation operation) {
+        childSet.remove(operation);
+
+        IUndoContext[] childContexts = operation.getContexts();
+
+        for (int i = 0; i < childContexts.length; i++) {
+            int[] count = (int[]) contextCounts.get(childContexts[i]);
+
+            if (count != null && --count[0] == 0) {
+                contextCounts.remove(childContexts[i]);
+                removeContext(childContexts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the affected files of my children, without duplicates. The
+     * files of nested bulk composites are collected in the same set rather
+     * than copied from list to list.
+     */
+    public List getAffectedFiles() {
+        Set result = new LinkedHashSet();
+        collectAffectedFiles(result);
+        return new ArrayList(result);
+    }
+
+    /**
+     * Adds the affected files of my children to a set.
+     *
+     * @param result
+     *            the set of affected files
+     */
+    protected void collectAffectedFiles(Set result) {
+
+        for (Iterator i = getChildren().iterator(); i.hasNext();) {
+            Object next = i.next();
+
+            if (next instanceof BulkCompositeCommand) {
+                ((BulkCompositeCommand) next).collectAffectedFiles(result);
+
+            } else if (next instanceof ICommand) {
+                List nextAffected = ((ICommand) next).getAffectedFiles();
+
+                if (nextAffected != null) {
+                    result.addAll(nextAffected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the simplest form of this command that is equivalent. Before I
+     * am executed, the children of the nested composites of my own class are
+     * first moved up into me, in order, so that deeply nested bulk commands
+     * are executed, undone and redone without recursion. Nested composites
+     * that are empty or already executed are kept, as are those of other
+     * classes, whose behavior may differ from mine.
+     *
+     * @return the simplest form of this command that is equivalent
+     */
+    public ICommand reduce() {
+
+        if (!isExecuted()) {
+            List flattened = new ArrayList(size());
+
+            if (flatten(this, flattened)) {
+
+                for (Iterator i = getChildren().iterator(); i.hasNext();) {
+                    didRemove((IUndoableOperation) i.next());
+                }
+                getChildren().clear();
+
+                for (Iterator i = flattened.iterator(); i.hasNext();) {
+                    IUndoableOperation next = (IUndoableOperation) i.next();
+
+                    if (!hasChild(next)) {
+                        getChildren().add(next);
+                        didAdd(next);
+                    }
+                }
+            }
+        }
+        return super.reduce();
+    }
+
+    /**
+     * Adds the children of a composite to a list, replacing the nested
+     * composites that can be flattened by their own children.
+     *
+     * @return <code>true</code> if a nested composite was flattened,
+     *         <code>false</code> otherwise
+     */
+    private boolean flatten(BulkCompositeCommand composite, List result) {
+        boolean flattened = false;
+
+        for (Iterator i = composite.getChildren().iterator(); i.hasNext();) {
+            Object next = i.next();
+
+            if (next != null && next.getClass() == getClass()
+                && !((BulkCompositeCommand) next).isExecuted()
+                && !((BulkCompositeCommand) next).isEmpty()) {
+                flatten((BulkCompositeCommand) next, result);
+                flattened = true;
+            } else {
+                result.add(next);
+            }
+        }
+        return flattened;
+    }
+}
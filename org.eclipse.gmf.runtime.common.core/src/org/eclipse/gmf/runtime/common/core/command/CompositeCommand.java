@@ -142,19 +142,47 @@ public class CompositeCommand
 
         assertNotExecuted();
 
-        if (!getChildren().contains(operation)) {
+        if (!hasChild(operation)) {
             getChildren().add(operation);
             didAdd(operation);
         }
     }
 
+    /**
+     * Queries whether I contain an operation as a child. Used by
+     * {@link #add(IUndoableOperation)} and by my list iterators to ignore
+     * duplicate children. Subclasses may override it to test the membership
+     * faster, keeping their own index of the children up to date in
+     * {@link #didAdd(IUndoableOperation)} and
+     * {@link #didRemove(IUndoableOperation)}.
+     * 
+     * @param operation
+     *            an operation
+     * @return <code>true</code> if the operation is one of my children,
+     *         <code>false</code> otherwise
+     * @since 1.7
+     */
+    protected boolean hasChild(Object operation) {
+        return getChildren().contains(operation);
+    }
+
     /**
      * Updates my undo contexts for the addition of a new child operation.
+     * Called after the operation is added to my children, by
+     * {@link #add(IUndoableOperation)} and by my list iterators; subclasses
+     * that add children to the list of {@link #getChildren()} directly must
+     * call it too.
+     * <p>
+     * Subclasses may override it to keep their own bookkeeping of the
+     * children. An override that does not call the super implementation is
+     * responsible for adding the contexts of the new child to mine.
+     * </p>
      * 
      * @param operation
      *            a new child operation
+     * @since 1.7
      */
-    private void didAdd(IUndoableOperation operation) {
+    protected void didAdd(IUndoableOperation operation) {
         IUndoContext[] childContexts = operation.getContexts();
 
         for (int i = 0; i < childContexts.length; i++) {
@@ -191,12 +219,23 @@ public class CompositeCommand
     }
 
     /**
-     * Updates my undo contexts for the removal of a child operation.
+     * Updates my undo contexts for the removal of a child operation. Called
+     * after the operation is removed from my children, by
+     * {@link #remove(IUndoableOperation)} and by my list iterators;
+     * subclasses that remove children from the list of {@link #getChildren()}
+     * directly must call it too.
+     * <p>
+     * Subclasses may override it to keep their own bookkeeping of the
+     * children. An override that does not call the super implementation is
+     * responsible for removing from mine the contexts that no other child
+     * has.
+     * </p>
      * 
      * @param operation
      *            the child operation that was removed
+     * @since 1.7
      */
-    private void didRemove(IUndoableOperation operation) {
+    protected void didRemove(IUndoableOperation operation) {
         IUndoContext[] childContexts = operation.getContexts();
 
         for (int i = 0; i < childContexts.length; i++) {
@@ -903,7 +942,7 @@ public class CompositeCommand
         public void add(Object o) {
             assertNotExecuted();
 
-            if (!getChildren().contains(o)) {
+            if (!hasChild(o)) {
                 iter.add(o);
                 didAdd((IUndoableOperation) o);
             }
@@ -912,7 +951,7 @@ public class CompositeCommand
         public void set(Object o) {
             assertNotExecuted();
 
-            if (!getChildren().contains(o)) {
+            if (!hasChild(o)) {
                 didRemove((IUndoableOperation) last);
                 iter.set(o);
                 last = o;
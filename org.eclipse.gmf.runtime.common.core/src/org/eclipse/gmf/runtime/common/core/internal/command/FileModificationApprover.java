@@ -14,6 +14,7 @@ package org.eclipse.gmf.runtime.common.core.internal.command;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import org.eclipse.core.commands.operations.IOperationApprover2;
@@ -77,7 +78,8 @@ public class FileModificationApprover
     }
 
     /**
-     * Checks that affected {@link IFile}s can be modified.
+     * Checks that affected {@link IFile}s can be modified. Each distinct file
+     * is checked once, and the files in the workspace are validated together.
      * 
      * @return the approval status
      */
@@ -85,8 +87,8 @@ public class FileModificationApprover
 
         List files = new ArrayList();
 
-        for (Iterator i = fileModifier.getAffectedFiles().iterator(); i
-            .hasNext();) {
+        for (Iterator i = new LinkedHashSet(fileModifier.getAffectedFiles())
+            .iterator(); i.hasNext();) {
             IFile nextFile = (IFile) i.next();
             
             if ( nextFile == null ) 
@@ -391,6 +391,45 @@ public class AbstractProviderConfiguration {
 			
 			return true;
 		}
+
+		/**
+		 * Retrieves the literals that the result of the specified method
+		 * must be one of for this descriptor to apply to a context object,
+		 * when that can be determined without a context object. Only methods
+		 * without parameters that are invoked on the context object itself
+		 * are considered.
+		 * 
+		 * @param methodName
+		 *            The name of a method without parameters, for example
+		 *            <code>getType</code>.
+		 * @return The set of value literals, or <code>null</code> if the
+		 *         result of the method is not restricted to literals.
+		 */
+		public Set getValueLiterals(String methodName) {
+			if (syntaxError)
+				return Collections.EMPTY_SET; // never applies
+			if (contextClassPlugin != null)
+				return null; // the method may be invoked on an adapter
+
+			for (Iterator iter = methods.iterator(); iter.hasNext();) {
+				MethodValueEntry entry = (MethodValueEntry) iter.next();
+				MethodDescriptor method = entry.method;
+
+				try {
+					if (!method.isInitialized())
+						method.initialize();
+				} catch (RuntimeException e) {
+					continue; // the method will not be found either
+				}
+
+				if (methodName.equals(method.getName())
+					&& method.getParameters() == null
+					&& method.getNext() == null
+					&& !entry.value.valueLiterals.isEmpty())
+					return Collections.unmodifiableSet(entry.value.valueLiterals);
+			}
+			return null;
+		}
 	}
 
 	/**
@@ -79,7 +79,7 @@ public abstract class ExecutionStrategy extends EnumeratedType {
 			ProviderPriority priority,
 			IOperation operation) {
 
-			List descriptors = service.getProviders(priority);
+			List descriptors = service.getProviders(priority, operation);
 			int size = descriptors.size();
 
 			for (int i = 0; i < size; ++i) {
@@ -123,7 +123,7 @@ public abstract class ExecutionStrategy extends EnumeratedType {
 				ProviderPriority priority,
 				IOperation operation) {
 
-			List descriptors = service.getProviders(priority);
+			List descriptors = service.getProviders(priority, operation);
 
 			for (int i = descriptors.size(); --i >= 0;) {
 				ProviderDescriptor descriptor = (ProviderDescriptor)descriptors.get(i);
@@ -244,7 +244,7 @@ public abstract class ExecutionStrategy extends EnumeratedType {
 		ProviderPriority priority,
 		IOperation operation) {
 
-		List descriptors = service.getProviders(priority);
+		List descriptors = service.getProviders(priority, operation);
 		int size = descriptors.size();
 		List providers = new ArrayList(size);
 
@@ -0,0 +1,93 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.common.core.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The static criteria of a service provider, usually read from its
+ * {@link AbstractProviderConfiguration}, that a {@link Service} compiles into
+ * a dispatch index so that providers whose criteria cannot match an operation
+ * are not asked if they provide for it.
+ * <P>
+ * The criteria consist of contexts, any of which may match. Each context has
+ * one entry per dispatch dimension of the service (see
+ * {@link Service#getDispatchKeys(IOperation)}): either the set of keys that
+ * the operation must have in that dimension, or <code>null</code> if the
+ * context accepts any key in that dimension.
+ * <P>
+ * Criteria without contexts never match an operation that has dispatch keys.
+ *
+ * @see Service.ProviderDescriptor#getCriteria()
+ */
+public final class ProviderCriteria {
+
+	/**
+	 * The number of dispatch dimensions.
+	 */
+	private final int dimensionCount;
+
+	/**
+	 * The contexts, each an array of key sets indexed by dimension.
+	 */
+	private final List contexts = new ArrayList();
+
+	/**
+	 * Constructs new criteria without contexts.
+	 *
+	 * @param dimensionCount
+	 *            The number of dispatch dimensions of the service.
+	 */
+	public ProviderCriteria(int dimensionCount) {
+		super();
+
+		assert dimensionCount > 0 : "no dispatch dimensions"; //$NON-NLS-1$
+		this.dimensionCount = dimensionCount;
+	}
+
+	/**
+	 * Adds a context to these criteria.
+	 *
+	 * @param keys
+	 *            The set of accepted keys for each dimension, or
+	 *            <code>null</code> for a dimension in which any key is
+	 *            accepted.
+	 */
+	public void addContext(Set[] keys) {
+		assert null != keys : "null keys"; //$NON-NLS-1$
+		assert keys.length == dimensionCount : "wrong number of dimensions"; //$NON-NLS-1$
+
+		contexts.add(keys.clone());
+	}
+
+	/**
+	 * Retrieves the number of dispatch dimensions of these criteria.
+	 *
+	 * @return The number of dispatch dimensions.
+	 */
+	public int getDimensionCount() {
+		return dimensionCount;
+	}
+
+	/**
+	 * Retrieves the contexts of these criteria.
+	 *
+	 * @return The list of contexts, each an array of key sets.
+	 */
+	List getContexts() {
+		return Collections.unmodifiableList(contexts);
+	}
+
+}
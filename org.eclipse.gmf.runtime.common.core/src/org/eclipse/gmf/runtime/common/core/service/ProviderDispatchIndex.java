@@ -0,0 +1,368 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.common.core.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gmf.runtime.common.core.service.Service.ProviderDescriptor;
+
+/**
+ * A discrimination tree over the {@link ProviderCriteria} of the provider
+ * descriptors of one priority. Looking up the candidates for an operation
+ * visits one branch per dispatch dimension (plus the wildcard branch), so its
+ * cost depends on the number of matching providers rather than on the number
+ * of registered providers.
+ * <P>
+ * The tree of an index is immutable once built, so that it may be shared by
+ * the threads of a concurrent service. It is rebuilt when the provider list it
+ * was built from changes. The descriptors whose criteria are dropped later,
+ * typically because their provider has been loaded, are not removed from the
+ * tree but answered for every operation, so that loading the providers one by
+ * one does not rebuild the index each time.
+ */
+final class ProviderDispatchIndex {
+
+	/**
+	 * A node of the discrimination tree. Inner nodes branch on the key of
+	 * their dimension, leaves hold the positions of the matching descriptors.
+	 */
+	private static final class Node {
+
+		/**
+		 * The children keyed by the key of this node's dimension.
+		 */
+		Map children;
+
+		/**
+		 * The child for the descriptors that accept any key.
+		 */
+		Node wildcard;
+
+		/**
+		 * The positions of the matching descriptors while the index is built.
+		 */
+		List positionList;
+
+		/**
+		 * The positions of the matching descriptors, for leaves.
+		 */
+		int[] positions;
+	}
+
+	/**
+	 * The positions of the released descriptors that this index knows of.
+	 * Instances are immutable, so that they may be replaced without locking.
+	 */
+	private static final class Released {
+
+		/**
+		 * The list of released descriptors of the service.
+		 */
+		final List list;
+
+		/**
+		 * The number of descriptors of the list that were looked at.
+		 */
+		final int seen;
+
+		/**
+		 * The positions of the looked at descriptors that have criteria in
+		 * this index.
+		 */
+		final int[] positions;
+
+		Released(List list, int seen, int[] positions) {
+			this.list = list;
+			this.seen = seen;
+			this.positions = positions;
+		}
+	}
+
+	/**
+	 * The provider descriptors this index was built from.
+	 */
+	private final List descriptors;
+
+	/**
+	 * The number of descriptors when this index was built.
+	 */
+	private final int size;
+
+	/**
+	 * The number of dispatch dimensions.
+	 */
+	private final int dimensionCount;
+
+	/**
+	 * The positions, keyed by descriptor, of the descriptors that were
+	 * inserted in the tree with their criteria.
+	 */
+	private final Map constrained = new IdentityHashMap();
+
+	/**
+	 * The released descriptors known to this index, extended on demand.
+	 */
+	private volatile Released released = new Released(null, 0, new int[0]);
+
+	/**
+	 * The positions of the descriptors without criteria, which are candidates
+	 * for every operation.
+	 */
+	private final int[] unconstrained;
+
+	/**
+	 * The root of the discrimination tree.
+	 */
+	private final Node root;
+
+	/**
+	 * Builds a new index over the specified provider descriptors.
+	 *
+	 * @param descriptors
+	 *            The provider descriptors of one priority.
+	 * @param dimensionCount
+	 *            The number of dispatch dimensions of the service.
+	 */
+	ProviderDispatchIndex(List descriptors, int dimensionCount) {
+		super();
+
+		this.descriptors = descriptors;
+		this.size = descriptors.size();
+		this.dimensionCount = dimensionCount;
+		this.root = new Node();
+
+		List unconstrainedList = new ArrayList();
+
+		for (int position = 0; position < size; ++position) {
+			ProviderCriteria criteria = ((ProviderDescriptor) descriptors
+				.get(position)).getCriteria();
+
+			if (null == criteria
+				|| criteria.getDimensionCount() != dimensionCount) {
+				unconstrainedList.add(new Integer(position));
+				continue;
+			}
+
+			for (Iterator i = criteria.getContexts().iterator(); i.hasNext();) {
+				insert(root, 0, (Set[]) i.next(), position);
+			}
+			constrained.put(descriptors.get(position), new Integer(position));
+		}
+
+		this.unconstrained = toArray(unconstrainedList);
+		compile(root, 0);
+	}
+
+	/**
+	 * Answers whether this index still describes the specified provider
+	 * descriptors.
+	 *
+	 * @param list
+	 *            The current provider descriptors of the priority.
+	 * @param dimensions
+	 *            The number of dispatch dimensions of the operation.
+	 * @return <code>true</code> if this index can be used,
+	 *         <code>false</code> if it must be rebuilt.
+	 */
+	boolean isValidFor(List list, int dimensions) {
+		return list == descriptors && list.size() == size
+			&& dimensions == dimensionCount;
+	}
+
+	/**
+	 * Retrieves the provider descriptors that may provide for an operation
+	 * with the specified dispatch keys, in registration order.
+	 *
+	 * @param keys
+	 *            The dispatch keys of the operation, one per dimension.
+	 * @param releasedDescriptors
+	 *            The descriptors of the service whose criteria have been
+	 *            dropped, which are candidates for every operation.
+	 * @return The list of candidate provider descriptors.
+	 */
+	List getCandidates(Object[] keys, List releasedDescriptors) {
+		List found = new ArrayList();
+		int[] releasedPositions = getReleasedPositions(releasedDescriptors);
+		int count = unconstrained.length + releasedPositions.length;
+
+		found.add(unconstrained);
+		found.add(releasedPositions);
+		count += collect(root, 0, keys, found);
+
+		int[] merged = new int[count];
+		int offset = 0;
+
+		for (int i = 0, n = found.size(); i < n; ++i) {
+			int[] positions = (int[]) found.get(i);
+
+			System.arraycopy(positions, 0, merged, offset, positions.length);
+			offset += positions.length;
+		}
+
+		Arrays.sort(merged);
+
+		List candidates = new ArrayList(count);
+
+		for (int i = 0; i < count; ++i) {
+			// a descriptor may be reached through several contexts
+			if (i == 0 || merged[i] != merged[i - 1])
+				candidates.add(descriptors.get(merged[i]));
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Retrieves the positions of the released descriptors that have criteria
+	 * in this index, looking only at the descriptors released since the last
+	 * call.
+	 */
+	private int[] getReleasedPositions(List releasedDescriptors) {
+		Released current = released;
+		int size = releasedDescriptors.size();
+
+		if (current.list == releasedDescriptors && current.seen == size)
+			return current.positions;
+
+		int from = current.list == releasedDescriptors ? current.seen : 0;
+		int[] known = from == 0 ? new int[0] : current.positions;
+		List added = new ArrayList();
+
+		for (int i = from; i < size; ++i) {
+			Object position = constrained.get(releasedDescriptors.get(i));
+
+			if (null != position)
+				added.add(position);
+		}
+
+		int[] positions = known;
+
+		if (!added.isEmpty()) {
+			positions = new int[known.length + added.size()];
+			System.arraycopy(known, 0, positions, 0, known.length);
+			for (int i = 0; i < added.size(); ++i)
+				positions[known.length + i] = ((Integer) added.get(i)).intValue();
+		}
+
+		// a concurrent thread may replace it with an older one, which is as
+		// correct and extended again on the next call
+		released = new Released(releasedDescriptors, size, positions);
+		return positions;
+	}
+
+	/**
+	 * Adds the position arrays of the leaves matching the specified keys.
+	 *
+	 * @return The total number of positions added.
+	 */
+	private int collect(Node node, int dimension, Object[] keys, List found) {
+		if (dimension == dimensionCount) {
+			found.add(node.positions);
+			return node.positions.length;
+		}
+
+		int count = 0;
+
+		if (null != node.children) {
+			Node child = (Node) node.children.get(keys[dimension]);
+
+			if (null != child)
+				count += collect(child, dimension + 1, keys, found);
+		}
+
+		if (null != node.wildcard)
+			count += collect(node.wildcard, dimension + 1, keys, found);
+
+		return count;
+	}
+
+	/**
+	 * Inserts one context of the descriptor at the specified position.
+	 */
+	private void insert(Node node, int dimension, Set[] keys, int position) {
+		if (dimension == dimensionCount) {
+			if (null == node.positionList)
+				node.positionList = new ArrayList();
+
+			node.positionList.add(new Integer(position));
+			return;
+		}
+
+		Set dimensionKeys = keys[dimension];
+
+		if (null == dimensionKeys) {
+			if (null == node.wildcard)
+				node.wildcard = new Node();
+
+			insert(node.wildcard, dimension + 1, keys, position);
+			return;
+		}
+
+		for (Iterator i = dimensionKeys.iterator(); i.hasNext();) {
+			Object key = i.next();
+
+			if (null == node.children)
+				node.children = new HashMap();
+
+			Node child = (Node) node.children.get(key);
+
+			if (null == child) {
+				child = new Node();
+				node.children.put(key, child);
+			}
+
+			insert(child, dimension + 1, keys, position);
+		}
+	}
+
+	/**
+	 * Converts the position lists of the leaves into arrays.
+	 */
+	private void compile(Node node, int dimension) {
+		if (dimension == dimensionCount) {
+			node.positions = toArray(node.positionList);
+			node.positionList = null;
+			return;
+		}
+
+		if (null != node.children) {
+			for (Iterator i = node.children.values().iterator(); i.hasNext();)
+				compile((Node) i.next(), dimension + 1);
+		}
+
+		if (null != node.wildcard)
+			compile(node.wildcard, dimension + 1);
+	}
+
+	/**
+	 * Converts a list of <code>Integer</code>s into an array.
+	 */
+	private static int[] toArray(List list) {
+		if (null == list)
+			return new int[0];
+
+		int[] array = new int[list.size()];
+
+		for (int i = 0; i < array.length; ++i)
+			array[i] = ((Integer) list.get(i)).intValue();
+
+		return array;
+	}
+
+}
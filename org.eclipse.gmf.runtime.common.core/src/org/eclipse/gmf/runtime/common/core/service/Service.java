@@ -12,10 +12,16 @@
 package org.eclipse.gmf.runtime.common.core.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -60,6 +66,10 @@ import org.eclipse.gmf.runtime.common.core.util.Trace;
  * optimized service is not optimistic, it double-checks the contents of the
  * cache to make sure that the cached providers still provide for the operation.
  * </LI>
+ * <LI>concurrent, so that an optimized service can be used from several
+ * threads at once. Its provider lists are copied on write and its cache is a
+ * concurrent map from which only the entries that a changed provider appears
+ * in are dropped, instead of the whole cache being cleared.</LI>
  * </UL>
  * 
  * @see org.eclipse.gmf.runtime.common.core.service
@@ -79,7 +89,7 @@ public abstract class Service
 		extends AbstractProvider
 		implements IProvider, IProviderChangeListener {
 		
-		protected boolean policyInitialized = false;
+		protected volatile boolean policyInitialized = false;
 		
 		private String providerClassName;
 
@@ -107,18 +117,24 @@ public abstract class Service
 		/**
 		 * The provider for which this object is a descriptor.
 		 */
-		protected IProvider provider;
+		protected volatile IProvider provider;
 
 		/**
 		 * The policy associated with this descriptor's provider (if specified).
 		 */
-		protected IProviderPolicy policy;
+		protected volatile IProviderPolicy policy;
 		
 		/**
 		 * Tracks the failure of the provider class intantiation, so that a
 		 * failure to create the class is logged only once.
 		 */
-		private boolean providerClassInstantiationFailed = false;
+		private volatile boolean providerClassInstantiationFailed = false;
+
+		/**
+		 * The services this descriptor is registered with, whose dispatch
+		 * indexes depend on its criteria.
+		 */
+		private final List services = new CopyOnWriteArrayList();
 
 		/**
 		 * Constructs a new provider descriptor for the specified configuration
@@ -151,34 +167,50 @@ public abstract class Service
 		 */
 		public IProvider getProvider() {
 			if (null == provider && !providerClassInstantiationFailed) {
-				CommonCorePlugin corePlugin = CommonCorePlugin.getDefault();
-
-				try {
-					Log.info(corePlugin, CommonCoreStatusCodes.OK, "Activating provider '" + element.getAttribute(A_CLASS) + "'..."); //$NON-NLS-1$ //$NON-NLS-2$
-					provider = (IProvider)element.createExecutableExtension(A_CLASS);
-					provider.addProviderChangeListener(this);
-					Trace.trace(corePlugin, CommonCoreDebugOptions.SERVICES_ACTIVATE, "Provider '" + provider + "' activated."); //$NON-NLS-1$ //$NON-NLS-2$
-				
-				} catch (CoreException ce) {
-					
-					if (provider == null) {
-						// remember that the provider class could not be instantiated
-						providerClassInstantiationFailed = true;
+				synchronized (this) {
+					if (null == provider && !providerClassInstantiationFailed) {
+						createProvider();
 					}
-					
-					Trace.catching(corePlugin, CommonCoreDebugOptions.EXCEPTIONS_CATCHING, getClass(), "getProvider", ce); //$NON-NLS-1$
-					IStatus status = ce.getStatus();
-					Log.log(
-						corePlugin,
-						status.getSeverity(),
-						CommonCoreStatusCodes.SERVICE_FAILURE,
-						CommonCoreMessages.bind(CommonCoreMessages.serviceProviderNotActivated, element.getAttribute(A_CLASS)),
-						status.getException());
 				}
 			}
 			return provider;
 		}
 
+		/**
+		 * Instantiates the class described by this provider descriptor's
+		 * configuration element. Callers must hold the lock on this descriptor.
+		 */
+		private void createProvider() {
+			CommonCorePlugin corePlugin = CommonCorePlugin.getDefault();
+
+			try {
+				Log.info(corePlugin, CommonCoreStatusCodes.OK, "Activating provider '" + element.getAttribute(A_CLASS) + "'..."); //$NON-NLS-1$ //$NON-NLS-2$
+				IProvider newProvider = (IProvider)element.createExecutableExtension(A_CLASS);
+				newProvider.addProviderChangeListener(this);
+				// publish only once fully initialized, other threads may be reading
+				provider = newProvider;
+				// the criteria of a descriptor no longer apply once its provider is loaded
+				criteriaChanged();
+				Trace.trace(corePlugin, CommonCoreDebugOptions.SERVICES_ACTIVATE, "Provider '" + provider + "' activated."); //$NON-NLS-1$ //$NON-NLS-2$
+			
+			} catch (CoreException ce) {
+				
+				if (provider == null) {
+					// remember that the provider class could not be instantiated
+					providerClassInstantiationFailed = true;
+				}
+				
+				Trace.catching(corePlugin, CommonCoreDebugOptions.EXCEPTIONS_CATCHING, getClass(), "getProvider", ce); //$NON-NLS-1$
+				IStatus status = ce.getStatus();
+				Log.log(
+					corePlugin,
+					status.getSeverity(),
+					CommonCoreStatusCodes.SERVICE_FAILURE,
+					CommonCoreMessages.bind(CommonCoreMessages.serviceProviderNotActivated, element.getAttribute(A_CLASS)),
+					status.getException());
+			}
+		}
+
 		/**
 		 * Retrieves the policy associated with this descriptor's provider (if
 		 * specified). Lazy-initializes the value by instantiating the class
@@ -190,38 +222,51 @@ public abstract class Service
 		 */
 		protected IProviderPolicy getPolicy() {
 			if (!policyInitialized) {
-				policyInitialized = true;
-				IConfigurationElement[] elements = element.getChildren(E_POLICY);
-				working: {
-					if (elements.length == 0) 
-						break working; // no child elements
-
-					CommonCorePlugin corePlugin = CommonCorePlugin.getDefault();
-
-					try {
-						Log.info(corePlugin, CommonCoreStatusCodes.OK, "Activating provider policy '" + elements[0].getAttribute(A_CLASS) + "'..."); //$NON-NLS-1$ //$NON-NLS-2$
-
-						// the following results in a core dump on Solaris if
-						// the policy plug-in cannot be found
-						
-						policy = (IProviderPolicy)element.createExecutableExtension(E_POLICY);
-						
-						Trace.trace(corePlugin, CommonCoreDebugOptions.SERVICES_ACTIVATE, "Provider policy '" + policy + "' activated."); //$NON-NLS-1$ //$NON-NLS-2$
-					} catch (CoreException ce) {
-						Trace.catching(corePlugin, CommonCoreDebugOptions.EXCEPTIONS_CATCHING, getClass(), "getPolicy", ce); //$NON-NLS-1$
-						IStatus status = ce.getStatus();
-						Log.log(
-							corePlugin,
-							status.getSeverity(),
-							CommonCoreStatusCodes.SERVICE_FAILURE,
-							status.getMessage(),
-							status.getException());
+				synchronized (this) {
+					if (!policyInitialized) {
+						createPolicy();
+						// set only after the policy is assigned, other threads
+						// skip the lock as soon as they see the flag
+						policyInitialized = true;
 					}
 				}
 			}
 			return policy;
 		}
 
+		/**
+		 * Instantiates the policy class described by this provider
+		 * descriptor's configuration element, if specified. Callers must hold
+		 * the lock on this descriptor.
+		 */
+		private void createPolicy() {
+			IConfigurationElement[] elements = element.getChildren(E_POLICY);
+			if (elements.length == 0) 
+				return; // no child elements
+
+			CommonCorePlugin corePlugin = CommonCorePlugin.getDefault();
+
+			try {
+				Log.info(corePlugin, CommonCoreStatusCodes.OK, "Activating provider policy '" + elements[0].getAttribute(A_CLASS) + "'..."); //$NON-NLS-1$ //$NON-NLS-2$
+
+				// the following results in a core dump on Solaris if
+				// the policy plug-in cannot be found
+				
+				policy = (IProviderPolicy)element.createExecutableExtension(E_POLICY);
+				
+				Trace.trace(corePlugin, CommonCoreDebugOptions.SERVICES_ACTIVATE, "Provider policy '" + policy + "' activated."); //$NON-NLS-1$ //$NON-NLS-2$
+			} catch (CoreException ce) {
+				Trace.catching(corePlugin, CommonCoreDebugOptions.EXCEPTIONS_CATCHING, getClass(), "getPolicy", ce); //$NON-NLS-1$
+				IStatus status = ce.getStatus();
+				Log.log(
+					corePlugin,
+					status.getSeverity(),
+					CommonCoreStatusCodes.SERVICE_FAILURE,
+					status.getMessage(),
+					status.getException());
+			}
+		}
+
 		/**
 		 * Indicates whether this provider descriptor can provide the
 		 * functionality described by the specified <code>operation</code>.
@@ -268,6 +313,53 @@ public abstract class Service
 				safeProvides(theProvider, operation) : false;
 		}
 
+		/**
+		 * Retrieves the static criteria of this descriptor, which the service
+		 * compiles into a dispatch index (see
+		 * {@link Service#getDispatchKeys(IOperation)}).
+		 * <P>
+		 * A descriptor that returns criteria promises that
+		 * {@link #provides(IOperation)} answers <code>false</code> for every
+		 * operation whose dispatch keys match none of the criteria contexts.
+		 * Whenever this stops being true, for example because the provider
+		 * has been loaded and is asked directly, subclasses must return
+		 * <code>null</code> from then on and call {@link #criteriaChanged()}.
+		 * <P>
+		 * By default, descriptors have no criteria and are asked about every
+		 * operation.
+		 * 
+		 * @return The criteria of this descriptor, or <code>null</code> if
+		 *         this descriptor must be asked about every operation.
+		 */
+		protected ProviderCriteria getCriteria() {
+			return null;
+		}
+
+		/**
+		 * Notifies the services this descriptor is registered with that
+		 * {@link #getCriteria()} now returns <code>null</code>, so that their
+		 * dispatch indexes consider this descriptor a candidate for every
+		 * operation. The indexes are not rebuilt, so that loading the
+		 * providers one by one does not rebuild them once per provider.
+		 */
+		protected final void criteriaChanged() {
+			for (Iterator i = services.iterator(); i.hasNext();) {
+				((Service) i.next()).criteriaChanged(this);
+			}
+		}
+
+		/**
+		 * Answers whether the configuration element of this descriptor
+		 * declares a policy. Descriptors with a policy ask it about every
+		 * operation, so they cannot have criteria.
+		 * 
+		 * @return <code>true</code> if a policy is declared,
+		 *         <code>false</code> otherwise.
+		 */
+		protected final boolean hasPolicyElement() {
+			return element != null && element.getChildren(E_POLICY).length != 0;
+		}
+
 		/**
 		 * Handles an event indicating that a provider has changed.
 		 * 
@@ -339,7 +431,7 @@ public abstract class Service
 	 * List of providers class names that have thrown exceptions in the provides() method.
 	 * Used to prevent logging repeatedly for the same failed provider.
 	 */
-	private static final List ignoredProviders = new ArrayList();
+	private static final List ignoredProviders = Collections.synchronizedList(new ArrayList());
 
 	/**
 	 * The cache of providers (for optimization) indexed by
@@ -348,15 +440,56 @@ public abstract class Service
 	private final Map[] cache;
 
 	/**
-	 * The lists of registered providers.
+	 * The lists of registered providers indexed by {@link ProviderPriority}
+	 * ordinals. A concurrent service never modifies a published array or its
+	 * lists; it replaces the whole array instead.
 	 */
-	private final ArrayList[] providers;
+	private volatile List[] providers;
 	
 	/**
 	 * Whether the service uses optimistic caching.
 	 */
 	private final boolean optimistic;
 
+	/**
+	 * Whether the service may be used from several threads at once.
+	 */
+	private final boolean concurrent;
+
+	/**
+	 * The cache generations of a concurrent service indexed by
+	 * {@link ProviderPriority} ordinals. A generation is incremented whenever
+	 * the cache of its priority is invalidated, so that a provider list which
+	 * was computed while the providers changed is not left in the cache.
+	 */
+	private final AtomicInteger[] generations;
+
+	/**
+	 * The lock guarding modifications of the provider lists of a concurrent
+	 * service.
+	 */
+	private final Object providersLock = new Object();
+
+	/**
+	 * The dispatch indexes of the providers indexed by
+	 * {@link ProviderPriority} ordinals, built on demand. An index is
+	 * immutable, so it may be built by one thread and used by others.
+	 */
+	private final AtomicReferenceArray dispatchIndexes = new AtomicReferenceArray(priorityCount);
+
+	/**
+	 * The provider descriptors of this service whose criteria have been
+	 * dropped since they were registered, in the order they were dropped.
+	 * The dispatch indexes answer them for every operation. The list is only
+	 * appended to, except when a provider is removed, which replaces it.
+	 */
+	private volatile List releasedDescriptors = new CopyOnWriteArrayList();
+
+	/**
+	 * The lock guarding modifications of the released descriptors.
+	 */
+	private final Object releasedLock = new Object();
+
 	/**
 	 * Constructs a new service that is not optimized.
 	 */
@@ -407,23 +540,64 @@ public abstract class Service
 	 *            <code>false</code> otherwise.
 	 */
 	protected Service(boolean optimized, boolean optimistic) {
+		this(optimized, optimistic, false);
+	}
+
+	/**
+	 * Constructs a new service that is (not) optimized, optimistic and
+	 * concurrent as specified.
+	 * <P>
+	 * If the optimized service is concurrent, operations may be executed from
+	 * several threads at once while providers are added, removed or changed.
+	 * Its provider lists are copied on write, and its cache is created by
+	 * {@link #createConcurrentPriorityCache()}. When a provider is removed or
+	 * changed only the cached entries containing that provider are dropped.
+	 * <P>
+	 * The value of <code>concurrent</code> is meaningless if
+	 * <code>optimized</code> is false.
+	 * 
+	 * @param optimized
+	 *            <code>true</code> if the new service is optimized,
+	 *            <code>false</code> otherwise.
+	 * @param optimistic
+	 *            <code>true</code> if the new service uses optmistic caching,
+	 *            <code>false</code> otherwise.
+	 * @param concurrent
+	 *            <code>true</code> if the new service may be used from
+	 *            several threads at once, <code>false</code> otherwise.
+	 */
+	protected Service(boolean optimized, boolean optimistic, boolean concurrent) {
 		super();
 
+		this.concurrent = optimized && concurrent;
+
 		if (optimized) {
 			cache = new Map[priorityCount];
 
 			for (int ordinal = priorityCount; --ordinal >= 0;) {
-				cache[ordinal] = createPriorityCache();
+				cache[ordinal] = this.concurrent ? createConcurrentPriorityCache()
+					: createPriorityCache();
 			}
 		} else {
 			cache = null;
 		}
 		this.optimistic = optimistic;
 
-		providers = new ArrayList[priorityCount];
+		if (this.concurrent) {
+			generations = new AtomicInteger[priorityCount];
+
+			for (int ordinal = priorityCount; --ordinal >= 0;)
+				generations[ordinal] = new AtomicInteger();
+		} else {
+			generations = null;
+		}
+
+		List[] initialProviders = new List[priorityCount];
 
 		for (int ordinal = priorityCount; --ordinal >= 0;)
-			providers[ordinal] = new ArrayList(0);
+			initialProviders[ordinal] = new ArrayList(0);
+
+		providers = initialProviders;
 	}
 
 	/**
@@ -435,6 +609,21 @@ public abstract class Service
 	protected Map createPriorityCache() {
 		return new WeakHashMap();
 	}
+
+	/**
+	 * Creates a map for caching service providers keyed by the values
+	 * returned in {@link #getCachingKey(IOperation)}, for use by a concurrent
+	 * service.
+	 * <P>
+	 * The default map holds its keys strongly, so concurrent services should
+	 * override {@link #getCachingKey(IOperation)} to return small value
+	 * objects (such as strings) rather than the operations themselves.
+	 * 
+	 * @return the new map
+	 */
+	protected ConcurrentMap createConcurrentPriorityCache() {
+		return new ConcurrentHashMap();
+	}
 	
 	/**
 	 * Gets the key used to cache service providers that provide for
@@ -448,6 +637,24 @@ public abstract class Service
 		return operation;
 	}
 
+	/**
+	 * Gets the dispatch keys of <code>operation</code>, one per dispatch
+	 * dimension of this service, which are matched against the
+	 * {@link ProviderCriteria} of the provider descriptors. Only the
+	 * descriptors whose criteria match the keys (or that have no criteria)
+	 * are asked if they provide for the operation.
+	 * <P>
+	 * A service must always return the same number of keys. By default,
+	 * operations have no dispatch keys and all descriptors are asked.
+	 * 
+	 * @param operation <code>IOperation</code> for which the keys will be retrieved
+	 * @return the dispatch keys, or <code>null</code> if all descriptors must
+	 *         be asked about the operation
+	 */
+	protected Object[] getDispatchKeys(IOperation operation) {
+		return null;
+	}
+
 	/**
 	 * Answers whether or not this service is optimized by caching its service
 	 * providers.
@@ -482,13 +689,69 @@ public abstract class Service
 		return optimistic;
 	}
 
+	/**
+	 * Answers whether or not this service may be used from several threads at
+	 * once. This value is only <code>true</code> if {@link #isOptimized()}
+	 * returns <code>true</code>.
+	 * 
+	 * @return <code>true</code> if the service is concurrent,
+	 *         <code>false</code> otherwise.
+	 */
+	protected final boolean isConcurrent() {
+		return concurrent;
+	}
+
 	/**
 	 * Clears the service provider cache (if this service is optimized).
 	 */
 	protected final void clearCache() {
 		if (null != cache) {
 			for (int ordinal = priorityCount; --ordinal >= 0;) {
-				cache[ordinal].clear();
+				clearCache(ordinal);
+			}
+		}
+	}
+
+	/**
+	 * Clears the service provider cache for the priority with the specified
+	 * <code>ordinal</code>.
+	 * 
+	 * @param ordinal
+	 *            The ordinal of the priority whose cache is to be cleared.
+	 */
+	private void clearCache(int ordinal) {
+		if (null != generations) {
+			generations[ordinal].incrementAndGet();
+		}
+		cache[ordinal].clear();
+	}
+
+	/**
+	 * Drops the cache entries of a concurrent service that contain the
+	 * specified <code>provider</code>, leaving all other entries in place.
+	 * 
+	 * @param ordinal
+	 *            The ordinal of the priority whose cache is to be updated, or
+	 *            <code>-1</code> to update the caches of all priorities.
+	 * @param provider
+	 *            The provider whose entries are to be dropped.
+	 */
+	private void invalidateCache(int ordinal, IProvider provider) {
+		int first = ordinal < 0 ? 0 : ordinal;
+		int last = ordinal < 0 ? priorityCount - 1 : ordinal;
+
+		for (int i = first; i <= last; ++i) {
+			generations[i].incrementAndGet();
+
+			for (Iterator entries = cache[i].entrySet().iterator(); entries.hasNext();) {
+				List providerList = (List) ((Map.Entry) entries.next()).getValue();
+
+				for (int j = providerList.size(); --j >= 0;) {
+					if (providerList.get(j) == provider) {
+						entries.remove();
+						break;
+					}
+				}
 			}
 		}
 	}
@@ -506,6 +769,75 @@ public abstract class Service
 		return providers[priority.getOrdinal()];
 	}
 
+	/**
+	 * Retrieves the list of the providers registered with this service that
+	 * have the specified <code>priority</code> and may provide for the
+	 * specified <code>operation</code>, according to their criteria.
+	 * <P>
+	 * This method does not consider the optimized state of the service.
+	 * @param priority
+	 *            The priority of providers to be retrieved.
+	 * @param operation
+	 *            The operation that the providers must provide.
+	 * @return A list of candidate providers of the specified priority, in
+	 *         registration order.
+	 */
+	final List getProviders(ProviderPriority priority, IOperation operation) {
+		int ordinal = priority.getOrdinal();
+		List descriptors = providers[ordinal];
+		Object[] keys = getDispatchKeys(operation);
+
+		if (null == keys || descriptors.isEmpty())
+			return descriptors;
+
+		ProviderDispatchIndex index = (ProviderDispatchIndex) dispatchIndexes
+			.get(ordinal);
+
+		if (null == index || !index.isValidFor(descriptors, keys.length)) {
+			index = new ProviderDispatchIndex(descriptors, keys.length);
+			dispatchIndexes.set(ordinal, index);
+		}
+
+		// read after the index is built, so that the descriptors released
+		// while it was built are answered too
+		return index.getCandidates(keys, releasedDescriptors);
+	}
+
+	/**
+	 * Notes that the criteria of one of the provider descriptors of this
+	 * service have been dropped, so that the dispatch indexes answer it for
+	 * every operation.
+	 * 
+	 * @param descriptor
+	 *            The descriptor whose criteria have been dropped.
+	 */
+	final void criteriaChanged(ProviderDescriptor descriptor) {
+		synchronized (releasedLock) {
+			releasedDescriptors.add(descriptor);
+		}
+	}
+
+	/**
+	 * Forgets a removed provider descriptor whose criteria have been dropped.
+	 * The list is replaced rather than modified, since the dispatch indexes
+	 * remember how much of it they have seen.
+	 * 
+	 * @param descriptor
+	 *            The removed descriptor.
+	 */
+	private void forgetReleased(ProviderDescriptor descriptor) {
+		synchronized (releasedLock) {
+			if (releasedDescriptors.contains(descriptor)) {
+				List newList = new CopyOnWriteArrayList(releasedDescriptors);
+
+				while (newList.remove(descriptor)) {
+					// removed every occurrence
+				}
+				releasedDescriptors = newList;
+			}
+		}
+	}
+
 	/**
 	 * Retrieves a list of providers of the specified <code>priority</code>
 	 * that provide for the specified <code>operation</code>.
@@ -536,8 +868,9 @@ public abstract class Service
 		if (null == cache) {
 			providerList = strategy.getUncachedProviders(this, priority, operation);
 		} else {
+			int ordinal = priority.getOrdinal();
 			Object cachingKey = getCachingKey(operation);
-			Map map = cache[priority.getOrdinal()];
+			Map map = cache[ordinal];
 			providerList = (List)map.get(cachingKey);
 
 			if (null != providerList) {
@@ -559,8 +892,21 @@ public abstract class Service
 				}
 			}
 
-			providerList = strategy.getUncachedProviders(this, priority, operation);
-			map.put(cachingKey, providerList);
+			if (concurrent) {
+				AtomicInteger generation = generations[ordinal];
+				int expected = generation.get();
+
+				providerList = strategy.getUncachedProviders(this, priority, operation);
+				map.put(cachingKey, providerList);
+
+				if (expected != generation.get()) {
+					// the providers changed while the list was computed
+					((ConcurrentMap) map).remove(cachingKey, providerList);
+				}
+			} else {
+				providerList = strategy.getUncachedProviders(this, priority, operation);
+				map.put(cachingKey, providerList);
+			}
 		}
 
 		return providerList;
@@ -572,17 +918,18 @@ public abstract class Service
 	 * @return A list of all providers of all priorities.
 	 */
 	protected final List getAllProviders() {
+		List[] allLists = providers;
 		int i;
 		int n = priorityCount;
 		int total;
 
 		for (i = n, total = 0; --i >= 0;)
-			total += providers[i].size();
+			total += allLists[i].size();
 
 		List allProviders = new ArrayList(total);
 
 		for (i = 0; i < n; ++i)
-			allProviders.addAll(providers[i]);
+			allProviders.addAll(allLists[i]);
 
 		return allProviders;
 	}
@@ -605,12 +952,32 @@ public abstract class Service
 
 		int ordinal = priority.getOrdinal();
 
+		if (concurrent) {
+			synchronized (providersLock) {
+				List[] newProviders = (List[]) providers.clone();
+				List newList = new ArrayList(newProviders[ordinal].size() + 1);
+
+				newList.addAll(newProviders[ordinal]);
+				newList.add(provider);
+				newProviders[ordinal] = newList;
+				providers = newProviders;
+			}
+
+			// a new provider may provide for any cached operation
+			clearCache(ordinal);
+			provider.addProviderChangeListener(this);
+			provider.services.add(this);
+			return;
+		}
+
 		if (null != cache) {
 			cache[ordinal].clear();
 		}
 
 		providers[ordinal].add(provider);
+		dispatchIndexes.set(ordinal, null);
 		provider.addProviderChangeListener(this);
+		provider.services.add(this);
 	}
 
 	/**
@@ -622,9 +989,41 @@ public abstract class Service
 	protected final void removeProvider(ProviderDescriptor provider) {
 		assert null != provider : "null provider"; //$NON-NLS-1$
 		
+		if (concurrent) {
+			int ordinal = -1;
+
+			synchronized (providersLock) {
+				List[] newProviders = providers;
+
+				for (int i = 0, n = priorityCount; i < n; ++i) {
+					if (newProviders[i].contains(provider)) {
+						List newList = new ArrayList(newProviders[i]);
+
+						newList.remove(provider);
+						newProviders = (List[]) newProviders.clone();
+						newProviders[i] = newList;
+						providers = newProviders;
+						ordinal = i;
+						break;
+					}
+				}
+			}
+
+			if (ordinal >= 0) {
+				provider.removeProviderChangeListener(this);
+				provider.services.remove(this);
+				forgetReleased(provider);
+				invalidateCache(ordinal, provider.provider);
+			}
+			return;
+		}
+
 		for (int i = 0, n = priorityCount; i < n; ++i) {
 			if (providers[i].remove(provider)) {
+				dispatchIndexes.set(i, null);
 				provider.removeProviderChangeListener(this);
+				provider.services.remove(this);
+				forgetReleased(provider);
 				clearCache();
 				break;
 			}
@@ -696,9 +1095,11 @@ public abstract class Service
 	public final boolean provides(IOperation operation) {
 		assert null != operation : "null operation passed to provides(IOperation)"; //$NON-NLS-1$
 
+		List[] allLists = providers;
+
 		for (int priority = 0, n = priorityCount; priority < n; ++priority)
 		{
-			List providerList = providers[priority];
+			List providerList = allLists[priority];
 			int providerCount = providerList.size();
 
 			for (int provider = 0; provider < providerCount; ++provider)
@@ -751,6 +1152,11 @@ public abstract class Service
 	public final void providerChanged(ProviderChangeEvent event) {
 		assert null != event : "null event"; //$NON-NLS-1$
 
+		if (concurrent) {
+			// the source is still the provider that changed
+			invalidateCache(-1, (IProvider) event.getSource());
+		}
+
 		event.setSource(this);
 		fireProviderChange(event);
 	}
@@ -808,8 +1214,12 @@ public abstract class Service
 			}
 		}
 
-		for (int i = priorityCount; --i >= 0;)
-			providers[i].trimToSize();
+		List[] allLists = providers;
+
+		for (int i = priorityCount; --i >= 0;) {
+			if (allLists[i] instanceof ArrayList)
+				((ArrayList) allLists[i]).trimToSize();
+		}
 	}
 
 	/**
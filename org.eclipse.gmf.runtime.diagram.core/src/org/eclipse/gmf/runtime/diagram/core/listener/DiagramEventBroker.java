@@ -25,10 +25,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.emf.common.command.Command;
 import org.eclipse.emf.common.command.CompoundCommand;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EAnnotation;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.transaction.NotificationFilter;
@@ -36,6 +38,8 @@ import org.eclipse.emf.transaction.ResourceSetChangeEvent;
 import org.eclipse.emf.transaction.ResourceSetListenerImpl;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.emf.workspace.EMFOperationCommand;
+import org.eclipse.gmf.runtime.common.core.util.Log;
+import org.eclipse.gmf.runtime.diagram.core.internal.DiagramPlugin;
 import org.eclipse.gmf.runtime.diagram.core.internal.commands.PersistViewsCommand;
 import org.eclipse.gmf.runtime.diagram.core.services.DiagramEventBrokerService;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
@@ -55,6 +59,8 @@ public class DiagramEventBroker
 
     private static String LISTEN_TO_ALL_FEATURES = "*"; //$NON-NLS-1$
 
+    private static final Object[] NO_LISTENERS = new Object[0];
+
     /** listener map */
     private final NotifierToKeyToListenersSetMap preListeners = new NotifierToKeyToListenersSetMap();
 
@@ -63,6 +69,28 @@ public class DiagramEventBroker
     private static final Map instanceMap = new WeakHashMap();
     
     private WeakReference editingDomainRef;
+
+    /**
+     * The runnables to run once all post commit notifications of the resource
+     * set change event being handled have been fired, or <code>null</code>
+     * if no event is being handled.
+     */
+    private List postNotificationRunnables = null;
+
+    /**
+     * Whether the subclass looks up the interested listeners itself.
+     */
+    private final boolean overridesListenerLookup = overrides(
+        "getInterestedNotificationListeners", //$NON-NLS-1$
+        new Class[] {Notification.class, NotifierToKeyToListenersSetMap.class});
+
+    /**
+     * Whether the notification being fired is followed by another
+     * notification that sets or unsets the same feature of the same notifier.
+     * Cleared while the event of a nested transaction is handled, so that its
+     * notifications are not taken for superseded ones.
+     */
+    private boolean firingSupersededNotification = false;
     
     /**
      * returns the pre commit listeners map
@@ -83,6 +111,11 @@ public class DiagramEventBroker
     /**
      * Utility class representing a Map of Notifier to a Map of Keys to a Set of
      * listener
+     * <P>
+     * For each notifier, the listeners interested in a feature are merged with
+     * the listeners interested in all features into an array indexed by the
+     * feature ID, which is reused for every notification until the listeners
+     * of the notifier change.
      * 
      * @author mmostafa
      */
@@ -93,6 +126,11 @@ public class DiagramEventBroker
          */
         private final Map listenersMap = new WeakHashMap();
 
+        /**
+         * the number of registrations of {@link StateNotificationListener}s
+         */
+        private int stateListenerCount = 0;
+
         /**
          * Adds a listener to the map
          * 
@@ -105,17 +143,23 @@ public class DiagramEventBroker
          *            the listener
          */
         public void addListener(EObject notifier, Object key, Object listener) {
-            Map keys = (Map) listenersMap.get(notifier);
-            if (keys == null) {
-                keys = new HashMap(4);
-                listenersMap.put(notifier, keys);
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            if (notifierListeners == null) {
+                notifierListeners = new NotifierListeners(notifier.eClass());
+                listenersMap.put(notifier, notifierListeners);
             }
-            Map listenersSet = (Map) keys.get(key);
+            Map listenersSet = (Map) notifierListeners.keys.get(key);
             if (listenersSet == null) {
                 listenersSet = new LinkedHashMap(4);
-                keys.put(key, listenersSet);
+                notifierListeners.keys.put(key, listenersSet);
+            }
+            if (!listenersSet.containsKey(listener)) {
+                listenersSet.put(listener,null);
+                notifierListeners.listenersChanged();
+                if (listener instanceof StateNotificationListener) {
+                    stateListenerCount++;
+                }
             }
-            listenersSet.put(listener,null);
         }
 
         /**
@@ -137,11 +181,18 @@ public class DiagramEventBroker
          * @param listener
          */
         public void removeListener(EObject notifier, Object key, Object listener) {
-            Map keys = (Map) listenersMap.get(notifier);
-            if (keys != null) {
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            if (notifierListeners != null) {
+                Map keys = notifierListeners.keys;
                 Map listenersSet = (Map) keys.get(key);
                 if (listenersSet != null) {
-                    listenersSet.remove(listener);
+                    if (listenersSet.containsKey(listener)) {
+                        listenersSet.remove(listener);
+                        notifierListeners.listenersChanged();
+                        if (listener instanceof StateNotificationListener) {
+                            stateListenerCount--;
+                        }
+                    }
                     if (listenersSet.isEmpty()) {
                         keys.remove(key);
                     }
@@ -159,9 +210,9 @@ public class DiagramEventBroker
          * @return <code>Set</code> of listeners
          */
         public Set getListeners(Object notifier, Object key) {
-            Map keys = (Map) listenersMap.get(notifier);
-            if (keys != null) {
-                Map listenersSet = (Map) keys.get(key);
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            if (notifierListeners != null) {
+                Map listenersSet = (Map) notifierListeners.keys.get(key);
                 if (listenersSet != null) {
                     return listenersSet.keySet();
                 }
@@ -176,17 +227,13 @@ public class DiagramEventBroker
          * @return
          */
         public Set getAllListeners(Object notifier) {
-            Map keys = (Map) listenersMap.get(notifier);
-            if (keys == null || keys.isEmpty()) {
+            Object[] listeners = getAllListenersArray(notifier);
+            if (listeners.length == 0) {
                 return Collections.EMPTY_SET;
             }
             Set listenersCollection = new LinkedHashSet();
-            Set enteries = keys.entrySet();
-            for (Iterator iter = enteries.iterator(); iter.hasNext();) {
-                Map.Entry entry = (Map.Entry) iter.next();
-                Map listenersSet = (Map) entry.getValue();
-                if (listenersSet != null && !listenersSet.isEmpty())
-                    listenersCollection.addAll(listenersSet.keySet());
+            for (int i = 0; i < listeners.length; i++) {
+                listenersCollection.add(listeners[i]);
             }
             return listenersCollection;
         }
@@ -194,6 +241,165 @@ public class DiagramEventBroker
         public boolean isEmpty() {
             return listenersMap.isEmpty();
         }
+
+        /**
+         * Answers whether any {@link StateNotificationListener} is
+         * registered.
+         * 
+         * @return <code>true</code> if there are state listeners
+         */
+        boolean hasStateListeners() {
+            return stateListenerCount > 0;
+        }
+
+        /**
+         * Gets the listeners of the passed notifier that listen to all
+         * features.
+         * 
+         * @param notifier
+         * @return the listeners; the array must not be modified
+         */
+        Object[] getWildcardListenersArray(Object notifier) {
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            return notifierListeners == null ? NO_LISTENERS
+                : notifierListeners.getWildcardListeners();
+        }
+
+        /**
+         * Gets all listeners of the passed notifier, whatever their key.
+         * 
+         * @param notifier
+         * @return the listeners; the array must not be modified
+         */
+        Object[] getAllListenersArray(Object notifier) {
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            return notifierListeners == null ? NO_LISTENERS
+                : notifierListeners.getAllListeners();
+        }
+
+        /**
+         * Gets the listeners of the passed notifier that are interested in
+         * the passed feature, followed by the ones that listen to all
+         * features.
+         * 
+         * @param notifier
+         * @param feature
+         *            the feature, or <code>null</code> to get all listeners
+         * @return the listeners; the array must not be modified
+         */
+        Object[] getFeatureListenersArray(Object notifier, Object feature) {
+            NotifierListeners notifierListeners = (NotifierListeners) listenersMap.get(notifier);
+            if (notifierListeners == null) {
+                return NO_LISTENERS;
+            }
+            if (feature == null || feature.equals(LISTEN_TO_ALL_FEATURES)) {
+                return notifierListeners.getAllListeners();
+            }
+            return notifierListeners.getFeatureListeners(feature);
+        }
+    }
+
+    /**
+     * The listeners of one notifier.
+     */
+    private static final class NotifierListeners {
+
+        /**
+         * the class of the notifier, that gives the feature IDs
+         */
+        private final EClass eClass;
+
+        /**
+         * [key, ordered set of listeners] map
+         */
+        final Map keys = new HashMap(4);
+
+        /**
+         * the listeners of each feature of the notifier merged with the
+         * wildcard listeners, indexed by feature ID, or <code>null</code>
+         * until needed
+         */
+        private Object[][] featureListeners;
+
+        /**
+         * the wildcard listeners, or <code>null</code> until needed
+         */
+        private Object[] wildcardListeners;
+
+        /**
+         * all listeners, or <code>null</code> until needed
+         */
+        private Object[] allListeners;
+
+        NotifierListeners(EClass eClass) {
+            this.eClass = eClass;
+        }
+
+        /**
+         * Discards the merged listener arrays. The arrays that were handed
+         * out are left as they are.
+         */
+        void listenersChanged() {
+            featureListeners = null;
+            wildcardListeners = null;
+            allListeners = null;
+        }
+
+        Object[] getWildcardListeners() {
+            if (wildcardListeners == null) {
+                Map listenersSet = (Map) keys.get(LISTEN_TO_ALL_FEATURES);
+                wildcardListeners = listenersSet == null ? NO_LISTENERS
+                    : listenersSet.keySet().toArray();
+            }
+            return wildcardListeners;
+        }
+
+        Object[] getAllListeners() {
+            if (allListeners == null) {
+                Set listenersCollection = new LinkedHashSet();
+                for (Iterator iter = keys.values().iterator(); iter.hasNext();) {
+                    listenersCollection.addAll(((Map) iter.next()).keySet());
+                }
+                allListeners = listenersCollection.isEmpty() ? NO_LISTENERS
+                    : listenersCollection.toArray();
+            }
+            return allListeners;
+        }
+
+        Object[] getFeatureListeners(Object feature) {
+            int featureID = feature instanceof EStructuralFeature && eClass != null
+                ? eClass.getFeatureID((EStructuralFeature) feature)
+                : -1;
+            if (featureID < 0) {
+                // not a feature of the notifier, do not cache
+                return mergeFeatureListeners(feature);
+            }
+            if (featureListeners == null) {
+                featureListeners = new Object[eClass.getFeatureCount()][];
+            }
+            Object[] listeners = featureListeners[featureID];
+            if (listeners == null) {
+                listeners = mergeFeatureListeners(feature);
+                featureListeners[featureID] = listeners;
+            }
+            return listeners;
+        }
+
+        private Object[] mergeFeatureListeners(Object feature) {
+            Map listenersSet = (Map) keys.get(feature);
+            if (listenersSet == null || listenersSet.isEmpty()) {
+                return getWildcardListeners();
+            }
+            Object[] wildcard = getWildcardListeners();
+            if (wildcard.length == 0) {
+                return listenersSet.keySet().toArray();
+            }
+            Set merged = new LinkedHashSet(listenersSet.keySet());
+            for (int i = 0; i < wildcard.length; i++) {
+                merged.add(wildcard[i]);
+            }
+            return merged.toArray();
+        }
     }
 
     /**
@@ -364,14 +570,50 @@ public class DiagramEventBroker
     	if (postListeners.isEmpty()) {
             return;
         }
+        List runnables = new ArrayList();
+        List outerRunnables = postNotificationRunnables;
+        boolean outerSuperseded = firingSupersededNotification;
+        postNotificationRunnables = runnables;
+        firingSupersededNotification = false;
+        try {
+            firePostCommitNotifications(event);
+        } finally {
+            postNotificationRunnables = outerRunnables;
+            firingSupersededNotification = outerSuperseded;
+            // the runnables run even if a listener failed, and a failing
+            // runnable does not keep the others from running
+            for (int i = 0; i < runnables.size(); i++) {
+                try {
+                    ((Runnable) runnables.get(i)).run();
+                } catch (RuntimeException e) {
+                    Log.error(DiagramPlugin.getInstance(), IStatus.ERROR, e
+                        .getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fires the notifications of the passed event to the post commit
+     * listeners.
+     * 
+     * @param event
+     *            the event being handled
+     */
+    private void firePostCommitNotifications(ResourceSetChangeEvent event) {
         Set deletedObjects = NotificationUtil.getDeletedObjects(event);
         Set addedObjects = NotificationUtil.getAddedObjects(event);
         Set existingObjects = new HashSet();
         boolean deleteElementCheckRequired = !deletedObjects.isEmpty();
         boolean handleNotificationOnAddedElement = false;
         boolean handleNotificationOnDeletedElement = false;
+        boolean[] superseded = postListeners.hasStateListeners()
+            ? getSupersededNotifications(event.getNotifications())
+            : null;
+        int index = -1;
         for (Iterator i = event.getNotifications().iterator(); i.hasNext();) {
             final Notification notification = (Notification) i.next();
+            index++;
             boolean customNotification = NotificationUtil.isCustomNotification(notification);
             if (!customNotification && shouldIgnoreNotification(notification))
                 continue;
@@ -396,7 +638,16 @@ public class DiagramEventBroker
                         continue;
                     }
                 }
-                fireNotification(notification);
+                if (superseded != null && superseded[index]) {
+                    firingSupersededNotification = true;
+                    try {
+                        fireNotification(notification);
+                    } finally {
+                        firingSupersededNotification = false;
+                    }
+                } else {
+                    fireNotification(notification);
+                }
             }
         }
         if (handleNotificationOnAddedElement) {
@@ -407,6 +658,97 @@ public class DiagramEventBroker
         }
     }
 
+    /**
+     * Finds the notifications that set or unset a single-valued feature of a
+     * notifier that is set or unset again by a later notification. Those are
+     * not fired to {@link StateNotificationListener}s.
+     * 
+     * @param notifications
+     *            the notifications of the event being handled
+     * @return the superseded flag of each notification
+     */
+    private boolean[] getSupersededNotifications(List notifications) {
+        boolean[] superseded = new boolean[notifications.size()];
+        Map lastIndexes = new HashMap();
+        int index = -1;
+        for (Iterator i = notifications.iterator(); i.hasNext();) {
+            Notification notification = (Notification) i.next();
+            index++;
+            int eventType = notification.getEventType();
+            Object feature = notification.getFeature();
+            if ((eventType != Notification.SET && eventType != Notification.UNSET)
+                || notification.isTouch()
+                || !(feature instanceof EStructuralFeature)
+                || ((EStructuralFeature) feature).isMany()
+                || NotificationUtil.isCustomNotification(notification)
+                || shouldIgnoreNotification(notification)) {
+                continue;
+            }
+            Integer lastIndex = (Integer) lastIndexes.put(new NotifierFeature(
+                notification.getNotifier(), feature), new Integer(index));
+            if (lastIndex != null) {
+                superseded[lastIndex.intValue()] = true;
+            }
+        }
+        return superseded;
+    }
+
+    /**
+     * A notifier and one of its features.
+     */
+    private static final class NotifierFeature {
+
+        private final Object notifier;
+
+        private final Object feature;
+
+        NotifierFeature(Object notifier, Object feature) {
+            this.notifier = notifier;
+            this.feature = feature;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof NotifierFeature)) {
+                return false;
+            }
+            NotifierFeature other = (NotifierFeature) obj;
+            return notifier == other.notifier && feature == other.feature;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(notifier) * 31
+                + System.identityHashCode(feature);
+        }
+    }
+
+    /**
+     * Answers whether this broker is firing the post commit notifications of
+     * a resource set change event.
+     * 
+     * @return <code>true</code> if post commit notifications are being fired,
+     *         <code>false</code> otherwise
+     */
+    public boolean isFiringPostCommitNotifications() {
+        return postNotificationRunnables != null;
+    }
+
+    /**
+     * Runs the passed runnable once all post commit notifications of the
+     * resource set change event being handled have been fired to the
+     * listeners, or right away if no event is being handled. Listeners use
+     * this to handle all the notifications of an event at once.
+     * 
+     * @param runnable
+     *            the runnable to run
+     */
+    public void runAfterPostCommitNotifications(Runnable runnable) {
+        if (postNotificationRunnables != null) {
+            postNotificationRunnables.add(runnable);
+        } else {
+            runnable.run();
+        }
+    }
+
     /**
      * This method allows clients to customize the Diagram event broker behavior when
      * it comes to handling events on added objects.
@@ -492,18 +834,66 @@ public class DiagramEventBroker
      * events. First, a MSL complient Notification event followed by an
      * ElementEvent (for backwards compatibility). The ElementEvent will be
      * removed one the MSL migration is complete.
+     * <P>
+     * A notification followed by another one that sets or unsets the same
+     * feature of the same notifier is not forwarded to the
+     * {@link StateNotificationListener}s that declare this feature a state
+     * feature.
      */
     protected void fireNotification(Notification event) {
-        Collection listenerList = getInterestedNotificationListeners(event,
-        	postListeners);
-        if (!listenerList.isEmpty()) {			
-			for (Iterator listenerIT = listenerList.iterator(); listenerIT
-				.hasNext();) {
-				NotificationListener listener = (NotificationListener) listenerIT
-					.next();
-				listener.notifyChanged(event);
-			}
-		}
+        boolean superseded = firingSupersededNotification;
+        if (overridesListenerLookup) {
+            Collection listenerList = getInterestedNotificationListeners(event,
+                postListeners);
+            if (!listenerList.isEmpty()) {			
+                for (Iterator listenerIT = listenerList.iterator(); listenerIT
+                    .hasNext();) {
+                    NotificationListener listener = (NotificationListener) listenerIT
+                        .next();
+                    if (!superseded || !isStateFeature(listener, event)) {
+                        listener.notifyChanged(event);
+                    }
+                }
+            }
+            return;
+        }
+        // the arrays are not modified when listeners are added or removed
+        // while the event is fired, so they can be iterated directly
+        Object[] listeners = postListeners.getFeatureListenersArray(event
+            .getNotifier(), event.getFeature());
+        Object[] inheritedListeners = getInheritedListeners(event,
+            postListeners);
+        for (int i = 0; i < listeners.length; i++) {
+            if (!superseded || !isStateFeature(listeners[i], event)) {
+                ((NotificationListener) listeners[i]).notifyChanged(event);
+            }
+        }
+        for (int i = 0; i < inheritedListeners.length; i++) {
+            if (!contains(listeners, inheritedListeners[i])
+                && (!superseded || !isStateFeature(inheritedListeners[i], event))) {
+                ((NotificationListener) inheritedListeners[i])
+                    .notifyChanged(event);
+            }
+        }
+    }
+
+    /**
+     * Answers whether the listener opts in to be notified of the last change
+     * only of the feature of the passed notification.
+     */
+    private static boolean isStateFeature(Object listener, Notification event) {
+        return listener instanceof StateNotificationListener
+            && ((StateNotificationListener) listener)
+                .isStateFeature((EStructuralFeature) event.getFeature());
+    }
+
+    private static boolean contains(Object[] listeners, Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -690,35 +1080,6 @@ public class DiagramEventBroker
         }
     }
 
-    private Set getNotificationListeners(Object notifier, NotifierToKeyToListenersSetMap listeners) {       
-        return listeners.getListeners(notifier, LISTEN_TO_ALL_FEATURES);
-    }
-
-    /**
-     * @param notifier
-     * @param key
-     * @param preCommit
-     * @return
-     */
-    private Set getNotificationListeners(Object notifier, Object key,
-    		NotifierToKeyToListenersSetMap listeners) {
-        if (key != null) {
-            if (!key.equals(LISTEN_TO_ALL_FEATURES)) {
-                Set listenersSet = new LinkedHashSet();
-                Collection c = listeners.getListeners(notifier, key);
-                if (c != null && !c.isEmpty())
-                    listenersSet.addAll(c);
-                c = listeners.getListeners(notifier, LISTEN_TO_ALL_FEATURES);
-                if (c != null && !c.isEmpty())
-                    listenersSet.addAll(c);
-                return listenersSet;
-            } else if (key.equals(LISTEN_TO_ALL_FEATURES)) {
-                return listeners.getAllListeners(notifier);
-            }
-        }
-        return listeners.getAllListeners(notifier);
-    }
-
     /**
      * gets a subset of all the registered listeners who are interested in
      * receiving the supplied event.
@@ -731,60 +1092,73 @@ public class DiagramEventBroker
     		NotifierToKeyToListenersSetMap listeners) {
         Set listenerSet = new LinkedHashSet();
 
-        Collection c = getNotificationListeners(event.getNotifier(), event
-            .getFeature(), listeners);
-        if (c != null) {
-            listenerSet.addAll(c);
+        Object[] c = listeners.getFeatureListenersArray(event.getNotifier(),
+            event.getFeature());
+        for (int i = 0; i < c.length; i++) {
+            listenerSet.add(c[i]);
+        }
+        c = getInheritedListeners(event, listeners);
+        for (int i = 0; i < c.length; i++) {
+            listenerSet.add(c[i]);
         }
+        return listenerSet;
+    }
 
+    /**
+     * Gets the listeners of the containers of the notifier of the passed event
+     * that are interested in the event as well.
+     * 
+     * @param event
+     *            the event to use
+     * @return the listeners; the array must not be modified
+     */
+    private Object[] getInheritedListeners(Notification event,
+            NotifierToKeyToListenersSetMap listeners) {
         EObject notifier = (EObject) event.getNotifier();
         // the Visibility Event get fired to all interested listeners in the
         // container
         if (NotationPackage.eINSTANCE.getView_Visible().equals(
             event.getFeature())
             && notifier.eContainer() != null) {
-            listenerSet.addAll(getNotificationListeners(notifier.eContainer(),
-            	listeners));
+            return listeners.getWildcardListenersArray(notifier.eContainer());
         } else if (notifier instanceof EAnnotation) {
-            addListenersOfNotifier(listenerSet, notifier.eContainer(), event,
-            	listeners);
+            notifier = notifier.eContainer();
         } else if (!(notifier instanceof View)) {
             while (notifier != null && !(notifier instanceof View)) {
                 notifier = notifier.eContainer();
             }
-            addListenersOfNotifier(listenerSet, notifier, event, listeners);
+        } else {
+            return NO_LISTENERS;
         }
-        return listenerSet;
-    }
-    
-    public boolean isAggregatePrecommitListener() {
-    	return true;
+        return notifier == null ? NO_LISTENERS
+            : listeners.getFeatureListenersArray(notifier, event.getFeature());
     }
-    
+
     /**
-     * Helper method to add all the listners of the given <code>notifier</code>
-     * to the list of listeners
+     * Answers whether a subclass overrides the given method of this class.
      * 
-     * @param listenerSet
-     * @param notifier
+     * @param name
+     *            the name of the method
+     * @param parameterTypes
+     *            the parameter types of the method
      */
-    private void addListenersOfNotifier(Set listenerSet, EObject notifier,
-            Notification event, NotifierToKeyToListenersSetMap listeners) {
-        if (notifier != null) {
-            Collection c = getNotificationListeners(notifier, event
-                .getFeature(), listeners);
-            if (c != null) {
-                if (listenerSet.isEmpty())
-                    listenerSet.addAll(c);
-                else {
-                    Iterator i = c.iterator();
-                    while (i.hasNext()) {
-                        Object o = i.next();
-                        listenerSet.add(o);
-                    }
-                }
+    private boolean overrides(String name, Class[] parameterTypes) {
+        for (Class c = getClass(); c != DiagramEventBroker.class; c = c
+            .getSuperclass()) {
+            try {
+                c.getDeclaredMethod(name, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // look in the superclass
+            } catch (SecurityException e) {
+                return true;
             }
         }
-    }    
+        return false;
+    }
+
+    public boolean isAggregatePrecommitListener() {
+    	return true;
+    }
     
 }
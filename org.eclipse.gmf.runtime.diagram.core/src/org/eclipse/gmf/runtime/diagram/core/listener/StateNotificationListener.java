@@ -0,0 +1,43 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.core.listener;
+
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * A {@link NotificationListener} that only depends on the final state of some
+ * of the single-valued features it is notified about, and not on the
+ * intermediate values they had during a transaction.
+ * <P>
+ * When a transaction sets or unsets the same single-valued feature of the
+ * same notifier several times, and the listener declares this feature a
+ * {@link #isStateFeature(EStructuralFeature) state feature}, the
+ * {@link DiagramEventBroker} fires only the last of these <code>SET</code>
+ * and <code>UNSET</code> notifications to the listener. Its old value is the
+ * value the feature had before that last change, not before the transaction.
+ * Other notifications are fired as usual.
+ */
+public interface StateNotificationListener
+	extends NotificationListener {
+
+	/**
+	 * Answers whether this listener only depends on the final value of the
+	 * given feature, so that it need not be notified of the changes of the
+	 * feature that a later change of the same transaction supersedes.
+	 * 
+	 * @param feature
+	 *            a single-valued feature
+	 * @return <code>true</code> to be notified of the last change of the
+	 *         feature only, <code>false</code> to be notified of every change
+	 */
+	boolean isStateFeature(EStructuralFeature feature);
+}
@@ -12,6 +12,7 @@
 package org.eclipse.gmf.runtime.diagram.core.providers;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -22,6 +23,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IConfigurationElement;
 
 import org.eclipse.gmf.runtime.common.core.service.AbstractProviderConfiguration;
+import org.eclipse.gmf.runtime.common.core.service.ProviderCriteria;
 import org.eclipse.gmf.runtime.notation.View;
 
 /**
@@ -131,6 +133,30 @@ public class ViewProviderConfiguration extends AbstractProviderConfiguration {
 		return false;
 	}
 
+	/**
+	 * Retrieves the criteria of this configuration for the dispatch index of
+	 * the view service, whose dimensions are the view kind class name and the
+	 * semantic hint. Element and container view conditions are left to
+	 * {@link #supports(Class, IAdaptable, View, String)}.
+	 * 
+	 * @return the criteria, or <code>null</code> if there are no listed
+	 *         provider contexts
+	 */
+	public ProviderCriteria getCriteria() {
+		if (requests.isEmpty())
+			return null;
+
+		ProviderCriteria criteria = new ProviderCriteria(2);
+		for (Iterator iter = requests.iterator(); iter.hasNext();) {
+			ContextDescriptor request = (ContextDescriptor) iter.next();
+			criteria.addContext(new Set[] {
+				request.viewClassName != null ? Collections
+					.singleton(request.viewClassName) : null,
+				request.semanticHints});
+		}
+		return criteria;
+	}
+
 	/**
 	 * A descriptor for a provider context
 	 */
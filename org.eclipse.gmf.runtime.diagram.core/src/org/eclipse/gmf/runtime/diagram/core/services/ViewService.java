@@ -20,6 +20,9 @@ import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.gmf.runtime.common.core.service.ExecutionStrategy;
 import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.common.core.service.IProvider;
+import org.eclipse.gmf.runtime.common.core.service.IProviderPolicy;
+import org.eclipse.gmf.runtime.common.core.service.ProviderCriteria;
 import org.eclipse.gmf.runtime.common.core.service.Service;
 import org.eclipse.gmf.runtime.diagram.core.internal.DiagramPlugin;
 import org.eclipse.gmf.runtime.diagram.core.preferences.PreferencesHint;
@@ -54,8 +57,11 @@ final public class ViewService
 	protected static class ProviderDescriptor
 		extends Service.ProviderDescriptor {
 
-		/** the provider configuration parsed from XML */
-		private ViewProviderConfiguration providerConfiguration;
+		/**
+		 * the provider configuration parsed from XML, cleared once the
+		 * provider is loaded; read once into a local by each thread
+		 */
+		private volatile ViewProviderConfiguration providerConfiguration;
 
 		/**
 		 * Constructs a <code>ISemanticProvider</code> descriptor for
@@ -75,28 +81,47 @@ final public class ViewService
 		 * @see org.eclipse.gmf.runtime.common.core.service.IProvider#provides(org.eclipse.gmf.runtime.common.core.service.IOperation)
 		 */
 		public boolean provides(IOperation operation) {
-			if (!policyInitialized){
-				policy = getPolicy();
-				policyInitialized = true;
-			}
-			if (policy != null)
-				return policy.provides(operation);
-			if (provider == null) {
-				if (isSupportedInExtention(operation)) {
+			IProviderPolicy providerPolicy = getPolicy();
+			if (providerPolicy != null)
+				return providerPolicy.provides(operation);
+			ViewProviderConfiguration configuration = providerConfiguration;
+			if (provider == null && configuration != null) {
+				if (isSupportedInExtention(configuration, operation)) {
 					providerConfiguration = null;
-					return getProvider().provides(operation);
+					return providerProvides(operation);
 				}
 				return false;
 			}
-			return getProvider().provides(operation);
+			return providerProvides(operation);
+		}
+
+		/**
+		 * Asks the provider, loading it if needed, whether it provides the
+		 * operation.
+		 */
+		private boolean providerProvides(IOperation operation) {
+			IProvider loadedProvider = getProvider();
+			return loadedProvider != null && loadedProvider.provides(operation);
+		}
+
+		/**
+		 * @see org.eclipse.gmf.runtime.common.core.service.Service.ProviderDescriptor#getCriteria()
+		 */
+		protected ProviderCriteria getCriteria() {
+			ViewProviderConfiguration configuration = providerConfiguration;
+			if (configuration == null || provider != null || hasPolicyElement())
+				return null;
+			return configuration.getCriteria();
 		}
 
 		/**
 		 * Cheks if the operation is supported by the XML extension
+		 * @param configuration the provider configuration parsed from XML
 		 * @param operation
 		 * @return
 		 */
-		private boolean isSupportedInExtention(IOperation operation) {
+		private boolean isSupportedInExtention(
+				ViewProviderConfiguration configuration, IOperation operation) {
 			if (operation instanceof CreateViewOperation) {
 				CreateViewOperation o = (CreateViewOperation) operation;
 				Class viewKind = o.getViewKind();
@@ -108,7 +133,7 @@ final public class ViewService
 					containerView = cvo.getContainerView();
 				}
 
-				return providerConfiguration.supports(viewKind,
+				return configuration.supports(viewKind,
 					semanticAdapter, containerView, semanticHint);
 			}
 			return false;
@@ -149,7 +174,7 @@ final public class ViewService
 	 * creates an instance
 	 */
 	protected ViewService() {
-		super(true, false);
+		super(true, false, true);
 	}
 
 	/**
@@ -174,6 +199,22 @@ final public class ViewService
 		return ((CreateViewOperation) operation).getCachingKey();
 	}
 
+	/**
+	 * The dispatch keys of a <code>CreateViewOperation</code> are its view
+	 * kind class name and its semantic hint.
+	 * 
+	 * @see org.eclipse.gmf.runtime.common.core.service.Service#getDispatchKeys(org.eclipse.gmf.runtime.common.core.service.IOperation)
+	 */
+	protected Object[] getDispatchKeys(IOperation operation) {
+		if (operation instanceof CreateViewOperation) {
+			CreateViewOperation o = (CreateViewOperation) operation;
+			Class viewKind = o.getViewKind();
+			return new Object[] {viewKind != null ? viewKind.getName() : null,
+				o.getSemanticHint()};
+		}
+		return null;
+	}
+
 	/**
 	 * Executes the specified operation using the FIRST execution
 	 * strategy.
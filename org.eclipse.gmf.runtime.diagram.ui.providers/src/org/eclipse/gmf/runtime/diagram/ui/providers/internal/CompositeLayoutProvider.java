@@ -164,7 +164,26 @@ public abstract class CompositeLayoutProvider
      * @see org.eclipse.gmf.runtime.diagram.ui.providers.internal.DefaultProvider#createGraphLayout()
      */
     protected DirectedGraphLayout createGraphLayout() {
-        return new CompositeDirectedGraphLayout();
+        CompositeDirectedGraphLayout layout = new CompositeDirectedGraphLayout();
+        layout.setParallelism(getLayoutParallelism());
+        return layout;
+    }
+
+    /**
+     * Gets the number of threads laying out the compartments and other
+     * subgraphs that no edge leaves, in parallel with their siblings. The
+     * graph is built and the commands are created on the calling thread.
+     * The default is the number of available processors; the graphs too
+     * small to gain from it, with fewer than
+     * {@link CompositeDirectedGraphLayout#PARALLEL_LAYOUT_THRESHOLD} nodes,
+     * are laid out on the calling thread whatever the parallelism. Clients
+     * can override this method to return 1 and lay the subgraphs out one
+     * after the other.
+     * 
+     * @return the number of threads, at least one
+     */
+    protected int getLayoutParallelism() {
+        return Runtime.getRuntime().availableProcessors();
     }
 
     /* (non-Javadoc)
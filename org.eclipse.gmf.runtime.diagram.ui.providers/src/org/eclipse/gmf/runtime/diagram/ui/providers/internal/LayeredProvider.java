@@ -0,0 +1,73 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.providers.internal;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.diagram.ui.internal.services.layout.LayoutNodesOperation;
+import org.eclipse.gmf.runtime.diagram.ui.services.layout.LayoutType;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.graph.LayeredGraphLayout;
+import org.eclipse.gmf.runtime.notation.View;
+
+/**
+ * Provider for <code>LayoutType.LAYERED</code> that lays the graph out top
+ * down with the <code>LayeredGraphLayout</code>, which scales to diagrams of
+ * thousands of nodes.
+ * <P>
+ * The nodes are moved as by the <code>DefaultProvider</code>, with a move
+ * request per node, so that the containers compute the constraints of their
+ * children and the edit policies contribute to the moves as they do for any
+ * other move.
+ */
+public class LayeredProvider
+	extends DefaultProvider {
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.gmf.runtime.common.core.service.IProvider#provides(org.eclipse.gmf.runtime.common.core.service.IOperation)
+	 */
+	public boolean provides(IOperation operation) {
+		Assert.isNotNull(operation);
+
+		View cview = getContainer(operation);
+		if (cview == null)
+			return false;
+
+		IAdaptable layoutHint = ((LayoutNodesOperation) operation)
+			.getLayoutHint();
+		String layoutType = (String) layoutHint.getAdapter(String.class);
+		return LayoutType.LAYERED.equals(layoutType);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.gmf.runtime.diagram.ui.providers.internal.DefaultProvider#translateToGraph(org.eclipse.draw2d.geometry.Rectangle)
+	 */
+	protected Rectangle translateToGraph(Rectangle r) {
+		return r.getCopy();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.gmf.runtime.diagram.ui.providers.internal.DefaultProvider#translateFromGraph(org.eclipse.draw2d.geometry.Rectangle)
+	 */
+	protected Rectangle translateFromGraph(Rectangle rect) {
+		return rect.getCopy();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.gmf.runtime.diagram.ui.providers.internal.DefaultProvider#createGraphLayout()
+	 */
+	protected DirectedGraphLayout createGraphLayout() {
+		return new LayeredGraphLayout();
+	}
+}
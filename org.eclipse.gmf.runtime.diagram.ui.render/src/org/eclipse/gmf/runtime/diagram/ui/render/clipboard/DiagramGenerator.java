@@ -69,6 +69,10 @@ abstract public class DiagramGenerator {
 	
 	private Dimension emptyImageSize;
 	
+	private int clipMargin;
+	
+	private boolean skipClippedFigures = false;
+	
 	private static final int DEFAULT_IMAGE_MARGIN_PIXELS = 10;
 	
 	private static final int DEFAULT_EMPTY_IMAGE_SIZE_PIXELS = 100;
@@ -84,6 +88,7 @@ abstract public class DiagramGenerator {
 		this.printableLayer = LayerManager.Helper.find(_dgrmEP).getLayer(LayerConstants.PRINTABLE_LAYERS);
 		IMapMode mm = getMapMode();
 		image_margin = mm.DPtoLP(DEFAULT_IMAGE_MARGIN_PIXELS);
+		clipMargin = mm.DPtoLP(DEFAULT_IMAGE_MARGIN_PIXELS);
 		emptyImageSize = (Dimension) mm.DPtoLP(new Dimension(
 				DEFAULT_EMPTY_IMAGE_SIZE_PIXELS,
 				DEFAULT_EMPTY_IMAGE_SIZE_PIXELS));
@@ -226,6 +231,7 @@ abstract public class DiagramGenerator {
 				paintFigure(graphics, figure);
 
 				paintDecorations(graphics, figure, decorations);
+				figurePainted(figure);
 			}
 		}
 		
@@ -236,8 +242,48 @@ abstract public class DiagramGenerator {
 			IFigure figure = connItr.next().getFigure();
 			paintFigure(graphics, figure);
 			paintDecorations(graphics, figure, decorations);
+			figurePainted(figure);
 		}
 	}
+
+	/**
+	 * Renders the list of editparts to the graphics object as
+	 * {@link #renderToGraphics(Graphics, Point, List)} does, skipping the
+	 * figures outside of the clipping area of the graphics. Used to render an
+	 * image tile by tile, where the clipping area is the tile.
+	 * 
+	 * @param graphics
+	 *            the graphics object on which to draw, clipped to the area to
+	 *            render
+	 * @param translateOffset
+	 *            a <code>Point</code> that the value the
+	 *            <code>graphics</code> object will be translated by in
+	 *            relative coordinates.
+	 * @param editparts
+	 *            the list of <code>IGraphicalEditParts</code> that will be
+	 *            rendered to the graphics object
+	 */
+	final void renderClippedToGraphics(Graphics graphics,
+			Point translateOffset, List editparts) {
+		skipClippedFigures = true;
+		try {
+			renderToGraphics(graphics, translateOffset, editparts);
+		} finally {
+			skipClippedFigures = false;
+		}
+	}
+
+	/**
+	 * Allows hook to process what was rendered so far, called by
+	 * <code>renderToGraphics</code> after each figure of the editparts and
+	 * its decorations are painted. Does nothing by default.
+	 * 
+	 * @param figure
+	 *            the figure painted
+	 */
+	protected void figurePainted(IFigure figure) {
+		// nothing by default
+	}
 	
 	/**
 	 * Collects all connections contained within the given edit part
@@ -363,6 +409,15 @@ abstract public class DiagramGenerator {
 		Rectangle abBounds = relBounds.getCopy();
 		DiagramImageUtils.translateTo(abBounds, figure, printableLayer);
 
+		// Skip the figures outside of the tile of an image rendered tile by
+		// tile. The margin allows for lines drawn over the bounds of the
+		// figures.
+		if (skipClippedFigures) {
+			Rectangle clip = graphics.getClip(new Rectangle());
+			if (!clip.intersects(abBounds.getExpanded(clipMargin, clipMargin)))
+				return;
+		}
+
 		// Calculate the difference
 		int transX = abBounds.x - relBounds.x;
 		int transY = abBounds.y - relBounds.y;
@@ -19,6 +19,7 @@ import java.util.List;
 
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PrecisionPoint;
 import org.eclipse.draw2d.geometry.PrecisionRectangle;
@@ -180,6 +181,87 @@ public class DiagramImageGenerator
 		return awtImage;
 	}
 
+	/**
+	 * Calculates the size in pixels of the image that
+	 * {@link #createAWTImageForParts(List, org.eclipse.swt.graphics.Rectangle)}
+	 * creates for the source rectangle, without creating the image.
+	 * 
+	 * @param sourceRect
+	 *            the area of the diagram in logical units
+	 * @return the size of the image in pixels
+	 */
+	public Dimension getAWTImageSize(org.eclipse.swt.graphics.Rectangle sourceRect) {
+		PrecisionRectangle rect = new PrecisionRectangle();
+		rect.setX(sourceRect.x);
+		rect.setY(sourceRect.y);
+		rect.setWidth(sourceRect.width);
+		rect.setHeight(sourceRect.height);
+
+		getMapMode().LPtoDP(rect);
+
+		return new Dimension((int) Math.round(rect.preciseWidth), (int) Math
+			.rint(rect.preciseHeight));
+	}
+
+	/**
+	 * Renders a tile of the AWT image of the editparts on the source
+	 * rectangle: the area of the image that
+	 * {@link #createAWTImageForParts(List, org.eclipse.swt.graphics.Rectangle)}
+	 * would create at the given location and of the size of the tile. An image
+	 * bigger than the available memory can be rendered tile by tile, reusing
+	 * the same tile.
+	 * 
+	 * @param editParts
+	 *            the editparts to render
+	 * @param sourceRect
+	 *            the area of the diagram of the whole image in logical units
+	 * @param tile
+	 *            the image the tile is rendered to, whose previous content is
+	 *            overwritten
+	 * @param x
+	 *            the x coordinate of the tile in the whole image in pixels
+	 * @param y
+	 *            the y coordinate of the tile in the whole image in pixels
+	 */
+	public void renderAWTImageTile(List editParts,
+			org.eclipse.swt.graphics.Rectangle sourceRect, BufferedImage tile,
+			int x, int y) {
+		Graphics2D g2d = tile.createGraphics();
+		g2d.setColor(Color.white);
+		g2d.fillRect(0, 0, tile.getWidth(), tile.getHeight());
+
+		// Check anti-aliasing preference
+		IPreferenceStore preferenceStore = (IPreferenceStore) getDiagramEditPart()
+				.getDiagramPreferencesHint().getPreferenceStore();
+
+		if (preferenceStore
+				.getBoolean(IPreferenceConstants.PREF_ENABLE_ANTIALIAS)) {
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_ON);
+		} else {
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					RenderingHints.VALUE_ANTIALIAS_OFF);
+		}
+
+		g2d.clip(new java.awt.Rectangle(0, 0, tile.getWidth(), tile
+				.getHeight()));
+
+		Graphics graphics = new GraphicsToGraphics2DAdaptor(g2d,
+				new Rectangle(0, 0, tile.getWidth(), tile.getHeight()));
+
+		// translate in pixels so that the tiles join without rounding gaps
+		graphics.translate(-x, -y);
+
+		RenderedMapModeGraphics mapModeGraphics = new RenderedMapModeGraphics(
+				graphics, getMapMode());
+
+		renderClippedToGraphics(mapModeGraphics,
+				new Point(sourceRect.x, sourceRect.y), editParts);
+
+		graphics.dispose();
+		g2d.dispose();
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramGenerator#createConstrainedAWTImageForParts(java.util.List, int, int, boolean)
 	 */
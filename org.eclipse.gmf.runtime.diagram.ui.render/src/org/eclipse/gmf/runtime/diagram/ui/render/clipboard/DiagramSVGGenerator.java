@@ -26,6 +26,9 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PrecisionRectangle;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.gmf.runtime.common.core.util.Log;
 import org.eclipse.gmf.runtime.common.core.util.Trace;
@@ -33,11 +36,14 @@ import org.eclipse.gmf.runtime.diagram.ui.editparts.DiagramEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.l10n.SharedImages;
 import org.eclipse.gmf.runtime.diagram.ui.render.internal.DiagramUIRenderDebugOptions;
 import org.eclipse.gmf.runtime.diagram.ui.render.internal.DiagramUIRenderPlugin;
+import org.eclipse.gmf.runtime.draw2d.ui.mapmode.IMapMode;
 import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.ImageConverter;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export.GraphicsSVG;
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export.SVGStreamWriter;
 import org.eclipse.gmf.runtime.draw2d.ui.render.factory.RenderedImageFactory;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.RenderedImageDescriptor;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.graphics.RenderedMapModeGraphics;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.w3c.dom.Element;
 
@@ -56,6 +62,8 @@ public class DiagramSVGGenerator
 
 	private Rectangle viewBox = null;
 
+	private SVGStreamWriter streamWriter = null;
+
 	/**
 	 * Creates a new instance.
 	 * 
@@ -132,6 +140,68 @@ public class DiagramSVGGenerator
 		}
 	}
 
+	/**
+	 * Writes the SVG of the editparts to a stream while they are rendered,
+	 * the elements of each figure being written once the figure is painted.
+	 * Unlike {@link #stream(OutputStream)}, the whole SVG document is never
+	 * held in memory, and no rendered image is created.
+	 * 
+	 * @param editparts
+	 *            the list of <code>IGraphicalEditParts</code> that will be
+	 *            rendered
+	 * @param sourceRect
+	 *            the area of the diagram to render, in logical units
+	 * @param outputStream
+	 *            the stream to write the SVG document to, which is not closed
+	 * @throws IOException
+	 *             if the SVG document cannot be written
+	 */
+	public void streamSVGForParts(List editparts,
+			org.eclipse.swt.graphics.Rectangle sourceRect,
+			OutputStream outputStream)
+		throws IOException {
+		IMapMode mm = getMapMode();
+
+		PrecisionRectangle rect = new PrecisionRectangle();
+		rect.setX(sourceRect.x);
+		rect.setY(sourceRect.y);
+		rect.setWidth(sourceRect.width);
+		rect.setHeight(sourceRect.height);
+
+		mm.LPtoDP(rect);
+
+		viewBox = new Rectangle(0, 0, (int) Math.round(rect.preciseWidth),
+			(int) Math.round(rect.preciseHeight));
+		GraphicsSVG svgG = GraphicsSVG.getInstance(viewBox);
+		try {
+			streamWriter = new SVGStreamWriter(svgG, String.valueOf(viewBox.x)
+				+ " " + String.valueOf(viewBox.y) + " " //$NON-NLS-1$ //$NON-NLS-2$
+				+ String.valueOf(viewBox.width) + " " //$NON-NLS-1$
+				+ String.valueOf(viewBox.height), outputStream);
+
+			RenderedMapModeGraphics mapModeGraphics = new RenderedMapModeGraphics(
+				svgG, mm);
+			renderToGraphics(mapModeGraphics, new Point(sourceRect.x,
+				sourceRect.y), editparts);
+
+			streamWriter.close();
+		} finally {
+			streamWriter = null;
+			svgG.dispose();
+		}
+	}
+
+	/**
+	 * Writes the elements of the figure painted when streaming.
+	 * 
+	 * @see org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramGenerator#figurePainted(org.eclipse.draw2d.IFigure)
+	 */
+	protected void figurePainted(IFigure figure) {
+		if (streamWriter != null) {
+			streamWriter.flush();
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -37,6 +37,10 @@ public final class DiagramUIRenderMessages extends NLS {
 	public static String CopyToImageAction_overwriteExistingConfirmDialogMessage;
 	public static String CopyToImageOutOfMemoryDialog_title;
 	public static String CopyToImageOutOfMemoryDialog_message;
+	public static String BatchCopyToImage_taskName;
+	public static String BatchCopyToImage_progressMessage;
+	public static String BatchCopyToImage_errorMessage;
+	public static String BatchCopyToImage_diagramErrorMessage;
 
 
 	static {
@@ -0,0 +1,779 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.render.util;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.gef.EditPartViewer;
+import org.eclipse.gmf.runtime.common.core.command.FileModificationValidator;
+import org.eclipse.gmf.runtime.common.core.util.Log;
+import org.eclipse.gmf.runtime.common.core.util.Trace;
+import org.eclipse.gmf.runtime.common.ui.util.DisplayUtils;
+import org.eclipse.gmf.runtime.diagram.core.preferences.PreferencesHint;
+import org.eclipse.gmf.runtime.diagram.ui.editparts.DiagramEditPart;
+import org.eclipse.gmf.runtime.diagram.ui.image.ImageFileFormat;
+import org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramGenerator;
+import org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramImageGenerator;
+import org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramSVGGenerator;
+import org.eclipse.gmf.runtime.diagram.ui.render.internal.DiagramUIRenderPlugin;
+import org.eclipse.gmf.runtime.diagram.ui.render.internal.DiagramUIRenderStatusCodes;
+import org.eclipse.gmf.runtime.diagram.ui.render.internal.l10n.DiagramUIRenderMessages;
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.ImageExporter;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Copies many diagrams to image files, as for the documentation of a model.
+ * <P>
+ * The edit parts and figures of the diagrams are created and rendered on the
+ * UI thread, one diagram at a time, by one offscreen viewer whose contents
+ * are swapped from one diagram to the next. The rendered images are encoded
+ * and written to their files by a pool of worker threads while the next
+ * diagrams are rendered. The number of rendered images waiting to be encoded
+ * is bounded, so that the memory used does not grow with the number of
+ * diagrams.
+ * <P>
+ * The image files that are in the workspace are created and validated for
+ * editing once for the whole batch, before the diagrams are rendered, and
+ * refreshed once after they are written, so that the worker threads only
+ * write to the file system.
+ * <P>
+ * The batch can be run on the UI thread or on any other thread, such as the
+ * thread of a job, in which case the rendering is run on the UI thread with
+ * <code>Display.syncExec</code>.
+ */
+public class BatchCopyToImageUtil
+	extends CopyToImageUtil {
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * The destinations of the batches being copied, whose files are created
+	 * and validated by {@link #prepareFiles(List, Set)}.
+	 */
+	private final Set preparedFiles = Collections.synchronizedSet(new HashSet());
+
+	/**
+	 * Sets the number of threads encoding the rendered images.
+	 *
+	 * @param parallelism
+	 *            the number of threads, by default the number of processors
+	 * @throws IllegalArgumentException
+	 *             if <code>parallelism</code> is less than 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+				"Invalid parallelism: " + parallelism); //$NON-NLS-1$
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the number of threads encoding the rendered images
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Copies the diagrams to image files in the specified format, in the
+	 * destination folder. The files are named after the diagrams, see
+	 * {@link #getFileName(Diagram)}.
+	 * <P>
+	 * The diagrams that cannot be copied are reported in the returned status
+	 * and do not stop the batch. The progress monitor is worked once per
+	 * diagram, and its sub task tells the number of diagrams processed and the
+	 * throughput of the batch.
+	 *
+	 * @param diagrams
+	 *            the <code>Diagram</code>s to copy
+	 * @param destinationFolder
+	 *            the folder of the image files
+	 * @param format
+	 *            the image file format
+	 * @param monitor
+	 *            progress monitor, which is canceled to stop the batch after
+	 *            the diagrams being encoded, the diagrams waiting to be
+	 *            encoded are not copied; the empty files created for the
+	 *            diagrams that are not copied are deleted
+	 * @param preferencesHint
+	 *            The preference hint that is to be used to find the appropriate
+	 *            preference store from which to retrieve diagram preference
+	 *            values. The preference hint is mapped to a preference store in
+	 *            the preference registry <@link DiagramPreferencesRegistry>.
+	 * @return <code>Status.OK_STATUS</code> if all the diagrams were copied,
+	 *         a <code>MultiStatus</code> with the errors otherwise
+	 */
+	public IStatus copyToImages(Collection diagrams, IPath destinationFolder,
+			ImageFileFormat format, IProgressMonitor monitor,
+			PreferencesHint preferencesHint) {
+		int total = diagrams.size();
+		monitor.beginTask(NLS.bind(
+			DiagramUIRenderMessages.BatchCopyToImage_taskName, String
+				.valueOf(total)), total);
+
+		MultiStatus result = new MultiStatus(DiagramUIRenderPlugin
+			.getPluginId(), DiagramUIRenderStatusCodes.OK,
+			DiagramUIRenderMessages.BatchCopyToImage_errorMessage, null);
+
+		List destinations = new ArrayList(total);
+		Set fileNames = new HashSet();
+		for (Iterator i = diagrams.iterator(); i.hasNext();) {
+			Diagram diagram = (Diagram) i.next();
+			destinations.add(destinationFolder.append(
+				getUniqueFileName(diagram, fileNames)).addFileExtension(
+				format.getName().toLowerCase(Locale.ENGLISH)));
+		}
+		Set createdFiles = new HashSet();
+		try {
+			IStatus status = prepareFiles(destinations, createdFiles);
+			if (!status.isOK()) {
+				result.add(status);
+			}
+		} catch (CoreException e) {
+			result.add(createErrorStatus(destinationFolder, e));
+		}
+		if (!result.isOK()) {
+			// can't write to the files
+			finishFiles(destinations, createdFiles, result);
+			monitor.done();
+			return result;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+			new ThreadFactory() {
+
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Copy diagrams to images"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		CompletionService encodings = new ExecutorCompletionService(executor);
+		int maxPendingEncodings = 2 * parallelism;
+		Set pendingEncodings = new HashSet();
+		int done = 0;
+		long start = System.currentTimeMillis();
+
+		OffscreenViewer viewer = new OffscreenViewer();
+		try {
+			Iterator d = destinations.iterator();
+			for (Iterator i = diagrams.iterator(); i.hasNext()
+				&& !monitor.isCanceled();) {
+				Diagram diagram = (Diagram) i.next();
+				IPath destination = (IPath) d.next();
+
+				if (pendingEncodings.size() == maxPendingEncodings) {
+					addStatus(result, takeEncoding(encodings, pendingEncodings));
+					reportProgress(monitor, ++done, total, start);
+				}
+
+				try {
+					Callable encoding = render(diagram, viewer, destination,
+						format, preferencesHint, monitor);
+					if (encoding != null) {
+						pendingEncodings.add(encodings.submit(encoding));
+						continue;
+					}
+				} catch (OperationCanceledException e) {
+					// the image written tile by tile is not complete
+					destination.toFile().delete();
+					break;
+				} catch (CoreException e) {
+					addStatus(result, createErrorStatus(destination, e));
+				} catch (RuntimeException e) {
+					addStatus(result, createErrorStatus(destination, e));
+				}
+				reportProgress(monitor, ++done, total, start);
+			}
+			if (monitor.isCanceled()) {
+				// the images waiting to be encoded are not written, the
+				// images being encoded are written completely
+				for (Iterator i = pendingEncodings.iterator(); i.hasNext();) {
+					((Future) i.next()).cancel(false);
+				}
+			}
+			while (!pendingEncodings.isEmpty()) {
+				IStatus status = takeEncoding(encodings, pendingEncodings);
+				if (status != null) {
+					addStatus(result, status);
+					reportProgress(monitor, ++done, total, start);
+				}
+			}
+		} finally {
+			executor.shutdown();
+			disposeViewer(viewer);
+			finishFiles(destinations, createdFiles, result);
+			monitor.done();
+		}
+
+		long elapsed = System.currentTimeMillis() - start;
+		Trace.trace(DiagramUIRenderPlugin.getInstance(), "Processed " + done //$NON-NLS-1$
+			+ " diagrams in " + elapsed + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return result.isOK() ? Status.OK_STATUS
+			: result;
+	}
+
+	/**
+	 * Returns the name of the image file of a diagram, without extension. The
+	 * names of the diagrams copied by a batch are made unique by appending a
+	 * number.
+	 *
+	 * @param diagram
+	 *            the diagram
+	 * @return the name of the diagram, with the characters other than
+	 *         letters, digits, '-' and '_' replaced by '_'
+	 */
+	protected String getFileName(Diagram diagram) {
+		String name = diagram.getName();
+		if (name == null || name.length() == 0) {
+			name = "diagram"; //$NON-NLS-1$
+		}
+		StringBuffer fileName = new StringBuffer(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			fileName.append(Character.isLetterOrDigit(c) || c == '-'
+				|| c == '_' ? c
+				: '_');
+		}
+		return fileName.toString();
+	}
+
+	private String getUniqueFileName(Diagram diagram, Set fileNames) {
+		String name = getFileName(diagram);
+		String fileName = name;
+		for (int n = 2; !fileNames.add(fileName
+			.toLowerCase(Locale.ENGLISH)); n++) {
+			fileName = name + '_' + n;
+		}
+		return fileName;
+	}
+
+	/**
+	 * Renders a diagram on the UI thread.
+	 *
+	 * @param monitor
+	 *            the progress monitor of the batch, checked for cancellation
+	 *            while an image is written tile by tile
+	 * @return the encoding of the rendered image to its file, or
+	 *         <code>null</code> if the image was written while rendered
+	 * @throws OperationCanceledException
+	 *             if the batch was canceled while an image was written tile
+	 *             by tile
+	 */
+	private Callable render(final Diagram diagram, final OffscreenViewer viewer,
+			final IPath destination, final ImageFileFormat format,
+			final PreferencesHint preferencesHint,
+			final IProgressMonitor monitor)
+		throws CoreException {
+		final Object[] result = new Object[1];
+		runInUIThread(new Runnable() {
+
+			public void run() {
+				try {
+					result[0] = renderInUIThread(diagram, viewer, destination,
+						format, preferencesHint, monitor);
+				} catch (CoreException e) {
+					result[0] = e;
+				} catch (RuntimeException e) {
+					result[0] = e;
+				}
+			}
+		});
+		if (result[0] instanceof CoreException) {
+			throw (CoreException) result[0];
+		}
+		if (result[0] instanceof RuntimeException) {
+			throw (RuntimeException) result[0];
+		}
+		return (Callable) result[0];
+	}
+
+	private Callable renderInUIThread(Diagram diagram, OffscreenViewer viewer,
+			IPath destination, ImageFileFormat format,
+			PreferencesHint preferencesHint, IProgressMonitor monitor)
+		throws CoreException {
+		DiagramEditPart diagramEP = viewer.setContents(diagram,
+			preferencesHint);
+		boolean rendered = false;
+		try {
+			Callable encoding = renderParts(diagramEP, destination, format,
+				monitor);
+			rendered = true;
+			return encoding;
+		} finally {
+			if (!rendered) {
+				// the viewer may have been left in any state
+				viewer.disposeControl();
+			}
+		}
+	}
+
+	private Callable renderParts(DiagramEditPart diagramEP,
+			final IPath destination, final ImageFileFormat format,
+			IProgressMonitor monitor)
+		throws CoreException {
+		DiagramGenerator gen = getDiagramGenerator(diagramEP, format);
+		List editParts = diagramEP.getPrimaryEditParts();
+		Rectangle imageRect = gen.calculateImageRectangle(editParts);
+
+		if (format.equals(ImageFileFormat.SVG)
+			|| format.equals(ImageFileFormat.PDF)) {
+			gen.createSWTImageDescriptorForParts(editParts, imageRect);
+			final DiagramSVGGenerator svgGen = (DiagramSVGGenerator) gen;
+			return new Encoding(destination) {
+
+				void encode()
+					throws CoreException {
+					saveToFile(destination, svgGen, format,
+						new NullProgressMonitor());
+				}
+			};
+		}
+
+		if ((format.equals(ImageFileFormat.JPEG) || format
+			.equals(ImageFileFormat.PNG))
+			&& gen instanceof DiagramImageGenerator
+			&& !isTooBigForOneImage(((DiagramImageGenerator) gen)
+				.getAWTImageSize(imageRect))) {
+			final String exportFormat = format.equals(ImageFileFormat.PNG) ? ImageExporter.PNG_FILE
+				: ImageExporter.JPEG_FILE;
+			final java.awt.Image image = gen.createAWTImageForParts(
+				editParts, imageRect);
+			if (image instanceof BufferedImage) {
+				return new Encoding(destination) {
+
+					void encode()
+						throws CoreException {
+						exportToFile(destination, (BufferedImage) image,
+							exportFormat, format.getQuality());
+					}
+				};
+			}
+		}
+
+		if (!format.equals(ImageFileFormat.PNG)) {
+			// the data of the image is held apart from its SWT resources
+			final ImageData imageData = gen.createSWTImageDescriptorForParts(
+				editParts, imageRect).getImageData();
+			return new Encoding(destination) {
+
+				void encode()
+					throws CoreException {
+					saveToFile(destination, imageData, format,
+						new NullProgressMonitor());
+				}
+			};
+		}
+
+		// the PNG images too big to be held in memory are rendered and
+		// written tile by tile on the UI thread, which renders the figures,
+		// and the batch is checked for cancellation after each band of
+		// tiles. The diagram is worked once by the batch.
+		copyToImage(gen, editParts, imageRect, destination, format,
+			new SubProgressMonitor(monitor, 0));
+		return null;
+	}
+
+	/**
+	 * Writes an AWT image to a file prepared for the batch. Unlike
+	 * {@link ImageExporter#exportToFile(IPath, BufferedImage, String, IProgressMonitor, float)},
+	 * it does not create the file in the workspace.
+	 */
+	private void exportToFile(IPath destination, BufferedImage image,
+			String exportFormat, float quality)
+		throws CoreException {
+		try {
+			OutputStream stream = new BufferedOutputStream(
+				new FileOutputStream(destination.toOSString()));
+			try {
+				ImageExporter.exportToOutputStream(stream, image, exportFormat,
+					new NullProgressMonitor(), quality);
+			} finally {
+				stream.close();
+			}
+		} catch (IOException ex) {
+			Log.error(DiagramUIRenderPlugin.getInstance(), IStatus.ERROR, ex
+				.getMessage(), ex);
+			IStatus status = new Status(IStatus.ERROR, "exportToFile", //$NON-NLS-1$
+				IStatus.OK, ex.getMessage(), null);
+			throw new CoreException(status);
+		}
+	}
+
+	/**
+	 * Creates the image files of a batch that are in the workspace and
+	 * validates them for editing, all at once on the calling thread.
+	 *
+	 * @param destinations
+	 *            the <code>IPath</code>s of the image files
+	 * @param createdFiles
+	 *            the set to which the <code>IFile</code>s created are
+	 *            added
+	 * @return the status of the validation
+	 */
+	private IStatus prepareFiles(List destinations, final Set createdFiles)
+		throws CoreException {
+		final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		final List files = new ArrayList();
+		for (Iterator i = destinations.iterator(); i.hasNext();) {
+			IFile file = root.getFileForLocation((IPath) i.next());
+			if (file != null) {
+				files.add(file);
+			}
+		}
+
+		if (!files.isEmpty()) {
+			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+
+				public void run(IProgressMonitor monitor)
+					throws CoreException {
+					boolean refreshed = false;
+					for (Iterator i = files.iterator(); i.hasNext();) {
+						IFile file = (IFile) i.next();
+						if (file.exists()) {
+							continue;
+						}
+						if (file.getLocation().toFile().exists()) {
+							file.refreshLocal(IResource.DEPTH_ZERO, null);
+						} else {
+							if (!refreshed) {
+								// the folders may be missing from the
+								// workspace
+								root.refreshLocal(IResource.DEPTH_INFINITE,
+									null);
+								refreshed = true;
+							}
+							if (!file.exists()) {
+								file.create(new ByteArrayInputStream(
+									new byte[0]), false, null);
+								createdFiles.add(file);
+							}
+						}
+					}
+				}
+			}, root, IWorkspace.AVOID_UPDATE, null);
+
+			IStatus status = FileModificationValidator
+				.approveFileModification((IFile[]) files
+					.toArray(new IFile[files.size()]));
+			if (!status.isOK()) {
+				return status;
+			}
+		}
+		preparedFiles.addAll(destinations);
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Refreshes the image files of a batch that are in the workspace, all at
+	 * once, and deletes those created by
+	 * {@link #prepareFiles(List, Set)} that were not written.
+	 */
+	private void finishFiles(List destinations, final Set createdFiles,
+			MultiStatus result) {
+		preparedFiles.removeAll(destinations);
+
+		final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		final List files = new ArrayList();
+		for (Iterator i = destinations.iterator(); i.hasNext();) {
+			IFile file = root.getFileForLocation((IPath) i.next());
+			if (file != null) {
+				files.add(file);
+			}
+		}
+		if (files.isEmpty()) {
+			return;
+		}
+
+		try {
+			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+
+				public void run(IProgressMonitor monitor)
+					throws CoreException {
+					for (Iterator i = files.iterator(); i.hasNext();) {
+						IFile file = (IFile) i.next();
+						if (createdFiles.contains(file)
+							&& file.getLocation().toFile().length() == 0) {
+							file.delete(true, null);
+						} else {
+							file.refreshLocal(IResource.DEPTH_ZERO, null);
+						}
+					}
+				}
+			}, root, IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			result.add(e.getStatus());
+		}
+	}
+
+	/**
+	 * Skips the creation and validation of the files of the batches being
+	 * copied, which are prepared by {@link #prepareFiles(List, Set)}.
+	 */
+	IStatus createFile(IPath destination)
+		throws CoreException {
+		if (preparedFiles.contains(destination)) {
+			return Status.OK_STATUS;
+		}
+		return super.createFile(destination);
+	}
+
+	/**
+	 * Skips the refresh of the files of the batches being copied, which are
+	 * refreshed by {@link #finishFiles(List, Set, MultiStatus)}.
+	 */
+	void refreshLocal(IPath destination)
+		throws CoreException {
+		if (!preparedFiles.contains(destination)) {
+			super.refreshLocal(destination);
+		}
+	}
+
+	/**
+	 * Waits for the next encoding to complete and removes it from the pending
+	 * encodings.
+	 *
+	 * @return the status of the encoding, or <code>null</code> if it was
+	 *         canceled
+	 */
+	private IStatus takeEncoding(CompletionService encodings,
+			Set pendingEncodings) {
+		boolean interrupted = false;
+		try {
+			Future encoding = null;
+			while (true) {
+				try {
+					if (encoding == null) {
+						encoding = encodings.take();
+						pendingEncodings.remove(encoding);
+					}
+					return (IStatus) encoding.get();
+				} catch (InterruptedException e) {
+					// the image is still being encoded
+					interrupted = true;
+				} catch (CancellationException e) {
+					return null;
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new RuntimeException(cause);
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private void addStatus(MultiStatus result, IStatus status) {
+		if (!status.isOK()) {
+			result.add(status);
+		}
+	}
+
+	private void reportProgress(IProgressMonitor monitor, int done,
+			int total, long start) {
+		long elapsed = Math.max(1, System.currentTimeMillis() - start);
+		monitor.subTask(NLS.bind(
+			DiagramUIRenderMessages.BatchCopyToImage_progressMessage,
+			new Object[] {String.valueOf(done), String.valueOf(total),
+				String.valueOf(done * 1000L / elapsed)}));
+		monitor.worked(1);
+	}
+
+	private void disposeViewer(final OffscreenViewer viewer) {
+		runInUIThread(new Runnable() {
+
+			public void run() {
+				viewer.dispose();
+			}
+		});
+	}
+
+	private void runInUIThread(Runnable runnable) {
+		if (Display.getCurrent() != null) {
+			runnable.run();
+		} else {
+			DisplayUtils.getDisplay().syncExec(runnable);
+		}
+	}
+
+	private static IStatus createErrorStatus(IPath destination, Throwable e) {
+		if (e instanceof CoreException) {
+			IStatus status = ((CoreException) e).getStatus();
+			return new Status(IStatus.ERROR, DiagramUIRenderPlugin
+				.getPluginId(), DiagramUIRenderStatusCodes.RESOURCE_FAILURE,
+				NLS.bind(
+					DiagramUIRenderMessages.BatchCopyToImage_diagramErrorMessage,
+					destination.toOSString(), status.getMessage()), status
+					.getException());
+		}
+		return new Status(IStatus.ERROR, DiagramUIRenderPlugin.getPluginId(),
+			DiagramUIRenderStatusCodes.RESOURCE_FAILURE, NLS.bind(
+				DiagramUIRenderMessages.BatchCopyToImage_diagramErrorMessage,
+				destination.toOSString(), e.getMessage()), e);
+	}
+
+	/**
+	 * The offscreen viewer rendering the diagrams of a batch on the UI
+	 * thread. Its contents are swapped from one diagram to the next as long
+	 * as the diagrams have the same type and resource set, and thus the same
+	 * root edit part and editing domain; a new viewer is created otherwise.
+	 */
+	private class OffscreenViewer {
+
+		private Shell shell;
+
+		private DiagramEditPart diagramEP;
+
+		/**
+		 * Shows a diagram in the viewer.
+		 *
+		 * @return the edit part of the diagram
+		 */
+		DiagramEditPart setContents(Diagram diagram,
+				PreferencesHint preferencesHint) {
+			if (diagramEP != null && !isCompatible(diagram)) {
+				disposeControl();
+			}
+			if (shell == null) {
+				shell = new Shell();
+			}
+			if (diagramEP == null) {
+				diagramEP = createDiagramEditPart(diagram, shell,
+					preferencesHint);
+				return diagramEP;
+			}
+
+			EditPartViewer viewer = diagramEP.getViewer();
+			viewer.setContents(diagram);
+			viewer.flush();
+			Assert.isTrue(viewer.getContents() instanceof DiagramEditPart);
+
+			// flush all the deferred updates
+			while (shell.getDisplay().readAndDispatch()) {
+				// nothing
+			}
+			diagramEP = (DiagramEditPart) viewer.getContents();
+			return diagramEP;
+		}
+
+		private boolean isCompatible(Diagram diagram) {
+			Diagram current = diagramEP.getDiagramView();
+			String type = diagram.getType();
+			return (type == null ? current.getType() == null
+				: type.equals(current.getType()))
+				&& getResourceSet(diagram) == getResourceSet(current);
+		}
+
+		private Object getResourceSet(Diagram diagram) {
+			Resource resource = diagram.eResource();
+			return resource == null ? null
+				: resource.getResourceSet();
+		}
+
+		/**
+		 * Disposes the control of the viewer, so that the next diagram is
+		 * shown by a new viewer.
+		 */
+		void disposeControl() {
+			if (diagramEP != null) {
+				diagramEP.getViewer().getControl().dispose();
+				diagramEP = null;
+			}
+		}
+
+		void dispose() {
+			disposeControl();
+			if (shell != null) {
+				shell.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Encodes a rendered image to its file on a worker thread, and returns
+	 * the status of the encoding.
+	 */
+	private static abstract class Encoding
+		implements Callable {
+
+		private final IPath destination;
+
+		Encoding(IPath destination) {
+			this.destination = destination;
+		}
+
+		abstract void encode()
+			throws CoreException;
+
+		public Object call() {
+			try {
+				encode();
+				return Status.OK_STATUS;
+			} catch (CoreException e) {
+				return createErrorStatus(destination, e);
+			} catch (RuntimeException e) {
+				return createErrorStatus(destination, e);
+			}
+		}
+	}
+}
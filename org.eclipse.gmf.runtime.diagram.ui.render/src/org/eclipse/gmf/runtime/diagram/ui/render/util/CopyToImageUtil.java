@@ -12,6 +12,7 @@
 package org.eclipse.gmf.runtime.diagram.ui.render.util;
 
 import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -30,7 +31,9 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.gmf.runtime.common.core.command.FileModificationValidator;
 import org.eclipse.gmf.runtime.common.core.util.Log;
 import org.eclipse.gmf.runtime.common.core.util.Trace;
@@ -48,6 +51,7 @@ import org.eclipse.gmf.runtime.diagram.ui.render.internal.DiagramUIRenderPlugin;
 import org.eclipse.gmf.runtime.diagram.ui.util.DiagramEditorUtil;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.Draw2dRenderPlugin;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.ImageExporter;
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.PNGStreamWriter;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.SVGImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.SVGImageConverter;
 import org.eclipse.gmf.runtime.notation.Diagram;
@@ -65,6 +69,25 @@ import org.eclipse.swt.widgets.Shell;
  */
 public class CopyToImageUtil {
 
+    /**
+     * The default size of the tiles of the images exported tile by tile, in
+     * pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 1024;
+
+    /**
+     * The number of pixels above which the PNG images are exported tile by
+     * tile rather than rendered in one image.
+     */
+    private static final long TILED_EXPORT_THRESHOLD = 4096L * 4096L;
+
+    /**
+     * The maximum number of pixels of a band of rows of the images exported
+     * tile by tile. The tiles of wider images are made shorter.
+     */
+    private static final int MAX_BAND_PIXELS = 4 * DEFAULT_TILE_SIZE
+        * DEFAULT_TILE_SIZE;
+
     /**
      * Creates a <code>DiagramEditPart</code> given the <code>Diagram</code>
      * without opening an editor.
@@ -331,6 +354,160 @@ public class CopyToImageUtil {
         monitor.worked(1);
     }
     
+    /**
+     * Copies the diagram to a PNG image file rendered tile by tile, so that
+     * the memory used does not depend on the height of the image, and only
+     * on its width through the few rows kept by the PNG encoder: the tiles of
+     * very wide images are made shorter than the tile size so that a band of
+     * tiles stays within a fixed number of pixels. Use this method to export
+     * diagrams too big to be rendered in one image.
+     * 
+     * @param diagram
+     *            the diagram to be copied
+     * @param destination
+     *            the destination file, including path and file name
+     * @param format
+     *            the image file format, currently only
+     *            <code>ImageFileFormat.PNG</code>
+     * @param tileSize
+     *            the width and height of the tiles in pixels, for instance
+     *            <code>DEFAULT_TILE_SIZE</code>
+     * @param monitor
+     *            progress monitor.
+     * @param preferencesHint
+     *            The preference hint that is to be used to find the appropriate
+     *            preference store from which to retrieve diagram preference
+     *            values.
+     * @return A list of {@link PartPositionInfo} objects with details regarding
+     *         each top-level editpart on the diagram represented in the image.
+     * @exception CoreException
+     *                if this method fails
+     */
+    public List copyToTiledImage(Diagram diagram, IPath destination,
+            ImageFileFormat format, int tileSize, IProgressMonitor monitor,
+            PreferencesHint preferencesHint)
+        throws CoreException {
+
+        Trace.trace(DiagramUIRenderPlugin.getInstance(),
+            "Copy diagram to tiled Image " + destination + " as " + format); //$NON-NLS-1$ //$NON-NLS-2$
+
+        DiagramEditor openedDiagramEditor = DiagramEditorUtil.findOpenedDiagramEditorForID(ViewUtil.getIdStr(diagram));
+        if (openedDiagramEditor != null) {
+            DiagramEditPart diagramEP = openedDiagramEditor.getDiagramEditPart();
+            DiagramGenerator generator = copyToTiledImage(diagramEP,
+                diagramEP.getPrimaryEditParts(), destination, format, tileSize,
+                monitor);
+            return generator.getDiagramPartInfo(diagramEP);
+        }
+
+        Shell shell = new Shell();
+        try {
+            DiagramEditPart diagramEP = createDiagramEditPart(diagram,
+                shell, preferencesHint);
+            Assert.isNotNull(diagramEP);
+            DiagramGenerator generator = copyToTiledImage(diagramEP,
+                diagramEP.getPrimaryEditParts(), destination, format, tileSize,
+                monitor);
+            return generator.getDiagramPartInfo(diagramEP);
+        } finally {
+            shell.dispose();
+        }
+    }
+
+    /**
+     * Copies the editparts to a PNG image file rendered tile by tile.
+     * 
+     * @param diagramEP
+     *            the diagram editpart
+     * @param editParts
+     *            the editparts to be present on the image
+     * @param destination
+     *            the destination file, including path and file name
+     * @param format
+     *            the image file format, currently only
+     *            <code>ImageFileFormat.PNG</code>
+     * @param tileSize
+     *            the width and height of the tiles in pixels
+     * @param monitor
+     *            progress monitor.
+     * @return The diagram generator used to copy the image.
+     * @exception CoreException
+     *                if this method fails
+     * @see #copyToTiledImage(Diagram, IPath, ImageFileFormat, int,
+     *      IProgressMonitor, PreferencesHint)
+     */
+    public DiagramGenerator copyToTiledImage(DiagramEditPart diagramEP,
+            List editParts, IPath destination, ImageFileFormat format,
+            int tileSize, IProgressMonitor monitor)
+        throws CoreException {
+        DiagramImageGenerator gen = getTiledImageGenerator(diagramEP, format,
+            tileSize);
+        saveTiledImageToFile(gen, editParts, gen
+            .calculateImageRectangle(editParts), destination, tileSize,
+            monitor);
+        monitor.worked(1);
+        return gen;
+    }
+
+    /**
+     * Writes a PNG image of the editparts rendered tile by tile to a stream.
+     * 
+     * @param diagramEP
+     *            the diagram editpart
+     * @param editParts
+     *            the editparts to be present on the image
+     * @param stream
+     *            the stream to write the image to, which is not closed
+     * @param format
+     *            the image file format, currently only
+     *            <code>ImageFileFormat.PNG</code>
+     * @param tileSize
+     *            the width and height of the tiles in pixels
+     * @param monitor
+     *            progress monitor.
+     * @exception CoreException
+     *                if this method fails
+     * @see #copyToTiledImage(Diagram, IPath, ImageFileFormat, int,
+     *      IProgressMonitor, PreferencesHint)
+     */
+    public void copyToTiledImage(DiagramEditPart diagramEP, List editParts,
+            OutputStream stream, ImageFileFormat format, int tileSize,
+            IProgressMonitor monitor)
+        throws CoreException {
+        DiagramImageGenerator gen = getTiledImageGenerator(diagramEP, format,
+            tileSize);
+        try {
+            writeTiledImage(gen, editParts, gen
+                .calculateImageRectangle(editParts), stream, tileSize, monitor);
+        } catch (IOException ex) {
+            Log.error(DiagramUIRenderPlugin.getInstance(), IStatus.ERROR, ex
+                .getMessage(), ex);
+            IStatus status = new Status(IStatus.ERROR,
+                "exportToStream", IStatus.OK, //$NON-NLS-1$
+                ex.getMessage(), null);
+            throw new CoreException(status);
+        }
+        monitor.worked(1);
+    }
+
+    private DiagramImageGenerator getTiledImageGenerator(
+            DiagramEditPart diagramEP, ImageFileFormat format, int tileSize) {
+        Assert.isNotNull(diagramEP);
+        if (!format.equals(ImageFileFormat.PNG)) {
+            throw new IllegalArgumentException(
+                "Unexpected format: " + format.getName()); //$NON-NLS-1$
+        }
+        if (tileSize < 1) {
+            throw new IllegalArgumentException(
+                "Invalid tile size: " + tileSize); //$NON-NLS-1$
+        }
+        DiagramGenerator gen = getDiagramGenerator(diagramEP, format);
+        if (gen instanceof DiagramImageGenerator) {
+            return (DiagramImageGenerator) gen;
+        }
+        return new DiagramImageGenerator(diagramEP);
+    }
+
     /**
      * Creates the appropriate <code>DiagramGenerator</code> from <code>DiagramEditPart</code>
      * based on the supplied <code>ImageFileFormat</code>
@@ -371,12 +548,23 @@ public class CopyToImageUtil {
 			ImageFileFormat format, IProgressMonitor monitor)
 			throws CoreException {
 		boolean found = false;
-		if (format.equals(ImageFileFormat.SVG)
-				|| format.equals(ImageFileFormat.PDF)) {
+		if (format.equals(ImageFileFormat.SVG)) {
+			saveStreamedSVGToFile((DiagramSVGGenerator) gen, editParts,
+					imageRect, destination);
+			monitor.worked(1);
+			found = true;
+		} else if (format.equals(ImageFileFormat.PDF)) {
 			gen.createSWTImageDescriptorForParts(editParts, imageRect);
 			monitor.worked(1);
 			saveToFile(destination, (DiagramSVGGenerator) gen, format, monitor);
 			found = true;
+		} else if (format.equals(ImageFileFormat.PNG)
+				&& gen instanceof DiagramImageGenerator
+				&& isTooBigForOneImage(((DiagramImageGenerator) gen)
+						.getAWTImageSize(imageRect))) {
+			saveTiledImageToFile((DiagramImageGenerator) gen, editParts,
+					imageRect, destination, DEFAULT_TILE_SIZE, monitor);
+			found = true;
 		} else if (format.equals(ImageFileFormat.JPEG)
 				|| format.equals(ImageFileFormat.PNG)) {
 
@@ -403,6 +591,124 @@ public class CopyToImageUtil {
 		}
 	}
 
+    boolean isTooBigForOneImage(Dimension imageSize) {
+        return (long) imageSize.width * imageSize.height > TILED_EXPORT_THRESHOLD;
+    }
+
+    /**
+     * Saves the SVG of the editparts to a file while they are rendered,
+     * without building the whole SVG document in memory.
+     */
+    private void saveStreamedSVGToFile(DiagramSVGGenerator gen,
+            List editParts, org.eclipse.swt.graphics.Rectangle imageRect,
+            IPath destination)
+        throws CoreException {
+
+        IStatus fileModificationStatus = createFile(destination);
+        if (!fileModificationStatus.isOK()) {
+            // can't write to the file
+            return;
+        }
+
+        try {
+            OutputStream stream = new BufferedOutputStream(
+                new FileOutputStream(destination.toOSString()));
+            try {
+                gen.streamSVGForParts(editParts, imageRect, stream);
+            } finally {
+                stream.close();
+            }
+        } catch (IOException ex) {
+            Log.error(DiagramUIRenderPlugin.getInstance(), IStatus.ERROR, ex
+                .getMessage(), ex);
+            IStatus status = new Status(IStatus.ERROR,
+                "exportToFile", IStatus.OK, //$NON-NLS-1$
+                ex.getMessage(), null);
+            throw new CoreException(status);
+        }
+
+        refreshLocal(destination);
+    }
+
+    /**
+     * Saves the image of the editparts rendered tile by tile to a PNG file.
+     */
+    private void saveTiledImageToFile(DiagramImageGenerator gen,
+            List editParts, org.eclipse.swt.graphics.Rectangle imageRect,
+            IPath destination, int tileSize, IProgressMonitor monitor)
+        throws CoreException {
+
+        IStatus fileModificationStatus = createFile(destination);
+        if (!fileModificationStatus.isOK()) {
+            // can't write to the file
+            return;
+        }
+
+        try {
+            OutputStream stream = new BufferedOutputStream(
+                new FileOutputStream(destination.toOSString()));
+            try {
+                writeTiledImage(gen, editParts, imageRect, stream, tileSize,
+                    monitor);
+            } finally {
+                stream.close();
+            }
+        } catch (IOException ex) {
+            Log.error(DiagramUIRenderPlugin.getInstance(), IStatus.ERROR, ex
+                .getMessage(), ex);
+            IStatus status = new Status(IStatus.ERROR,
+                "exportToFile", IStatus.OK, //$NON-NLS-1$
+                ex.getMessage(), null);
+            throw new CoreException(status);
+        }
+
+        refreshLocal(destination);
+    }
+
+    /**
+     * Renders the image one band of tiles at a time, from top to bottom, and
+     * streams the rows of each band to the PNG encoder. Only one tile and one
+     * band of rows are held in memory, and the height of the band is reduced
+     * so that it holds at most <code>MAX_BAND_PIXELS</code> pixels whatever
+     * the width of the image.
+     */
+    private void writeTiledImage(DiagramImageGenerator gen, List editParts,
+            org.eclipse.swt.graphics.Rectangle imageRect, OutputStream stream,
+            int tileSize, IProgressMonitor monitor)
+        throws IOException {
+        Dimension imageSize = gen.getAWTImageSize(imageRect);
+        int width = imageSize.width;
+        int height = imageSize.height;
+        int tileWidth = Math.min(tileSize, width);
+        int tileHeight = Math.max(1, Math.min(Math.min(tileSize, height),
+            MAX_BAND_PIXELS / width));
+
+        PNGStreamWriter writer = new PNGStreamWriter(stream, width, height);
+        try {
+            BufferedImage tile = new BufferedImage(tileWidth, tileHeight,
+                BufferedImage.TYPE_INT_RGB);
+            int[] band = new int[width * tileHeight];
+            for (int y = 0; y < height; y += tileHeight) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                int bandHeight = Math.min(tileHeight, height - y);
+                for (int x = 0; x < width; x += tileWidth) {
+                    gen.renderAWTImageTile(editParts, imageRect, tile, x, y);
+                    tile.getRGB(0, 0, Math.min(tileWidth, width - x),
+                        bandHeight, band, x, width);
+                }
+                writer.writeRows(band, 0, width, bandHeight);
+                monitor.worked(1);
+            }
+            writer.close();
+        } finally {
+            // releases the compressor when the rendering failed or was
+            // canceled, does nothing once the writer is closed
+            writer.dispose();
+        }
+    }
+
     /**
 	 * Saves the image to a file.
 	 * 
@@ -420,6 +726,27 @@ public class CopyToImageUtil {
     protected void saveToFile(IPath destination, Image image,
             ImageFileFormat imageFormat, IProgressMonitor monitor)
         throws CoreException {
+        saveToFile(destination, image.getImageData(), imageFormat, monitor);
+    }
+
+    /**
+	 * Saves the image data to a file. Unlike the SWT image, the image data
+	 * can be saved by any thread.
+	 * 
+	 * @param destination
+	 *            the destination file, including path and file name
+	 * @param imageData
+	 *            the data of the SWT image
+	 * @param imageFormat
+	 *            the selected image format
+	 * @param monitor
+	 *            progress monitor
+	 * @exception CoreException
+	 *                if this method fails
+	 */
+    protected void saveToFile(IPath destination, ImageData imageData,
+            ImageFileFormat imageFormat, IProgressMonitor monitor)
+        throws CoreException {
 
         IStatus fileModificationStatus = createFile(destination);
         if (!fileModificationStatus.isOK()) {
@@ -429,7 +756,7 @@ public class CopyToImageUtil {
         
         try {
         	FileOutputStream stream = new FileOutputStream(destination.toOSString());
-            saveToOutputStream(stream, image, imageFormat, monitor);
+            saveToOutputStream(stream, imageData, imageFormat, monitor);
             stream.close();
         } catch (Exception e) {
             Log.error(Draw2dRenderPlugin.getInstance(), IStatus.ERROR, e
@@ -444,19 +771,21 @@ public class CopyToImageUtil {
     }
     
     private void saveToOutputStream(OutputStream stream, Image image, ImageFileFormat imageFormat, IProgressMonitor monitor) {
+        saveToOutputStream(stream, image.getImageData(), imageFormat, monitor);
+    }
+
+    private void saveToOutputStream(OutputStream stream, ImageData imageData, ImageFileFormat imageFormat, IProgressMonitor monitor) {
         monitor.worked(1);
         
-        ImageData imageData = image.getImageData();
-        
         if (imageFormat.equals(ImageFileFormat.GIF) ||
                 imageFormat.equals(ImageFileFormat.BMP))
-            imageData = createImageData(image); 
+            imageData = createImageData(imageData); 
 
         monitor.worked(1);
         ImageLoader imageLoader = new ImageLoader();
         imageLoader.data = new ImageData[] {imageData};
-        imageLoader.logicalScreenHeight = image.getBounds().width;
-        imageLoader.logicalScreenHeight = image.getBounds().height;
+        imageLoader.logicalScreenWidth = imageData.width;
+        imageLoader.logicalScreenHeight = imageData.height;
         imageLoader.save(stream, imageFormat.getOrdinal());
         
         monitor.worked(1);
@@ -547,7 +876,7 @@ public class CopyToImageUtil {
      * @exception CoreException
      *                if this method fails
      */
-    private IStatus createFile(IPath destination)
+    IStatus createFile(IPath destination)
         throws CoreException {
         IFile file = ResourcesPlugin.getWorkspace().getRoot()
             .getFileForLocation(destination);
@@ -578,7 +907,7 @@ public class CopyToImageUtil {
      * @exception CoreException
      *                if this method fails
      */
-    private void refreshLocal(IPath destination)
+    void refreshLocal(IPath destination)
         throws CoreException {
         IFile file = ResourcesPlugin.getWorkspace().getRoot()
             .getFileForLocation(destination);
@@ -591,13 +920,11 @@ public class CopyToImageUtil {
      * Retrieve the image data for the image, using a palette of at most 256
      * colours.
      * 
-     * @param image
-     *            the SWT image.
+     * @param imageData
+     *            the data of the SWT image.
      * @return new image data.
      */
-    private ImageData createImageData(Image image) {
-
-        ImageData imageData = image.getImageData();
+    private ImageData createImageData(ImageData imageData) {
 
         /**
          * If the image depth is 8 bits or less, then we can use the existing
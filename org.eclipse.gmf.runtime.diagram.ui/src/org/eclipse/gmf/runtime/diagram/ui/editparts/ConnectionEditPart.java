@@ -68,6 +68,7 @@ import org.eclipse.gmf.runtime.common.core.util.Trace;
 import org.eclipse.gmf.runtime.common.ui.services.action.filter.ActionFilterService;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
 import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.preferences.PreferencesHint;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
 import org.eclipse.gmf.runtime.diagram.ui.editpolicies.ConnectionBendpointEditPolicy;
@@ -148,7 +149,7 @@ import org.eclipse.ui.IActionFilter;
 abstract public class ConnectionEditPart
     extends AbstractConnectionEditPart
     implements IGraphicalEditPart, PropertyChangeListener, IContainedEditPart,
-    IPrimaryEditPart, NotificationListener {
+    IPrimaryEditPart, StateNotificationListener {
 
     /** A map of listener filters ids to filter data */
     private Map listenerFilters;
@@ -1732,6 +1733,25 @@ abstract public class ConnectionEditPart
         }
     }
 
+    /**
+     * Answers whether {@link #handleNotificationEvent(Notification)} only
+     * reads the current value of the given feature, so that the changes of
+     * the feature superseded by a later change of the same transaction need
+     * not be handled. Opts in for the bendpoints, whose notifications
+     * {@link #refreshBendpoints() refresh the bendpoints} from the current
+     * ones. Subclasses that override the handling of a feature to read its
+     * old value must opt out for it.
+     * 
+     * @param feature
+     *            a single-valued feature
+     * @return <code>true</code> if only the last change of the feature in a
+     *         transaction is to be handled
+     */
+    public boolean isStateFeature(EStructuralFeature feature) {
+        return NotationPackage.Literals.RELATIVE_BENDPOINTS__POINTS
+            .equals(feature);
+    }
+
     /**
      * Handles the property changed event
      * 
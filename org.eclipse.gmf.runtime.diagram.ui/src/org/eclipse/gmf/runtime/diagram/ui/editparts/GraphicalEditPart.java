@@ -57,6 +57,7 @@ import org.eclipse.gmf.runtime.common.ui.services.action.filter.ActionFilterServ
 import org.eclipse.gmf.runtime.common.ui.services.parser.CommonParserHint;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
 import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.preferences.PreferencesHint;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
 import org.eclipse.gmf.runtime.diagram.ui.editpolicies.CanonicalEditPolicy;
@@ -117,7 +118,7 @@ import org.eclipse.ui.IActionFilter;
  */
 public abstract class GraphicalEditPart
     extends AbstractGraphicalEditPart
-    implements IGraphicalEditPart, IAdaptableSelection, NotificationListener {
+    implements IGraphicalEditPart, IAdaptableSelection, StateNotificationListener {
   
     /** A map of listener filters ids to filter data */
     private Map listenerFilters;
@@ -1438,6 +1439,23 @@ public abstract class GraphicalEditPart
             handleNotificationEvent(notification);
         }
     }
+
+    /**
+     * Answers whether {@link #handleNotificationEvent(Notification)} only
+     * reads the current value of the given feature, so that the changes of
+     * the feature superseded by a later change of the same transaction need
+     * not be handled. Returns <code>false</code>: subclasses opt in for the
+     * features they refresh from the model, and must opt out again if they
+     * override the handling of such a feature to read its old value.
+     * 
+     * @param feature
+     *            a single-valued feature
+     * @return <code>true</code> if only the last change of the feature in a
+     *         transaction is to be handled
+     */
+    public boolean isStateFeature(EStructuralFeature feature) {
+        return false;
+    }
     
     public Command transactionAboutToCommit(Notification notification) {
         return null;
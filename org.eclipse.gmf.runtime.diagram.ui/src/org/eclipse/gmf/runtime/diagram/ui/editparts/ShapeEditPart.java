@@ -20,6 +20,7 @@ import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.gef.EditPart;
 import org.eclipse.gef.EditPolicy;
 import org.eclipse.gef.GraphicalEditPart;
@@ -142,6 +143,20 @@ public abstract class ShapeEditPart extends TopGraphicEditPart implements IPrima
 		return getFigure().getBounds().getSize();
 	}
 
+	/**
+	 * Opts in for the size and location features, whose notifications
+	 * {@link #refreshBounds() refresh the bounds} from their current values.
+	 * 
+	 * @see org.eclipse.gmf.runtime.diagram.ui.editparts.GraphicalEditPart#isStateFeature(org.eclipse.emf.ecore.EStructuralFeature)
+	 */
+	public boolean isStateFeature(EStructuralFeature feature) {
+		return NotationPackage.eINSTANCE.getSize_Width().equals(feature)
+			|| NotationPackage.eINSTANCE.getSize_Height().equals(feature)
+			|| NotationPackage.eINSTANCE.getLocation_X().equals(feature)
+			|| NotationPackage.eINSTANCE.getLocation_Y().equals(feature)
+			|| super.isStateFeature(feature);
+	}
+
 	protected void handleNotificationEvent(Notification notification) {
 		Object feature = notification.getFeature();
 		if (NotationPackage.eINSTANCE.getSize_Width().equals(feature)
@@ -12,6 +12,7 @@
 
 package org.eclipse.gmf.runtime.diagram.ui.editpolicies;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -56,6 +57,7 @@ import org.eclipse.gmf.runtime.diagram.core.commands.DeleteCommand;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
 import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.listener.NotificationUtil;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewType;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
 import org.eclipse.gmf.runtime.diagram.ui.commands.CommandProxy;
@@ -92,6 +94,11 @@ import org.eclipse.osgi.util.NLS;
  * <P>
  * This editpolicy will create the necessary notation element by simply
  * returning a {@link org.eclipse.gmf.runtime.diagram.ui.commands.CreateCommand}.
+ * <P>
+ * Since the editpolicy refreshes from the current state of the model once
+ * all the notifications of a transaction have been fired, it is a
+ * {@link StateNotificationListener}: it is not notified of the intermediate
+ * values of the single-valued features set several times by a transaction.
  * 
  * @see #refreshSemanticChildren()
  * @see #handleSemanticEvent(NotificationEvent) will create or delete notation elements
@@ -101,7 +108,7 @@ import org.eclipse.osgi.util.NLS;
  * @author mhanner, mmostafa
  */
 public abstract class CanonicalEditPolicy extends AbstractEditPolicy 
-implements NotificationListener {
+implements StateNotificationListener {
 	
 	/** Runs the supplied commands asyncronously. */
 	private static class AsyncCommand extends Command {
@@ -175,6 +182,12 @@ implements NotificationListener {
 	/** flag signaling a refresh request made while the editpolicy was disabled. */
 	private boolean _deferredRefresh = false;
 	
+	/**
+	 * the per-diagram batch gathering the delete commands while the refresh
+	 * scheduler refreshes this editpolicy; <tt>null</tt> otherwise.
+	 */
+	CanonicalRefreshScheduler.DeleteBatch _deleteBatch = null;
+	
 	/** semantic listener. */
 	private Map<String, Object[]> _listenerFilters;
 		
@@ -350,24 +363,35 @@ implements NotificationListener {
 	/**
 	 * Deletes a list of views.  The views will be deleted <tt>iff</tt> their semantic
 	 * element has also been deleted.
+	 * <P>
+	 * When the editpolicy is refreshed by the {@link CanonicalRefreshScheduler},
+	 * the delete command is added to the batch of the host's diagram, which is
+	 * executed once all the editpolicies of the diagram are refreshed.
 	 * @param views an iterator on a list of views.
 	 * @return <tt>true</tt> if the host editpart should be refreshed; either one one of the supplied
-	 * views was deleted or has been reparented.
+	 * views was deleted or has been reparented. <tt>false</tt> if the views are deleted with the
+	 * batch, which refreshes the host afterwards.
 	 */
 	protected final boolean deleteViews( Iterator<View> views ) {
 		if ( !isEnabled() ) {
 			return false;
 		}
 		final CompoundCommand cc = new CompoundCommand(DiagramUIMessages.DeleteCommand_Label);
+		List<View> deleted = new ArrayList<View>();
 		while (views.hasNext()) {
 			View view = (View)views.next();
 			if ( shouldDeleteView(view) ) {
 				cc.add(getDeleteViewCommand(view));
+				deleted.add(view);
 			}
 		} 
 		
 		boolean doDelete = !cc.isEmpty() && cc.canExecute();
 		if ( doDelete ) {
+			if ( _deleteBatch != null ) {
+				_deleteBatch.add(this, cc, deleted);
+				return false;
+			}
 			executeCommand(cc);
 		}
 		return doDelete;
@@ -831,6 +855,16 @@ implements NotificationListener {
 		}
 	}
 	
+	/**
+	 * Returns <tt>true</tt>: the editpolicy refreshes from the current state of
+	 * the model, whatever feature changed.
+	 * @param feature a single-valued feature
+	 * @return <tt>true</tt>
+	 */
+	public boolean isStateFeature(EStructuralFeature feature) {
+		return true;
+	}
+	
 	/**
 	 * Return <tt>true</tt> if the host is active and its view has not
 	 * been deleted; otherwise <tt>false</tt>
@@ -852,9 +886,12 @@ implements NotificationListener {
 	
 	/**
 	 * Handles <code>NotificationEvent</code> and resynchronizes the canonical
-	 * container if the event should be handled.
+	 * container if the event should be handled. The resynchronization is
+	 * deferred until all notifications of the transaction have been handled,
+	 * so that it is done once per transaction.
 	 * 
 	 * @param event <code>NotificationEvent</code> to handle.
+	 * @see CanonicalRefreshScheduler
 	 */
 	protected void handleNotificationEvent(Notification event) {
 		
@@ -869,8 +906,14 @@ implements NotificationListener {
 			shouldRefresh = true;
 		}
 		
-		if (shouldRefresh)
-			refresh();
+		if (shouldRefresh) {
+			DiagramEventBroker broker = getDiagramEventBroker();
+			if (broker != null) {
+				CanonicalRefreshScheduler.getInstance(broker).scheduleRefresh(this);
+			} else {
+				refresh();
+			}
+		}
 	}
 	
 	/**
@@ -1132,6 +1175,10 @@ implements NotificationListener {
 	 * Synchronizes the semanticChildren the viewChildren to discover if any of the semanticChildren
 	 * don't have a corresponding view.  Any <code>semanticChildren</code> that do have a view are
 	 * removed from the list.
+	 * <P>
+	 * Unless <code>semanticChildren</code> is a <code>Set</code>, it is indexed by element
+	 * for the duration of the synchronization, so that the cost is linear in the number of
+	 * views and semantic children.
 	 * 
 	 * @param viewChildren <code>List</code> of <code>View</code> elements that already exist in the container.
 	 * @param semanticChildren <code>List</code> of semantic elements that are candidates for synchronization
@@ -1143,11 +1190,20 @@ implements NotificationListener {
 		List<View> orphaned = new ArrayList<View>();
 		Map<EObject, View> viewToSemanticMap = new HashMap<EObject, View>();
 		
+		// sets are already hashed; anything else is indexed so that isOrphaned()
+		// and the removal of the matched children don't scan the collection
+		SemanticChildrenIndex index = null;
+		Collection<EObject> candidates = semanticChildren;
+		if (!(semanticChildren instanceof Set)) {
+			index = new SemanticChildrenIndex(semanticChildren);
+			candidates = index;
+		}
+		
 		for(View viewChild : viewChildren) {
 			
 			semanticChild = viewChild.getElement();
-			if (!isOrphaned(semanticChildren, viewChild)) {
-				semanticChildren.remove(semanticChild);
+			if (!isOrphaned(candidates, viewChild)) {
+				candidates.remove(semanticChild);
 				viewToSemanticMap.put(semanticChild, viewChild);
 			}
 			else {
@@ -1157,15 +1213,127 @@ implements NotificationListener {
 			View viewInMap = viewToSemanticMap.get(semanticChild);
 			if (viewInMap != null && !viewChild.equals(viewInMap)) { 
 				if (viewInMap.isMutable()) {
-					orphaned.remove(viewChild);
+					// the view was orphaned above, so it is the last one
+					int last = orphaned.size() - 1;
+					if (orphaned.get(last) == viewChild) {
+						orphaned.remove(last);
+					} else {
+						orphaned.remove(viewChild);
+					}
 					orphaned.add(viewInMap);
 					viewToSemanticMap.put(semanticChild, viewChild);
 				}
 			}
 		}
+		
+		if (index != null) {
+			index.applyTo(semanticChildren);
+		}
 		return orphaned;
 	}
 
+	/**
+	 * A hashed view of the semantic children being synchronized. Removing an
+	 * element removes its first remaining occurrence, as it would from a list;
+	 * the removals are applied to the original collection when the
+	 * synchronization is done.
+	 */
+	private static final class SemanticChildrenIndex extends AbstractCollection<EObject> {
+		
+		private final List<EObject> elements;
+		
+		private final Map<EObject, int[]> occurrences;
+		
+		private final Map<EObject, int[]> removals = new HashMap<EObject, int[]>();
+		
+		private int size;
+		
+		SemanticChildrenIndex(Collection<EObject> semanticChildren) {
+			elements = new ArrayList<EObject>(semanticChildren);
+			size = elements.size();
+			occurrences = new HashMap<EObject, int[]>(size * 4 / 3 + 1);
+			for (EObject next : elements) {
+				int[] count = occurrences.get(next);
+				if (count == null) {
+					occurrences.put(next, new int[] {1});
+				} else {
+					count[0]++;
+				}
+			}
+		}
+		
+		@Override
+		public boolean contains(Object o) {
+			int[] count = occurrences.get(o);
+			return count != null && count[0] > 0;
+		}
+		
+		@Override
+		public boolean remove(Object o) {
+			int[] count = occurrences.get(o);
+			if (count == null || count[0] == 0) {
+				return false;
+			}
+			count[0]--;
+			size--;
+			
+			int[] removed = removals.get(o);
+			if (removed == null) {
+				removals.put((EObject) o, new int[] {1});
+			} else {
+				removed[0]++;
+			}
+			return true;
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+		
+		@Override
+		public Iterator<EObject> iterator() {
+			return Collections.unmodifiableList(remaining()).iterator();
+		}
+		
+		/**
+		 * The elements that have not been removed, in their original order.
+		 */
+		private List<EObject> remaining() {
+			if (removals.isEmpty()) {
+				return elements;
+			}
+			
+			Map<EObject, int[]> toSkip = new HashMap<EObject, int[]>();
+			for (Map.Entry<EObject, int[]> next : removals.entrySet()) {
+				toSkip.put(next.getKey(), new int[] {next.getValue()[0]});
+			}
+			
+			List<EObject> result = new ArrayList<EObject>(size);
+			for (EObject next : elements) {
+				int[] skip = toSkip.get(next);
+				if (skip != null && skip[0] > 0) {
+					skip[0]--;
+				} else {
+					result.add(next);
+				}
+			}
+			return result;
+		}
+		
+		/**
+		 * Removes the elements that were removed from this index from the
+		 * original <code>semanticChildren</code>.
+		 */
+		void applyTo(Collection<EObject> semanticChildren) {
+			if (!removals.isEmpty()) {
+				List<EObject> result = remaining();
+				semanticChildren.clear();
+				semanticChildren.addAll(result);
+			}
+		}
+	}
+
     /**
      * Decide if the passed view is orphaned or not
      * 
@@ -0,0 +1,349 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.editpolicies;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.commands.CompoundCommand;
+import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
+import org.eclipse.gmf.runtime.diagram.ui.l10n.DiagramUIMessages;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.View;
+
+/**
+ * Coalesces the canonical refreshes requested while a diagram event broker
+ * fires the post commit notifications of a transaction.
+ * <P>
+ * A canonical editpolicy that receives several notifications of the same
+ * transaction is refreshed only once, after all notifications have been
+ * fired. The editpolicies are refreshed top-down, so that containers create
+ * their views (and the editparts of these views) before their children
+ * synchronize.
+ * <P>
+ * The views deleted by the editpolicies of a diagram are deleted by one
+ * batched command, executed once all these editpolicies are refreshed. The
+ * editpolicies whose host is deleted by the batch are not refreshed. The
+ * views are still created by each editpolicy in turn, since the created views
+ * (and connections to them) are read back right after their creation, and
+ * since the editpolicies of the children depend on the editparts of the views
+ * created by their containers.
+ * <P>
+ * There is one scheduler per diagram event broker. The scheduler refers to
+ * its broker weakly, so that it does not keep the broker of a disposed
+ * editing domain from being garbage-collected. The refresh counters are
+ * guarded by the scheduler, so that they can be read from any thread.
+ *
+ * @see CanonicalEditPolicy#handleNotificationEvent(org.eclipse.emf.common.notify.Notification)
+ */
+public final class CanonicalRefreshScheduler {
+
+	/** [diagram event broker, scheduler] map. */
+	private static final Map<DiagramEventBroker, CanonicalRefreshScheduler> instanceMap = new WeakHashMap<DiagramEventBroker, CanonicalRefreshScheduler>();
+
+	/**
+	 * the broker whose notifications trigger the refreshes, which is the key
+	 * of this scheduler in the instance map.
+	 */
+	private final WeakReference<DiagramEventBroker> brokerRef;
+
+	/** the editpolicies to refresh, in request order. */
+	private final Set<CanonicalEditPolicy> dirtyPolicies = new LinkedHashSet<CanonicalEditPolicy>();
+
+	/** the number of refreshes requested. */
+	private int requestedCount = 0;
+
+	/** the number of refreshes performed. */
+	private int performedCount = 0;
+
+	/** the number of batched delete commands executed. */
+	private int deleteBatchCount = 0;
+
+	/**
+	 * Constructs a new scheduler for the given broker.
+	 *
+	 * @param broker
+	 *            the diagram event broker
+	 */
+	private CanonicalRefreshScheduler(DiagramEventBroker broker) {
+		this.brokerRef = new WeakReference<DiagramEventBroker>(broker);
+	}
+
+	/**
+	 * Gets the scheduler for the given diagram event broker.
+	 *
+	 * @param broker
+	 *            the diagram event broker
+	 * @return the scheduler of the broker
+	 */
+	public static CanonicalRefreshScheduler getInstance(DiagramEventBroker broker) {
+		synchronized (instanceMap) {
+			CanonicalRefreshScheduler scheduler = instanceMap.get(broker);
+			if (scheduler == null) {
+				scheduler = new CanonicalRefreshScheduler(broker);
+				instanceMap.put(broker, scheduler);
+			}
+			return scheduler;
+		}
+	}
+
+	/**
+	 * Requests a refresh of the given editpolicy. If the broker is firing
+	 * post commit notifications, the refresh is deferred until all of them
+	 * have been fired; otherwise the editpolicy is refreshed right away.
+	 *
+	 * @param policy
+	 *            the editpolicy to refresh
+	 */
+	void scheduleRefresh(CanonicalEditPolicy policy) {
+		DiagramEventBroker broker = brokerRef.get();
+		if (broker == null || !broker.isFiringPostCommitNotifications()) {
+			synchronized (this) {
+				requestedCount++;
+				performedCount++;
+			}
+			policy.refresh();
+			return;
+		}
+		boolean first;
+		synchronized (this) {
+			requestedCount++;
+			first = dirtyPolicies.isEmpty();
+			dirtyPolicies.add(policy);
+		}
+		if (first) {
+			broker.runAfterPostCommitNotifications(new Runnable() {
+
+				public void run() {
+					flush();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Refreshes the editpolicies collected while the notifications were
+	 * fired.
+	 */
+	private void flush() {
+		List<CanonicalEditPolicy> policies;
+		try {
+			synchronized (this) {
+				policies = new ArrayList<CanonicalEditPolicy>(dirtyPolicies);
+			}
+
+			final Map<CanonicalEditPolicy, Integer> depths = new IdentityHashMap<CanonicalEditPolicy, Integer>();
+			for (CanonicalEditPolicy policy : policies) {
+				depths.put(policy, Integer.valueOf(getDepth(policy)));
+			}
+			// the sort is stable, so policies of equal depth keep request order
+			Collections.sort(policies, new Comparator<CanonicalEditPolicy>() {
+
+				public int compare(CanonicalEditPolicy p1, CanonicalEditPolicy p2) {
+					return depths.get(p1).compareTo(depths.get(p2));
+				}
+			});
+		} finally {
+			// reset before refreshing, so that the refreshes requested by the
+			// notifications of the refresh commands schedule a new flush,
+			// and so that a failure never leaves the scheduler dirty
+			synchronized (this) {
+				dirtyPolicies.clear();
+			}
+		}
+
+		// one batch per diagram, in the order of the first policy of each
+		Map<Diagram, List<CanonicalEditPolicy>> diagrams = new LinkedHashMap<Diagram, List<CanonicalEditPolicy>>();
+		for (CanonicalEditPolicy policy : policies) {
+			View view = policy.host().getNotationView();
+			Diagram diagram = view != null ? view.getDiagram()
+				: null;
+			List<CanonicalEditPolicy> diagramPolicies = diagrams.get(diagram);
+			if (diagramPolicies == null) {
+				diagramPolicies = new ArrayList<CanonicalEditPolicy>();
+				diagrams.put(diagram, diagramPolicies);
+			}
+			diagramPolicies.add(policy);
+		}
+
+		for (List<CanonicalEditPolicy> diagramPolicies : diagrams.values()) {
+			DeleteBatch batch = new DeleteBatch();
+			for (CanonicalEditPolicy policy : diagramPolicies) {
+				if (!policy.isActive() || !policy.isHostStillValid()
+					|| batch.isDeleted(policy.host().getNotationView())) {
+					continue;
+				}
+				synchronized (this) {
+					performedCount++;
+				}
+				policy._deleteBatch = batch;
+				try {
+					policy.refresh();
+				} finally {
+					policy._deleteBatch = null;
+				}
+			}
+			if (batch.execute()) {
+				synchronized (this) {
+					deleteBatchCount++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the containment depth of the host view of the given editpolicy.
+	 */
+	private static int getDepth(CanonicalEditPolicy policy) {
+		int depth = 0;
+		Object model = policy.getHost().getModel();
+		if (model instanceof EObject) {
+			for (EObject container = ((EObject) model).eContainer(); container != null; container = container
+				.eContainer()) {
+				depth++;
+			}
+		}
+		return depth;
+	}
+
+	/**
+	 * Gets the number of canonical refreshes requested, including the ones
+	 * that were coalesced.
+	 *
+	 * @return the number of refreshes requested
+	 */
+	public synchronized int getRequestedRefreshCount() {
+		return requestedCount;
+	}
+
+	/**
+	 * Gets the number of canonical refreshes performed.
+	 *
+	 * @return the number of refreshes performed
+	 */
+	public synchronized int getPerformedRefreshCount() {
+		return performedCount;
+	}
+
+	/**
+	 * Gets the number of canonical refreshes that were coalesced with another
+	 * refresh of the same editpolicy, or dropped because the editpolicy was
+	 * deactivated before the notifications had all been fired.
+	 *
+	 * @return the number of refreshes saved
+	 */
+	public synchronized int getCoalescedRefreshCount() {
+		return requestedCount - performedCount - dirtyPolicies.size();
+	}
+
+	/**
+	 * Gets the number of batched delete commands executed, which is at most
+	 * one per diagram and per transaction.
+	 *
+	 * @return the number of delete batches executed
+	 */
+	public synchronized int getDeleteBatchCount() {
+		return deleteBatchCount;
+	}
+
+	/**
+	 * Resets the refresh counters.
+	 */
+	public synchronized void resetCounters() {
+		requestedCount = 0;
+		performedCount = 0;
+		deleteBatchCount = 0;
+	}
+
+	/**
+	 * Gathers the delete commands of the editpolicies of one diagram, and
+	 * executes them as one command once the editpolicies are refreshed.
+	 */
+	static final class DeleteBatch {
+
+		/** the delete commands. */
+		private final CompoundCommand command = new CompoundCommand(
+			DiagramUIMessages.DeleteCommand_Label);
+
+		/** the views deleted by the commands. */
+		private final Set<View> views = new HashSet<View>();
+
+		/** the editpolicies whose delete commands were gathered. */
+		private final Set<CanonicalEditPolicy> policies = new LinkedHashSet<CanonicalEditPolicy>();
+
+		/**
+		 * Adds the delete command of an editpolicy.
+		 *
+		 * @param policy
+		 *            the editpolicy
+		 * @param cmd
+		 *            the command, which can be executed
+		 * @param deleted
+		 *            the views the command deletes
+		 */
+		void add(CanonicalEditPolicy policy, Command cmd, List<View> deleted) {
+			command.add(cmd);
+			views.addAll(deleted);
+			policies.add(policy);
+		}
+
+		/**
+		 * Checks whether the given view or one of its containers is deleted
+		 * by the batch.
+		 */
+		boolean isDeleted(View view) {
+			if (!views.isEmpty()) {
+				for (EObject eObject = view; eObject != null; eObject = eObject
+					.eContainer()) {
+					if (views.contains(eObject)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Executes the gathered commands through the first editpolicy, which
+		 * runs them unprotected outside of write transactions, then lets the
+		 * editpolicies refresh their host.
+		 *
+		 * @return <tt>true</tt> if there was something to delete
+		 */
+		boolean execute() {
+			if (command.isEmpty()) {
+				return false;
+			}
+			policies.iterator().next().executeCommand(command);
+			for (CanonicalEditPolicy policy : policies) {
+				if (policy.isActive() && policy.isHostStillValid()) {
+					policy.postProcessRefreshSemantic(Collections
+						.<IAdaptable> emptyList());
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -22,11 +22,12 @@ import org.eclipse.draw2d.TreeSearch;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.gef.DragTracker;
 import org.eclipse.gef.handles.AbstractHandle;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
-import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IGraphicalEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IResizableCompartmentEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.internal.figures.CollapseFigure;
@@ -43,7 +44,7 @@ import org.eclipse.gmf.runtime.notation.View;
  */
 public class CompartmentCollapseHandle
 	extends AbstractHandle
-	implements PropertyChangeListener, NotificationListener {
+	implements PropertyChangeListener, StateNotificationListener {
 
 	/** 
 	 * Positions the supplied figure in its owner's top left corner offset by [1,1] 
@@ -128,6 +129,15 @@ public class CompartmentCollapseHandle
 			collapseFigure.setCollapsed(notification.getNewBooleanValue());
 	}
 
+	/**
+	 * Only the new collapsed value is read.
+	 * 
+	 * @see org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener#isStateFeature(org.eclipse.emf.ecore.EStructuralFeature)
+	 */
+	public boolean isStateFeature(EStructuralFeature feature) {
+		return NotationPackage.eINSTANCE.getDrawerStyle_Collapsed() == feature;
+	}
+
 	/**
 	 * @see org.eclipse.draw2d.IFigure#addNotify()
 	 */
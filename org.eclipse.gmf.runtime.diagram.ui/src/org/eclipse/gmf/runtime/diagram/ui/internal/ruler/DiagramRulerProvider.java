@@ -18,6 +18,7 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.gef.commands.Command;
 import org.eclipse.gef.commands.CompoundCommand;
@@ -26,6 +27,7 @@ import org.eclipse.gef.rulers.RulerProvider;
 import org.eclipse.gmf.runtime.diagram.core.commands.SetPropertyCommand;
 import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
 import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
 import org.eclipse.gmf.runtime.diagram.ui.commands.ICommandProxy;
 import org.eclipse.gmf.runtime.diagram.ui.internal.properties.Properties;
@@ -86,11 +88,19 @@ public class DiagramRulerProvider extends RulerProvider {
 		}
 	};
 
-	private NotificationListener guideListener = new NotificationListener() {
+	/*
+	 * Only reports that a guide moved, its listeners read the new position
+	 * from the guide, so it does not need the intermediate positions.
+	 */
+	private NotificationListener guideListener = new StateNotificationListener() {
 		public void notifyChanged(Notification evt) {
 			handleNotificationEvent(evt);
 		}
 		
+		public boolean isStateFeature(EStructuralFeature feature) {
+			return feature == NotationPackage.eINSTANCE.getGuide_Position();
+		}
+		
 		private void handleNotificationEvent(Notification event) {
 			Object feature = event.getFeature();
 			// Notify when the guide's position changes
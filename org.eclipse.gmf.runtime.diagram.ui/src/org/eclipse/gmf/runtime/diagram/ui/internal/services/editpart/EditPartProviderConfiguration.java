@@ -13,13 +13,16 @@ package org.eclipse.gmf.runtime.diagram.ui.internal.services.editpart;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.gmf.runtime.common.core.service.AbstractProviderConfiguration;
+import org.eclipse.gmf.runtime.common.core.service.ProviderCriteria;
 import org.eclipse.gmf.runtime.notation.View;
 
 /**
@@ -128,6 +131,43 @@ public class EditPartProviderConfiguration extends AbstractProviderConfiguration
 		}
 		return false;
 	}
+
+	/**
+	 * Retrieves the criteria of this configuration for the dispatch index of
+	 * the edit part service, whose only dimension is the type of the view.
+	 * Contexts for <code>RootEditPart</code> creation never match a view, so
+	 * they are left out.
+	 * 
+	 * @return the criteria, or <code>null</code> if there are no listed
+	 *         provider contexts
+	 */
+	public ProviderCriteria getCriteria() {
+		if (requests.isEmpty())
+			return null;
+
+		ProviderCriteria criteria = new ProviderCriteria(1);
+		Iterator iter = requests.iterator();
+		while (iter.hasNext()) {
+			ContextDescriptor request = (ContextDescriptor) iter.next();
+			if (request.views == null)
+				continue;
+
+			Set types = new HashSet();
+			Iterator views = request.views.iterator();
+			while (views.hasNext()) {
+				Set literals = ((ObjectDescriptor) views.next())
+					.getValueLiterals("getType"); //$NON-NLS-1$
+				if (literals == null) {
+					types = null; // any view type
+					break;
+				}
+				types.addAll(literals);
+			}
+			criteria.addContext(new Set[] {types});
+		}
+		return criteria;
+	}
+
 	/**
 	 * A descriptor for a provider context
 	 */
@@ -24,6 +24,9 @@ import org.eclipse.gef.EditPartFactory;
 import org.eclipse.gef.RootEditPart;
 import org.eclipse.gmf.runtime.common.core.service.ExecutionStrategy;
 import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.common.core.service.IProvider;
+import org.eclipse.gmf.runtime.common.core.service.IProviderPolicy;
+import org.eclipse.gmf.runtime.common.core.service.ProviderCriteria;
 import org.eclipse.gmf.runtime.common.core.service.Service;
 import org.eclipse.gmf.runtime.common.core.util.Log;
 import org.eclipse.gmf.runtime.common.core.util.Trace;
@@ -60,8 +63,11 @@ final public class EditPartService
 	protected static class ProviderDescriptor
 		extends Service.ProviderDescriptor {
 
-		/** the provider configuration parsed from XML */
-		private EditPartProviderConfiguration providerConfiguration;
+		/**
+		 * the provider configuration parsed from XML, cleared once the
+		 * provider is loaded; read once into a local by each thread
+		 */
+		private volatile EditPartProviderConfiguration providerConfiguration;
 
 		/**
 		 * Constructs a <code>ISemanticProvider</code> descriptor for
@@ -81,33 +87,52 @@ final public class EditPartService
 		 * @see org.eclipse.gmf.runtime.common.core.service.IProvider#provides(org.eclipse.gmf.runtime.common.core.service.IOperation)
 		 */
 		public boolean provides(IOperation operation) {
-			if (!policyInitialized){
-				policy = getPolicy();
-				policyInitialized = true;
-			}
-			if (policy != null)
-				return policy.provides(operation);
-			if (provider == null) {
-				if (isSupportedInExtention(operation)) {
+			IProviderPolicy providerPolicy = getPolicy();
+			if (providerPolicy != null)
+				return providerPolicy.provides(operation);
+			EditPartProviderConfiguration configuration = providerConfiguration;
+			if (provider == null && configuration != null) {
+				if (isSupportedInExtention(configuration, operation)) {
 					providerConfiguration = null;
-					return getProvider().provides(operation);
+					return providerProvides(operation);
 				}
 				return false;
 			}
-			return getProvider().provides(operation);
+			return providerProvides(operation);
+		}
+
+		/**
+		 * Asks the provider, loading it if needed, whether it provides the
+		 * operation.
+		 */
+		private boolean providerProvides(IOperation operation) {
+			IProvider loadedProvider = getProvider();
+			return loadedProvider != null && loadedProvider.provides(operation);
+		}
+
+		/**
+		 * @see org.eclipse.gmf.runtime.common.core.service.Service.ProviderDescriptor#getCriteria()
+		 */
+		protected ProviderCriteria getCriteria() {
+			EditPartProviderConfiguration configuration = providerConfiguration;
+			if (configuration == null || provider != null || hasPolicyElement())
+				return null;
+			return configuration.getCriteria();
 		}
 
 		/**
 		 * Cheks if the operation is supported by the XML extension
+		 * @param configuration the provider configuration parsed from XML
 		 * @param operation
 		 * @return <code> true</code> or <code>false</code>
 		 */
-		private boolean isSupportedInExtention(IOperation operation) {
+		private boolean isSupportedInExtention(
+				EditPartProviderConfiguration configuration, IOperation operation) {
 			if (operation instanceof CreateGraphicEditPartOperation) {
 				CreateGraphicEditPartOperation o = (CreateGraphicEditPartOperation) operation;
-				return providerConfiguration.supports(o.getView());
+				return configuration.supports(o.getView());
 			} else if (operation instanceof CreateRootEditPartOperation) {
-				return providerConfiguration.supportsRootEditPart();
+				return configuration.supportsRootEditPart();
 			}
 			return false;
 		}
@@ -130,7 +155,7 @@ final public class EditPartService
      * constructor
 	 */
 	private EditPartService() {
-		super(true, false);
+		super(true, false, true);
 		configureProviders(DiagramUIPlugin.getPluginId(), "editpartProviders"); //$NON-NLS-1$
 	}
 	
@@ -164,6 +189,21 @@ final public class EditPartService
 		return ((IEditPartOperation)operation).getCachingKey();
 	}
 
+	/**
+	 * The dispatch key of a <code>CreateGraphicEditPartOperation</code> is
+	 * the type of its view.
+	 * 
+	 * @see org.eclipse.gmf.runtime.common.core.service.Service#getDispatchKeys(org.eclipse.gmf.runtime.common.core.service.IOperation)
+	 */
+	protected Object[] getDispatchKeys(IOperation operation) {
+		if (operation instanceof CreateGraphicEditPartOperation) {
+			View view = ((CreateGraphicEditPartOperation) operation).getView();
+			if (view != null)
+				return new Object[] {String.valueOf(view.getType())};
+		}
+		return null;
+	}
+
 	/** 
 	 * Creates an <code>IGraphicalEditPart</code> instance by forwarding a <code>CreateGraphicEditPartOperation</code>
 	 * to the registered providers.  The supplied parameter is the editpart's constructor
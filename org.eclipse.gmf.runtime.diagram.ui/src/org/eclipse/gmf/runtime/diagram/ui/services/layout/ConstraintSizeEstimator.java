@@ -0,0 +1,88 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.services.layout;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.gmf.runtime.notation.LayoutConstraint;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.Size;
+
+/**
+ * Estimates the size of a node from its <code>Size</code> constraint, and
+ * uses a default width or height where the constraint has none, as for nodes
+ * sized by their figures.
+ */
+public class ConstraintSizeEstimator
+	implements INodeSizeEstimator {
+
+	/**
+	 * The default width of a node, in pixels
+	 */
+	public static final int DEFAULT_WIDTH = 100;
+
+	/**
+	 * The default height of a node, in pixels
+	 */
+	public static final int DEFAULT_HEIGHT = 60;
+
+	private final int defaultWidth;
+
+	private final int defaultHeight;
+
+	/**
+	 * Creates an estimator using <code>DEFAULT_WIDTH</code> and
+	 * <code>DEFAULT_HEIGHT</code> pixels, in the measurement unit of the
+	 * diagram of each node.
+	 */
+	public ConstraintSizeEstimator() {
+		this(-1, -1);
+	}
+
+	/**
+	 * Creates an estimator with the given default size.
+	 *
+	 * @param defaultWidth
+	 *            the width of the nodes without one in their constraint, in
+	 *            the measurement unit of their diagram, or -1 to use
+	 *            <code>DEFAULT_WIDTH</code> pixels
+	 * @param defaultHeight
+	 *            the height of the nodes without one in their constraint, in
+	 *            the measurement unit of their diagram, or -1 to use
+	 *            <code>DEFAULT_HEIGHT</code> pixels
+	 */
+	public ConstraintSizeEstimator(int defaultWidth, int defaultHeight) {
+		this.defaultWidth = defaultWidth;
+		this.defaultHeight = defaultHeight;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.gmf.runtime.diagram.ui.services.layout.INodeSizeEstimator#getSize(org.eclipse.gmf.runtime.notation.Node)
+	 */
+	public Dimension getSize(Node node) {
+		int width = -1;
+		int height = -1;
+		LayoutConstraint constraint = node.getLayoutConstraint();
+		if (constraint instanceof Size) {
+			width = ((Size) constraint).getWidth();
+			height = ((Size) constraint).getHeight();
+		}
+		if (width == -1) {
+			width = defaultWidth != -1 ? defaultWidth
+				: NotationGraphLayout.toLogicalUnits(node, DEFAULT_WIDTH);
+		}
+		if (height == -1) {
+			height = defaultHeight != -1 ? defaultHeight
+				: NotationGraphLayout.toLogicalUnits(node, DEFAULT_HEIGHT);
+		}
+		return new Dimension(width, height);
+	}
+}
@@ -0,0 +1,34 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.services.layout;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.gmf.runtime.notation.Node;
+
+/**
+ * Estimates the size of a notation <code>Node</code> without its figure, for
+ * the layouts of the <code>NotationGraphLayout</code>.
+ *
+ * @see NotationGraphLayout
+ */
+public interface INodeSizeEstimator {
+
+	/**
+	 * Estimates the size the figure of a node would have.
+	 *
+	 * @param node
+	 *            the <code>Node</code> to estimate the size of
+	 * @return the estimated <code>Dimension</code> of the node, in the
+	 *         measurement unit of its diagram
+	 */
+	public Dimension getSize(Node node);
+}
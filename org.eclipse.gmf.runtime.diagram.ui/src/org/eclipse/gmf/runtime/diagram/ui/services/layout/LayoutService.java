@@ -188,6 +188,8 @@ final public class LayoutService extends Service implements
 
 	/**
 	 * Utility method to layout the children of a view container.
+	 * The edit parts of the diagram are created offscreen to size the
+	 * children; {@link NotationGraphLayout} lays them out without edit parts.
 	 * 
 	 * @param container
 	 *            <code>View</code> object that is the container whose children will be laid
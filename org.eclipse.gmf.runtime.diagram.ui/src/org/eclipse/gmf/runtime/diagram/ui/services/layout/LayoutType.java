@@ -34,4 +34,9 @@ final public class LayoutType {
      */
     public static final String COMPOSITE = "COMPOSITE"; //$NON-NLS-1$
 
+    /**
+     * the layered layout type, which scales to large diagrams
+     */
+    public static final String LAYERED = "LAYERED"; //$NON-NLS-1$
+
 }
\ No newline at end of file
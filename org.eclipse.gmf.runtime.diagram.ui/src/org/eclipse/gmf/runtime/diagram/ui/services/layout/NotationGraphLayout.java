@@ -0,0 +1,333 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.diagram.ui.services.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.PositionConstants;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.draw2d.ui.graph.ConstantSizeNode;
+import org.eclipse.gmf.runtime.draw2d.ui.graph.GMFDirectedGraphLayout;
+import org.eclipse.gmf.runtime.notation.Bendpoints;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.LayoutConstraint;
+import org.eclipse.gmf.runtime.notation.Location;
+import org.eclipse.gmf.runtime.notation.MeasurementUnit;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.RelativeBendpoints;
+import org.eclipse.gmf.runtime.notation.View;
+import org.eclipse.gmf.runtime.notation.datatype.RelativeBendpoint;
+
+/**
+ * Lays out notation <code>Node</code>s and the <code>Edge</code>s between
+ * them without edit parts or figures, so that diagrams can be laid out in
+ * batch jobs and without a display.
+ * <P>
+ * The sizes of the nodes are given by an <code>INodeSizeEstimator</code>.
+ * The nodes are laid out by a draw2d <code>DirectedGraphLayout</code>, the
+ * <code>GMFDirectedGraphLayout</code> by default, and their locations are set
+ * in their <code>Location</code> constraints. The points of the edges
+ * between laid out nodes are set in their <code>RelativeBendpoints</code>,
+ * relative to the centers of their ends.
+ * <P>
+ * The views are modified directly, so the layout has to run in a write
+ * transaction when they are in a transactional editing domain.
+ *
+ * @see LayoutService#layout(View, String)
+ */
+public class NotationGraphLayout {
+
+	/**
+	 * The padding around the nodes, in pixels
+	 */
+	private static final int NODE_PADDING = 30;
+
+	/**
+	 * The padding between edges, in pixels
+	 */
+	private static final int EDGE_PADDING = 15;
+
+	/**
+	 * The minimum padding between the ends of the edges on a node, in pixels
+	 */
+	private static final int MIN_EDGE_END_POINTS_PADDING = 5;
+
+	/**
+	 * The logical units per inch of a diagram in HiMetric
+	 */
+	private static final double HIMETRIC_UNITS_PER_INCH = 2540.0;
+
+	/**
+	 * The pixels per inch assumed to convert pixels to HiMetric without a
+	 * display
+	 */
+	private static final double PIXELS_PER_INCH = 96.0;
+
+	private final INodeSizeEstimator sizeEstimator;
+
+	private final DirectedGraphLayout graphLayout;
+
+	private int direction = PositionConstants.SOUTH;
+
+	/**
+	 * Creates a layout estimating the sizes of the nodes from their
+	 * constraints, with a <code>GMFDirectedGraphLayout</code>.
+	 */
+	public NotationGraphLayout() {
+		this(new ConstraintSizeEstimator(), new GMFDirectedGraphLayout());
+	}
+
+	/**
+	 * Creates a layout.
+	 *
+	 * @param sizeEstimator
+	 *            the estimator of the sizes of the nodes
+	 * @param graphLayout
+	 *            the layout of the graph of the nodes, whose instance is
+	 *            reused by each layout
+	 */
+	public NotationGraphLayout(INodeSizeEstimator sizeEstimator,
+			DirectedGraphLayout graphLayout) {
+		if (sizeEstimator == null) {
+			throw new NullPointerException("Argument 'sizeEstimator' is null"); //$NON-NLS-1$
+		}
+		if (graphLayout == null) {
+			throw new NullPointerException("Argument 'graphLayout' is null"); //$NON-NLS-1$
+		}
+		this.sizeEstimator = sizeEstimator;
+		this.graphLayout = graphLayout;
+	}
+
+	/**
+	 * Sets the direction of the edges of the graph.
+	 *
+	 * @param direction
+	 *            <code>PositionConstants.SOUTH</code>, the default, or
+	 *            <code>PositionConstants.EAST</code>
+	 */
+	public void setDirection(int direction) {
+		this.direction = direction;
+	}
+
+	/**
+	 * @return the direction of the edges of the graph
+	 */
+	public int getDirection() {
+		return direction;
+	}
+
+	/**
+	 * Lays out the visible child nodes of a container, from the top left
+	 * corner of the container.
+	 *
+	 * @param container
+	 *            the <code>View</code> whose children are laid out
+	 * @throws NullPointerException
+	 *             <code>container</code> is <code>null</code>
+	 */
+	public void layout(View container) {
+		if (null == container) {
+			throw new NullPointerException("Argument 'container' is null"); //$NON-NLS-1$
+		}
+		layout(container.getChildren(), false);
+	}
+
+	/**
+	 * Lays out the given nodes from the top left corner of their bounding
+	 * box, the other children of their container keeping their locations.
+	 *
+	 * @param nodes
+	 *            <code>List</code> of <code>Node</code> objects
+	 * @throws NullPointerException
+	 *             <code>nodes</code> is <code>null</code>
+	 */
+	public void layoutNodes(List nodes) {
+		if (null == nodes) {
+			throw new NullPointerException("Argument 'nodes' is null"); //$NON-NLS-1$
+		}
+		layout(nodes, true);
+	}
+
+	private void layout(List views, boolean offsetFromBoundingBox) {
+		DirectedGraph g = new DirectedGraph();
+		g.setDirection(direction);
+		Map viewToNode = new HashMap();
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		for (Iterator i = views.iterator(); i.hasNext();) {
+			Object next = i.next();
+			if (!(next instanceof Node) || !((Node) next).isVisible()) {
+				continue;
+			}
+			Node view = (Node) next;
+			LayoutConstraint constraint = view.getLayoutConstraint();
+			if (!(constraint instanceof Location)) {
+				continue;
+			}
+			minX = Math.min(minX, ((Location) constraint).getX());
+			minY = Math.min(minY, ((Location) constraint).getY());
+
+			ConstantSizeNode n = new ConstantSizeNode(view);
+			Dimension size = sizeEstimator.getSize(view);
+			n.width = size.width;
+			n.height = size.height;
+			n.setPadding(new Insets(toLogicalUnits(view, NODE_PADDING)));
+			int endPointsPadding = toLogicalUnits(view,
+				MIN_EDGE_END_POINTS_PADDING);
+			n.setMinIncomingPadding(endPointsPadding);
+			n.setMinOutgoingPadding(endPointsPadding);
+			viewToNode.put(view, n);
+			g.nodes.add(n);
+		}
+		if (g.nodes.isEmpty()) {
+			return;
+		}
+		buildEdges(g, viewToNode);
+
+		graphLayout.visit(g);
+
+		int dx = 0;
+		int dy = 0;
+		if (offsetFromBoundingBox) {
+			int graphMinX = Integer.MAX_VALUE;
+			int graphMinY = Integer.MAX_VALUE;
+			for (int i = 0; i < g.nodes.size(); i++) {
+				graphMinX = Math.min(graphMinX, g.nodes.getNode(i).x);
+				graphMinY = Math.min(graphMinY, g.nodes.getNode(i).y);
+			}
+			dx = minX - graphMinX;
+			dy = minY - graphMinY;
+		}
+		for (int i = 0; i < g.nodes.size(); i++) {
+			org.eclipse.draw2d.graph.Node n = g.nodes.getNode(i);
+			Location location = (Location) ((Node) n.data)
+				.getLayoutConstraint();
+			location.setX(n.x + dx);
+			location.setY(n.y + dy);
+		}
+		for (int i = 0; i < g.edges.size(); i++) {
+			setBendpoints(g.edges.getEdge(i), dx, dy);
+		}
+	}
+
+	/**
+	 * Adds the edges between the nodes, or the nodes containing their ends,
+	 * to the graph.
+	 */
+	private void buildEdges(DirectedGraph g, Map viewToNode) {
+		for (int i = 0; i < g.nodes.size(); i++) {
+			org.eclipse.draw2d.graph.Node source = g.nodes.getNode(i);
+			List sourceEdges = new ArrayList();
+			collectSourceEdges((View) source.data, sourceEdges);
+			for (Iterator j = sourceEdges.iterator(); j.hasNext();) {
+				org.eclipse.gmf.runtime.notation.Edge edge = (org.eclipse.gmf.runtime.notation.Edge) j
+					.next();
+				if (!edge.isVisible()) {
+					continue;
+				}
+				org.eclipse.draw2d.graph.Node target = getLaidOutNode(edge
+					.getTarget(), viewToNode);
+				if (target == null || target == source) {
+					continue;
+				}
+				Edge e = new Edge(edge, source, target);
+				e.setPadding(toLogicalUnits((View) source.data, EDGE_PADDING));
+				g.edges.add(e);
+			}
+		}
+	}
+
+	private void collectSourceEdges(View view, List sourceEdges) {
+		sourceEdges.addAll(view.getSourceEdges());
+		for (Iterator i = view.getChildren().iterator(); i.hasNext();) {
+			collectSourceEdges((View) i.next(), sourceEdges);
+		}
+	}
+
+	private org.eclipse.draw2d.graph.Node getLaidOutNode(View view,
+			Map viewToNode) {
+		for (EObject o = view; o instanceof View; o = o.eContainer()) {
+			org.eclipse.draw2d.graph.Node n = (org.eclipse.draw2d.graph.Node) viewToNode
+				.get(o);
+			if (n != null) {
+				return n;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the points of an edge between two laid out nodes, relative to the
+	 * centers of the nodes.
+	 */
+	private void setBendpoints(Edge e, int dx, int dy) {
+		org.eclipse.gmf.runtime.notation.Edge edge = (org.eclipse.gmf.runtime.notation.Edge) e.data;
+		PointList points = e.getPoints();
+		Bendpoints bendpoints = edge.getBendpoints();
+		if (points == null || points.size() < 2
+			|| !(bendpoints instanceof RelativeBendpoints)
+			|| edge.getSource() != e.source.data
+			&& edge.getSource() != e.target.data
+			|| edge.getTarget() != e.source.data
+			&& edge.getTarget() != e.target.data) {
+			// the ends of the edge are nested in the laid out nodes
+			return;
+		}
+		org.eclipse.draw2d.graph.Node source = e.source;
+		org.eclipse.draw2d.graph.Node target = e.target;
+		boolean reversed = edge.getSource() != source.data;
+		if (reversed) {
+			source = e.target;
+			target = e.source;
+		}
+		Point sourceCenter = new Point(source.x + source.width / 2 + dx,
+			source.y + source.height / 2 + dy);
+		Point targetCenter = new Point(target.x + target.width / 2 + dx,
+			target.y + target.height / 2 + dy);
+		List newBendpoints = new ArrayList(points.size());
+		for (int i = 0; i < points.size(); i++) {
+			Point p = points.getPoint(reversed ? points.size() - 1 - i : i)
+				.getTranslated(dx, dy);
+			Dimension s = p.getDifference(sourceCenter);
+			Dimension t = p.getDifference(targetCenter);
+			newBendpoints.add(new RelativeBendpoint(s.width, s.height,
+				t.width, t.height));
+		}
+		((RelativeBendpoints) bendpoints).setPoints(newBendpoints);
+	}
+
+	/**
+	 * Converts pixels to the measurement unit of the diagram of a view,
+	 * assuming a resolution of 96 pixels per inch for HiMetric since there
+	 * may be no display.
+	 */
+	static int toLogicalUnits(View view, int pixels) {
+		Diagram diagram = view.getDiagram();
+		if (diagram != null
+			&& diagram.getMeasurementUnit() == MeasurementUnit.HIMETRIC_LITERAL) {
+			return (int) Math.round(pixels * HIMETRIC_UNITS_PER_INCH
+				/ PIXELS_PER_INCH);
+		}
+		return pixels;
+	}
+}
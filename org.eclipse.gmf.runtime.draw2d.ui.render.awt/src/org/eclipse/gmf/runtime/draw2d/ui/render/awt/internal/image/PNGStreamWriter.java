@@ -0,0 +1,330 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an opaque 8 bit RGB PNG image to a stream one band of rows at a
+ * time, so that images too big to be held in memory can be encoded while they
+ * are rendered. Only the current and the previous row are kept in addition to
+ * the compression buffers.
+ * <P>
+ * The rows must be written from top to bottom, and the writer closed once all
+ * the rows of the image are written.
+ *
+ * @see ImageExporter
+ */
+public class PNGStreamWriter {
+
+	private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10,
+		26, 10};
+
+	private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+
+	private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+
+	private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+	/**
+	 * The size of the IDAT chunks the compressed rows are split in
+	 */
+	private static final int IDAT_CHUNK_SIZE = 64 * 1024;
+
+	private static final int BYTES_PER_PIXEL = 3;
+
+	private final OutputStream stream;
+
+	private final int width;
+
+	private final int height;
+
+	private final Deflater deflater;
+
+	private final DeflaterOutputStream idatStream;
+
+	private byte[] row;
+
+	private byte[] previousRow;
+
+	private final byte[][] filteredRows = new byte[5][];
+
+	private int rowsWritten = 0;
+
+	/**
+	 * Creates a writer and writes the header of the image.
+	 *
+	 * @param stream
+	 *            the stream to write the image to, which is not closed by the
+	 *            writer
+	 * @param width
+	 *            the width of the image in pixels
+	 * @param height
+	 *            the height of the image in pixels
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public PNGStreamWriter(OutputStream stream, int width, int height)
+		throws IOException {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Invalid image size: " + width //$NON-NLS-1$
+				+ "x" + height); //$NON-NLS-1$
+		}
+		this.stream = stream;
+		this.width = width;
+		this.height = height;
+		int rowLength = width * BYTES_PER_PIXEL;
+		row = new byte[rowLength];
+		previousRow = new byte[rowLength];
+		for (int i = 0; i < filteredRows.length; i++) {
+			filteredRows[i] = new byte[rowLength + 1];
+			filteredRows[i][0] = (byte) i;
+		}
+
+		stream.write(SIGNATURE);
+		byte[] header = new byte[13];
+		writeInt(header, 0, width);
+		writeInt(header, 4, height);
+		header[8] = 8; // bit depth
+		header[9] = 2; // color type: RGB
+		header[10] = 0; // compression method: deflate
+		header[11] = 0; // filter method: adaptive
+		header[12] = 0; // interlace method: none
+		writeChunk(IHDR, header, header.length);
+
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		idatStream = new DeflaterOutputStream(new IDATOutputStream(), deflater,
+			IDAT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @return the width of the image in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the image in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Writes the next rows of the image. The alpha of the pixels is ignored.
+	 *
+	 * @param rgb
+	 *            the pixels of the rows, in the default RGB color model as
+	 *            returned by <code>BufferedImage.getRGB</code>
+	 * @param offset
+	 *            the index of the first pixel of the first row in
+	 *            <code>rgb</code>
+	 * @param scanSize
+	 *            the distance between the first pixels of two rows in
+	 *            <code>rgb</code>
+	 * @param rows
+	 *            the number of rows to write
+	 * @throws IOException
+	 *             if the rows cannot be written
+	 */
+	public void writeRows(int[] rgb, int offset, int scanSize, int rows)
+		throws IOException {
+		if (rowsWritten + rows > height) {
+			throw new IllegalStateException("More rows than the image height"); //$NON-NLS-1$
+		}
+		for (int r = 0; r < rows; r++) {
+			int index = offset + r * scanSize;
+			for (int x = 0, i = 0; x < width; x++) {
+				int pixel = rgb[index + x];
+				row[i++] = (byte) (pixel >> 16);
+				row[i++] = (byte) (pixel >> 8);
+				row[i++] = (byte) pixel;
+			}
+			idatStream.write(filterRow());
+
+			byte[] swap = previousRow;
+			previousRow = row;
+			row = swap;
+			rowsWritten++;
+		}
+	}
+
+	/**
+	 * Finishes the compression of the rows and writes the end of the image.
+	 * The stream the image is written to is not closed.
+	 *
+	 * @throws IOException
+	 *             if the end of the image cannot be written
+	 * @throws IllegalStateException
+	 *             if fewer rows than the height of the image were written
+	 */
+	public void close()
+		throws IOException {
+		if (rowsWritten != height) {
+			throw new IllegalStateException("Missing rows: " + rowsWritten //$NON-NLS-1$
+				+ " of " + height + " written"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		try {
+			idatStream.close();
+			writeChunk(IEND, new byte[0], 0);
+			stream.flush();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Releases the compressor without writing the end of the image, when the
+	 * writing of the image failed or was canceled. The image written to the
+	 * stream is left incomplete. Does nothing if the writer is already closed
+	 * or disposed.
+	 */
+	public void dispose() {
+		deflater.end();
+	}
+
+	/**
+	 * Filters the current row with each of the PNG filters and returns the one
+	 * with the smallest sum of absolute differences, the heuristic suggested
+	 * by the PNG specification.
+	 */
+	private byte[] filterRow() {
+		int rowLength = row.length;
+		byte[] best = null;
+		long bestSum = Long.MAX_VALUE;
+		for (int filter = 0; filter < filteredRows.length; filter++) {
+			byte[] filtered = filteredRows[filter];
+			long sum = 0;
+			for (int i = 0; i < rowLength; i++) {
+				int current = row[i] & 0xff;
+				int left = i >= BYTES_PER_PIXEL ? row[i - BYTES_PER_PIXEL] & 0xff
+					: 0;
+				int up = previousRow[i] & 0xff;
+				int upLeft = i >= BYTES_PER_PIXEL ? previousRow[i
+					- BYTES_PER_PIXEL] & 0xff
+					: 0;
+				int value;
+				switch (filter) {
+					case 1:
+						value = current - left;
+						break;
+					case 2:
+						value = current - up;
+						break;
+					case 3:
+						value = current - ((left + up) >> 1);
+						break;
+					case 4:
+						value = current - paeth(left, up, upLeft);
+						break;
+					default:
+						value = current;
+				}
+				byte b = (byte) value;
+				filtered[i + 1] = b;
+				sum += Math.abs(b);
+			}
+			if (sum < bestSum) {
+				bestSum = sum;
+				best = filtered;
+			}
+		}
+		return best;
+	}
+
+	private static int paeth(int left, int up, int upLeft) {
+		int p = left + up - upLeft;
+		int pLeft = Math.abs(p - left);
+		int pUp = Math.abs(p - up);
+		int pUpLeft = Math.abs(p - upLeft);
+		if (pLeft <= pUp && pLeft <= pUpLeft) {
+			return left;
+		}
+		return pUp <= pUpLeft ? up
+			: upLeft;
+	}
+
+	private void writeChunk(byte[] type, byte[] data, int length)
+		throws IOException {
+		byte[] lengthBytes = new byte[4];
+		writeInt(lengthBytes, 0, length);
+		stream.write(lengthBytes);
+		stream.write(type);
+		stream.write(data, 0, length);
+
+		CRC32 crc = new CRC32();
+		crc.update(type);
+		crc.update(data, 0, length);
+		byte[] crcBytes = new byte[4];
+		writeInt(crcBytes, 0, (int) crc.getValue());
+		stream.write(crcBytes);
+	}
+
+	private static void writeInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	/**
+	 * Collects the compressed rows and writes them as IDAT chunks of at most
+	 * <code>IDAT_CHUNK_SIZE</code> bytes.
+	 */
+	private class IDATOutputStream
+		extends OutputStream {
+
+		private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+
+		private int count = 0;
+
+		public void write(int b)
+			throws IOException {
+			if (count == buffer.length) {
+				flushChunk();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		public void write(byte[] b, int off, int len)
+			throws IOException {
+			while (len > 0) {
+				if (count == buffer.length) {
+					flushChunk();
+				}
+				int n = Math.min(len, buffer.length - count);
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		public void close()
+			throws IOException {
+			flushChunk();
+		}
+
+		private void flushChunk()
+			throws IOException {
+			if (count > 0) {
+				writeChunk(IDAT, buffer, count);
+				count = 0;
+			}
+		}
+	}
+}
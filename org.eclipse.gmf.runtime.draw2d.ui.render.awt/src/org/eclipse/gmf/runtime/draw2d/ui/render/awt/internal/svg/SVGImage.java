@@ -27,6 +27,7 @@ import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.ImageConverte
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.AbstractRenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.Draw2dRenderDebugOptions;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.Draw2dRenderStatusCodes;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageCache;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageKey;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
@@ -92,18 +93,28 @@ public final class SVGImage extends AbstractRenderedImage {
 
 	/**
 	 * getDocument
-	 * Accessor for retrieving the SVG document for this Image
+	 * Accessor for retrieving the SVG document for this Image. Documents are
+	 * shared by all images of the same content, see
+	 * {@link RenderedImageCache#getDocument(long, String)}.
 	 * 
 	 * @return SVG Document that represents the image
 	 */
 	public Document getDocument() {
 
 		Document document = null;
+		RenderedImageKey key = getKey();
 		
 		// IF the document has already been created...
-		if (getKey().getExtraData() != null) {
+		if (key.getExtraData() != null) {
 			// Return it
-			return (Document)getKey().getExtraData();
+			return (Document)key.getExtraData();
+		}
+
+		RenderedImageCache cache = RenderedImageCache.getInstance();
+		document = (Document) cache.getDocument(key.getChecksum(), key
+			.getURLString());
+		if (document != null) {
+			return document;
 		}
 
 		// Otherwise Parse the buffer can create the document
@@ -113,7 +124,9 @@ public final class SVGImage extends AbstractRenderedImage {
 
 		try {
 			document =
-				f.createDocument(getKey().getURLString(), in);
+				f.createDocument(key.getURLString(), in);
+			cache.putDocument(key.getChecksum(), key.getURLString(), document,
+				getBuffer().length);
 
 		} catch (IOException e) {
 			// Log the exception to the Error Log
@@ -136,8 +149,11 @@ public final class SVGImage extends AbstractRenderedImage {
 			
 			// otherwise render the image.
 			try {
+				// the document is shared with the other images of the same
+				// content, so render a copy of it
+				Document clone = (Document) getDocument().cloneNode(true);
 				SVGImageConverter converter = new SVGImageConverter();
-				buffImg = converter.renderSVGToAWTImage(getDocument(), getRenderInfo());
+				buffImg = converter.renderSVGToAWTImage(clone, getRenderInfo());
 			} catch (Exception e) {
 				Trace.catching(Draw2dRenderPlugin.getInstance(), Draw2dRenderDebugOptions.EXCEPTIONS_THROWING, getClass(), "getSWTImage()", //$NON-NLS-1$
 				e);
@@ -14,6 +14,11 @@ package org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.batik.dom.svg.SVGDOMImplementation;
 import org.apache.batik.dom.svg.SVGOMDocument;
@@ -30,6 +35,7 @@ import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.SVGColorConvert
 import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.SVGImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.DrawableRenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.RenderingListener;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageKey;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -44,6 +50,18 @@ public class GraphicsSVG extends GraphicsToGraphics2DAdaptor implements Drawable
 
 	private Document doc;
 
+	/**
+	 * The ids of the symbols defining the SVG images drawn, keyed by
+	 * <code>RenderedImageKey</code>s of the images without size
+	 */
+	private Map symbolIds = new HashMap();
+
+	/**
+	 * The symbols defining the SVG images drawn, in the order of their
+	 * creation
+	 */
+	private List symbols = new ArrayList();
+
 	/**
 	 * Static initializer that will return an instance of <code>GraphicsSVG</code>
 	 * 
@@ -120,7 +138,43 @@ public class GraphicsSVG extends GraphicsToGraphics2DAdaptor implements Drawable
 	 * @return DOM Root element
 	 */
 	public Element getRoot() {
-		return getSVGGraphics2D().getRoot();		
+		Element root = getSVGGraphics2D().getRoot();
+		if (!symbols.isEmpty()) {
+			Element defs = doc.createElementNS(
+					SVGDOMImplementation.SVG_NAMESPACE_URI,
+					SVGConstants.SVG_DEFS_TAG);
+			for (Iterator iter = symbols.iterator(); iter.hasNext();) {
+				defs.appendChild((Element) iter.next());
+			}
+			root.insertBefore(defs, root.getFirstChild());
+		}
+		return root;
+	}
+
+	/**
+	 * Returns the definitions that the elements drawn so far may reference:
+	 * the generic definitions of the <code>SVGGraphics2D</code>, the
+	 * definitions made by its graphic context and filter converters, such as
+	 * the clipping paths and the gradients, and the symbols of the SVG
+	 * images. Unlike {@link #getRoot()}, it leaves the elements drawn where
+	 * they are.
+	 * <P>
+	 * The converters are replaced, and their definitions forgotten, whenever
+	 * the top level group of the <code>SVGGraphics2D</code> is taken, so the
+	 * definitions have to be collected before.
+	 * 
+	 * @return the list of definition <code>Element</code>s
+	 */
+	public List getDefinitions() {
+		DOMTreeManager treeManager = getSVGGraphics2D().getDOMTreeManager();
+		List definitions = new ArrayList(treeManager
+			.getGenericDefinitionSet());
+		definitions.addAll(treeManager.getGraphicContextConverter()
+			.getDefinitionSet());
+		definitions.addAll(treeManager.getFilterConverter()
+			.getDefinitionSet());
+		definitions.addAll(symbols);
+		return definitions;
 	}
 
 	/* (non-Javadoc)
@@ -137,30 +191,14 @@ public class GraphicsSVG extends GraphicsToGraphics2DAdaptor implements Drawable
 	    Point trans = getTranslationOffset();
 	    // Get the Root element of the SVG document to export
 	    if (srcImage instanceof SVGImage) {
-	    	Document document = ((SVGImage)srcImage).getDocument();
-            
-          DOMImplementation impl = SVGDOMImplementation.getDOMImplementation();
-          document = DOMUtilities.deepCloneDocument(document, impl);
-            
-	    	if (document instanceof SVGOMDocument) {
-	    		RenderInfo info = srcImage.getRenderInfo();
-				if (info != null && info.getBackgroundColor() != null
-						&& info.getForegroundColor() != null) {
-					SVGColorConverter.getInstance().replaceDocumentColors(
-							(SVGOMDocument) document,
-							new Color(info.getBackgroundColor().red, info
-									.getBackgroundColor().green, info
-									.getBackgroundColor().blue),
-							new Color(info.getForegroundColor().red, info
-									.getForegroundColor().green, info
-									.getForegroundColor().blue));
-
-				}
-			}
-			Element root = document.getDocumentElement();
+	    	String symbolId = getSymbolId((SVGImage) srcImage);
 
-			// Create a "deep" copy of the document
-			Element toAppend = (Element)doc.importNode(root, true);
+			// Reference the symbol of the image from a "use" element
+			Element toAppend = doc.createElementNS(
+					SVGDOMImplementation.SVG_NAMESPACE_URI,
+					SVGConstants.SVG_USE_TAG);
+			toAppend.setAttributeNS(SVGConstants.XLINK_NAMESPACE_URI,
+					SVGConstants.XLINK_HREF_QNAME, "#" + symbolId); //$NON-NLS-1$
 
 			// Modify the X Attribute
 			toAppend.setAttributeNS(
@@ -193,6 +231,77 @@ public class GraphicsSVG extends GraphicsToGraphics2DAdaptor implements Drawable
 	    	return super.drawRenderedImage(srcImage, rect, listener);
 		}
 	}
-	
+
+	/**
+	 * Returns the id of the symbol defining the content of an SVG image,
+	 * creating the symbol the first time the content is drawn. The images are
+	 * keyed by their content and colors but not by their size, since the
+	 * symbol is scaled to the size of each "use" element.
+	 * 
+	 * @param image the <code>SVGImage</code> to draw
+	 * @return the id of the symbol of the image
+	 */
+	private String getSymbolId(SVGImage image) {
+		RenderedImageKey key = image.getKey();
+		key.setExtraData(null);
+		key.setValues(0, 0, key.shouldMaintainAspectRatio(), key
+			.shouldAntiAlias(), key.getBackgroundColor(), key
+			.getForegroundColor());
+
+		String symbolId = (String) symbolIds.get(key);
+		if (symbolId == null) {
+			symbolId = getSVGGraphics2D().getGeneratorContext()
+				.getIDGenerator().generateID("image"); //$NON-NLS-1$
+			symbols.add(createSymbol(image, symbolId));
+			symbolIds.put(key, symbolId);
+		}
+		return symbolId;
+	}
+
+	/**
+	 * Creates a symbol with a copy of the document of the image, whose
+	 * colors are replaced by the colors of the image. The copy fills the
+	 * viewport of the symbol, as the document of an image drawn inline
+	 * fills the bounds of the image.
+	 */
+	private Element createSymbol(SVGImage image, String symbolId) {
+		Document document = image.getDocument();
+
+		DOMImplementation impl = SVGDOMImplementation.getDOMImplementation();
+		document = DOMUtilities.deepCloneDocument(document, impl);
+
+		if (document instanceof SVGOMDocument) {
+			RenderInfo info = image.getRenderInfo();
+			if (info != null && info.getBackgroundColor() != null
+					&& info.getForegroundColor() != null) {
+				SVGColorConverter.getInstance().replaceDocumentColors(
+						(SVGOMDocument) document,
+						new Color(info.getBackgroundColor().red, info
+								.getBackgroundColor().green, info
+								.getBackgroundColor().blue),
+						new Color(info.getForegroundColor().red, info
+								.getForegroundColor().green, info
+								.getForegroundColor().blue));
+
+			}
+		}
+		Element root = document.getDocumentElement();
+
+		// Create a "deep" copy of the document
+		Element content = (Element) doc.importNode(root, true);
+		content.setAttributeNS(null, SVGConstants.SVG_X_ATTRIBUTE, "0"); //$NON-NLS-1$
+		content.setAttributeNS(null, SVGConstants.SVG_Y_ATTRIBUTE, "0"); //$NON-NLS-1$
+		content.setAttributeNS(null, SVGConstants.SVG_WIDTH_ATTRIBUTE,
+				"100%"); //$NON-NLS-1$
+		content.setAttributeNS(null, SVGConstants.SVG_HEIGHT_ATTRIBUTE,
+				"100%"); //$NON-NLS-1$
+
+		Element symbol = doc.createElementNS(
+				SVGDOMImplementation.SVG_NAMESPACE_URI,
+				SVGConstants.SVG_SYMBOL_TAG);
+		symbol.setAttributeNS(null, SVGConstants.SVG_ID_ATTRIBUTE, symbolId);
+		symbol.appendChild(content);
+		return symbol;
+	}
 
 }
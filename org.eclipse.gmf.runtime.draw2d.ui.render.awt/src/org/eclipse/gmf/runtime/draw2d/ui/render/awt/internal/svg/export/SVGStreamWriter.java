@@ -0,0 +1,201 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.batik.dom.svg.SVGDOMImplementation;
+import org.apache.batik.util.SVGConstants;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Writes the SVG drawn on a <code>GraphicsSVG</code> to a stream while it is
+ * drawn, rather than once the whole document is built, so that the memory
+ * used by an export does not grow with the number of figures.
+ * <P>
+ * The root element is written when the writer is created. Each call to
+ * {@link #flush()} writes the elements drawn since the previous call and
+ * removes them from the document of the graphics. The definitions, such as
+ * the symbols of the SVG images and the clipping paths, are collected from
+ * the graphics before each flush, since the graphics forgets them when the
+ * drawn elements are taken, and are written at the end of the document by
+ * {@link #close()}.
+ */
+public class SVGStreamWriter {
+
+	private final GraphicsSVG graphics;
+
+	private final Writer writer;
+
+	private final Transformer transformer;
+
+	private IOException exception = null;
+
+	/**
+	 * The definitions collected from the graphics, in the order of their
+	 * collection
+	 */
+	private final Set definitions = new LinkedHashSet();
+
+	/**
+	 * Creates a writer and writes the root element of the SVG document.
+	 *
+	 * @param graphics
+	 *            the graphics to write the SVG of, on which nothing is drawn
+	 *            yet
+	 * @param viewBox
+	 *            the value of the view box attribute of the root element
+	 * @param outputStream
+	 *            the stream to write the SVG document to, which is not closed
+	 *            by the writer
+	 * @throws IOException
+	 *             if the root element cannot be written
+	 */
+	public SVGStreamWriter(GraphicsSVG graphics, String viewBox,
+			OutputStream outputStream)
+		throws IOException {
+		this.graphics = graphics;
+		writer = new BufferedWriter(new OutputStreamWriter(outputStream,
+			"UTF-8")); //$NON-NLS-1$
+		try {
+			transformer = TransformerFactory.newInstance().newTransformer();
+		} catch (TransformerException e) {
+			throw toIOException(e);
+		}
+		transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
+		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
+		transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes"); //$NON-NLS-1$
+
+		// the root holds the default rendering attributes of the graphics
+		Element root = graphics.getSVGGraphics2D().getRoot();
+		root.setAttributeNS(null, SVGConstants.SVG_VIEW_BOX_ATTRIBUTE,
+			viewBox);
+
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+		writer.write("<svg xmlns=\""); //$NON-NLS-1$
+		writer.write(SVGDOMImplementation.SVG_NAMESPACE_URI);
+		writer.write("\" xmlns:xlink=\""); //$NON-NLS-1$
+		writer.write(SVGConstants.XLINK_NAMESPACE_URI);
+		writer.write('"');
+		NamedNodeMap attributes = root.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Attr attribute = (Attr) attributes.item(i);
+			if (attribute.getName().startsWith("xmlns")) { //$NON-NLS-1$
+				continue;
+			}
+			writer.write(' ');
+			writer.write(attribute.getName());
+			writer.write("=\""); //$NON-NLS-1$
+			writeEscaped(attribute.getValue());
+			writer.write('"');
+		}
+		writer.write(">\n"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Writes the elements drawn since the previous flush and removes them
+	 * from the document. An error is reported by {@link #close()}.
+	 */
+	public void flush() {
+		if (exception != null) {
+			return;
+		}
+		definitions.addAll(graphics.getDefinitions());
+		Element group = graphics.getSVGGraphics2D().getTopLevelGroup(false);
+		if (group.hasChildNodes()) {
+			try {
+				write(group);
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+	}
+
+	/**
+	 * Writes the elements not written yet and the definitions, and ends the
+	 * document. The stream is flushed but not closed.
+	 *
+	 * @throws IOException
+	 *             if the document cannot be written
+	 */
+	public void close()
+		throws IOException {
+		flush();
+		if (exception != null) {
+			throw exception;
+		}
+		definitions.addAll(graphics.getDefinitions());
+		if (!definitions.isEmpty()) {
+			writer.write("<defs>\n"); //$NON-NLS-1$
+			for (Iterator iter = definitions.iterator(); iter.hasNext();) {
+				write((Node) iter.next());
+			}
+			writer.write("</defs>\n"); //$NON-NLS-1$
+		}
+		writer.write("</svg>\n"); //$NON-NLS-1$
+		writer.flush();
+	}
+
+	private void write(Node node)
+		throws IOException {
+		try {
+			transformer.transform(new DOMSource(node), new StreamResult(
+				writer));
+		} catch (TransformerException e) {
+			throw toIOException(e);
+		}
+		writer.write('\n');
+	}
+
+	private void writeEscaped(String value)
+		throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '&':
+					writer.write("&amp;"); //$NON-NLS-1$
+					break;
+				case '<':
+					writer.write("&lt;"); //$NON-NLS-1$
+					break;
+				case '"':
+					writer.write("&quot;"); //$NON-NLS-1$
+					break;
+				default:
+					writer.write(c);
+			}
+		}
+	}
+
+	private static IOException toIOException(TransformerException e) {
+		IOException ioException = new IOException(e.getMessage());
+		ioException.initCause(e);
+		return ioException;
+	}
+}
@@ -14,15 +14,11 @@ package org.eclipse.gmf.runtime.draw2d.ui.render.factory;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.zip.Adler32;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -34,6 +30,7 @@ import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.AbstractRenderedImage;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.Draw2dRenderDebugOptions;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.Draw2dRenderPlugin;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageCache;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageKey;
 import org.eclipse.gmf.runtime.draw2d.ui.render.internal.image.ImageRenderedImage;
 import org.eclipse.swt.graphics.RGB;
@@ -41,12 +38,11 @@ import org.eclipse.swt.graphics.RGB;
 /**
  * @author sshaw
  * 
- * Factory class for generating RenderedImage objects
+ * Factory class for generating RenderedImage objects. The instances are
+ * shared through a bounded cache, see {@link RenderedImageCache}.
  */
 public class RenderedImageFactory {
 
-    static private Map instanceMap = new WeakHashMap();
-
     /**
      * createInfo static Utility to create a RenderInfo object.
      * 
@@ -151,27 +147,9 @@ public class RenderedImageFactory {
      * @since 2.1
      */
     public static RenderedImage getInstance(byte [] buffer, RenderInfo info, String url) {
-        Adler32 checksum = new Adler32();
-        checksum.update(buffer);
-        final RenderedImageKey key = new RenderedImageKey(info, checksum.getValue(), null, url);
-        WeakReference ref = (WeakReference) instanceMap.get(key);
-        RenderedImage image = null;
-        if (ref != null)
-            image = (RenderedImage) (((WeakReference) instanceMap.get(key))
-                .get());
-        else
-            image = autodetectImage(buffer, key);
-
-		// Bugzilla 208374
-		if (image == null) {
-			// Remove entry holding null reference.
-			instanceMap.remove(key);
-			// Recreate entry using buffer.
-			image = getInstance(buffer);
-		}
-
-        return image;
-    	
+        long checksum = RenderedImageCache.getInstance().getChecksum(buffer);
+        return getCachedInstance(buffer, new RenderedImageKey(info, checksum,
+            null, url));
     }
 
     /**
@@ -272,13 +250,8 @@ public class RenderedImageFactory {
             }
             
             RenderedImageKey key = new RenderedImageKey(info, oldKey.getChecksum(), extraData);
-            WeakReference ref = (WeakReference) instanceMap.get(key);
-            if (ref != null) {
-                return (RenderedImage) ref.get();
-            } else {
-                return autodetectImage(((AbstractRenderedImage) image)
-                    .getBuffer(), key);
-            }
+            return getCachedInstance(((AbstractRenderedImage) image)
+                .getBuffer(), key);
         }
 
         return null;
@@ -300,25 +273,36 @@ public class RenderedImageFactory {
         if (buffer == null)
             throw new InvalidParameterException();
 
-        Adler32 checksum = new Adler32();
-        checksum.update(buffer);
-        final RenderedImageKey key = new RenderedImageKey(info, checksum.getValue(), null);
-        WeakReference ref = (WeakReference) instanceMap.get(key);
-        RenderedImage image = null;
-        if (ref != null)
-            image = (RenderedImage) (((WeakReference) instanceMap.get(key))
-                .get());
-        else
-            image = autodetectImage(buffer, key);
+        long checksum = RenderedImageCache.getInstance().getChecksum(buffer);
+        return getCachedInstance(buffer, new RenderedImageKey(info, checksum,
+            null));
+    }
 
-		// Bugzilla 208374
-		if (image == null) {
-			// Remove entry holding null reference.
-			instanceMap.remove(key);
-			// Recreate entry using buffer.
-			image = getInstance(buffer);
-		}
+    /**
+     * Retrieves the cached instance for the given key, or creates and caches
+     * a new one.
+     * 
+     * @param buffer
+     *            byte[] array containing the image file.
+     * @param key
+     *            the key of the instance
+     * @return <code>RenderedImage</code> instance with the size dimensions
+     *         requested.
+     */
+    static private RenderedImage getCachedInstance(byte[] buffer,
+            RenderedImageKey key) {
+        RenderedImageCache cache = RenderedImageCache.getInstance();
+        RenderedImage image = cache.getImage(key);
+        if (image == null) {
+            image = autodetectImage(buffer, key);
 
+            // Bugzilla 208374
+            if (image == null) {
+                // Do not cache the null instance, recreate it using buffer.
+                return getInstance(buffer);
+            }
+            cache.putImage(key, image, buffer.length);
+        }
         return image;
     }
 
@@ -367,10 +351,6 @@ public class RenderedImageFactory {
             image = new ImageRenderedImage(buffer, key);
         }
         
-        if (image != null) {
-            instanceMap.put(key, new WeakReference(image));
-        }
-        
         return image;
     }
 }
@@ -35,4 +35,10 @@ public final class Draw2dRenderStatusCodes {
      * SVG document file
      */
     public static final int SVG_GENERATION_FAILURE = 2;
+
+    /**
+     * Status code indicating that an error occurred while rendering an
+     * image in the background
+     */
+    public static final int RENDERING_FAILURE = 3;
 }
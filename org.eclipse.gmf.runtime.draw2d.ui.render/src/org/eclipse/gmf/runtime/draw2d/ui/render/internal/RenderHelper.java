@@ -11,9 +11,6 @@
 
 package org.eclipse.gmf.runtime.draw2d.ui.render.internal;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.draw2d.geometry.Rectangle;
@@ -68,8 +65,6 @@ public class RenderHelper {
 		return maximumRenderSize;
 	}
 
-	private static Map threadMap = new HashMap();
-	
 	/**
 	 * Allows for asynchronous execution of the rendering. The
 	 * <code>RenderingListener</code
@@ -80,40 +75,18 @@ public class RenderHelper {
 	 * that be notified when the rendering operation has been completed.
 	 * @return <code>true</code> if rendering is already completed and clients can simply call
 	 * <code>getSWTImage</code> to retrieve image immediately, <code>false</code>
-	 * if it has to be calculated and has spawned a thread to do the rendering.  After the rendering
-	 * is completed the <code>RenderingListener</code> listener will be notified
+	 * if it has to be calculated and has been queued on the <code>RenderingExecutor</code>.
+	 * After the rendering is completed the <code>RenderingListener</code> listener will be
+	 * notified on the display thread
 	 */
 	private boolean renderSWTImage(RenderedImage srcImage,
 			final RenderingListener listener) {
 		if (srcImage.isRendered())
 			return true;
 
-		Thread existingThread = (Thread)threadMap.get(listener);
-		if (existingThread != null) {
-			existingThread.interrupt();
-			threadMap.remove(listener);
-		}
-		
-		final RenderedImage rndImg = srcImage;
-		final Thread renderThread = new Thread(new Runnable() {
-			public void run() {
-				
-				Image img = null;
-				try {
-					img = rndImg.getSWTImage();
-				} catch (RuntimeException e) {
-					threadMap.remove(listener);
-					throw e;
-				}
-				
-				if (img != null)
-					listener.imageRendered(rndImg);
-					threadMap.remove(listener);
-			}
-		});
-		
-		threadMap.put(listener, renderThread);
-		renderThread.start();
+		// the image is requested by a paint, so its figure is visible
+		RenderingExecutor.getInstance().submit(srcImage, listener,
+			RenderingExecutor.PRIORITY_VISIBLE);
 
 		return false;
 	}
@@ -0,0 +1,529 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.render.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.gmf.runtime.common.core.util.Log;
+import org.eclipse.gmf.runtime.common.core.util.Trace;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Renders <code>RenderedImage</code> instances in the background on a bounded
+ * pool of threads.
+ * <P>
+ * Requests are served by priority and, among requests of the same priority,
+ * the most recent first, so that the images of the figures painted last are
+ * rendered before the ones a previous paint asked for. Requests for images of
+ * the same <code>RenderedImageKey</code> share a single rendering. A listener
+ * has at most one pending request: a new request from the same listener
+ * cancels the previous one.
+ * <P>
+ * The listeners of the images rendered in the meantime are notified together
+ * on the display thread, in a single <code>asyncExec</code>.
+ */
+public class RenderingExecutor {
+
+	/**
+	 * The priority of the images of visible figures.
+	 */
+	public static final int PRIORITY_VISIBLE = 10;
+
+	/**
+	 * The priority of images that may be needed later.
+	 */
+	public static final int PRIORITY_BACKGROUND = 0;
+
+	/**
+	 * The number of milliseconds an idle worker waits for a request before
+	 * it ends.
+	 */
+	private static final long KEEP_ALIVE = 30000;
+
+	private static final RenderingExecutor instance = new RenderingExecutor(
+		Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+	/**
+	 * A request for the rendering of an image, which can be used to cancel
+	 * it.
+	 */
+	public static final class RenderingRequest {
+
+		private final RenderingListener listener;
+
+		private final Task task;
+
+		private volatile boolean cancelled = false;
+
+		RenderingRequest(RenderingListener listener, Task task) {
+			this.listener = listener;
+			this.task = task;
+		}
+
+		/**
+		 * @return the image to render
+		 */
+		public RenderedImage getImage() {
+			return task.image;
+		}
+
+		/**
+		 * @return the listener to notify when the image is rendered
+		 */
+		public RenderingListener getListener() {
+			return listener;
+		}
+
+		/**
+		 * @return <code>true</code> if the request was cancelled,
+		 *         <code>false</code> otherwise
+		 */
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * The rendering of one image, shared by all the requests for it.
+	 */
+	private static final class Task {
+
+		final Object key;
+
+		final RenderedImage image;
+
+		final List requests = new ArrayList(1);
+
+		int priority;
+
+		long sequence;
+
+		boolean started = false;
+
+		Task(Object key, RenderedImage image) {
+			this.key = key;
+			this.image = image;
+		}
+	}
+
+	/**
+	 * Orders the tasks by descending priority, then the most recent first.
+	 */
+	private static final Comparator TASK_ORDER = new Comparator() {
+
+		public int compare(Object o1, Object o2) {
+			Task t1 = (Task) o1;
+			Task t2 = (Task) o2;
+			if (t1.priority != t2.priority) {
+				return t1.priority > t2.priority ? -1 : 1;
+			}
+			if (t1.sequence != t2.sequence) {
+				return t1.sequence > t2.sequence ? -1 : 1;
+			}
+			return 0;
+		}
+	};
+
+	private final Object lock = new Object();
+
+	/** the tasks waiting for a worker */
+	private final PriorityQueue queue = new PriorityQueue(16, TASK_ORDER);
+
+	/** [key, Task] the tasks that are queued or running */
+	private final Map tasks = new HashMap();
+
+	/** [RenderingListener, RenderingRequest] the pending request of each listener */
+	private final Map listenerRequests = new HashMap();
+
+	/** the requests whose image is rendered and whose listener is not yet notified */
+	private List completedRequests = new ArrayList();
+
+	private int parallelism;
+
+	private int workerCount = 0;
+
+	private int idleWorkerCount = 0;
+
+	private long sequence = 0;
+
+	private long renderedCount = 0;
+
+	private long sharedCount = 0;
+
+	private long cancelledCount = 0;
+
+	private long batchCount = 0;
+
+	/** the display to notify the listeners on */
+	private volatile Display display = null;
+
+	/**
+	 * Creates a new executor.
+	 *
+	 * @param parallelism
+	 *            the maximum number of images rendered at the same time
+	 */
+	public RenderingExecutor(int parallelism) {
+		setParallelism(parallelism);
+	}
+
+	/**
+	 * @return the executor used by the <code>RenderHelper</code>
+	 */
+	public static RenderingExecutor getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Sets the maximum number of images rendered at the same time. Workers
+	 * above the new limit end when they finish their current image.
+	 *
+	 * @param parallelism
+	 *            the maximum number of images rendered at the same time
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException();
+		}
+		synchronized (lock) {
+			this.parallelism = parallelism;
+			startWorkers();
+		}
+	}
+
+	/**
+	 * @return the maximum number of images rendered at the same time
+	 */
+	public int getParallelism() {
+		synchronized (lock) {
+			return parallelism;
+		}
+	}
+
+	/**
+	 * Requests the rendering of an image. The request of the listener that
+	 * is still pending, if any, is cancelled unless it is for the same image.
+	 *
+	 * @param image
+	 *            the image to render
+	 * @param listener
+	 *            the listener to notify on the display thread when the image
+	 *            is rendered
+	 * @param priority
+	 *            the priority of the request, such as
+	 *            {@link #PRIORITY_VISIBLE}
+	 * @return the request
+	 */
+	public RenderingRequest submit(RenderedImage image,
+			RenderingListener listener, int priority) {
+		Display current = Display.getCurrent();
+		if (current != null) {
+			display = current;
+		}
+		Object key = image instanceof AbstractRenderedImage
+			? (Object) ((AbstractRenderedImage) image).getKey()
+			: image;
+
+		synchronized (lock) {
+			RenderingRequest previous = (RenderingRequest) listenerRequests
+				.get(listener);
+			if (previous != null) {
+				if (previous.task.key.equals(key)) {
+					prioritize(previous.task, priority);
+					return previous;
+				}
+				cancel(previous);
+			}
+
+			Task task = (Task) tasks.get(key);
+			if (task == null) {
+				task = new Task(key, image);
+				task.priority = priority;
+				task.sequence = sequence++;
+				tasks.put(key, task);
+				queue.add(task);
+				startWorkers();
+			} else {
+				sharedCount++;
+				prioritize(task, priority);
+			}
+
+			RenderingRequest request = new RenderingRequest(listener, task);
+			task.requests.add(request);
+			listenerRequests.put(listener, request);
+			return request;
+		}
+	}
+
+	/**
+	 * Cancels a request. Its listener will not be notified, and the image is
+	 * not rendered if no other request needs it and its rendering has not
+	 * started yet.
+	 *
+	 * @param request
+	 *            the request to cancel
+	 */
+	public void cancel(RenderingRequest request) {
+		synchronized (lock) {
+			if (request.cancelled) {
+				return;
+			}
+			request.cancelled = true;
+			cancelledCount++;
+			if (listenerRequests.get(request.listener) == request) {
+				listenerRequests.remove(request.listener);
+			}
+			Task task = request.task;
+			task.requests.remove(request);
+			if (task.requests.isEmpty() && !task.started) {
+				queue.remove(task);
+				tasks.remove(task.key);
+			}
+		}
+	}
+
+	/**
+	 * Raises the priority of a queued task and moves it ahead of the tasks of
+	 * the same priority.
+	 */
+	private void prioritize(Task task, int priority) {
+		if (task.started) {
+			return;
+		}
+		queue.remove(task);
+		task.priority = Math.max(task.priority, priority);
+		task.sequence = sequence++;
+		queue.add(task);
+	}
+
+	/**
+	 * Starts a worker for each queued task that no idle worker can take, up
+	 * to the parallelism.
+	 */
+	private void startWorkers() {
+		if (idleWorkerCount > 0) {
+			lock.notifyAll();
+		}
+		int needed = queue.size() - idleWorkerCount;
+		while (needed > 0 && workerCount < parallelism) {
+			workerCount++;
+			needed--;
+			Thread worker = new Thread(new Runnable() {
+
+				public void run() {
+					work();
+				}
+			}, "GMF Rendering"); //$NON-NLS-1$
+			worker.setDaemon(true);
+			worker.setPriority(Thread.NORM_PRIORITY - 1);
+			worker.start();
+		}
+	}
+
+	/**
+	 * The loop of a worker thread.
+	 */
+	private void work() {
+		boolean ended = false;
+		try {
+			while (true) {
+				Task task;
+				synchronized (lock) {
+					if (workerCount > parallelism) {
+						workerCount--;
+						ended = true;
+						return;
+					}
+					if (queue.isEmpty()) {
+						idleWorkerCount++;
+						try {
+							lock.wait(KEEP_ALIVE);
+						} catch (InterruptedException e) {
+							// end the worker
+						} finally {
+							idleWorkerCount--;
+						}
+						if (queue.isEmpty()) {
+							workerCount--;
+							ended = true;
+							return;
+						}
+						continue;
+					}
+					task = (Task) queue.poll();
+					task.started = true;
+				}
+
+				render(task);
+			}
+		} finally {
+			if (!ended) {
+				// an error ended the worker, let another one take the queue
+				synchronized (lock) {
+					workerCount--;
+					startWorkers();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders the image of a task and queues the notification of its
+	 * listeners.
+	 */
+	private void render(Task task) {
+		try {
+			task.image.getSWTImage();
+		} catch (RuntimeException e) {
+			Trace.catching(Draw2dRenderPlugin.getInstance(),
+				Draw2dRenderDebugOptions.EXCEPTIONS_CATCHING, getClass(),
+				"render", e); //$NON-NLS-1$
+			Log.error(Draw2dRenderPlugin.getInstance(),
+				Draw2dRenderStatusCodes.RENDERING_FAILURE, e.getMessage(), e);
+		} finally {
+			// also complete the task when an error is thrown, so that it can
+			// be requested again
+			complete(task);
+		}
+	}
+
+	/**
+	 * Removes a rendered task and queues the notification of the listeners of
+	 * its requests.
+	 */
+	private void complete(Task task) {
+		boolean schedule = false;
+		synchronized (lock) {
+			renderedCount++;
+			tasks.remove(task.key);
+			boolean rendered = task.image.isRendered();
+			for (Iterator i = task.requests.iterator(); i.hasNext();) {
+				RenderingRequest request = (RenderingRequest) i.next();
+				if (listenerRequests.get(request.listener) == request) {
+					listenerRequests.remove(request.listener);
+				}
+				if (rendered && !request.cancelled) {
+					schedule |= completedRequests.isEmpty();
+					completedRequests.add(request);
+				}
+			}
+		}
+		if (schedule) {
+			asyncExec(new Runnable() {
+
+				public void run() {
+					notifyListeners();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Notifies the listeners of the requests completed since the last
+	 * notification.
+	 */
+	private void notifyListeners() {
+		List requests;
+		synchronized (lock) {
+			requests = completedRequests;
+			completedRequests = new ArrayList();
+			batchCount++;
+		}
+		for (Iterator i = requests.iterator(); i.hasNext();) {
+			RenderingRequest request = (RenderingRequest) i.next();
+			if (!request.cancelled) {
+				request.listener.imageRendered(request.task.image);
+			}
+		}
+	}
+
+	/**
+	 * Discards the requests completed since the last notification, whose
+	 * listeners can no longer be notified.
+	 */
+	private void discardCompletedRequests() {
+		synchronized (lock) {
+			completedRequests = new ArrayList();
+		}
+	}
+
+	/**
+	 * Runs the notification of a batch of listeners on the display thread.
+	 * When there is no display, the listeners are notified on the calling
+	 * thread.
+	 *
+	 * @param runnable
+	 *            the notification of the listeners
+	 */
+	protected void asyncExec(Runnable runnable) {
+		Display target = display;
+		if (target != null && !target.isDisposed()) {
+			try {
+				target.asyncExec(runnable);
+				return;
+			} catch (SWTException e) {
+				// the display was disposed in the meantime, so the batch
+				// will never be notified: drop it so that the next completed
+				// request schedules a new one
+				discardCompletedRequests();
+				return;
+			}
+		}
+		runnable.run();
+	}
+
+	/**
+	 * @return the number of images rendered
+	 */
+	public long getRenderedCount() {
+		synchronized (lock) {
+			return renderedCount;
+		}
+	}
+
+	/**
+	 * @return the number of requests served by the rendering of another
+	 *         request for the same image
+	 */
+	public long getSharedCount() {
+		synchronized (lock) {
+			return sharedCount;
+		}
+	}
+
+	/**
+	 * @return the number of requests cancelled
+	 */
+	public long getCancelledCount() {
+		synchronized (lock) {
+			return cancelledCount;
+		}
+	}
+
+	/**
+	 * @return the number of notifications of rendered images sent to the
+	 *         display thread
+	 */
+	public long getBatchCount() {
+		synchronized (lock) {
+			return batchCount;
+		}
+	}
+}
@@ -0,0 +1,524 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderInfo;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.AbstractRenderedImage;
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * The cache of the <code>RenderedImage</code> instances created by the
+ * <code>RenderedImageFactory</code>, and of the documents parsed from the
+ * image buffers.
+ * <P>
+ * The cache has two tiers, each bounded by an estimate of the memory held by
+ * its entries and by the number of its entries, and evicting the least
+ * recently used entries first:
+ * <UL>
+ * <LI>the rendered images, one per buffer content and <code>RenderInfo</code>.
+ * An image costs its buffer plus its rasterized size.</LI>
+ * <LI>the parsed documents, one per buffer content and URL, so that an image
+ * of the same content rendered with another <code>RenderInfo</code> does not
+ * parse its buffer again.</LI>
+ * </UL>
+ * An evicted image stays available from the cache for as long as a client
+ * references it. Once it is no longer referenced, the SWT image it had
+ * rendered when it was evicted is disposed by the next call to the cache,
+ * rather than when the image is finalized.
+ */
+public final class RenderedImageCache {
+
+	/**
+	 * The estimated number of bytes a parsed document takes for each byte of
+	 * its buffer.
+	 */
+	private static final int DOCUMENT_BYTES_PER_BUFFER_BYTE = 8;
+
+	/**
+	 * The default number of entries of each tier.
+	 */
+	private static final int DEFAULT_MAX_ENTRIES = 512;
+
+	/**
+	 * An entry of one of the bounded tiers.
+	 */
+	private static final class Entry {
+
+		final Object value;
+
+		final long cost;
+
+		Entry(Object value, long cost) {
+			this.value = value;
+			this.cost = cost;
+		}
+	}
+
+	/**
+	 * The SWT image of an evicted image, disposed once the evicted image is
+	 * garbage collected.
+	 */
+	private static final class EvictedImage extends WeakReference {
+
+		final Image swtImage;
+
+		EvictedImage(RenderedImage image, ReferenceQueue queue) {
+			super(image, queue);
+			this.swtImage = image.getSWTImage();
+		}
+	}
+
+	/**
+	 * The key of a parsed document.
+	 */
+	private static final class DocumentKey {
+
+		private final long checksum;
+
+		private final String url;
+
+		DocumentKey(long checksum, String url) {
+			this.checksum = checksum;
+			this.url = url;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof DocumentKey)) {
+				return false;
+			}
+			DocumentKey other = (DocumentKey) obj;
+			return checksum == other.checksum
+				&& (url == null ? other.url == null : url.equals(other.url));
+		}
+
+		public int hashCode() {
+			return (int) (checksum ^ (checksum >>> 32))
+				+ (url == null ? 0 : url.hashCode());
+		}
+	}
+
+	private static final RenderedImageCache instance = new RenderedImageCache(
+		Runtime.getRuntime().maxMemory() / 32,
+		Runtime.getRuntime().maxMemory() / 64);
+
+	/**
+	 * [byte[], Long] checksums of the buffers seen lately; arrays hash on
+	 * their identity.
+	 */
+	private final Map checksums = new WeakHashMap();
+
+	/**
+	 * [RenderedImageKey, WeakReference] all images that are still referenced.
+	 */
+	private final Map liveImages = new WeakHashMap();
+
+	/**
+	 * [RenderedImageKey, Entry] the images kept in memory, least recently
+	 * used first.
+	 */
+	private final LinkedHashMap images = new LinkedHashMap(16, 0.75f, true);
+
+	/**
+	 * [DocumentKey, Entry] the parsed documents, least recently used first.
+	 */
+	private final LinkedHashMap documents = new LinkedHashMap(16, 0.75f, true);
+
+	/**
+	 * The evicted images whose SWT image is to be disposed once they are
+	 * garbage collected.
+	 */
+	private final Set evictedImages = new HashSet();
+
+	private final ReferenceQueue collectedImages = new ReferenceQueue();
+
+	private long maxImageBytes;
+
+	private long maxDocumentBytes;
+
+	private int maxEntries;
+
+	private long imageBytes = 0;
+
+	private long documentBytes = 0;
+
+	private long hits = 0;
+
+	private long misses = 0;
+
+	private long evictions = 0;
+
+	private long documentHits = 0;
+
+	private long documentMisses = 0;
+
+	private long documentEvictions = 0;
+
+	private long disposals = 0;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxImageBytes
+	 *            the estimated number of bytes the images kept in memory may
+	 *            take
+	 * @param maxDocumentBytes
+	 *            the estimated number of bytes the parsed documents may take
+	 */
+	public RenderedImageCache(long maxImageBytes, long maxDocumentBytes) {
+		this(maxImageBytes, maxDocumentBytes, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxImageBytes
+	 *            the estimated number of bytes the images kept in memory may
+	 *            take
+	 * @param maxDocumentBytes
+	 *            the estimated number of bytes the parsed documents may take
+	 * @param maxEntries
+	 *            the number of entries each tier may hold
+	 */
+	public RenderedImageCache(long maxImageBytes, long maxDocumentBytes,
+			int maxEntries) {
+		this.maxImageBytes = maxImageBytes;
+		this.maxDocumentBytes = maxDocumentBytes;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @return the cache used by the <code>RenderedImageFactory</code>
+	 */
+	public static RenderedImageCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Computes the checksum identifying the content of a buffer. The checksum
+	 * of a buffer is remembered for as long as the buffer is referenced, so
+	 * the buffer should not be modified after it has been passed to the
+	 * cache.
+	 *
+	 * @param buffer
+	 *            the image buffer
+	 * @return the 64 bit checksum of the buffer
+	 */
+	public synchronized long getChecksum(byte[] buffer) {
+		Long checksum = (Long) checksums.get(buffer);
+		if (checksum == null) {
+			CRC32 crc = new CRC32();
+			crc.update(buffer);
+			Adler32 adler = new Adler32();
+			adler.update(buffer);
+			checksum = new Long((crc.getValue() << 32) | adler.getValue());
+			checksums.put(buffer, checksum);
+		}
+		return checksum.longValue();
+	}
+
+	/**
+	 * Gets the cached image for a key.
+	 *
+	 * @param key
+	 *            the key of the image
+	 * @return the image, or <code>null</code> if it is not cached
+	 */
+	public synchronized RenderedImage getImage(RenderedImageKey key) {
+		disposeCollectedImages();
+		Entry entry = (Entry) images.get(key);
+		if (entry != null) {
+			hits++;
+			return (RenderedImage) entry.value;
+		}
+		WeakReference ref = (WeakReference) liveImages.get(key);
+		RenderedImage image = ref != null ? (RenderedImage) ref.get()
+			: null;
+		if (image == null) {
+			misses++;
+			return null;
+		}
+		// an evicted image that is still in use
+		if (ref instanceof EvictedImage) {
+			evictedImages.remove(ref);
+		}
+		hits++;
+		putImage(key, image, image instanceof AbstractRenderedImage
+			? ((AbstractRenderedImage) image).getBuffer().length
+			: 0);
+		return image;
+	}
+
+	/**
+	 * Caches an image.
+	 *
+	 * @param key
+	 *            the key of the image
+	 * @param image
+	 *            the image
+	 * @param bufferLength
+	 *            the length of the buffer of the image
+	 */
+	public synchronized void putImage(RenderedImageKey key,
+			RenderedImage image, int bufferLength) {
+		disposeCollectedImages();
+		liveImages.put(key, new WeakReference(image));
+
+		Entry old = (Entry) images.remove(key);
+		if (old != null) {
+			imageBytes -= old.cost;
+		}
+		long cost = bufferLength + getRasterBytes(key);
+		images.put(key, new Entry(image, cost));
+		imageBytes += cost;
+
+		evictImages(1);
+	}
+
+	/**
+	 * Gets the cached document parsed from a buffer.
+	 *
+	 * @param checksum
+	 *            the checksum of the buffer
+	 * @param url
+	 *            the URL the buffer was read from, or <code>null</code>
+	 * @return the document, or <code>null</code> if it is not cached
+	 */
+	public synchronized Object getDocument(long checksum, String url) {
+		Entry entry = (Entry) documents.get(new DocumentKey(checksum, url));
+		if (entry == null) {
+			documentMisses++;
+			return null;
+		}
+		documentHits++;
+		return entry.value;
+	}
+
+	/**
+	 * Caches a document parsed from a buffer. The document is shared by all
+	 * images of the same content, so it must not be modified.
+	 *
+	 * @param checksum
+	 *            the checksum of the buffer
+	 * @param url
+	 *            the URL the buffer was read from, or <code>null</code>
+	 * @param document
+	 *            the document
+	 * @param bufferLength
+	 *            the length of the buffer
+	 */
+	public synchronized void putDocument(long checksum, String url,
+			Object document, int bufferLength) {
+		long cost = (long) bufferLength * DOCUMENT_BYTES_PER_BUFFER_BYTE;
+		Entry old = (Entry) documents.put(new DocumentKey(checksum, url),
+			new Entry(document, cost));
+		if (old != null) {
+			documentBytes -= old.cost;
+		}
+		documentBytes += cost;
+
+		evictDocuments(1);
+	}
+
+	/**
+	 * Sets the bounds of the tiers, evicting entries as needed.
+	 *
+	 * @param imageBytes
+	 *            the estimated number of bytes the images kept in memory may
+	 *            take
+	 * @param documentBytes
+	 *            the estimated number of bytes the parsed documents may take
+	 */
+	public synchronized void setLimits(long imageBytes, long documentBytes) {
+		setLimits(imageBytes, documentBytes, maxEntries);
+	}
+
+	/**
+	 * Sets the bounds of the tiers, evicting entries as needed.
+	 *
+	 * @param imageBytes
+	 *            the estimated number of bytes the images kept in memory may
+	 *            take
+	 * @param documentBytes
+	 *            the estimated number of bytes the parsed documents may take
+	 * @param entries
+	 *            the number of entries each tier may hold
+	 */
+	public synchronized void setLimits(long imageBytes, long documentBytes,
+			int entries) {
+		this.maxImageBytes = imageBytes;
+		this.maxDocumentBytes = documentBytes;
+		this.maxEntries = entries;
+		evictImages(0);
+		evictDocuments(0);
+	}
+
+	/**
+	 * Empties both tiers and resets the statistics.
+	 */
+	public synchronized void clear() {
+		for (Iterator i = images.entrySet().iterator(); i.hasNext();) {
+			Map.Entry next = (Map.Entry) i.next();
+			evict(next.getKey(), (RenderedImage) ((Entry) next.getValue()).value);
+		}
+		images.clear();
+		documents.clear();
+		imageBytes = 0;
+		documentBytes = 0;
+		hits = misses = evictions = 0;
+		documentHits = documentMisses = documentEvictions = 0;
+		disposals = 0;
+	}
+
+	/**
+	 * Evicts the least recently used images until the image tier is within
+	 * its bounds or holds no more than <code>minSize</code> images.
+	 */
+	private void evictImages(int minSize) {
+		while ((imageBytes > maxImageBytes || images.size() > maxEntries)
+			&& images.size() > minSize) {
+			Iterator i = images.entrySet().iterator();
+			Map.Entry next = (Map.Entry) i.next();
+			Entry entry = (Entry) next.getValue();
+			imageBytes -= entry.cost;
+			i.remove();
+			evict(next.getKey(), (RenderedImage) entry.value);
+			evictions++;
+		}
+	}
+
+	/**
+	 * Evicts the least recently used documents until the document tier is
+	 * within its bounds or holds no more than <code>minSize</code> documents.
+	 */
+	private void evictDocuments(int minSize) {
+		while ((documentBytes > maxDocumentBytes || documents.size() > maxEntries)
+			&& documents.size() > minSize) {
+			Iterator i = documents.values().iterator();
+			documentBytes -= ((Entry) i.next()).cost;
+			i.remove();
+			documentEvictions++;
+		}
+	}
+
+	/**
+	 * Watches an evicted image so that its SWT image is disposed once it is
+	 * no longer referenced. The watching reference replaces the reference of
+	 * the live image, so that an image evicted again after it was found in
+	 * use is watched only once. An image rendered after its eviction is
+	 * disposed when it is finalized.
+	 */
+	private void evict(Object key, RenderedImage image) {
+		if (image.isRendered()) {
+			EvictedImage evicted = new EvictedImage(image, collectedImages);
+			evictedImages.add(evicted);
+			liveImages.put(key, evicted);
+		}
+	}
+
+	/**
+	 * Disposes the SWT images of the evicted images that were garbage
+	 * collected.
+	 */
+	private void disposeCollectedImages() {
+		EvictedImage evicted;
+		while ((evicted = (EvictedImage) collectedImages.poll()) != null) {
+			evictedImages.remove(evicted);
+			if (evicted.swtImage != null && !evicted.swtImage.isDisposed()) {
+				evicted.swtImage.dispose();
+				disposals++;
+			}
+		}
+	}
+
+	private static long getRasterBytes(RenderInfo info) {
+		long width = Math.max(info.getWidth(), 0);
+		long height = Math.max(info.getHeight(), 0);
+		return width * height * 4;
+	}
+
+	/**
+	 * @return the number of image lookups that found an image
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of image lookups that found no image
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of images evicted from memory
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of SWT images of evicted images that were disposed
+	 *         once the evicted images were no longer referenced
+	 */
+	public synchronized long getDisposalCount() {
+		return disposals;
+	}
+
+	/**
+	 * @return the estimated number of bytes taken by the images kept in
+	 *         memory
+	 */
+	public synchronized long getImageBytes() {
+		return imageBytes;
+	}
+
+	/**
+	 * @return the number of document lookups that found a document
+	 */
+	public synchronized long getDocumentHitCount() {
+		return documentHits;
+	}
+
+	/**
+	 * @return the number of document lookups that found no document
+	 */
+	public synchronized long getDocumentMissCount() {
+		return documentMisses;
+	}
+
+	/**
+	 * @return the number of documents evicted
+	 */
+	public synchronized long getDocumentEvictionCount() {
+		return documentEvictions;
+	}
+
+	/**
+	 * @return the estimated number of bytes taken by the parsed documents
+	 */
+	public synchronized long getDocumentBytes() {
+		return documentBytes;
+	}
+}
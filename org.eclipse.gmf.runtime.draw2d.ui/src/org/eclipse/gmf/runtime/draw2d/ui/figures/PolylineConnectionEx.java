@@ -13,6 +13,7 @@ package org.eclipse.gmf.runtime.draw2d.ui.figures;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -175,10 +176,21 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
      * Provides a utility function for dirtying the jump links and repainting the line.
      */
     public void refreshLine() {
+        pointsChanged();
         dirtyJumpLinks();
         repaint();
     }
 
+    /**
+     * Notifies the connection layer that the line of this connection may have
+     * changed, so that it can update its index of the connection segments.
+     */
+    private void pointsChanged() {
+        IFigure pParent = getParent();
+        if (pParent instanceof ConnectionLayerEx)
+            ((ConnectionLayerEx)pParent).connectionChanged(this);
+    }
+
     /**
      * Add a point to the polyline connection.
      */
@@ -187,6 +199,30 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
         refreshLine();
     }
 
+    /**
+     * Remove the point at the given index from the polyline connection.
+     */
+    public void removePoint(int index) {
+        super.removePoint(index);
+        refreshLine();
+    }
+
+    /**
+     * Remove all the points of the polyline connection.
+     */
+    public void removeAllPoints() {
+        super.removeAllPoints();
+        refreshLine();
+    }
+
+    /**
+     * Set the point at the given index of the polyline connection.
+     */
+    public void setPoint(Point pt, int index) {
+        super.setPoint(pt, index);
+        refreshLine();
+    }
+
     /**
      * Calculate and store the tolerance value for determining whether the line contains a point or not.
      * 
@@ -821,54 +857,41 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
 
             long jumpType = (styleBits & JUMPLINK_FLAG_ALL);
 
-            // only check intersections with connect views which are below this one.
-            List children = pParent.getChildren();
-            int nIndex = children.indexOf(connect);
-
-            ListIterator childIter = children.listIterator();
-            boolean bForwards = true;
-            if (jumpType != JUMPLINK_FLAG_ALL)
-            {
-                childIter = children.listIterator(nIndex);
-                if (jumpType == JUMPLINK_FLAG_BELOW)
-                    bForwards = false;
-            }
-            
             boolean isFeedbackLayer = isFeedbackLayer();
             Dimension jumpLinkSize = calculateJumpLinkSize(isFeedbackLayer);
             
-            while (bForwards ? childIter.hasNext() : childIter.hasPrevious()) {
-                IFigure figure =
-                    (IFigure) (bForwards ? childIter.next() : childIter.previous());
-                PointList checkLine = null;
-
-                if (figure != connect) {
-                    if (figure instanceof PolylineConnectionEx)
-                        checkLine = ((PolylineConnectionEx) figure).getSmoothPoints();
-                    else
-                        if (figure instanceof Connection)
-                            checkLine = PointListUtilities.copyPoints(((Connection) figure).getPoints());
-
-                    if (checkLine != null) {
-                        PointList intersections = new PointList();
-                        PointList distances = new PointList();
-    
-                        if (m_pJumpLinks == null)
-                            m_pJumpLinks = new ArrayList(intersections.size());
+            if (pParent instanceof ConnectionLayerEx) {
+                // only check the connections near this one, ordered as the children
+                List candidates = ((ConnectionLayerEx) pParent).getJumpLinkCandidates(connect, tmpLine,
+                    jumpType == JUMPLINK_FLAG_ALL || jumpType == JUMPLINK_FLAG_BELOW,
+                    jumpType != JUMPLINK_FLAG_BELOW);
+                if (jumpType == JUMPLINK_FLAG_BELOW)
+                    Collections.reverse(candidates);
+                
+                Iterator candidateIter = candidates.iterator();
+                while (candidateIter.hasNext()) {
+                    addIntersections((IFigure) candidateIter.next(), tmpLine, jumpLinkSize, isFeedbackLayer);
+                }
+            } else {
+                // only check intersections with connect views which are below this one.
+                List children = pParent.getChildren();
+                int nIndex = children.indexOf(connect);
+
+                ListIterator childIter = children.listIterator();
+                boolean bForwards = true;
+                if (jumpType != JUMPLINK_FLAG_ALL)
+                {
+                    childIter = children.listIterator(nIndex);
+                    if (jumpType == JUMPLINK_FLAG_BELOW)
+                        bForwards = false;
+                }
+                
+                while (bForwards ? childIter.hasNext() : childIter.hasPrevious()) {
+                    IFigure figure =
+                        (IFigure) (bForwards ? childIter.next() : childIter.previous());
     
-                        if (PointListUtilities.findIntersections(tmpLine, checkLine, intersections, distances)) {
-                            for (int i = 0; i < intersections.size(); i++) {
-                                double dist1 = intersections.getPoint(i).getDistance(tmpLine.getFirstPoint());
-                                double dist2 = intersections.getPoint(i).getDistance(tmpLine.getLastPoint());
-                                double dist3 = intersections.getPoint(i).getDistance(checkLine.getFirstPoint());
-                                double dist4 = intersections.getPoint(i).getDistance(checkLine.getLastPoint());
-                                double minDist = Math.min(Math.min(dist1,dist2), Math.min(dist3,dist4));
-                                if (minDist > jumpLinkSize.width/2){
-                                    addJumpLink(intersections.getPoint(i), distances.getPoint(i).x, isFeedbackLayer);
-                                }
-                            }
-                        }
-                    }
+                    if (figure != connect)
+                        addIntersections(figure, tmpLine, jumpLinkSize, isFeedbackLayer);
                 }
             }
 
@@ -876,6 +899,45 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
             combineCloseLinks(tmpLine);
         }
 
+        /**
+         * Add the jump links for the intersections of this connection with the given figure.
+         * 
+         * @param figure <code>IFigure</code> to calculate intersections with.
+         * @param tmpLine the <code>PointList</code> of this connection.
+         * @param jumpLinkSize the <code>Dimension</code> of a jump link.
+         * @param isFeedbackLayer see the isFeedbackLayer() method
+         */
+        private void addIntersections(IFigure figure, PointList tmpLine, Dimension jumpLinkSize, boolean isFeedbackLayer) {
+            PointList checkLine = null;
+
+            if (figure instanceof PolylineConnectionEx)
+                checkLine = ((PolylineConnectionEx) figure).getSmoothPoints();
+            else
+                if (figure instanceof Connection)
+                    checkLine = PointListUtilities.copyPoints(((Connection) figure).getPoints());
+
+            if (checkLine != null) {
+                PointList intersections = new PointList();
+                PointList distances = new PointList();
+
+                if (m_pJumpLinks == null)
+                    m_pJumpLinks = new ArrayList(intersections.size());
+
+                if (PointListUtilities.findIntersections(tmpLine, checkLine, intersections, distances)) {
+                    for (int i = 0; i < intersections.size(); i++) {
+                        double dist1 = intersections.getPoint(i).getDistance(tmpLine.getFirstPoint());
+                        double dist2 = intersections.getPoint(i).getDistance(tmpLine.getLastPoint());
+                        double dist3 = intersections.getPoint(i).getDistance(checkLine.getFirstPoint());
+                        double dist4 = intersections.getPoint(i).getDistance(checkLine.getLastPoint());
+                        double minDist = Math.min(Math.min(dist1,dist2), Math.min(dist3,dist4));
+                        if (minDist > jumpLinkSize.width/2){
+                            addJumpLink(intersections.getPoint(i), distances.getPoint(i).x, isFeedbackLayer);
+                        }
+                    }
+                }
+            }
+        }
+
         /**
          * Add a new jump with the given intersection point and distance along the polyline
          * connection line.
@@ -1006,6 +1068,7 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
             || smooth == SMOOTH_MORE) {
             styleBits |= smooth;
         }
+        pointsChanged();
     }
 
     /**
@@ -1100,6 +1163,7 @@ public class PolylineConnectionEx extends PolylineConnection implements IPolygon
     	if (origRoundedBendpointsRad > 0) {
     		origRoundedBendpointsRad = radius;
     	}
+    	pointsChanged();
     }
     
     /**
@@ -36,4 +36,5 @@ public final class Draw2dDebugOptions {
 	public static final String METHODS_ENTERING = DEBUG + "/methods/entering"; //$NON-NLS-1$
 	public static final String METHODS_EXITING = DEBUG + "/methods/exiting"; //$NON-NLS-1$
     public static final String DND = DEBUG + "/dnd/tracing"; //$NON-NLS-1$  
+    public static final String ROUTING = DEBUG + "/routing/tracing"; //$NON-NLS-1$
 }
@@ -11,13 +11,23 @@
 
 package org.eclipse.gmf.runtime.draw2d.ui.internal.figures;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
 
 import org.eclipse.draw2d.AutomaticRouter;
+import org.eclipse.draw2d.Connection;
 import org.eclipse.draw2d.ConnectionLayer;
 import org.eclipse.draw2d.ConnectionRouter;
+import org.eclipse.draw2d.FigureListener;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.PointList;
 import org.eclipse.draw2d.geometry.Rectangle;
 
 import org.eclipse.gmf.runtime.draw2d.ui.figures.PolylineConnectionEx;
@@ -38,6 +48,40 @@ public class ConnectionLayerEx extends ConnectionLayer {
 	private boolean dirtied = false;
 	static private boolean allowJumpLinks = true;
 	
+	/**
+	 * The index of the segments of the connections, created when the jump
+	 * links are first calculated.
+	 */
+	private ConnectionSpatialIndex jumpLinkIndex = null;
+	
+	/**
+	 * [IFigure, Integer] the index of each child, or <code>null</code> if the
+	 * children changed since it was computed.
+	 */
+	private Map childIndexes = null;
+	
+	/**
+	 * Set while the connections near a dirty region are refreshed, since
+	 * refreshing does not change their points.
+	 */
+	private boolean refreshingJumpLinks = false;
+	
+	/**
+	 * Listens to the changes of the points of the connections.
+	 */
+	private class ConnectionListener implements PropertyChangeListener, FigureListener {
+
+		public void propertyChange(PropertyChangeEvent evt) {
+			connectionChanged((Connection) evt.getSource());
+		}
+
+		public void figureMoved(IFigure source) {
+			connectionChanged((Connection) source);
+		}
+	}
+	
+	private final ConnectionListener connectionListener = new ConnectionListener();
+	
 	/**
 	 * Adds the given figure with the given contraint at the given index.
 	 * If the figure is a connection, its connection router is set.
@@ -51,6 +95,14 @@ public class ConnectionLayerEx extends ConnectionLayer {
 	public void add(IFigure figure, Object constraint, int index) {
 		super.add(figure, constraint, index);
 
+		childIndexes = null;
+		if (figure instanceof Connection) {
+			figure.addPropertyChangeListener(Connection.PROPERTY_POINTS, connectionListener);
+			figure.addFigureListener(connectionListener);
+			if (jumpLinkIndex != null)
+				jumpLinkIndex.add((Connection) figure);
+		}
+		
 		dirtyJumpLinks(figure.getBounds());
 	}
 
@@ -64,6 +116,14 @@ public class ConnectionLayerEx extends ConnectionLayer {
 	public void remove(IFigure figure) {
 		super.remove(figure);
 
+		childIndexes = null;
+		if (figure instanceof Connection) {
+			figure.removePropertyChangeListener(Connection.PROPERTY_POINTS, connectionListener);
+			figure.removeFigureListener(connectionListener);
+			if (jumpLinkIndex != null)
+				jumpLinkIndex.remove((Connection) figure);
+		}
+		
 		dirtyJumpLinks(figure.getBounds());
 	}
 
@@ -111,17 +171,92 @@ public class ConnectionLayerEx extends ConnectionLayer {
 	public void dirtyJumpLinks(Rectangle region) {
 		
 		if (!dirtied && shouldJumpLinks()) {
-			List children = getChildren();
-			ListIterator childIter = children.listIterator();
-			while (childIter.hasNext()) {
-				IFigure poly = (IFigure) childIter.next();
-				if (poly instanceof PolylineConnectionEx)
-					if (poly.getBounds().intersects(region))
-						((PolylineConnectionEx) poly).refreshLine();
+			// only the connections with a segment in the region can cross it
+			refreshingJumpLinks = true;
+			try {
+				Iterator candidates = getJumpLinkIndex().getCandidates(region).iterator();
+				while (candidates.hasNext()) {
+					IFigure poly = (IFigure) candidates.next();
+					if (poly instanceof PolylineConnectionEx)
+						if (poly.getBounds().intersects(region))
+							((PolylineConnectionEx) poly).refreshLine();
+				}
+			} finally {
+				refreshingJumpLinks = false;
 			}
 			dirtied = true;
 		}
 	}
+	
+	/**
+	 * Notifies the layer that the points of one of its connections have
+	 * changed, so that the jump links calculations find it at its new
+	 * location.
+	 * 
+	 * @param connection the <code>Connection</code> whose points changed
+	 */
+	public void connectionChanged(Connection connection) {
+		if (jumpLinkIndex != null && !refreshingJumpLinks)
+			jumpLinkIndex.invalidate(connection);
+	}
+	
+	/**
+	 * Gets the connections of this layer that may intersect the given line,
+	 * using an index of the segments of the connections so that only the
+	 * connections near the line are returned.
+	 * 
+	 * @param connection the <code>Connection</code> the line belongs to, which is not returned
+	 * @param line the <code>PointList</code> to find intersecting connections with
+	 * @param below <code>true</code> to return the connections below the given connection
+	 * @param above <code>true</code> to return the connections above the given connection
+	 * @return the <code>List</code> of <code>Connection</code> that may intersect the line,
+	 * in the order of the children of this layer
+	 */
+	public List getJumpLinkCandidates(Connection connection, PointList line,
+			boolean below, boolean above) {
+		final Map indexes = getChildIndexes();
+		Integer connectionIndex = (Integer) indexes.get(connection);
+		int index = connectionIndex != null ? connectionIndex.intValue() : -1;
+		
+		List result = new ArrayList();
+		Iterator candidates = getJumpLinkIndex().getCandidates(line).iterator();
+		while (candidates.hasNext()) {
+			Object candidate = candidates.next();
+			Integer candidateIndex = (Integer) indexes.get(candidate);
+			if (candidate == connection || candidateIndex == null)
+				continue;
+			if (candidateIndex.intValue() < index ? below : above)
+				result.add(candidate);
+		}
+		Collections.sort(result, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((Integer) indexes.get(o1)).compareTo((Integer) indexes.get(o2));
+			}
+		});
+		return result;
+	}
+	
+	private ConnectionSpatialIndex getJumpLinkIndex() {
+		if (jumpLinkIndex == null) {
+			jumpLinkIndex = new ConnectionSpatialIndex();
+			List children = getChildren();
+			for (int i = 0; i < children.size(); i++) {
+				if (children.get(i) instanceof Connection)
+					jumpLinkIndex.add((Connection) children.get(i));
+			}
+		}
+		return jumpLinkIndex;
+	}
+	
+	private Map getChildIndexes() {
+		if (childIndexes == null) {
+			List children = getChildren();
+			childIndexes = new IdentityHashMap(children.size());
+			for (int i = 0; i < children.size(); i++)
+				childIndexes.put(children.get(i), Integer.valueOf(i));
+		}
+		return childIndexes;
+	}
 
 	/**
 	 * Returns the connection router being used by this layer.
@@ -0,0 +1,351 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.internal.figures;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gmf.runtime.draw2d.ui.figures.PolylineConnectionEx;
+
+/**
+ * A uniform grid over the line segments of the connections of a
+ * <code>ConnectionLayerEx</code>.
+ * <P>
+ * Each connection is registered in the cells covered by the bounding boxes of
+ * its segments, so two connections whose lines intersect always share a
+ * cell. A connection with a segment covering too many cells is kept aside and
+ * returned by every query instead. Changed connections are marked stale and
+ * re-registered on the next query; the whole grid is rebuilt, and its cell
+ * size adapted to the average segment length, when most of the connections
+ * have changed.
+ */
+final class ConnectionSpatialIndex {
+
+	/**
+	 * The number of cells above which a segment makes its connection be
+	 * returned by every query.
+	 */
+	private static final int MAX_CELLS_PER_SEGMENT = 64;
+
+	/**
+	 * The cell size used when there are no segments to measure.
+	 */
+	private static final int DEFAULT_CELL_SIZE = 256;
+
+	private static final long[] NO_CELLS = new long[0];
+
+	/**
+	 * The registration of a connection.
+	 */
+	private static final class Entry {
+
+		final Connection connection;
+
+		long[] cells = NO_CELLS;
+
+		boolean oversized = false;
+
+		boolean stale = false;
+
+		boolean removed = false;
+
+		Entry(Connection connection) {
+			this.connection = connection;
+		}
+	}
+
+	/** [Connection, Entry] */
+	private final Map<Connection, Entry> entries = new IdentityHashMap<Connection, Entry>();
+
+	/** [cell key, connections] */
+	private final Map<Long, List<Connection>> cells = new HashMap<Long, List<Connection>>();
+
+	/** [Connection, Entry] the connections returned by every query */
+	private final Map<Connection, Entry> oversized = new IdentityHashMap<Connection, Entry>();
+
+	private final List<Entry> staleEntries = new ArrayList<Entry>();
+
+	/** the size of a cell, or 0 if the grid is not built yet */
+	private int cellSize = 0;
+
+	/**
+	 * Registers a connection.
+	 *
+	 * @param connection the connection
+	 */
+	void add(Connection connection) {
+		if (entries.containsKey(connection)) {
+			return;
+		}
+		Entry entry = new Entry(connection);
+		entries.put(connection, entry);
+		markStale(entry);
+	}
+
+	/**
+	 * Unregisters a connection.
+	 *
+	 * @param connection the connection
+	 */
+	void remove(Connection connection) {
+		Entry entry = entries.remove(connection);
+		if (entry != null) {
+			unregister(entry);
+			entry.removed = true;
+		}
+	}
+
+	/**
+	 * Marks the points of a connection as changed.
+	 *
+	 * @param connection the connection
+	 */
+	void invalidate(Connection connection) {
+		Entry entry = entries.get(connection);
+		if (entry != null) {
+			markStale(entry);
+		}
+	}
+
+	/**
+	 * Gets the connections that may intersect a line.
+	 *
+	 * @param line the line
+	 * @return the connections having a segment near the line, in no
+	 *         particular order
+	 */
+	Set<Connection> getCandidates(PointList line) {
+		validate();
+		Map<Connection, Boolean> result = new IdentityHashMap<Connection, Boolean>();
+		int[] points = line.toIntArray();
+		if (points.length == 2) {
+			collect(points[0], points[1], points[0], points[1], result);
+		}
+		for (int i = 0; i + 3 < points.length; i += 2) {
+			collect(Math.min(points[i], points[i + 2]),
+				Math.min(points[i + 1], points[i + 3]),
+				Math.max(points[i], points[i + 2]),
+				Math.max(points[i + 1], points[i + 3]), result);
+		}
+		return result.keySet();
+	}
+
+	/**
+	 * Gets the connections that may have a segment in a region.
+	 *
+	 * @param region the region
+	 * @return the connections having a segment near the region, in no
+	 *         particular order
+	 */
+	Set<Connection> getCandidates(Rectangle region) {
+		validate();
+		Map<Connection, Boolean> result = new IdentityHashMap<Connection, Boolean>();
+		collect(region.x, region.y, Math.max(region.x, region.right()),
+			Math.max(region.y, region.bottom()), result);
+		return result.keySet();
+	}
+
+	private void markStale(Entry entry) {
+		if (!entry.stale) {
+			entry.stale = true;
+			staleEntries.add(entry);
+		}
+	}
+
+	/**
+	 * Registers the stale connections again, or rebuilds the grid if most of
+	 * them are stale.
+	 */
+	private void validate() {
+		if (cellSize == 0 || staleEntries.size() > entries.size() / 2) {
+			rebuild();
+			return;
+		}
+		for (Iterator<Entry> i = staleEntries.iterator(); i.hasNext();) {
+			Entry entry = i.next();
+			entry.stale = false;
+			if (!entry.removed) {
+				unregister(entry);
+				register(entry, getPoints(entry.connection));
+			}
+		}
+		staleEntries.clear();
+	}
+
+	private void rebuild() {
+		cells.clear();
+		oversized.clear();
+		staleEntries.clear();
+
+		Map<Entry, int[]> points = new IdentityHashMap<Entry, int[]>();
+		long extent = 0;
+		int segments = 0;
+		for (Iterator<Entry> i = entries.values().iterator(); i.hasNext();) {
+			Entry entry = i.next();
+			entry.stale = false;
+			entry.cells = NO_CELLS;
+			entry.oversized = false;
+			int[] ints = getPoints(entry.connection).toIntArray();
+			points.put(entry, ints);
+			for (int j = 0; j + 3 < ints.length; j += 2) {
+				extent += Math.max(Math.abs(ints[j + 2] - ints[j]),
+					Math.abs(ints[j + 3] - ints[j + 1]));
+				segments++;
+			}
+		}
+		cellSize = segments > 0
+			? (int) Math.max(1, Math.min(Integer.MAX_VALUE / 4, extent / segments))
+			: DEFAULT_CELL_SIZE;
+
+		for (Iterator<Map.Entry<Entry, int[]>> i = points.entrySet().iterator(); i.hasNext();) {
+			Map.Entry<Entry, int[]> next = i.next();
+			register(next.getKey(), next.getValue());
+		}
+	}
+
+	private void register(Entry entry, PointList points) {
+		register(entry, points.toIntArray());
+	}
+
+	private void register(Entry entry, int[] points) {
+		Set<Long> keys = new HashSet<Long>();
+		if (points.length == 2) {
+			keys.add(Long.valueOf(key(cell(points[0]), cell(points[1]))));
+		}
+		for (int i = 0; i + 3 < points.length; i += 2) {
+			int x0 = cell(Math.min(points[i], points[i + 2]));
+			int y0 = cell(Math.min(points[i + 1], points[i + 3]));
+			int x1 = cell(Math.max(points[i], points[i + 2]));
+			int y1 = cell(Math.max(points[i + 1], points[i + 3]));
+			if (((long) x1 - x0 + 1) * ((long) y1 - y0 + 1) > MAX_CELLS_PER_SEGMENT) {
+				entry.oversized = true;
+				oversized.put(entry.connection, entry);
+				entry.cells = NO_CELLS;
+				return;
+			}
+			for (int x = x0; x <= x1; x++) {
+				for (int y = y0; y <= y1; y++) {
+					keys.add(Long.valueOf(key(x, y)));
+				}
+			}
+		}
+
+		long[] entryCells = new long[keys.size()];
+		int n = 0;
+		for (Iterator<Long> i = keys.iterator(); i.hasNext();) {
+			Long key = i.next();
+			entryCells[n++] = key.longValue();
+			List<Connection> connections = cells.get(key);
+			if (connections == null) {
+				connections = new ArrayList<Connection>(4);
+				cells.put(key, connections);
+			}
+			connections.add(entry.connection);
+		}
+		entry.cells = entryCells;
+	}
+
+	private void unregister(Entry entry) {
+		if (entry.oversized) {
+			oversized.remove(entry.connection);
+			entry.oversized = false;
+			return;
+		}
+		for (int i = 0; i < entry.cells.length; i++) {
+			Long key = Long.valueOf(entry.cells[i]);
+			List<Connection> connections = cells.get(key);
+			if (connections != null) {
+				connections.remove(entry.connection);
+				if (connections.isEmpty()) {
+					cells.remove(key);
+				}
+			}
+		}
+		entry.cells = NO_CELLS;
+	}
+
+	/**
+	 * Adds the connections registered in the cells covering a box to the
+	 * result.
+	 */
+	private void collect(int minX, int minY, int maxX, int maxY,
+			Map<Connection, Boolean> result) {
+		int x0 = cell(minX);
+		int y0 = cell(minY);
+		int x1 = cell(maxX);
+		int y1 = cell(maxY);
+		if (((long) x1 - x0 + 1) * ((long) y1 - y0 + 1) > cells.size()) {
+			// fewer cells are occupied than covered by the box
+			for (Iterator<Map.Entry<Long, List<Connection>>> i = cells.entrySet().iterator(); i.hasNext();) {
+				Map.Entry<Long, List<Connection>> next = i.next();
+				long key = next.getKey().longValue();
+				int x = (int) (key >> 32);
+				int y = (int) key;
+				if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+					addAll(next.getValue(), result);
+				}
+			}
+		} else {
+			for (int x = x0; x <= x1; x++) {
+				for (int y = y0; y <= y1; y++) {
+					List<Connection> connections = cells.get(Long.valueOf(key(x, y)));
+					if (connections != null) {
+						addAll(connections, result);
+					}
+				}
+			}
+		}
+		for (Iterator<Connection> i = oversized.keySet().iterator(); i.hasNext();) {
+			result.put(i.next(), Boolean.TRUE);
+		}
+	}
+
+	private static void addAll(List<Connection> connections,
+			Map<Connection, Boolean> result) {
+		for (int i = 0; i < connections.size(); i++) {
+			result.put(connections.get(i), Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Gets the cell coordinate of a coordinate, rounding towards negative
+	 * infinity.
+	 */
+	private int cell(int coordinate) {
+		return coordinate >= 0
+			? coordinate / cellSize
+			: (int) (-((-(long) coordinate - 1) / cellSize) - 1);
+	}
+
+	private static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	/**
+	 * Gets the line drawn for a connection.
+	 */
+	private static PointList getPoints(Connection connection) {
+		if (connection instanceof PolylineConnectionEx) {
+			return ((PolylineConnectionEx) connection).getSmoothPoints();
+		}
+		return connection.getPoints();
+	}
+}
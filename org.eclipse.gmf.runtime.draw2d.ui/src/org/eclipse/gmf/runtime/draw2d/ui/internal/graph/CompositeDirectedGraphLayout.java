@@ -18,6 +18,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.draw2d.PositionConstants;
 import org.eclipse.draw2d.geometry.Insets;
@@ -28,6 +36,8 @@ import org.eclipse.draw2d.graph.EdgeList;
 import org.eclipse.draw2d.graph.Node;
 import org.eclipse.draw2d.graph.NodeList;
 import org.eclipse.draw2d.graph.Subgraph;
+import org.eclipse.gmf.runtime.draw2d.ui.graph.BorderNode;
+import org.eclipse.gmf.runtime.draw2d.ui.graph.ConstantSizeNode;
 import org.eclipse.gmf.runtime.draw2d.ui.graph.GMFDirectedGraphLayout;
 
 
@@ -36,27 +46,184 @@ import org.eclipse.gmf.runtime.draw2d.ui.graph.GMFDirectedGraphLayout;
  * @author mmostafa
  * 
  * Composite layout that layout the passed graph in a recursive fashion 
- *
+ * <P>
+ * When the parallelism is greater than one, the members of the subgraphs
+ * that no edge leaves are laid out on a pool of threads, in parallel with
+ * their siblings, since nothing outside of such a subgraph depends on them
+ * before the subgraph itself is laid out. The graphs with fewer than
+ * <code>PARALLEL_LAYOUT_THRESHOLD</code> nodes, or with fewer than two such
+ * subgraphs, are laid out on the calling thread. The threads of the pool are
+ * shared by all the layouts, at most one per processor, and end when idle.
  */
 public class CompositeDirectedGraphLayout
     extends DirectedGraphLayout {
 	
 	private int graphDirection = PositionConstants.SOUTH;
 
+    /**
+     * The number of nodes, members of subgraphs included, below which a
+     * graph is laid out on the calling thread whatever the parallelism
+     */
+    public static final int PARALLEL_LAYOUT_THRESHOLD = 200;
+
+    /**
+     * The threads shared by the parallel layouts, created when needed
+     */
+    private static ExecutorService sharedExecutor;
+
+    private int parallelism = 1;
+
+    /**
+     * The subgraphs that an edge leaves, during a parallel layout
+     */
+    private Set crossedSubgraphs;
+
+    /**
+     * The number of subgraphs that can still be laid out in parallel,
+     * during a parallel layout
+     */
+    private Semaphore permits;
+
+    /**
+     * Sets the number of threads laying out the members of independent
+     * subgraphs. With a parallelism of one, the default, the subgraphs are
+     * laid out one after the other on the calling thread. The threads are
+     * taken from a pool shared by all the layouts, which has at most one
+     * thread per processor.
+     * 
+     * @param parallelism
+     *            the number of threads, at least one
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the number of threads laying out the members of independent
+     *         subgraphs
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /* (non-Javadoc)
      * @see org.eclipse.draw2d.graph.DirectedGraphLayout#visit(org.eclipse.draw2d.graph.DirectedGraph)
      */
     public void visit(DirectedGraph graph) {
 		graphDirection = graph.getDirection();
-		layoutNodes(graph.nodes, false);
+		if (parallelism == 1
+			|| countNodes(graph.nodes, PARALLEL_LAYOUT_THRESHOLD) < PARALLEL_LAYOUT_THRESHOLD) {
+			layoutNodes(graph.nodes, false, null);
+			return;
+		}
+		crossedSubgraphs = findCrossedSubgraphs(graph.nodes);
+		try {
+			// no threads are used when there is nothing to lay out in
+			// parallel
+			if (countIndependentSubgraphs(graph.nodes, 2) < 2) {
+				layoutNodes(graph.nodes, false, null);
+				return;
+			}
+			permits = new Semaphore(parallelism);
+			layoutNodes(graph.nodes, false, getSharedExecutor());
+		} finally {
+			crossedSubgraphs = null;
+			permits = null;
+		}
 	}
+
+    /**
+     * Gets the pool of threads shared by the parallel layouts. Its threads
+     * are created when needed, at most one per processor, and end after a
+     * minute without work. When they are all busy, a task is run by the
+     * thread submitting it.
+     */
+    private static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = new ThreadPoolExecutor(0, Runtime.getRuntime()
+                .availableProcessors(), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue(), new ThreadFactory() {
+
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "Composite graph layout"); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return sharedExecutor;
+    }
+
+    /**
+     * Counts the nodes and the members of the subgraphs, up to the given
+     * maximum.
+     */
+    private int countNodes(NodeList nodes, int max) {
+        int count = 0;
+        for (Iterator iter = nodes.iterator(); iter.hasNext() && count < max;) {
+            Node element = (Node) iter.next();
+            count++;
+            if (element instanceof Subgraph) {
+                count += countNodes(((Subgraph) element).members, max - count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the subgraphs whose members would be laid out by tasks of the
+     * executor, up to the given maximum: the subgraphs with members that no
+     * edge leaves and that are not inside such a subgraph.
+     */
+    private int countIndependentSubgraphs(NodeList nodes, int max) {
+        int count = 0;
+        for (Iterator iter = nodes.iterator(); iter.hasNext() && count < max;) {
+            Node element = (Node) iter.next();
+            if (element instanceof Subgraph && !(element instanceof VirtualNode)) {
+                NodeList members = ((Subgraph) element).members;
+                if (crossedSubgraphs.contains(element)) {
+                    count += countIndependentSubgraphs(members, max - count);
+                } else if (!members.isEmpty()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
     
-    private void layoutNodes(NodeList nodes, boolean virtualPass) {
+    /**
+     * Lays out the nodes, after the members of their subgraphs. The members
+     * of the subgraphs that no edge leaves are laid out by tasks of the
+     * executor, when there is one and the parallelism allows it, which lay
+     * out their own subgraphs on their thread.
+     */
+    private void layoutNodes(NodeList nodes, boolean virtualPass, ExecutorService executor) {
         EdgeList edges = new EdgeList();
+        List tasks = new ArrayList();
         for (Iterator iter = nodes.iterator(); iter.hasNext();) {
             Node element = (Node) iter.next();
             if (element instanceof Subgraph && !(element instanceof VirtualNode)){
-                layoutNodes(((Subgraph)element).members,virtualPass);
+                final NodeList members = ((Subgraph)element).members;
+                if (executor != null && !crossedSubgraphs.contains(element)
+                    && permits.tryAcquire()) {
+                    final boolean virtualMembersPass = virtualPass;
+                    final Semaphore taskPermits = permits;
+                    tasks.add(executor.submit(new Runnable() {
+
+                        public void run() {
+                            try {
+                                layoutNodes(members, virtualMembersPass, null);
+                            } finally {
+                                taskPermits.release();
+                            }
+                        }
+                    }));
+                } else {
+                    layoutNodes(members, virtualPass, executor);
+                }
             }
             for (Iterator edgesIter = element.outgoing.iterator(); edgesIter.hasNext();) {
                 Edge edge = (Edge)edgesIter.next();
@@ -65,6 +232,7 @@ public class CompositeDirectedGraphLayout
                 }
             }
         }
+        waitFor(tasks);
         if (!virtualPass){
             virtualNodesToNodes virtualNodesNodes = new virtualNodesToNodes();
             createVirtualNodes(nodes, edges, virtualNodesNodes);
@@ -74,7 +242,7 @@ public class CompositeDirectedGraphLayout
                 edges = virtualNodesNodes.getEdges();
                 for (Iterator iter = vituralNodes.iterator(); iter.hasNext();) {
                     Subgraph virtualNode = (Subgraph) iter.next();
-                    layoutNodes(virtualNode.members, true);
+                    layoutNodes(virtualNode.members, true, executor);
                 }
                 adjustVirtualNodesWidthAndHeight(vituralNodes);
             }
@@ -93,7 +261,7 @@ public class CompositeDirectedGraphLayout
             } else {
             	g.setDirection(graphDirection);            	
             }
-            DirectedGraphLayout layout = new GMFDirectedGraphLayout();
+            DirectedGraphLayout layout = createLayout();
             layout.visit(g);
             if (advancedSubgraphParent != null && advancedSubgraphParent.isAutoSize()) {
                 advancedSubgraphParent.width = g.getLayoutSize().width;
@@ -104,6 +272,113 @@ public class CompositeDirectedGraphLayout
         restoreDisconnectedEdges(nodeToOutGoing, nodeToIncomingGoing);
     }
 
+    /**
+     * Creates the layout of the nodes of a graph or of the members of a
+     * subgraph. Called by the threads laying out subgraphs in parallel.
+     * 
+     * @return a new layout
+     */
+    protected DirectedGraphLayout createLayout() {
+        return new GMFDirectedGraphLayout();
+    }
+
+    /**
+     * Waits for the tasks laying out subgraphs, and rethrows what one of them
+     * threw.
+     */
+    private void waitFor(List tasks) {
+        boolean interrupted = false;
+        try {
+            for (Iterator iter = tasks.iterator(); iter.hasNext();) {
+                Future task = (Future) iter.next();
+                while (true) {
+                    try {
+                        task.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        // the members are still being laid out
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        throw new RuntimeException(cause);
+                    }
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Finds the subgraphs containing one end of an edge but not the other,
+     * edges of border nodes counting as edges of their parent nodes. The
+     * subgraphs that are not found are laid out in parallel.
+     */
+    private Set findCrossedSubgraphs(NodeList nodes) {
+        Map borderNodeParents = new HashMap();
+        List graphNodes = new ArrayList();
+        collectNodes(nodes, graphNodes, borderNodeParents);
+        Set crossed = new HashSet();
+        Set targetAncestors = new HashSet();
+        for (Iterator iter = graphNodes.iterator(); iter.hasNext();) {
+            Node node = (Node) iter.next();
+            markCrossed(node.outgoing, borderNodeParents, targetAncestors, crossed);
+            markCrossed(node.incoming, borderNodeParents, targetAncestors, crossed);
+        }
+        return crossed;
+    }
+
+    private void collectNodes(NodeList nodes, List graphNodes, Map borderNodeParents) {
+        for (Iterator iter = nodes.iterator(); iter.hasNext();) {
+            Node node = (Node) iter.next();
+            graphNodes.add(node);
+            if (node instanceof ConstantSizeNode) {
+                for (Iterator borderIter = ((ConstantSizeNode) node).borderNodes.iterator(); borderIter.hasNext();) {
+                    BorderNode borderNode = (BorderNode) borderIter.next();
+                    graphNodes.add(borderNode);
+                    borderNodeParents.put(borderNode, node);
+                }
+            }
+            if (node instanceof Subgraph) {
+                collectNodes(((Subgraph) node).members, graphNodes, borderNodeParents);
+            }
+        }
+    }
+
+    private void markCrossed(List edges, Map borderNodeParents, Set targetAncestors, Set crossed) {
+        for (Iterator iter = edges.iterator(); iter.hasNext();) {
+            Edge edge = (Edge) iter.next();
+            targetAncestors.clear();
+            for (Node parent = getContainer(edge.target, borderNodeParents); parent != null; parent = parent.getParent()) {
+                targetAncestors.add(parent);
+            }
+            Node lowestCommon = null;
+            for (Node parent = getContainer(edge.source, borderNodeParents); parent != null; parent = parent.getParent()) {
+                if (targetAncestors.contains(parent)) {
+                    lowestCommon = parent;
+                    break;
+                }
+                crossed.add(parent);
+            }
+            for (Node parent = getContainer(edge.target, borderNodeParents); parent != lowestCommon; parent = parent.getParent()) {
+                crossed.add(parent);
+            }
+        }
+    }
+
+    private Node getContainer(Node node, Map borderNodeParents) {
+        Node parentNode = (Node) borderNodeParents.get(node);
+        return parentNode != null ? parentNode.getParent() : node.getParent();
+    }
+
     private void restoreDisconnectedEdges(Map nodeToOutGoing, Map nodeToIncomingGoing) {
         restoreEdges(nodeToOutGoing.entrySet(),true);
         restoreEdges(nodeToIncomingGoing.entrySet(),false);
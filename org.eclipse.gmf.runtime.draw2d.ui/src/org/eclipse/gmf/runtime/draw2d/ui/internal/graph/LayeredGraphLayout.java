@@ -0,0 +1,994 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.internal.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.PositionConstants;
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Node;
+
+/**
+ * Layered (Sugiyama) layout of a directed graph that scales to graphs of
+ * thousands of nodes.
+ * <P>
+ * The layout runs in four phases:
+ * <ol>
+ * <li>cycle removal, reversing the edges that close a cycle in a depth first
+ * search, in linear time. Edges added first are searched first, so they are
+ * the least likely to be reversed.</li>
+ * <li>layering, with the network simplex ranking of
+ * {@link NetworkSimplexRanking}. Edges spanning several layers are then split
+ * by dummy vertices.</li>
+ * <li>crossing reduction, with barycenter sweeps alternating down and up.
+ * The number of sweeps is bounded, and the ordering with the fewest crossings
+ * is kept.</li>
+ * <li>coordinate assignment, with the method of Brandes and K&ouml;pf, which
+ * balances four vertical alignments compacted horizontally in linear
+ * time.</li>
+ * </ol>
+ * Like the <code>GMFDirectedGraphLayout</code>, it preserves the sizes of the
+ * nodes, lays the graph out downwards or, if the direction of the graph is
+ * <code>PositionConstants.EAST</code>, to the right, and sets the points of
+ * every edge between two distinct nodes of the graph. Subgraphs are laid out
+ * as plain nodes.
+ */
+public class LayeredGraphLayout
+	extends DirectedGraphLayout {
+
+	/**
+	 * The default maximum number of crossing reduction sweeps.
+	 */
+	public static final int DEFAULT_MAX_SWEEPS = 24;
+
+	/**
+	 * The number of sweeps without fewer crossings after which the crossing
+	 * reduction stops.
+	 */
+	private static final int MAX_SWEEPS_WITHOUT_IMPROVEMENT = 4;
+
+	private int maxSweeps = DEFAULT_MAX_SWEEPS;
+
+	/** the graph being laid out */
+	private DirectedGraph graph;
+
+	private boolean horizontal;
+
+	/** the number of nodes of the graph, which are the first vertices */
+	private int nodeCount;
+
+	private Node[] nodes;
+
+	/** the edges laid out, between two distinct nodes of the graph */
+	private Edge[] edges;
+
+	/** whether each edge was reversed to break a cycle */
+	private boolean[] reversed;
+
+	/** the vertices from the tail to the head of the chain of each edge */
+	private int[] chainVertices;
+
+	/** the offset of the chain of each edge in <code>chainVertices</code> */
+	private int[] chainStart;
+
+	/** the number of vertices, nodes and dummies */
+	private int vertexCount;
+
+	private int[] layer;
+
+	/** the extent of each vertex along its layer */
+	private int[] width;
+
+	/** the extent of each vertex across its layer */
+	private int[] height;
+
+	/** the padding of each vertex: before, after, above and below */
+	private int[] padBefore;
+
+	private int[] padAfter;
+
+	private int[] padAbove;
+
+	private int[] padBelow;
+
+	/** the segments of the chains, from a vertex to one in the next layer */
+	private int[] segmentTop;
+
+	private int[] segmentBottom;
+
+	/** the segments going down from each vertex */
+	private int[] downStart;
+
+	private int[] down;
+
+	/** the segments coming down to each vertex */
+	private int[] upStart;
+
+	private int[] up;
+
+	/** the vertices of each layer, in order */
+	private int[][] layers;
+
+	/** the position of each vertex in its layer */
+	private int[] position;
+
+	/** [Long] the pairs of vertices whose segment must not be aligned */
+	private Set<Long> conflicts;
+
+	private long crossings;
+
+	/** the top of each layer, across the layers */
+	private int[] layerTop;
+
+	/** the height of the tallest vertex of each layer */
+	private int[] layerHeight;
+
+	/**
+	 * Sets the maximum number of crossing reduction sweeps.
+	 *
+	 * @param maxSweeps
+	 *            the maximum number of sweeps, at least 0
+	 */
+	public void setMaxSweeps(int maxSweeps) {
+		this.maxSweeps = Math.max(0, maxSweeps);
+	}
+
+	/**
+	 * @return the maximum number of crossing reduction sweeps
+	 */
+	public int getMaxSweeps() {
+		return maxSweeps;
+	}
+
+	/**
+	 * @return the number of edge crossings between consecutive layers left by
+	 *         the last layout
+	 */
+	public long getCrossingCount() {
+		return crossings;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.draw2d.graph.DirectedGraphLayout#visit(org.eclipse.draw2d.graph.DirectedGraph)
+	 */
+	public void visit(DirectedGraph g) {
+		graph = g;
+		horizontal = g.getDirection() == PositionConstants.EAST;
+		try {
+			buildVertices();
+			removeCycles();
+			assignLayers();
+			buildChains();
+			initOrder();
+			reduceCrossings();
+			double[] x = assignCoordinates();
+			assignLayerTops();
+			applyToGraph(x);
+		} finally {
+			graph = null;
+			nodes = null;
+			edges = null;
+			chainVertices = null;
+			layers = null;
+			conflicts = null;
+			layerTop = null;
+			layerHeight = null;
+		}
+	}
+
+	/**
+	 * Indexes the nodes and keeps the edges that can be laid out.
+	 */
+	private void buildVertices() {
+		nodeCount = graph.nodes.size();
+		nodes = new Node[nodeCount];
+		Map<Node, Integer> index = new IdentityHashMap<Node, Integer>();
+		for (int i = 0; i < nodeCount; i++) {
+			nodes[i] = graph.nodes.getNode(i);
+			index.put(nodes[i], Integer.valueOf(i));
+		}
+		List<Edge> laidOut = new ArrayList<Edge>(graph.edges.size());
+		List<int[]> ends = new ArrayList<int[]>(graph.edges.size());
+		for (int i = 0; i < graph.edges.size(); i++) {
+			Edge edge = graph.edges.getEdge(i);
+			Integer source = index.get(edge.source);
+			Integer target = index.get(edge.target);
+			if (source != null && target != null
+				&& source.intValue() != target.intValue()) {
+				laidOut.add(edge);
+				ends.add(new int[] {source.intValue(), target.intValue()});
+			}
+		}
+		edges = laidOut.toArray(new Edge[laidOut.size()]);
+		reversed = new boolean[edges.length];
+		chainStart = new int[edges.length + 1];
+		// the tails and heads are kept in the chains until the layers are
+		// known
+		chainVertices = new int[edges.length * 2];
+		for (int e = 0; e < edges.length; e++) {
+			int[] end = ends.get(e);
+			chainVertices[e * 2] = end[0];
+			chainVertices[e * 2 + 1] = end[1];
+		}
+	}
+
+	private int tail(int e) {
+		return chainVertices[e * 2];
+	}
+
+	private int head(int e) {
+		return chainVertices[e * 2 + 1];
+	}
+
+	/**
+	 * Reverses the edges closing a cycle in a depth first search, which
+	 * follows the nodes and their outgoing edges in their order in the graph.
+	 */
+	private void removeCycles() {
+		int[] outStart = new int[nodeCount + 1];
+		for (int e = 0; e < edges.length; e++) {
+			outStart[tail(e) + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			outStart[v + 1] += outStart[v];
+		}
+		int[] out = new int[edges.length];
+		int[] next = new int[nodeCount];
+		System.arraycopy(outStart, 0, next, 0, nodeCount);
+		for (int e = 0; e < edges.length; e++) {
+			out[next[tail(e)]++] = e;
+		}
+
+		// 0: not visited, 1: on the stack, 2: done
+		byte[] state = new byte[nodeCount];
+		int[] stack = new int[nodeCount];
+		int[] cursor = new int[nodeCount];
+		for (int root = 0; root < nodeCount; root++) {
+			if (state[root] != 0) {
+				continue;
+			}
+			int stackSize = 0;
+			state[root] = 1;
+			stack[stackSize] = root;
+			cursor[stackSize++] = outStart[root];
+			while (stackSize > 0) {
+				int v = stack[stackSize - 1];
+				int i = cursor[stackSize - 1];
+				if (i == outStart[v + 1]) {
+					state[v] = 2;
+					stackSize--;
+					continue;
+				}
+				cursor[stackSize - 1] = i + 1;
+				int e = out[i];
+				int w = head(e);
+				if (state[w] == 1) {
+					reversed[e] = true;
+				} else if (state[w] == 0) {
+					state[w] = 1;
+					stack[stackSize] = w;
+					cursor[stackSize++] = outStart[w];
+				}
+			}
+		}
+		for (int e = 0; e < edges.length; e++) {
+			if (reversed[e]) {
+				int t = tail(e);
+				chainVertices[e * 2] = head(e);
+				chainVertices[e * 2 + 1] = t;
+			}
+		}
+	}
+
+	private void assignLayers() {
+		int[] tails = new int[edges.length];
+		int[] heads = new int[edges.length];
+		int[] weights = new int[edges.length];
+		for (int e = 0; e < edges.length; e++) {
+			tails[e] = tail(e);
+			heads[e] = head(e);
+			weights[e] = Math.max(0, edges[e].weight);
+		}
+		layer = new NetworkSimplexRanking(nodeCount, tails, heads, weights)
+			.rank();
+	}
+
+	/**
+	 * Splits the edges spanning several layers with dummy vertices, and
+	 * measures the vertices.
+	 */
+	private void buildChains() {
+		int dummies = 0;
+		for (int e = 0; e < edges.length; e++) {
+			dummies += layer[head(e)] - layer[tail(e)] - 1;
+		}
+		vertexCount = nodeCount + dummies;
+		int[] vertexLayer = new int[vertexCount];
+		System.arraycopy(layer, 0, vertexLayer, 0, nodeCount);
+		width = new int[vertexCount];
+		height = new int[vertexCount];
+		padBefore = new int[vertexCount];
+		padAfter = new int[vertexCount];
+		padAbove = new int[vertexCount];
+		padBelow = new int[vertexCount];
+		for (int v = 0; v < nodeCount; v++) {
+			Node node = nodes[v];
+			Insets padding = graph.getPadding(node);
+			if (horizontal) {
+				width[v] = node.height;
+				height[v] = node.width;
+				padBefore[v] = padding.top;
+				padAfter[v] = padding.bottom;
+				padAbove[v] = padding.left;
+				padBelow[v] = padding.right;
+			} else {
+				width[v] = node.width;
+				height[v] = node.height;
+				padBefore[v] = padding.left;
+				padAfter[v] = padding.right;
+				padAbove[v] = padding.top;
+				padBelow[v] = padding.bottom;
+			}
+		}
+
+		int segmentCount = dummies + edges.length;
+		int[] chains = new int[edges.length + segmentCount];
+		segmentTop = new int[segmentCount];
+		segmentBottom = new int[segmentCount];
+		int nextDummy = nodeCount;
+		int offset = 0;
+		int segment = 0;
+		for (int e = 0; e < edges.length; e++) {
+			int t = tail(e);
+			int h = head(e);
+			int padding = Math.max(0, edges[e].getPadding()) / 2;
+			chainStart[e] = offset;
+			chains[offset++] = t;
+			int previous = t;
+			for (int r = layer[t] + 1; r < layer[h]; r++) {
+				int dummy = nextDummy++;
+				vertexLayer[dummy] = r;
+				padBefore[dummy] = padAfter[dummy] = padding;
+				padAbove[dummy] = padBelow[dummy] = padding;
+				chains[offset++] = dummy;
+				segmentTop[segment] = previous;
+				segmentBottom[segment++] = dummy;
+				previous = dummy;
+			}
+			chains[offset++] = h;
+			segmentTop[segment] = previous;
+			segmentBottom[segment++] = h;
+		}
+		chainStart[edges.length] = offset;
+		chainVertices = chains;
+		layer = vertexLayer;
+
+		downStart = new int[vertexCount + 1];
+		upStart = new int[vertexCount + 1];
+		down = new int[segmentCount];
+		up = new int[segmentCount];
+		index(segmentTop, downStart, down);
+		index(segmentBottom, upStart, up);
+	}
+
+	/**
+	 * Groups the segments by one of their ends.
+	 */
+	private void index(int[] ends, int[] start, int[] segments) {
+		for (int s = 0; s < ends.length; s++) {
+			start[ends[s] + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			start[v + 1] += start[v];
+		}
+		int[] next = new int[vertexCount];
+		System.arraycopy(start, 0, next, 0, vertexCount);
+		for (int s = 0; s < ends.length; s++) {
+			segments[next[ends[s]]++] = s;
+		}
+	}
+
+	/**
+	 * Orders the layers by a depth first search down from the nodes, taken
+	 * by layer.
+	 */
+	private void initOrder() {
+		int layerCount = 0;
+		int[] layerSize = new int[vertexCount + 1];
+		for (int v = 0; v < vertexCount; v++) {
+			layerCount = Math.max(layerCount, layer[v] + 1);
+			layerSize[layer[v]]++;
+		}
+		layers = new int[layerCount][];
+		for (int r = 0; r < layerCount; r++) {
+			layers[r] = new int[layerSize[r]];
+		}
+		int[] filled = new int[layerCount];
+		position = new int[vertexCount];
+
+		Integer[] roots = new Integer[nodeCount];
+		for (int v = 0; v < nodeCount; v++) {
+			roots[v] = Integer.valueOf(v);
+		}
+		Arrays.sort(roots, new Comparator<Integer>() {
+
+			public int compare(Integer v, Integer w) {
+				return layer[v.intValue()] - layer[w.intValue()];
+			}
+		});
+
+		boolean[] visited = new boolean[vertexCount];
+		int[] stack = new int[vertexCount];
+		for (int i = 0; i < roots.length; i++) {
+			int root = roots[i].intValue();
+			if (visited[root]) {
+				continue;
+			}
+			int stackSize = 0;
+			stack[stackSize++] = root;
+			visited[root] = true;
+			while (stackSize > 0) {
+				int v = stack[--stackSize];
+				int r = layer[v];
+				position[v] = filled[r];
+				layers[r][filled[r]++] = v;
+				// push the first segment last, to visit it first
+				for (int j = downStart[v + 1] - 1; j >= downStart[v]; j--) {
+					int w = segmentBottom[down[j]];
+					if (!visited[w]) {
+						visited[w] = true;
+						stack[stackSize++] = w;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sorts the layers by the barycenters of their neighbors, sweeping down
+	 * and up, and keeps the ordering with the fewest crossings.
+	 */
+	private void reduceCrossings() {
+		int[][] best = copyLayers();
+		long bestCrossings = countCrossings();
+		int lastImprovement = -1;
+		for (int sweep = 0; sweep < maxSweeps && bestCrossings > 0
+			&& sweep - lastImprovement <= MAX_SWEEPS_WITHOUT_IMPROVEMENT; sweep++) {
+			if (sweep % 2 == 0) {
+				for (int r = 1; r < layers.length; r++) {
+					sortByBarycenters(layers[r], upStart, up, segmentTop);
+				}
+			} else {
+				for (int r = layers.length - 2; r >= 0; r--) {
+					sortByBarycenters(layers[r], downStart, down, segmentBottom);
+				}
+			}
+			long count = countCrossings();
+			if (count < bestCrossings) {
+				best = copyLayers();
+				bestCrossings = count;
+				lastImprovement = sweep;
+			}
+		}
+		layers = best;
+		for (int r = 0; r < layers.length; r++) {
+			for (int i = 0; i < layers[r].length; i++) {
+				position[layers[r][i]] = i;
+			}
+		}
+		crossings = bestCrossings;
+	}
+
+	private int[][] copyLayers() {
+		int[][] copy = new int[layers.length][];
+		for (int r = 0; r < layers.length; r++) {
+			copy[r] = layers[r].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Sorts the vertices of a layer that have neighbors in the fixed layer by
+	 * the average position of their neighbors. The other vertices keep their
+	 * positions.
+	 */
+	private void sortByBarycenters(int[] vertices, int[] start,
+			int[] segments, int[] neighbor) {
+		final double[] barycenter = new double[vertices.length];
+		List<Integer> movable = new ArrayList<Integer>(vertices.length);
+		for (int i = 0; i < vertices.length; i++) {
+			int v = vertices[i];
+			int count = start[v + 1] - start[v];
+			if (count > 0) {
+				long sum = 0;
+				for (int j = start[v]; j < start[v + 1]; j++) {
+					sum += position[neighbor[segments[j]]];
+				}
+				barycenter[i] = (double) sum / count;
+				movable.add(Integer.valueOf(i));
+			} else {
+				barycenter[i] = -1;
+			}
+		}
+		Integer[] sorted = movable.toArray(new Integer[movable.size()]);
+		// the sort is stable, so vertices with equal barycenters keep their
+		// order
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			public int compare(Integer i, Integer j) {
+				return Double.compare(barycenter[i.intValue()],
+					barycenter[j.intValue()]);
+			}
+		});
+		int[] previous = vertices.clone();
+		int next = 0;
+		for (int i = 0; i < vertices.length; i++) {
+			if (barycenter[i] >= 0) {
+				vertices[i] = previous[sorted[next++].intValue()];
+			}
+			position[vertices[i]] = i;
+		}
+	}
+
+	/**
+	 * Counts the crossings between consecutive layers with the accumulator
+	 * tree of Barth, J&uuml;nger and Mutzel.
+	 */
+	private long countCrossings() {
+		long count = 0;
+		int[] south = new int[down.length];
+		for (int r = 0; r + 1 < layers.length; r++) {
+			int size = 0;
+			for (int i = 0; i < layers[r].length; i++) {
+				int v = layers[r][i];
+				int first = size;
+				for (int j = downStart[v]; j < downStart[v + 1]; j++) {
+					south[size++] = position[segmentBottom[down[j]]];
+				}
+				Arrays.sort(south, first, size);
+			}
+			int firstIndex = 1;
+			while (firstIndex < layers[r + 1].length) {
+				firstIndex <<= 1;
+			}
+			int[] tree = new int[2 * firstIndex - 1];
+			firstIndex--;
+			for (int k = 0; k < size; k++) {
+				int index = south[k] + firstIndex;
+				tree[index]++;
+				while (index > 0) {
+					if (index % 2 != 0) {
+						count += tree[index + 1];
+					}
+					index = (index - 1) / 2;
+					tree[index]++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Assigns the centers of the vertices along their layers, balancing the
+	 * four alignments of Brandes and K&ouml;pf.
+	 */
+	private double[] assignCoordinates() {
+		markConflicts();
+		double[][] alignments = new double[4][];
+		for (int i = 0; i < 4; i++) {
+			alignments[i] = alignAndCompact(i < 2, i % 2 == 0);
+		}
+
+		// align the other alignments to the narrowest one
+		int narrowest = 0;
+		double narrowestWidth = Double.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			double min = Double.MAX_VALUE;
+			double max = -Double.MAX_VALUE;
+			for (int v = 0; v < vertexCount; v++) {
+				min = Math.min(min, alignments[i][v] - width[v] / 2.0);
+				max = Math.max(max, alignments[i][v] + width[v] / 2.0);
+			}
+			if (max - min < narrowestWidth) {
+				narrowestWidth = max - min;
+				narrowest = i;
+			}
+		}
+		double[] bounds = getBounds(alignments[narrowest]);
+		for (int i = 0; i < 4; i++) {
+			if (i == narrowest) {
+				continue;
+			}
+			double[] ownBounds = getBounds(alignments[i]);
+			double delta = i % 2 == 0
+				? bounds[0] - ownBounds[0]
+				: bounds[1] - ownBounds[1];
+			for (int v = 0; v < vertexCount; v++) {
+				alignments[i][v] += delta;
+			}
+		}
+
+		double[] x = new double[vertexCount];
+		double[] values = new double[4];
+		for (int v = 0; v < vertexCount; v++) {
+			for (int i = 0; i < 4; i++) {
+				values[i] = alignments[i][v];
+			}
+			Arrays.sort(values);
+			x[v] = (values[1] + values[2]) / 2;
+		}
+		return x;
+	}
+
+	private double[] getBounds(double[] x) {
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		for (int v = 0; v < vertexCount; v++) {
+			min = Math.min(min, x[v]);
+			max = Math.max(max, x[v]);
+		}
+		return new double[] {min, max};
+	}
+
+	private static long key(int v, int w) {
+		return v < w
+			? ((long) v << 32) | w
+			: ((long) w << 32) | v;
+	}
+
+	/**
+	 * Marks the segments that cross an inner segment, between two dummy
+	 * vertices, so that the inner segments can be kept straight.
+	 */
+	private void markConflicts() {
+		conflicts = new HashSet<Long>();
+		for (int r = 1; r < layers.length; r++) {
+			int[] vertices = layers[r];
+			int previousLength = layers[r - 1].length;
+			int k0 = 0;
+			int scan = 0;
+			for (int i = 0; i < vertices.length; i++) {
+				int v = vertices[i];
+				int inner = -1;
+				if (v >= nodeCount && segmentTop[up[upStart[v]]] >= nodeCount) {
+					inner = segmentTop[up[upStart[v]]];
+				}
+				if (inner < 0 && i < vertices.length - 1) {
+					continue;
+				}
+				int k1 = inner >= 0 ? position[inner] : previousLength;
+				for (; scan <= i; scan++) {
+					int w = vertices[scan];
+					for (int j = upStart[w]; j < upStart[w + 1]; j++) {
+						int u = segmentTop[up[j]];
+						if ((position[u] < k0 || k1 < position[u])
+							&& !(u >= nodeCount && w >= nodeCount)) {
+							conflicts.add(Long.valueOf(key(u, w)));
+						}
+					}
+				}
+				k0 = k1;
+			}
+		}
+	}
+
+	/**
+	 * Aligns the vertices with their median neighbors above or below, then
+	 * places the blocks of aligned vertices as far left or right as they can.
+	 *
+	 * @param upwards
+	 *            whether to align with the neighbors above
+	 * @param leftwards
+	 *            whether to place the blocks to the left
+	 * @return the center of each vertex
+	 */
+	private double[] alignAndCompact(boolean upwards, boolean leftwards) {
+		int[] root = new int[vertexCount];
+		int[] align = new int[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			root[v] = v;
+			align[v] = v;
+		}
+		int[] neighbors = new int[vertexCount];
+		int[] start = upwards ? upStart : downStart;
+		int[] segments = upwards ? up : down;
+		int[] other = upwards ? segmentTop : segmentBottom;
+		for (int l = 0; l < layers.length; l++) {
+			int[] vertices = layers[upwards ? l : layers.length - 1 - l];
+			int previous = -1;
+			for (int k = 0; k < vertices.length; k++) {
+				int v = vertices[leftwards ? k : vertices.length - 1 - k];
+				int count = 0;
+				for (int j = start[v]; j < start[v + 1]; j++) {
+					neighbors[count++] = other[segments[j]];
+				}
+				if (count == 0) {
+					continue;
+				}
+				sortByPosition(neighbors, count, leftwards);
+				for (int m = (count - 1) / 2; m <= count / 2; m++) {
+					int w = neighbors[m];
+					int p = leftwards
+						? position[w]
+						: layers[layer[w]].length - 1 - position[w];
+					if (align[v] == v && previous < p
+						&& !conflicts.contains(Long.valueOf(key(v, w)))) {
+						align[w] = v;
+						root[v] = root[w];
+						align[v] = root[v];
+						previous = p;
+					}
+				}
+			}
+		}
+		return compact(root, leftwards);
+	}
+
+	private void sortByPosition(int[] vertices, int count, boolean leftwards) {
+		for (int i = 1; i < count; i++) {
+			int v = vertices[i];
+			int j = i - 1;
+			while (j >= 0
+				&& (leftwards
+					? position[vertices[j]] > position[v]
+					: position[vertices[j]] < position[v])) {
+				vertices[j + 1] = vertices[j];
+				j--;
+			}
+			vertices[j + 1] = v;
+		}
+	}
+
+	/**
+	 * Places the blocks with two passes over the graph of the blocks, whose
+	 * edges separate consecutive vertices of a layer.
+	 */
+	private double[] compact(int[] root, boolean leftwards) {
+		int edgeCount = 0;
+		for (int r = 0; r < layers.length; r++) {
+			edgeCount += Math.max(0, layers[r].length - 1);
+		}
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		double[] separation = new double[edgeCount];
+		int e = 0;
+		for (int r = 0; r < layers.length; r++) {
+			int[] vertices = layers[r];
+			for (int k = 1; k < vertices.length; k++) {
+				// from the left to the right when compacting to the left,
+				// from the right to the left otherwise
+				int u = vertices[leftwards ? k - 1 : vertices.length - k];
+				int v = vertices[leftwards ? k : vertices.length - 1 - k];
+				from[e] = root[u];
+				to[e] = root[v];
+				separation[e++] = (width[u] + width[v]) / 2.0
+					+ (leftwards
+						? padAfter[u] + padBefore[v]
+						: padBefore[u] + padAfter[v]);
+			}
+		}
+		int[] inStart = new int[vertexCount + 1];
+		int[] in = new int[edgeCount];
+		int[] outStart = new int[vertexCount + 1];
+		int[] out = new int[edgeCount];
+		int[] inDegree = new int[vertexCount];
+		for (int i = 0; i < edgeCount; i++) {
+			inStart[to[i] + 1]++;
+			outStart[from[i] + 1]++;
+			inDegree[to[i]]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			inStart[v + 1] += inStart[v];
+			outStart[v + 1] += outStart[v];
+		}
+		int[] nextIn = new int[vertexCount];
+		int[] nextOut = new int[vertexCount];
+		System.arraycopy(inStart, 0, nextIn, 0, vertexCount);
+		System.arraycopy(outStart, 0, nextOut, 0, vertexCount);
+		for (int i = 0; i < edgeCount; i++) {
+			in[nextIn[to[i]]++] = i;
+			out[nextOut[from[i]]++] = i;
+		}
+
+		// topological order of the blocks
+		int[] order = new int[vertexCount];
+		int size = 0;
+		for (int v = 0; v < vertexCount; v++) {
+			if (root[v] == v && inDegree[v] == 0) {
+				order[size++] = v;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			int v = order[i];
+			for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+				int w = to[out[j]];
+				if (--inDegree[w] == 0) {
+					order[size++] = w;
+				}
+			}
+		}
+
+		double[] x = new double[vertexCount];
+		for (int i = 0; i < size; i++) {
+			int v = order[i];
+			double value = 0;
+			for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+				value = Math.max(value, x[from[in[j]]] + separation[in[j]]);
+			}
+			x[v] = value;
+		}
+		// move the blocks towards their successors where there is room
+		for (int i = size - 1; i >= 0; i--) {
+			int v = order[i];
+			double min = Double.MAX_VALUE;
+			for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+				min = Math.min(min, x[to[out[j]]] - separation[out[j]]);
+			}
+			if (min != Double.MAX_VALUE) {
+				x[v] = Math.max(x[v], min);
+			}
+		}
+
+		double[] result = new double[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			result[v] = leftwards
+				? x[root[v]]
+				: -x[root[v]];
+		}
+		return result;
+	}
+
+	/**
+	 * Stacks the layers, separated by the largest paddings of their vertices.
+	 */
+	private void assignLayerTops() {
+		layerTop = new int[layers.length + 1];
+		layerHeight = new int[layers.length];
+		int previousBelow = 0;
+		int top = 0;
+		for (int r = 0; r < layers.length; r++) {
+			int above = 0;
+			int below = 0;
+			for (int i = 0; i < layers[r].length; i++) {
+				int v = layers[r][i];
+				above = Math.max(above, padAbove[v]);
+				below = Math.max(below, padBelow[v]);
+				layerHeight[r] = Math.max(layerHeight[r], height[v]);
+			}
+			top += previousBelow + above;
+			layerTop[r] = top;
+			top += layerHeight[r];
+			previousBelow = below;
+		}
+		layerTop[layers.length] = top;
+	}
+
+	/**
+	 * Moves the nodes and sets the points of the edges.
+	 */
+	private void applyToGraph(double[] x) {
+		double min = 0;
+		double max = 0;
+		for (int v = 0; v < vertexCount; v++) {
+			double before = x[v] - width[v] / 2.0 - padBefore[v];
+			double after = x[v] + width[v] / 2.0 + padAfter[v];
+			min = v == 0 ? before : Math.min(min, before);
+			max = v == 0 ? after : Math.max(max, after);
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			x[v] -= min;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			int left = (int) Math.round(x[v] - width[v] / 2.0);
+			int top = layerTop[layer[v]];
+			if (horizontal) {
+				nodes[v].x = top;
+				nodes[v].y = left;
+			} else {
+				nodes[v].x = left;
+				nodes[v].y = top;
+			}
+		}
+
+		// spread the ends of the edges along the sides of the nodes
+		int[] segmentStartX = spreadEnds(x, downStart, down, segmentBottom);
+		int[] segmentEndX = spreadEnds(x, upStart, up, segmentTop);
+		int segment = 0;
+		int[] along = new int[2 * vertexCount];
+		int[] across = new int[2 * vertexCount];
+		for (int e = 0; e < edges.length; e++) {
+			int first = chainStart[e];
+			int last = chainStart[e + 1] - 1;
+			int t = chainVertices[first];
+			int count = 0;
+			along[count] = segmentStartX[segment];
+			across[count++] = layerTop[layer[t]] + height[t];
+			for (int i = first + 1; i < last; i++) {
+				int dummy = chainVertices[i];
+				int r = layer[dummy];
+				int center = (int) Math.round(x[dummy]);
+				along[count] = center;
+				across[count++] = layerTop[r];
+				if (layerHeight[r] > 0) {
+					along[count] = center;
+					across[count++] = layerTop[r] + layerHeight[r];
+				}
+			}
+			segment += last - first;
+			along[count] = segmentEndX[segment - 1];
+			across[count++] = layerTop[layer[chainVertices[last]]];
+
+			// the points go from the source to the target of the edge
+			PointList points = new PointList(count);
+			for (int i = 0; i < count; i++) {
+				int p = reversed[e] ? count - 1 - i : i;
+				if (horizontal) {
+					points.addPoint(new Point(across[p], along[p]));
+				} else {
+					points.addPoint(new Point(along[p], across[p]));
+				}
+			}
+			edges[e].setPoints(points);
+		}
+
+		int extent = (int) Math.round(max - min);
+		int depth = layerTop[layers.length];
+		Dimension size = graph.getLayoutSize();
+		size.width = horizontal ? depth : extent;
+		size.height = horizontal ? extent : depth;
+	}
+
+	/**
+	 * Spreads the ends of the segments evenly along the side of each node,
+	 * in the order of the vertices at their other ends.
+	 *
+	 * @return the coordinate along the layer of the end of each segment at a
+	 *         node
+	 */
+	private int[] spreadEnds(double[] x, int[] start, int[] segments,
+			int[] other) {
+		int[] result = new int[segmentTop.length];
+		int[] sorted = new int[segmentTop.length];
+		for (int v = 0; v < nodeCount; v++) {
+			int count = start[v + 1] - start[v];
+			for (int j = 0; j < count; j++) {
+				int s = segments[start[v] + j];
+				// insertion sort by the position of the other end
+				int i = j - 1;
+				while (i >= 0 && position[other[sorted[i]]] > position[other[s]]) {
+					sorted[i + 1] = sorted[i];
+					i--;
+				}
+				sorted[i + 1] = s;
+			}
+			double left = x[v] - width[v] / 2.0;
+			for (int j = 0; j < count; j++) {
+				result[sorted[j]] = (int) Math.round(left + width[v]
+					* (j + 1.0) / (count + 1));
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,459 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.internal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Assigns the nodes of an acyclic graph to layers with the network simplex
+ * method of Gansner et al., minimizing the sum of the weighted lengths of the
+ * edges under the constraint that every edge points at least one layer down.
+ * <P>
+ * The ranking starts from the longest path layering, grows a feasible tight
+ * spanning tree for each connected component and then exchanges tree edges
+ * with negative cut values for non-tree edges of minimal slack. The number of
+ * exchanges per component is bounded, so a large graph may be left with a
+ * feasible but not optimal ranking.
+ * <P>
+ * The graph is given as arrays of ints, the nodes being numbered from 0 and
+ * the edges given by their tails, heads and weights. Parallel edges are
+ * allowed.
+ */
+final class NetworkSimplexRanking {
+
+	/**
+	 * The maximum number of tree edge exchanges per connected component.
+	 */
+	static final int MAX_ITERATIONS = 1000;
+
+	private final int nodeCount;
+
+	private final int[] tail;
+
+	private final int[] head;
+
+	private final int[] weight;
+
+	/** the ranks of the nodes */
+	private final int[] rank;
+
+	/** the incident edges of each node, indexed by <code>incidenceStart</code> */
+	private int[] incidence;
+
+	private int[] incidenceStart;
+
+	private final boolean[] treeEdge;
+
+	/** whether each node was added to the tree of its component */
+	private final boolean[] inTree;
+
+	private final int[] parentEdge;
+
+	private final int[] low;
+
+	private final int[] lim;
+
+	/** the cut value of each tree edge */
+	private final int[] cutValue;
+
+	/** the nodes of the component being ranked, in postorder of its tree */
+	private int[] postorder;
+
+	/** the stack of the depth first searches of the tree */
+	private int[] stack;
+
+	private int[] cursor;
+
+	private int iterations = 0;
+
+	/**
+	 * Creates a ranking.
+	 *
+	 * @param nodeCount
+	 *            the number of nodes
+	 * @param tail
+	 *            the tail of each edge
+	 * @param head
+	 *            the head of each edge
+	 * @param weight
+	 *            the weight of each edge
+	 */
+	NetworkSimplexRanking(int nodeCount, int[] tail, int[] head, int[] weight) {
+		this.nodeCount = nodeCount;
+		this.tail = tail;
+		this.head = head;
+		this.weight = weight;
+		rank = new int[nodeCount];
+		treeEdge = new boolean[tail.length];
+		inTree = new boolean[nodeCount];
+		parentEdge = new int[nodeCount];
+		low = new int[nodeCount];
+		lim = new int[nodeCount];
+		cutValue = new int[tail.length];
+	}
+
+	/**
+	 * Ranks the nodes. The ranks of each connected component start at 0.
+	 *
+	 * @return the rank of each node
+	 */
+	int[] rank() {
+		buildIncidence();
+		initRanks();
+
+		int[] component = new int[nodeCount];
+		int[] members = new int[nodeCount];
+		Arrays.fill(component, -1);
+		int componentCount = 0;
+		for (int root = 0; root < nodeCount; root++) {
+			if (component[root] >= 0) {
+				continue;
+			}
+			int size = collectComponent(root, componentCount++, component, members);
+			int[] nodes = new int[size];
+			System.arraycopy(members, 0, nodes, 0, size);
+			rankComponent(nodes);
+		}
+		return rank;
+	}
+
+	/**
+	 * @return the number of tree edge exchanges done by the last ranking
+	 */
+	int getIterations() {
+		return iterations;
+	}
+
+	private void buildIncidence() {
+		incidenceStart = new int[nodeCount + 1];
+		for (int e = 0; e < tail.length; e++) {
+			incidenceStart[tail[e] + 1]++;
+			incidenceStart[head[e] + 1]++;
+		}
+		for (int v = 0; v < nodeCount; v++) {
+			incidenceStart[v + 1] += incidenceStart[v];
+		}
+		incidence = new int[incidenceStart[nodeCount]];
+		int[] next = new int[nodeCount];
+		System.arraycopy(incidenceStart, 0, next, 0, nodeCount);
+		for (int e = 0; e < tail.length; e++) {
+			incidence[next[tail[e]]++] = e;
+			incidence[next[head[e]]++] = e;
+		}
+	}
+
+	/**
+	 * Ranks the nodes by the longest path to a sink, in reverse topological
+	 * order.
+	 */
+	private void initRanks() {
+		int[] outDegree = new int[nodeCount];
+		for (int e = 0; e < tail.length; e++) {
+			outDegree[tail[e]]++;
+		}
+		int[] queue = new int[nodeCount];
+		int queueEnd = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			rank[v] = Integer.MAX_VALUE;
+			if (outDegree[v] == 0) {
+				queue[queueEnd++] = v;
+				rank[v] = 0;
+			}
+		}
+		for (int q = 0; q < queueEnd; q++) {
+			int w = queue[q];
+			for (int i = incidenceStart[w]; i < incidenceStart[w + 1]; i++) {
+				int e = incidence[i];
+				if (head[e] == w) {
+					int v = tail[e];
+					rank[v] = Math.min(rank[v], rank[w] - 1);
+					if (--outDegree[v] == 0) {
+						queue[queueEnd++] = v;
+					}
+				}
+			}
+		}
+		if (queueEnd < nodeCount) {
+			throw new IllegalArgumentException("The graph has a cycle"); //$NON-NLS-1$
+		}
+	}
+
+	private int collectComponent(int root, int id, int[] component, int[] members) {
+		int size = 0;
+		component[root] = id;
+		members[size++] = root;
+		for (int m = 0; m < size; m++) {
+			int v = members[m];
+			for (int i = incidenceStart[v]; i < incidenceStart[v + 1]; i++) {
+				int e = incidence[i];
+				int w = tail[e] == v ? head[e] : tail[e];
+				if (component[w] < 0) {
+					component[w] = id;
+					members[size++] = w;
+				}
+			}
+		}
+		return size;
+	}
+
+	private void rankComponent(int[] nodes) {
+		feasibleTree(nodes);
+		int root = nodes[0];
+		postorder = new int[nodes.length];
+		stack = new int[nodes.length];
+		cursor = new int[nodes.length];
+		assignLowLim(root, -1, 0);
+		initCutValues();
+
+		int searchStart = 0;
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			// find a tree edge with a negative cut value, continuing the
+			// search where the last one ended
+			int leaving = -1;
+			for (int i = 0; i < postorder.length - 1; i++) {
+				int p = (searchStart + i) % (postorder.length - 1);
+				int e = parentEdge[postorder[p]];
+				if (cutValue[e] < 0) {
+					leaving = e;
+					searchStart = p + 1;
+					break;
+				}
+			}
+			if (leaving < 0) {
+				break;
+			}
+			int entering = enterEdge(leaving);
+			if (entering < 0) {
+				break;
+			}
+			exchange(leaving, entering);
+			iterations++;
+		}
+
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < nodes.length; i++) {
+			min = Math.min(min, rank[nodes[i]]);
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			rank[nodes[i]] -= min;
+		}
+	}
+
+	private int slack(int e) {
+		return rank[head[e]] - rank[tail[e]] - 1;
+	}
+
+	/**
+	 * Grows a spanning tree of tight edges from the first node, shifting the
+	 * ranks of the tree when no edge leaving it is tight.
+	 */
+	private void feasibleTree(int[] nodes) {
+		int[] pending = new int[nodes.length];
+		int treeSize = 0;
+		int pendingSize = 0;
+		inTree[nodes[0]] = true;
+		pending[pendingSize++] = nodes[0];
+		treeSize++;
+		int[] treeNodes = new int[nodes.length];
+		treeNodes[0] = nodes[0];
+
+		while (true) {
+			while (pendingSize > 0) {
+				int v = pending[--pendingSize];
+				for (int i = incidenceStart[v]; i < incidenceStart[v + 1]; i++) {
+					int e = incidence[i];
+					int w = tail[e] == v ? head[e] : tail[e];
+					if (!inTree[w] && slack(e) == 0) {
+						inTree[w] = true;
+						treeEdge[e] = true;
+						treeNodes[treeSize++] = w;
+						pending[pendingSize++] = w;
+					}
+				}
+			}
+			if (treeSize == nodes.length) {
+				return;
+			}
+
+			// find the edge of minimal slack with one end in the tree
+			int best = -1;
+			int bestSlack = Integer.MAX_VALUE;
+			for (int t = 0; t < treeSize; t++) {
+				int v = treeNodes[t];
+				for (int i = incidenceStart[v]; i < incidenceStart[v + 1]; i++) {
+					int e = incidence[i];
+					if (inTree[tail[e]] != inTree[head[e]] && slack(e) < bestSlack) {
+						best = e;
+						bestSlack = slack(e);
+					}
+				}
+			}
+			int delta = inTree[tail[best]] ? bestSlack : -bestSlack;
+			for (int t = 0; t < treeSize; t++) {
+				rank[treeNodes[t]] += delta;
+			}
+			// the tree nodes may now have tight edges leaving the tree
+			System.arraycopy(treeNodes, 0, pending, 0, treeSize);
+			pendingSize = treeSize;
+		}
+	}
+
+	/**
+	 * Numbers the nodes of a subtree in postorder from a given number, each
+	 * node keeping the lowest number of its subtree, and records the edge to
+	 * the parent of each node.
+	 *
+	 * @param root
+	 *            the root of the subtree
+	 * @param rootParentEdge
+	 *            the edge from the root to its parent, or -1
+	 * @param firstLim
+	 *            the number of the first node in postorder
+	 */
+	private void assignLowLim(int root, int rootParentEdge, int firstLim) {
+		int stackSize = 0;
+		int nextLim = firstLim;
+		parentEdge[root] = rootParentEdge;
+		low[root] = nextLim;
+		stack[stackSize] = root;
+		cursor[stackSize++] = incidenceStart[root];
+		while (stackSize > 0) {
+			int v = stack[stackSize - 1];
+			int i = cursor[stackSize - 1];
+			if (i < incidenceStart[v + 1]) {
+				cursor[stackSize - 1] = i + 1;
+				int e = incidence[i];
+				if (treeEdge[e] && e != parentEdge[v]) {
+					int w = tail[e] == v ? head[e] : tail[e];
+					parentEdge[w] = e;
+					low[w] = nextLim;
+					stack[stackSize] = w;
+					cursor[stackSize++] = incidenceStart[w];
+				}
+			} else {
+				postorder[nextLim] = v;
+				lim[v] = nextLim++;
+				stackSize--;
+			}
+		}
+	}
+
+	/**
+	 * Computes the cut values of the tree edges, from the leaves up.
+	 */
+	private void initCutValues() {
+		for (int p = 0; p < postorder.length - 1; p++) {
+			int child = postorder[p];
+			int e = parentEdge[child];
+			boolean childIsTail = tail[e] == child;
+			int value = weight[e];
+			for (int i = incidenceStart[child]; i < incidenceStart[child + 1]; i++) {
+				int f = incidence[i];
+				if (f == e) {
+					continue;
+				}
+				boolean isOutEdge = tail[f] == child;
+				int other = isOutEdge ? head[f] : tail[f];
+				boolean pointsToHead = isOutEdge == childIsTail;
+				value += pointsToHead ? weight[f] : -weight[f];
+				if (treeEdge[f] && parentEdge[other] == f) {
+					value += pointsToHead ? -cutValue[f] : cutValue[f];
+				}
+			}
+			cutValue[e] = value;
+		}
+	}
+
+	private boolean isDescendant(int v, int root) {
+		return low[root] <= lim[v] && lim[v] <= lim[root];
+	}
+
+	/**
+	 * Finds the non-tree edge of minimal slack that reconnects the two parts
+	 * of the tree split by removing a tree edge, searching the incident edges
+	 * of the part below the removed edge.
+	 */
+	private int enterEdge(int e) {
+		int child = lim[tail[e]] < lim[head[e]] ? tail[e] : head[e];
+		// the entering edge must cross the cut in the direction opposite to
+		// the leaving edge
+		boolean intoSubtree = child == tail[e];
+		int best = -1;
+		int bestSlack = Integer.MAX_VALUE;
+		for (int p = low[child]; p <= lim[child]; p++) {
+			int v = postorder[p];
+			for (int i = incidenceStart[v]; i < incidenceStart[v + 1]; i++) {
+				int f = incidence[i];
+				if (treeEdge[f] || (intoSubtree ? head[f] : tail[f]) != v) {
+					continue;
+				}
+				if (!isDescendant(intoSubtree ? tail[f] : head[f], child)) {
+					int s = slack(f);
+					if (s < bestSlack) {
+						best = f;
+						bestSlack = s;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Replaces a tree edge by a non-tree edge, shifting the ranks of the part
+	 * of the tree below the leaving edge to make the entering edge tight and
+	 * updating the cut values along the cycle the entering edge closes.
+	 */
+	private void exchange(int e, int f) {
+		int delta = slack(f);
+		if (delta > 0) {
+			if (lim[tail[e]] < lim[head[e]]) {
+				shiftSubtree(tail[e], -delta);
+			} else {
+				shiftSubtree(head[e], delta);
+			}
+		}
+		int value = cutValue[e];
+		int lca = updateCutValues(tail[f], head[f], value, true);
+		updateCutValues(head[f], tail[f], value, false);
+		cutValue[f] = -value;
+		cutValue[e] = 0;
+		treeEdge[e] = false;
+		treeEdge[f] = true;
+		assignLowLim(lca, parentEdge[lca], low[lca]);
+	}
+
+	/**
+	 * Adds a value to the ranks of the nodes of a subtree.
+	 */
+	private void shiftSubtree(int root, int delta) {
+		for (int p = low[root]; p <= lim[root]; p++) {
+			rank[postorder[p]] += delta;
+		}
+	}
+
+	/**
+	 * Updates the cut values of the tree edges on the path up from a node
+	 * to the lowest common ancestor of it and another node.
+	 *
+	 * @return the lowest common ancestor
+	 */
+	private int updateCutValues(int v, int w, int value, boolean sameDirection) {
+		while (!isDescendant(w, v)) {
+			int e = parentEdge[v];
+			boolean add = v == tail[e] ? sameDirection : !sameDirection;
+			cutValue[e] += add ? value : -value;
+			v = lim[tail[e]] > lim[head[e]] ? tail[e] : head[e];
+		}
+		return v;
+	}
+}
@@ -41,15 +41,28 @@ public class ThumbnailEx
 	implements UpdateListener
 {
 
+/** The maximum number of milliseconds spent updating tiles in a frame. */
+protected static final int FRAME_BUDGET = 20;
+
+/** The number of milliseconds between two frames of tile updates. */
+protected static final int FRAME_DELAY = 50;
+
 /**
  * This updates the ThumbnailEx by breaking the thumbnail {@link Image} into
- * several tiles and updating each tile individually.  
+ * several tiles and updating each tile individually.  Only the tiles covering
+ * the regions of the source figure that were repainted since they were last
+ * updated are updated again.  The tiles are updated in frames of limited
+ * duration, separated by a delay, so that updating the thumbnail does not
+ * slow down the editing of the source figure.
  */
 class ThumbnailUpdater implements Runnable {
 	private static final int NUMBER_OF_TILES = 16;
 	int maxHBufferSize = 256, maxVBufferSize = 256;
 	private int currentHTile, currentVTile;
 	private int hTiles, vTiles;
+	private boolean[] dirtyTiles;
+	private int dirtyTileCount;
+	private Rectangle tiledSourceRectangle;
 	private boolean isActive = true;
 
 	private boolean isRunning = false;
@@ -105,9 +118,60 @@ class ThumbnailUpdater implements Runnable {
 		return isRunning;
 	}
 	
+	/**
+	 * Returns the number of tiles waiting to be updated.
+	 * @return number of dirty tiles
+	 */
+	protected int getDirtyTileCount() {
+		return dirtyTileCount;
+	}
+	
+	/**
+	 * Marks the tiles covering a region of the source figure as needing to be
+	 * updated.  Nothing is done if the tiles are not laid out yet, since all
+	 * of them will be updated then.
+	 * @param region the region, in the coordinates of the source rectangle
+	 */
+	public void markDirty(Rectangle region) {
+		if (dirtyTiles == null || !getSourceRectangle().equals(tiledSourceRectangle))
+			return;
+		Rectangle source = tiledSourceRectangle;
+		// include the thumbnail pixels shared with the neighbouring tiles
+		float scale = Math.min(getScaleX(), getScaleY());
+		int margin = scale > 0 ? (int)Math.ceil(1 / scale) : 1;
+		Rectangle r = region.getCopy().expand(margin, margin).intersect(source);
+		if (r.isEmpty())
+			return;
+		int h1 = Math.max(0, (r.x - source.x) / tileSize.width);
+		int h2 = Math.min(hTiles - 1, (r.right() - 1 - source.x) / tileSize.width);
+		int v1 = Math.max(0, (r.y - source.y) / tileSize.height);
+		int v2 = Math.min(vTiles - 1, (r.bottom() - 1 - source.y) / tileSize.height);
+		for (int v = v1; v <= v2; v++)
+			for (int h = h1; h <= h2; h++)
+				markDirty(v * hTiles + h);
+	}
+	
+	private void markDirty(int tile) {
+		if (!dirtyTiles[tile]) {
+			dirtyTiles[tile] = true;
+			dirtyTileCount++;
+		}
+	}
+	
+	/**
+	 * Marks all the tiles as needing to be updated.
+	 */
+	public void markAllDirty() {
+		if (dirtyTiles == null)
+			return;
+		for (int i = 0; i < dirtyTiles.length; i++)
+			markDirty(i);
+	}
+	
 	/**
 	 * Resets the number of vertical and horizontal tiles, as well as the tile
-	 * size and current tile index.
+	 * size and current tile index, and marks all the tiles as needing to be
+	 * updated.
 	 */
 	public void resetTileValues() {
 		maxHBufferSize = Math.max(1, getSourceRectangle().width / NUMBER_OF_TILES); 
@@ -125,6 +189,11 @@ class ThumbnailUpdater implements Runnable {
 		
 		currentHTile = 0;
 		currentVTile = 0;
+		
+		tiledSourceRectangle = getSourceRectangle().getCopy();
+		dirtyTiles = new boolean[hTiles * vTiles];
+		dirtyTileCount = 0;
+		markAllDirty();
 	}
 	
 	/**
@@ -136,23 +205,73 @@ class ThumbnailUpdater implements Runnable {
 	}
 	
 	/**
-	 * Updates the current tile on the ThumbnailEx.  An area of the source Figure
-	 * is painted to an {@link Image}.  That Image is then drawn on the 
-	 * ThumbnailEx.  Scaling of the source Image is done inside
+	 * Updates the dirty tiles on the ThumbnailEx, starting from the current
+	 * tile, until the time budget of the frame is spent.  An area of the
+	 * source Figure is painted to an {@link Image}.  That Image is then drawn
+	 * on the ThumbnailEx.  Scaling of the source Image is done inside
 	 * {@link GC#drawImage(Image, int, int, int, int, int, int, int, int)} since
-	 * the source and target sizes are different.  The current tile indexes are
-	 * incremented and if more updating is necesary, this {@link Runnable} is 
-	 * called again in a {@link Display#timerExec(int, Runnable)}.  If no more
-	 * updating is required, {@link #stop()} is called.
+	 * the source and target sizes are different.  If more updating is
+	 * necessary, this {@link Runnable} is called again in a
+	 * {@link Display#timerExec(int, Runnable)}.  If no more updating is
+	 * required, {@link #stop()} is called.
 	 */
 	public void run() {
 		if (!isActive() || !isRunning())
 			return;
-		int v = getCurrentVTile();
+		if (!getSourceRectangle().equals(tiledSourceRectangle)) {
+			// the source figure was resized, all the tiles have changed
+			restart();
+			return;
+		}
+		// the dirty regions reported so far are all in the dirty tiles
+		setDirty(false);
+		
+		long end = System.currentTimeMillis() + FRAME_BUDGET;
+		do {
+			int tile = nextDirtyTile();
+			if (tile < 0)
+				break;
+			dirtyTiles[tile] = false;
+			dirtyTileCount--;
+			updateTile(tile % hTiles, tile / hTiles);
+			
+			setCurrentHTile((tile + 1) % hTiles);
+			setCurrentVTile(((tile + 1) / hTiles) % vTiles);
+		} while (System.currentTimeMillis() < end);
+		
+		repaint();
+		if (dirtyTileCount > 0)
+			Display.getCurrent().timerExec(FRAME_DELAY, this);
+		else
+			stop();
+	}
+	
+	/**
+	 * Returns the index of the first dirty tile from the current tile.
+	 * @return the index of the tile, or -1 if no tile is dirty
+	 */
+	private int nextDirtyTile() {
+		if (dirtyTileCount == 0)
+			return -1;
+		int first = getCurrentVTile() * hTiles + getCurrentHTile();
+		for (int i = 0; i < dirtyTiles.length; i++) {
+			int tile = (first + i) % dirtyTiles.length;
+			if (dirtyTiles[tile])
+				return tile;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Paints the area of the source Figure covered by a tile on the thumbnail
+	 * {@link Image}.
+	 * @param h horizontal tile index
+	 * @param v vertical tile index
+	 */
+	private void updateTile(int h, int v) {
 		int sy1 = v * tileSize.height;
 		int sy2 = Math.min((v + 1) * tileSize.height, getSourceRectangle().height);
 		
-		int h = getCurrentHTile();
 		int sx1 = h * tileSize.width;
 		int sx2 = Math.min((h + 1) * tileSize.width, getSourceRectangle().width);
 		org.eclipse.draw2d.geometry.Point p = getSourceRectangle().getLocation();
@@ -163,27 +282,6 @@ class ThumbnailUpdater implements Runnable {
 		thumbnailGraphics.fillRectangle(rect);
 		sourceFigure.paint(thumbnailGraphics);
 		thumbnailGraphics.popState();
-		
-		if (getCurrentHTile() < (hTiles - 1))
-			setCurrentHTile(getCurrentHTile() + 1);
-		else {
-			setCurrentHTile(0);
-			if (getCurrentVTile() < (vTiles - 1))
-				setCurrentVTile(getCurrentVTile() + 1);
-			else
-				setCurrentVTile(0);
-		}
-		
-		if (getCurrentHTile() != 0 || getCurrentVTile() != 0)
-			Display.getCurrent().asyncExec(this);
-		else if (isDirty()) {
-			setDirty(false);
-			Display.getCurrent().asyncExec(this);
-			repaint();
-		} else {
-			stop();
-			repaint();
-		}
 	}
 	
 	/**
@@ -212,16 +310,26 @@ class ThumbnailUpdater implements Runnable {
 	
 	/**
 	 * Starts this updater.  This method initializes all the necessary resources
-	 * and puts this {@link Runnable} on the asynch queue.  If this updater is
-	 * not active or is already running, this method just returns.
+	 * and puts this {@link Runnable} on the asynch queue.  If the thumbnail
+	 * {@link Image} and the tiles are still valid, only the dirty tiles are
+	 * updated, after a delay.  If this updater is not active or is already
+	 * running, this method just returns.
 	 */
 	public void start() {
 		if (!isActive() || isRunning())
 			return;
 		
 		isRunning = true;
-		setDirty(false);		
-		resetTileValues();
+		boolean incremental = getSourceRectangle().equals(tiledSourceRectangle)
+			&& targetSize.equals(thumbnailImageSize);
+		if (incremental) {
+			if (dirtyTileCount == 0)
+				// dirtied without a region
+				markAllDirty();
+		} else {
+			resetTileValues();
+		}
+		setDirty(false);
 		
 		if (!targetSize.equals(thumbnailImageSize)) {
 			resetThumbnailImage();
@@ -247,7 +355,10 @@ class ThumbnailUpdater implements Runnable {
 		setScales(targetSize.width / (float)getSourceRectangle().width,
 			     targetSize.height / (float)getSourceRectangle().height);
 
-		Display.getCurrent().asyncExec(this);
+		if (incremental)
+			Display.getCurrent().timerExec(FRAME_DELAY, this);
+		else
+			Display.getCurrent().asyncExec(this);
 	}
 
 	/**
@@ -438,18 +549,80 @@ protected boolean isDirty() {
  * @see org.eclipse.draw2d.UpdateListener#notifyPainting(Rectangle, Map)
  */
 public void notifyPainting(Rectangle damage, Map dirtyRegions) {
-	Iterator dirtyFigures = dirtyRegions.keySet().iterator();
+	boolean dirty = false;
+	Iterator dirtyFigures = dirtyRegions.entrySet().iterator();
 	while (dirtyFigures.hasNext()) {
-		IFigure current = (IFigure)dirtyFigures.next();
-		while (current != null) {
-			if (current == getSource()) {
-				setDirty(true);
-				repaint();
-				return;
-			}
+		Map.Entry entry = (Map.Entry)dirtyFigures.next();
+		IFigure current = (IFigure)entry.getKey();
+		while (current != null && current != getSource())
 			current = current.getParent();
+		if (current != null) {
+			IFigure figure = (IFigure)entry.getKey();
+			// the update manager has already translated the region to absolute
+			// coordinates and clipped it to the bounds of every ancestor,
+			// viewport included, so the damage scrolled out of view is lost;
+			// the whole figure is updated then
+			Rectangle region = (Rectangle)entry.getValue();
+			if (region.isEmpty() || isClipped(figure))
+				region = getBoundsInSource(figure);
+			else
+				region = toSourceRectangle(region);
+			updater.markDirty(region);
+			dirty = true;
 		}
 	}
+	if (dirty) {
+		setDirty(true);
+		repaint();
+	}
+}
+
+/**
+ * Returns <code>true</code> if the bounds of a figure are clipped by one of
+ * its ancestors, the way the update manager clips the dirty regions.
+ * @param figure a figure of the source
+ * @return <code>true</code> if part of the figure is not visible
+ */
+private boolean isClipped(IFigure figure) {
+	if (figure.getParent() == null)
+		return false;
+	Rectangle visible = figure.getBounds().getCopy();
+	IFigure walker = figure.getParent();
+	while (!visible.isEmpty() && walker != null) {
+		walker.translateToParent(visible);
+		visible.intersect(walker.getBounds());
+		walker = walker.getParent();
+	}
+	Rectangle bounds = figure.getBounds().getCopy();
+	figure.getParent().translateToAbsolute(bounds);
+	return !visible.equals(bounds);
+}
+
+/**
+ * Returns the bounds of a figure of the source in the coordinates of the
+ * source rectangle.
+ * @param figure the source or one of its descendants
+ * @return the bounds of the figure
+ */
+private Rectangle getBoundsInSource(IFigure figure) {
+	Rectangle bounds = figure.getBounds().getCopy();
+	if (figure == getSource())
+		return bounds;
+	figure.getParent().translateToAbsolute(bounds);
+	return toSourceRectangle(bounds);
+}
+
+/**
+ * Maps a rectangle from absolute coordinates to the coordinates of the
+ * source rectangle, which are those of the parent of the source.
+ * @param absolute the rectangle in absolute coordinates
+ * @return a mapped copy of the rectangle
+ */
+private Rectangle toSourceRectangle(Rectangle absolute) {
+	Rectangle region = absolute.getCopy();
+	if (getSource().getParent() != null)
+		getSource().getParent().translateToRelative(region);
+	return region;
 }
 
 /**
@@ -304,6 +304,7 @@ public class ObliqueRouter extends BendpointConnectionRouter {
 						}						
 						if (container != null) { // should never be null at this point
 							PointList points;
+							int routedCount = 0;
 							for (int i = 0; i < allPaths.size(); i++) {
 								Path path = allPaths.get(i);								
 								Connection currentConn = (Connection) path.data;
@@ -316,6 +317,14 @@ public class ObliqueRouter extends BendpointConnectionRouter {
 									currentConn.translateToRelative(pt);
 									points.addPoint(pt);
 								}
+								// GEF's router only recomputes the paths the changed obstacles and connections
+								// dirtied, but returns all of them. Skip a connection whose path and end figures
+								// are the same as the last time it was routed along it.
+								if (currentConn != conn && helper.isRouteCurrent(currentConn, points)) {
+									continue;
+								}
+								routedCount++;
+								PointList pathPoints = points.getCopy();
 								// Adjust start and end points, check for self connection, and source and target intersecting
 								// Problem: framework is designed for connections to be routed one at the time, but GEF's 
 								// algorithm routes several connections at once. Now we have to check if currentConn is routed 
@@ -364,6 +373,12 @@ public class ObliqueRouter extends BendpointConnectionRouter {
 										currentConn.revalidate();
 									}
 								}
+								helper.setRoute(currentConn, pathPoints);
+							}
+							if (Trace.shouldTrace(Draw2dPlugin.getInstance(), Draw2dDebugOptions.ROUTING)) {
+								Trace.trace(Draw2dPlugin.getInstance(), Draw2dDebugOptions.ROUTING,
+									"Avoid obstructions routing: " + routedCount + " connections routed, " //$NON-NLS-1$ //$NON-NLS-2$
+										+ (allPaths.size() - routedCount) + " skipped"); //$NON-NLS-1$
 							}
 						}
 					}
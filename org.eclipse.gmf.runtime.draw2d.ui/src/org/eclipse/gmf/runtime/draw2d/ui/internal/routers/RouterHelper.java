@@ -11,6 +11,7 @@
 
 package org.eclipse.gmf.runtime.draw2d.ui.internal.routers;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -79,6 +80,45 @@ class RouterHelper {
     // for routing each connection with avoid obstacles on
     private Map<Connection, ShortestPathConnectionRouter> lastUsedRouter = new WeakHashMap<Connection, ShortestPathConnectionRouter>();
 
+    // if useGEFRouter = true, keeps the GEF path each connection with avoid
+    // obstacles on was last routed along, and the points it gave
+    private Map<Connection, Route> routes = new WeakHashMap<Connection, Route>();
+
+    /**
+     * The points a connection was given for a path computed by GEF's router.
+     */
+    private static class Route {
+    	final int[] path;
+    	final Rectangle sourceBounds;
+    	final Rectangle targetBounds;
+    	final int[] points;
+
+    	Route(Connection conn, PointList path) {
+    		this.path = path.getCopy().toIntArray();
+    		this.sourceBounds = getOwnerBounds(conn.getSourceAnchor());
+    		this.targetBounds = getOwnerBounds(conn.getTargetAnchor());
+    		this.points = conn.getPoints().getCopy().toIntArray();
+    	}
+
+    	boolean isCurrent(Connection conn, PointList newPath) {
+    		return Arrays.equals(path, newPath.toIntArray())
+    			&& Arrays.equals(points, conn.getPoints().toIntArray())
+    			&& equals(sourceBounds, getOwnerBounds(conn.getSourceAnchor()))
+    			&& equals(targetBounds, getOwnerBounds(conn.getTargetAnchor()));
+    	}
+
+    	private static Rectangle getOwnerBounds(ConnectionAnchor anchor) {
+    		if (anchor == null || anchor.getOwner() == null) {
+    			return null;
+    		}
+    		return anchor.getOwner().getBounds().getCopy();
+    	}
+
+    	private static boolean equals(Rectangle r1, Rectangle r2) {
+    		return r1 == null ? r2 == null : r1.equals(r2);
+    	}
+    }
+
     /**
      * Added to support GEF's router.
      */
@@ -132,9 +172,45 @@ class RouterHelper {
 				routers.remove(router.getContainer());
 			}
 			lastUsedRouter.remove(conn);
+			routes.remove(conn);
 		}
     } 	
 
+    /**
+     * Checks if a connection is still routed along a path computed by GEF's
+     * router, meaning that neither the path, the points of the connection
+     * nor the bounds of its source and target changed since the connection
+     * was last routed along it.
+     * 
+     * @param conn
+     *            the <code>Connection</code>
+     * @param path
+     *            the path computed by GEF's router, relative to the
+     *            connection
+     * @return <code>true</code> if routing the connection along the path
+     *         again is not needed, <code>false</code> otherwise
+     */
+    protected boolean isRouteCurrent(Connection conn, PointList path) {
+    	Route route = routes.get(conn);
+    	return route != null && route.isCurrent(conn, path);
+    }
+
+    /**
+     * Remembers that a connection was routed along a path computed by GEF's
+     * router.
+     * 
+     * @param conn
+     *            the <code>Connection</code>, with its new points
+     * @param path
+     *            the path computed by GEF's router, relative to the
+     *            connection
+     */
+    protected void setRoute(Connection conn, PointList path) {
+    	if (conn.getPoints() != null) {
+    		routes.put(conn, new Route(conn, path));
+    	}
+    }
+
     /**
 	 * Added to support GEF's router.
 	 * 
@@ -0,0 +1,284 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.draw2d.ui.text;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Measures text with an off-screen graphics context and remembers the
+ * results.
+ * <P>
+ * The extents, in pixels, are kept per font, advanced graphics mode and
+ * string, in a bounded cache that evicts the least recently used ones. The
+ * advance widths of the characters of the most recently used fonts are kept
+ * as well, to estimate how many characters of a string fit in a width without
+ * measuring each candidate substring.
+ * <P>
+ * Like the graphics context it uses, it must only be used from the display
+ * thread.
+ */
+final class TextExtentCache {
+
+	/**
+	 * The maximum number of extents kept.
+	 */
+	private static final int MAX_ENTRIES = 10000;
+
+	/**
+	 * The maximum number of fonts whose advance widths are kept.
+	 */
+	private static final int MAX_FONTS = 32;
+
+	private static final TextExtentCache instance = new TextExtentCache(
+		MAX_ENTRIES, MAX_FONTS);
+
+	/**
+	 * A font in a graphics mode.
+	 */
+	private static final class FontKey {
+
+		final FontData fontData;
+
+		final boolean advanced;
+
+		FontKey(FontData fontData, boolean advanced) {
+			this.fontData = fontData;
+			this.advanced = advanced;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FontKey)) {
+				return false;
+			}
+			FontKey other = (FontKey) obj;
+			return advanced == other.advanced
+				&& fontData.equals(other.fontData);
+		}
+
+		public int hashCode() {
+			return fontData.hashCode() * 2 + (advanced ? 1 : 0);
+		}
+	}
+
+	/**
+	 * A string measured with a font, as text or as a single line.
+	 */
+	private static final class ExtentKey {
+
+		final FontKey font;
+
+		final String string;
+
+		final boolean text;
+
+		private final int hashCode;
+
+		ExtentKey(FontKey font, String string, boolean text) {
+			this.font = font;
+			this.string = string;
+			this.text = text;
+			this.hashCode = (font.hashCode() * 31 + string.hashCode()) * 2
+				+ (text ? 1 : 0);
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ExtentKey)) {
+				return false;
+			}
+			ExtentKey other = (ExtentKey) obj;
+			return hashCode == other.hashCode && text == other.text
+				&& string.equals(other.string) && font.equals(other.font);
+		}
+
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/** [ExtentKey, Point] in least recently used order */
+	private final LinkedHashMap<ExtentKey, Point> extents;
+
+	/**
+	 * [FontKey, int[][]] the advance widths of the characters measured with
+	 * each font, by pages of 256 characters, in least recently used order
+	 */
+	private final LinkedHashMap<FontKey, int[][]> advanceWidths;
+
+	/** the graphics context used to measure text */
+	private GC gc;
+
+	/** the font the last font key was made for */
+	private Font lastFont;
+
+	private FontKey lastFontKey;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxEntries
+	 *            the maximum number of extents kept
+	 * @param maxFonts
+	 *            the maximum number of fonts whose advance widths are kept
+	 */
+	private TextExtentCache(final int maxEntries, final int maxFonts) {
+		extents = new LinkedHashMap<ExtentKey, Point>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<ExtentKey, Point> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		advanceWidths = new LinkedHashMap<FontKey, int[][]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<FontKey, int[][]> eldest) {
+				return size() > maxFonts;
+			}
+		};
+	}
+
+	/**
+	 * @return the cache shared by the <code>TextUtilitiesEx</code>
+	 *         instances
+	 */
+	static TextExtentCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Gets the extent of a string drawn on a single line, without processing
+	 * tabs and line delimiters.
+	 *
+	 * @param s
+	 *            the string
+	 * @param f
+	 *            the font
+	 * @param advancedGraphics
+	 *            the graphics mode
+	 * @return the extent in pixels, which must not be modified
+	 */
+	Point getStringExtent(String s, Font f, boolean advancedGraphics) {
+		return getExtent(s, f, advancedGraphics, false);
+	}
+
+	/**
+	 * Gets the extent of a text, processing its tabs and line delimiters.
+	 *
+	 * @param s
+	 *            the text
+	 * @param f
+	 *            the font
+	 * @param advancedGraphics
+	 *            the graphics mode
+	 * @return the extent in pixels, which must not be modified
+	 */
+	Point getTextExtent(String s, Font f, boolean advancedGraphics) {
+		return getExtent(s, f, advancedGraphics, true);
+	}
+
+	private Point getExtent(String s, Font f, boolean advancedGraphics,
+			boolean text) {
+		ExtentKey key = new ExtentKey(getFontKey(f, advancedGraphics), s, text);
+		Point extent = extents.get(key);
+		if (extent != null) {
+			return extent;
+		}
+		GC measuringGC = getGC(f, advancedGraphics);
+		extent = text
+			? measuringGC.textExtent(s)
+			: measuringGC.stringExtent(s);
+		extents.put(key, extent);
+		return extent;
+	}
+
+	/**
+	 * Estimates the number of leading characters of a string that fit in a
+	 * width, from the sum of the advance widths of the characters.
+	 *
+	 * @param s
+	 *            the string
+	 * @param f
+	 *            the font
+	 * @param advancedGraphics
+	 *            the graphics mode
+	 * @param width
+	 *            the width in pixels
+	 * @return the largest number of leading characters whose advance widths
+	 *         add up to less than the width
+	 */
+	int getFittingLength(String s, Font f, boolean advancedGraphics, int width) {
+		int[][] pages = getAdvanceWidths(getFontKey(f, advancedGraphics));
+		int total = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			int[] page = pages[c >> 8];
+			if (page == null) {
+				page = new int[256];
+				Arrays.fill(page, -1);
+				pages[c >> 8] = page;
+			}
+			int advance = page[c & 0xff];
+			if (advance < 0) {
+				advance = getGC(f, advancedGraphics).getAdvanceWidth(c);
+				page[c & 0xff] = advance;
+			}
+			total += advance;
+			if (total >= width) {
+				return i;
+			}
+		}
+		return s.length();
+	}
+
+	private int[][] getAdvanceWidths(FontKey fontKey) {
+		int[][] pages = advanceWidths.get(fontKey);
+		if (pages == null) {
+			pages = new int[256][];
+			advanceWidths.put(fontKey, pages);
+		}
+		return pages;
+	}
+
+	private FontKey getFontKey(Font f, boolean advancedGraphics) {
+		if (f != lastFont) {
+			lastFontKey = new FontKey(f.getFontData()[0], false);
+			lastFont = f;
+		}
+		if (lastFontKey.advanced != advancedGraphics) {
+			lastFontKey = new FontKey(lastFontKey.fontData, advancedGraphics);
+		}
+		return lastFontKey;
+	}
+
+	/**
+	 * Gets a singleton instance of a private off-screen graphics context for
+	 * measuring attributes of rendered text.
+	 */
+	private GC getGC(Font f, boolean advancedGraphics) {
+		if (gc == null) {
+			gc = new GC(new Shell());
+		}
+		gc.setFont(f);
+		gc.setAdvanced(advancedGraphics);
+		return gc;
+	}
+}
@@ -16,8 +16,6 @@ import org.eclipse.draw2d.geometry.Dimension;
 import org.eclipse.gmf.runtime.draw2d.ui.mapmode.IMapMode;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Font;
-import org.eclipse.swt.graphics.GC;
-import org.eclipse.swt.widgets.Shell;
 
 /**
  * @author satif, crevells
@@ -31,11 +29,6 @@ public class TextUtilitiesEx
      */
     private IMapMode mapmode;
 
-    /**
-     * Private graphics context used to measure rendered text metrics    
-     */
-    private static GC gc;
-    
     /**
      * Creates a new instance.
      * @param mapmode mapmode to be used for translating measurement units
@@ -79,6 +72,38 @@ public class TextUtilitiesEx
         return extents;
     }
 
+    /**
+     * Gets the length of the largest substring of s, starting at its
+     * beginning, whose extents are less than the available width. The search
+     * starts from an estimate based on the advance widths of the characters,
+     * so that the extents of only a few substrings are measured.
+     */
+    public int getLargestSubstringConfinedTo(String s, Font f,
+            int availableWidth) {
+        int min = 0;
+        int max = s.length() + 1;
+        boolean minFound = false;
+        boolean maxFound = false;
+        int step = 1;
+        int guess = TextExtentCache.getInstance().getFittingLength(s, f, true,
+            mapmode.LPtoDP(availableWidth));
+        while ((max - min) > 1) {
+            guess = Math.max(min + 1, Math.min(max - 1, guess));
+            if (getTextExtents(s.substring(0, guess), f).width < availableWidth) {
+                min = guess;
+                minFound = true;
+                guess = maxFound ? (min + max) / 2 : min + step;
+            } else {
+                max = guess;
+                maxFound = true;
+                guess = minFound ? (min + max) / 2 : max - step;
+            }
+            // move away faster from an estimate that is far off
+            step *= 2;
+        }
+        return min;
+    }
+
     /**
      * Uses an offscreen GC to obtain text's rendered dimensions in pixels
      * 
@@ -88,7 +113,7 @@ public class TextUtilitiesEx
      * @return
      */
     private static org.eclipse.swt.graphics.Point getTextDimension(String s, Font f, boolean advancedGraphics) {
-    	return getGC(f, advancedGraphics).textExtent(s);
+    	return TextExtentCache.getInstance().getTextExtent(s, f, advancedGraphics);
     }
 
     /**
@@ -100,7 +125,7 @@ public class TextUtilitiesEx
      * @return
      */
     private static org.eclipse.swt.graphics.Point getStringDimension(String s, Font f, boolean advancedGraphics) {
-    	return getGC(f, advancedGraphics).stringExtent(s);
+    	return TextExtentCache.getInstance().getStringExtent(s, f, advancedGraphics);
     }
     
     /**
@@ -134,22 +159,4 @@ public class TextUtilitiesEx
         }
     }
     
-    /**
-     * Gets a singleton instance of a private off-screen graphics
-     * context for measuring attributes of rendered text 
-     * 
-     * @param f font setting desired
-     * @param advancedGraphics mode desired
-     * @return
-     */
-    private static GC getGC(Font f, boolean advancedGraphics)
-    {
-    	if(gc == null) {
-    		gc = new GC(new Shell());
-    	}
-    	gc.setFont(f);
-    	gc.setAdvanced(advancedGraphics);
-    	return gc;
-    }
-    
 }
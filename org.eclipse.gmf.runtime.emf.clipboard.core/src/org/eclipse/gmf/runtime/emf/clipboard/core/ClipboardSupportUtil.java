@@ -30,6 +30,7 @@ import org.eclipse.emf.ecore.InternalEObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.util.ExtendedMetaData;
 import org.eclipse.emf.ecore.util.FeatureMapUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.gmf.runtime.emf.clipboard.core.internal.ClipboardPlugin;
 
@@ -43,10 +44,6 @@ public final class ClipboardSupportUtil {
 	/** Index in an array or list indicating absence of the element sought. */
 	public static final int NONE = -1;
 
-	private static final String ONE = "1"; //$NON-NLS-1$
-
-	private static final String UNDERSCORE = "_"; //$NON-NLS-1$
-
 	private static final String RESOLVE = "resolve"; //$NON-NLS-1$
 
 	private static final EReference[] EMPTY_REF_ARRAY = new EReference[0];
@@ -236,7 +233,15 @@ public final class ClipboardSupportUtil {
 		    }
 			sendCreateEvent(referencedObject);
 		}
-		((Collection) eObject.eGet(reference)).add(referencedObject);
+		Collection values = (Collection) eObject.eGet(reference);
+		if (reference.isContainment() && !reference.isDerived()
+			&& (values instanceof InternalEList)) {
+			// we know that the object is not in the list already, so do not
+			//    let the list search it again
+			((InternalEList) values).addUnique(referencedObject);
+		} else {
+			values.add(referencedObject);
+		}
 		return referencedObject;
 	}
 
@@ -441,8 +446,8 @@ public final class ClipboardSupportUtil {
 			if (lowerBound != upperBound) {
 				if (eObject.eIsSet(reference)) {
 					List list = (List) eObject.eGet(reference);
-					return (((upperBound == NONE) || (list.size() < upperBound)) && (list
-						.contains(referencedObject) == false));
+					return (((upperBound == NONE) || (list.size() < upperBound)) && (isContainedIn(
+						list, eObject, reference, referencedObject) == false));
 				} else {
 					return ((upperBound == NONE) || (upperBound > 0));
 				}
@@ -451,6 +456,30 @@ public final class ClipboardSupportUtil {
 		return false;
 	}
 
+	/**
+	 * Queries whether an object is in the list of a many reference.  An object
+	 * is in a (non-derived) containment list exactly when the owner of the
+	 * list is its container through that reference, which is checked without
+	 * searching the list.
+	 * 
+	 * @param list the value of the <code>reference</code>
+	 * @param eObject the owner of the <code>reference</code>
+	 * @param reference a many reference
+	 * @param referencedObject an object to look for
+	 * 
+	 * @return whether the <code>list</code> contains the
+	 *     <code>referencedObject</code>
+	 */
+	private static boolean isContainedIn(List list, EObject eObject,
+			EReference reference, EObject referencedObject) {
+		if (reference.isContainment() && !reference.isDerived()
+			&& (referencedObject != null)) {
+			return (referencedObject.eContainer() == eObject)
+				&& (referencedObject.eContainmentFeature() == reference);
+		}
+		return list.contains(referencedObject);
+	}
+
 	/**
 	 * Queries whether a scalar reference may be set to an new {@link EObject}.
 	 * 
@@ -666,44 +695,10 @@ public final class ClipboardSupportUtil {
 	 *     etc. as necessary
 	 * 
 	 * @see #hasNameCollision(Collection, EObject)
+	 * @see NameRegistry
 	 */
 	public static void rename(Collection list, EObject eObject, String prefix) {
-		if (isNameable(eObject) == false) {
-			return;
-		}
-		String new_name = null;
-		String name = createClipboardSupport(eObject).getName(eObject);
-		String prefix_underscore = prefix + UNDERSCORE;
-		if (name.startsWith(prefix_underscore)) {
-			int close_index = name.indexOf(UNDERSCORE, prefix_underscore
-				.length());
-			if (close_index != NONE) {
-				String copy_prefix = name.substring(0, close_index);
-				int open_index = copy_prefix.indexOf(UNDERSCORE);
-				String copy_count_str = copy_prefix.substring(open_index + 1);
-				try {
-					int copy_count = Integer.parseInt(copy_count_str);
-					String name_proper = name.substring(close_index + 1).trim();
-					new_name = prefix_underscore + ++copy_count + UNDERSCORE
-						+ name_proper;
-				} catch (NumberFormatException nfe) {
-					ClipboardPlugin.catching(ClipboardSupportUtil.class,
-						"rename", nfe); //$NON-NLS-1$
-					new_name = null;
-				}
-			}
-		}
-
-		if (new_name == null) {
-			new_name = prefix_underscore + ONE + UNDERSCORE + name;
-		}
-
-		createClipboardSupport(eObject).setName(eObject, new_name);
-
-		//check this new name itself does not collide with an existing one
-		if (hasNameCollision(list, eObject)) {
-			rename(list, eObject, prefix);
-		}
+		new NameRegistry(list).rename(eObject, prefix);
 	}
 
 	/**
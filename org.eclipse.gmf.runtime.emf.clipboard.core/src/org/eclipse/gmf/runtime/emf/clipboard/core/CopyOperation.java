@@ -147,6 +147,7 @@ public class CopyOperation
 			ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
 			res.save(out, null);
 			String dataStr = out.toString(encoding);
+			res.takeSnapshot(dataStr);
 			String infoStr = ResourceInfoProcessor.getResourceInfo(dataStr
 				.length(), encoding, res, hints, copyObjects);
 			return dataStr + infoStr;
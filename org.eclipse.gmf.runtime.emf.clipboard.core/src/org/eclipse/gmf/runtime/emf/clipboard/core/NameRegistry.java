@@ -0,0 +1,332 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.emf.clipboard.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.ClipboardPlugin;
+
+/**
+ * An index of the names of the elements of a container, such as the list of
+ * a containment reference or the contents of a resource, for giving unique
+ * names to the elements pasted or duplicated into it. The names are indexed
+ * by {@link EClass} and case-insensitively, as compared by
+ * {@link ClipboardSupportUtil#hasNameCollision(EObject, EObject)}, and the
+ * next free suffix of each renamed name is remembered, so that naming a
+ * batch of elements takes a time proportional to the size of the batch
+ * rather than to the product of the sizes of the batch and of the container.
+ * <p>
+ * Elements are renamed in the same way as by
+ * {@link ClipboardSupportUtil#rename(Collection, EObject, String)}: an
+ * element named <code>Name</code> is renamed <code>Prefix_1_Name</code>,
+ * and one named <code>Prefix_1_Name</code> is renamed
+ * <code>Prefix_2_Name</code>, skipping the names that are taken.
+ * </p>
+ * <p>
+ * The index is built when it is first used, and rebuilt when the size of the
+ * container no longer matches the changes that the registry was told of by
+ * {@link #add(EObject)} and {@link #remove(EObject)}. The registry must be
+ * discarded if the elements of the container are renamed by other means.
+ * </p>
+ * <p>
+ * As in {@link ClipboardSupportUtil#hasNameCollision(EObject, EObject)}, only
+ * the elements of the container need to be nameable: the name of an object
+ * is compared with those of the elements of its {@link EClass}, whether or
+ * not the object itself is nameable. The names are read with the clipboard
+ * support of each object, which is the one of the elements it is compared
+ * with, since the clipboard support is looked up by the package of the
+ * {@link EClass}.
+ * </p>
+ * 
+ * @since 1.7
+ */
+public class NameRegistry {
+
+	private static final String UNDERSCORE = "_"; //$NON-NLS-1$
+
+	private final Collection elements;
+
+	/** The number of elements of the container that are indexed. */
+	private int indexedSize = -1;
+
+	/** Map of EClass to Map of lower-case name to List of EObject. */
+	private final Map names = new HashMap();
+
+	/** Map of indexed EObject to its lower-case name. */
+	private final Map registeredNames = new IdentityHashMap();
+
+	/**
+	 * Map of EClass to Map of lower-case prefixed proper name to the first
+	 * suffix (Integer) that may be free for it.
+	 */
+	private final Map freeSuffixes = new HashMap();
+
+	/**
+	 * Initializes me with the elements of a container.
+	 *
+	 * @param elements the elements of the container, which I index when I am
+	 *     first asked for a name
+	 */
+	public NameRegistry(Collection elements) {
+		this.elements = elements;
+	}
+
+	/**
+	 * Finds the first element of my container whose name collides with that
+	 * of the specified object.
+	 *
+	 * @param eObject an object to be added to my container
+	 * @return the colliding element, or <code>null</code> if none
+	 */
+	public EObject getNameCollision(EObject eObject) {
+		checkIndex();
+		return findNameCollision(eObject);
+	}
+
+	/**
+	 * Queries whether the name of an object collides with that of an element
+	 * of my container.
+	 *
+	 * @param eObject an object to be added to my container
+	 * @return whether its name collides
+	 */
+	public boolean hasNameCollision(EObject eObject) {
+		return getNameCollision(eObject) != null;
+	}
+
+	/**
+	 * Renames an object so that its name does not collide with those of the
+	 * elements of my container.
+	 *
+	 * @param eObject an object whose name collides
+	 * @param prefix the prefix of the new name
+	 */
+	public void rename(EObject eObject, String prefix) {
+		checkIndex();
+		doRename(eObject, prefix);
+	}
+
+	/**
+	 * Gives unique names to a batch of objects that are about to be added to
+	 * my container, renaming those whose names collide with those of the
+	 * elements of the container or of the objects before them in the batch.
+	 * The objects are indexed as if they were already in the container, so
+	 * they need not be {@linkplain #add(EObject) added} to me.
+	 *
+	 * @param eObjects the objects to be added to my container
+	 * @param prefix the prefix of the new names
+	 */
+	public void assignUniqueNames(Collection eObjects, String prefix) {
+		checkIndex();
+
+		for (Iterator iter = eObjects.iterator(); iter.hasNext();) {
+			EObject next = (EObject) iter.next();
+
+			if (findNameCollision(next) != null) {
+				doRename(next, prefix);
+			}
+			register(next);
+			indexedSize++;
+		}
+	}
+
+	/**
+	 * Indexes an element that was just added to my container.
+	 *
+	 * @param eObject the added element
+	 */
+	public void add(EObject eObject) {
+		if ((indexedSize + 1 == elements.size())
+			&& !registeredNames.containsKey(eObject)) {
+			register(eObject);
+			indexedSize++;
+		} else {
+			indexedSize = -1;
+		}
+	}
+
+	/**
+	 * Forgets an element that was just removed from my container.
+	 *
+	 * @param eObject the removed element
+	 */
+	public void remove(EObject eObject) {
+		if (indexedSize - 1 == elements.size()) {
+			unregister(eObject);
+			indexedSize--;
+			// its suffix is free again
+			freeSuffixes.clear();
+		} else {
+			indexedSize = -1;
+		}
+	}
+
+	private EObject findNameCollision(EObject eObject) {
+		// only the elements it collides with need to be nameable
+		IClipboardSupport cs = ClipboardUtil.createClipboardSupport(eObject);
+		String name = cs.getName(eObject);
+		if ((name == null) || (name.length() == 0)) {
+			return null;
+		}
+
+		List named = getNamed(eObject.eClass(), name.toLowerCase(Locale.ENGLISH), false);
+		if (named != null) {
+			for (Iterator iter = named.iterator(); iter.hasNext();) {
+				EObject next = (EObject) iter.next();
+				if (next != eObject) {
+					return next;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void doRename(EObject eObject, String prefix) {
+		IClipboardSupport cs = ClipboardUtil.createClipboardSupport(eObject);
+		if (!cs.isNameable(eObject)) {
+			return;
+		}
+
+		boolean registered = unregister(eObject);
+
+		String name = cs.getName(eObject);
+		String prefixUnderscore = prefix + UNDERSCORE;
+		String properName = name;
+		int suffix = 1;
+
+		if (name.startsWith(prefixUnderscore)) {
+			int closeIndex = name.indexOf(UNDERSCORE, prefixUnderscore.length());
+			if (closeIndex != -1) {
+				try {
+					suffix = Integer.parseInt(name.substring(prefixUnderscore
+						.length(), closeIndex)) + 1;
+					properName = name.substring(closeIndex + 1).trim();
+				} catch (NumberFormatException nfe) {
+					ClipboardPlugin.catching(NameRegistry.class, "rename", nfe); //$NON-NLS-1$
+				}
+			}
+		}
+
+		// the suffixes below the free one are known to be taken
+		EClass eClass = eObject.eClass();
+		Map classSuffixes = (Map) freeSuffixes.get(eClass);
+		if (classSuffixes == null) {
+			classSuffixes = new HashMap();
+			freeSuffixes.put(eClass, classSuffixes);
+		}
+		String suffixKey = (prefixUnderscore + properName).toLowerCase(Locale.ENGLISH);
+		Integer free = (Integer) classSuffixes.get(suffixKey);
+		int freeSuffix = (free == null) ? 1 : free.intValue();
+		boolean contiguous = suffix <= freeSuffix;
+		if (contiguous) {
+			suffix = freeSuffix;
+		}
+
+		String newName = prefixUnderscore + suffix + UNDERSCORE + properName;
+		while (getNamed(eClass, newName.toLowerCase(Locale.ENGLISH), false) != null) {
+			suffix++;
+			newName = prefixUnderscore + suffix + UNDERSCORE + properName;
+		}
+
+		if (contiguous) {
+			classSuffixes.put(suffixKey, Integer.valueOf(suffix + 1));
+		}
+
+		cs.setName(eObject, newName);
+
+		if (registered) {
+			register(eObject);
+		}
+	}
+
+	/**
+	 * Rebuilds my index if the size of my container does not match it.
+	 */
+	private void checkIndex() {
+		if (indexedSize != elements.size()) {
+			names.clear();
+			registeredNames.clear();
+			freeSuffixes.clear();
+
+			for (Iterator iter = elements.iterator(); iter.hasNext();) {
+				Object next = iter.next();
+				if (next instanceof EObject) {
+					register((EObject) next);
+				}
+			}
+			indexedSize = elements.size();
+		}
+	}
+
+	private void register(EObject eObject) {
+		IClipboardSupport cs = ClipboardUtil.createClipboardSupport(eObject);
+		if (!cs.isNameable(eObject)) {
+			return;
+		}
+
+		String name = cs.getName(eObject);
+		if ((name == null) || (name.length() == 0)) {
+			return;
+		}
+
+		String lowerName = name.toLowerCase(Locale.ENGLISH);
+		getNamed(eObject.eClass(), lowerName, true).add(eObject);
+		registeredNames.put(eObject, lowerName);
+	}
+
+	private boolean unregister(EObject eObject) {
+		String lowerName = (String) registeredNames.remove(eObject);
+		if (lowerName == null) {
+			return false;
+		}
+
+		Map classNames = (Map) names.get(eObject.eClass());
+		List named = (List) classNames.get(lowerName);
+		for (Iterator iter = named.iterator(); iter.hasNext();) {
+			if (iter.next() == eObject) {
+				iter.remove();
+				break;
+			}
+		}
+		if (named.isEmpty()) {
+			classNames.remove(lowerName);
+		}
+		return true;
+	}
+
+	private List getNamed(EClass eClass, String lowerName, boolean create) {
+		Map classNames = (Map) names.get(eClass);
+		if (classNames == null) {
+			if (!create) {
+				return null;
+			}
+			classNames = new HashMap();
+			names.put(eClass, classNames);
+		}
+
+		List result = (List) classNames.get(lowerName);
+		if ((result == null) && create) {
+			result = new ArrayList(1);
+			classNames.put(lowerName, result);
+		}
+		return result;
+	}
+}
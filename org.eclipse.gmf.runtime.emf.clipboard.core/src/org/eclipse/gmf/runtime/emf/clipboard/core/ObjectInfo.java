@@ -12,8 +12,10 @@
 package org.eclipse.gmf.runtime.emf.clipboard.core;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data structure storing meta-data related to the copying of an element.
@@ -86,11 +88,16 @@ public class ObjectInfo {
 	}
 
 	public void makeCopyAlwaysObjectInfoList(List allCopyAlwaysObjectsInfoList) {
+		if (copyAlwaysIds.isEmpty()) {
+			// the common case: no need to scan the copy-always objects
+			return;
+		}
+		Set ids = new HashSet(copyAlwaysIds);
 		Iterator it = allCopyAlwaysObjectsInfoList.iterator();
 		ObjectInfo objInfo = null;
 		while (it.hasNext()) {
 			objInfo = (ObjectInfo) it.next();
-			if (copyAlwaysIds.contains(objInfo.objId)) {
+			if (ids.contains(objInfo.objId)) {
 				alwaysCopyEObjectInfoList.add(objInfo);
 			}
 		}
@@ -662,6 +662,10 @@ public class PasteChildOperation
 				getChildObjectInfo())) {
 				childElement = ClipboardSupportUtil.appendEObjectAt(
 					pasteIntoEObject, reference, getEObject());
+				if (childElement != null) {
+					getParentPasteProcess().getNameRegistry((List) value).add(
+						childElement);
+				}
 			} else if (getPastedElement() != null) {
 				// our pasted element was already assigned by a merge action
 				childElement = getPastedElement();
@@ -692,6 +696,10 @@ public class PasteChildOperation
 				getEObject(), getChildObjectInfo())) {
 			childElement = ClipboardSupportUtil.appendEObject(
 				pasteIntoResource, getEObject());
+			if (childElement != null) {
+				getParentPasteProcess().getNameRegistry(
+					pasteIntoResource.getContents()).add(childElement);
+			}
 		} else if (getPastedElement() != null) {
 			// our pasted element was already assigned by a merge action
 			childElement = getPastedElement();
@@ -830,51 +838,50 @@ public class PasteChildOperation
 			return true;
 		}
 
-		EObject object = null;
-		Iterator it = list.iterator();
-		while (it.hasNext()) {
-			object = (EObject) it.next();
-			if (ClipboardSupportUtil.hasNameCollision(object, eObject)) {
-				if (pasteCollisionAction.equals(PasteAction.ADD)) {
-					//Create new element with different name
-					ClipboardSupportUtil.rename(list, eObject, COPY);
-					return true; //insert child
-				} else if (pasteCollisionAction.equals(PasteAction.REPLACE)) {
-					if (canBeReplaced(object)) {
-						//Remove collision element, if any. Create new element
-						// in the same location.
-						if (reference == null) {
-							// paste target is the resouce
-							ClipboardSupportUtil.destroyEObjectInResource(object);
-						} else {
-							ClipboardSupportUtil.destroyEObjectInCollection(object
-								.eContainer(), reference, object);
-						}
-						return true;
+		NameRegistry nameRegistry = getParentPasteProcess().getNameRegistry(
+			list);
+		EObject object = nameRegistry.getNameCollision(eObject);
+		if (object != null) {
+			if (pasteCollisionAction.equals(PasteAction.ADD)) {
+				//Create new element with different name
+				nameRegistry.rename(eObject, COPY);
+				return true; //insert child
+			} else if (pasteCollisionAction.equals(PasteAction.REPLACE)) {
+				if (canBeReplaced(object)) {
+					//Remove collision element, if any. Create new element
+					// in the same location.
+					if (reference == null) {
+						// paste target is the resouce
+						ClipboardSupportUtil.destroyEObjectInResource(object);
+					} else {
+						ClipboardSupportUtil.destroyEObjectInCollection(object
+							.eContainer(), reference, object);
 					}
-					return false; //ignore it since we can't replace the other
-				} else if (pasteCollisionAction.equals(PasteAction.IGNORE)) {
-					//Leave existing element, if found. Otherwise create new
-					// element.
-					return false;
-				} else if (pasteCollisionAction.equals(PasteAction.MERGE)) {
-					mergeEObjects(eObjectInfo
-						.hasHint(ClipboardUtil.MERGE_HINT_WEAK), object,
-						eObject, eObjectInfo);
-					
-					// record the existing object that we collided with as the
-					//    pasted element, so that we will know that the logical
-					//    paste operation succeeded
-					setPastedElement(object);
-					return false; //don't insert child since we merged it
-				} else if (pasteCollisionAction.equals(PasteAction.CLONE)) {
-					//Always copy, even if indirectly selected.
-					//Y.L. treat it as add???
-					ClipboardSupportUtil.rename(list, eObject, COPY);
-					return true; //insert child
+					nameRegistry.remove(object);
+					return true;
 				}
-			} //hasNameCollision
-		} //while
+				return false; //ignore it since we can't replace the other
+			} else if (pasteCollisionAction.equals(PasteAction.IGNORE)) {
+				//Leave existing element, if found. Otherwise create new
+				// element.
+				return false;
+			} else if (pasteCollisionAction.equals(PasteAction.MERGE)) {
+				mergeEObjects(eObjectInfo
+					.hasHint(ClipboardUtil.MERGE_HINT_WEAK), object,
+					eObject, eObjectInfo);
+				
+				// record the existing object that we collided with as the
+				//    pasted element, so that we will know that the logical
+				//    paste operation succeeded
+				setPastedElement(object);
+				return false; //don't insert child since we merged it
+			} else if (pasteCollisionAction.equals(PasteAction.CLONE)) {
+				//Always copy, even if indirectly selected.
+				//Y.L. treat it as add???
+				nameRegistry.rename(eObject, COPY);
+				return true; //insert child
+			}
+		} //hasNameCollision
 		return true; //insert child
 	}
 
@@ -984,6 +991,7 @@ public class PasteChildOperation
 			eObject = (EObject) childIt.next();
 			if (handleCollision(reference, mergedList, eObject, objectInfo)) {
 				mergedList.add(eObject);
+				getParentPasteProcess().getNameRegistry(mergedList).add(eObject);
 			}
 		}
 		return mergedList;
@@ -1014,7 +1022,7 @@ public class PasteChildOperation
 		MergedEObjectInfo info = (MergedEObjectInfo) getAllMergedElementsMap()
 			.get(eObject);
 		//if it has been merged in the very same target, then just return
-		if ((info != null) && (info.targetEObjects.contains(targetEObject))) {
+		if ((info != null) && (info.isTargetEObject(targetEObject))) {
 			return;
 		}
 
@@ -1036,7 +1044,7 @@ public class PasteChildOperation
 
 		//keep track of what we merged, we need this to resolve refs at the
 		// post-paste.
-		info.targetEObjects.add(targetEObject);
+		info.addTargetEObject(targetEObject);
 
 		//handle refs first
 		Iterator it = eObject.eClass().getEAllReferences().iterator();
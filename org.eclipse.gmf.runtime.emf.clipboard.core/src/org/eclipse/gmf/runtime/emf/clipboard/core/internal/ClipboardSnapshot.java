@@ -0,0 +1,440 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.emf.clipboard.core.internal;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.FeatureMapUtil;
+import org.eclipse.emf.ecore.util.InternalEList;
+
+/**
+ * An in-memory snapshot of the objects of a clipboard string, with their IDs.
+ * The XMI string remains the format of the system clipboard and of the
+ * clients of other processes, but the loads of a string in the VM that copied
+ * it, and the repeated loads of a string from another VM, copy the snapshot
+ * rather than parsing the XMI.
+ * <p>
+ * The copy operation takes the snapshot of the objects that it saves, as
+ * they would be loaded from the string: transient features, features of
+ * types that are not serializable and excluded objects are left out, the
+ * references to saved objects are references to their copies, the other
+ * references to objects of other resources are proxies and the other
+ * references are dropped. The paste operation takes the snapshot of a string
+ * that it parsed the second time it parses it, before the paste modifies the
+ * loaded objects.
+ * </p>
+ * <p>
+ * Each load gets its own proxies, so that the inverses of bidirectional
+ * references to proxies are not shared by the loads. Only the snapshot of
+ * the last string is kept, softly referenced.
+ * </p>
+ */
+public class ClipboardSnapshot {
+
+	private static SoftReference lastSnapshot = null;
+
+	/** The hash code of the data of the string that was last parsed. */
+	private static int lastParsedHashCode = 0;
+
+	private final String data;
+
+	/**
+	 * The options the string was loaded with, or the default clipboard load
+	 * options if the snapshot was taken by the copy operation.
+	 */
+	private final Map loadOptions;
+
+	private final Set ePackages;
+
+	private final Collection contents;
+
+	private final Map eObjectToIDMap;
+
+	private ClipboardSnapshot(String data, Map loadOptions, Set ePackages,
+			Collection contents, Map eObjectToIDMap) {
+		this.data = data;
+		this.loadOptions = loadOptions;
+		this.ePackages = ePackages;
+		this.contents = contents;
+		this.eObjectToIDMap = eObjectToIDMap;
+	}
+
+	/**
+	 * Gets the snapshot of the objects of a string.
+	 *
+	 * @param data the XMI data of the clipboard string
+	 * @param resourceSet the resource set of the paste target
+	 * @param loadOptions the options the string is loaded with
+	 * @return the snapshot, or <code>null</code> if its objects are not those
+	 *     that the string would be loaded as or it is no longer kept
+	 */
+	public static synchronized ClipboardSnapshot get(String data,
+			ResourceSet resourceSet, Map loadOptions) {
+		ClipboardSnapshot snapshot = (lastSnapshot == null) ? null
+			: (ClipboardSnapshot) lastSnapshot.get();
+		if ((snapshot != null) && snapshot.data.equals(data)
+			&& snapshot.loadOptions.equals(getLoadOptions(loadOptions))
+			&& snapshot.isRegistered(resourceSet.getPackageRegistry())) {
+			return snapshot;
+		}
+		return null;
+	}
+
+	/**
+	 * Takes and keeps the snapshot of the objects that were saved to a
+	 * string, in place of the snapshot of the previous string. The snapshot
+	 * reproduces a load with the default clipboard load options, so the
+	 * pastes with other options parse the string.
+	 *
+	 * @param data the XMI data of the clipboard string
+	 * @param resource the resource that saved the string, before it is
+	 *     unloaded
+	 */
+	static synchronized void put(String data, SavingEMFResource resource) {
+		Copier copier = new Copier(resource);
+		Collection contents = copier.copyAll(resource.getContents());
+		copier.copyReferences();
+		lastSnapshot = copier.isUnsupported() ? null
+			: new SoftReference(new ClipboardSnapshot(data, new HashMap(
+				SerializationEMFResource.LOAD_OPTIONS), copier.getEPackages(),
+				contents, copier.getEObjectToIDMap()));
+	}
+
+	/**
+	 * Takes and keeps the snapshot of the objects just loaded from a string,
+	 * in place of the snapshot of the previous string, if the same string was
+	 * parsed last. The first parse of a string is not worth a copy, as most
+	 * strings are pasted once.
+	 *
+	 * @param data the XMI data of the clipboard string
+	 * @param resourceSet the resource set of the paste target
+	 * @param loadOptions the options the string was loaded with
+	 * @param resource the resource the string was loaded in
+	 */
+	public static synchronized void put(String data, ResourceSet resourceSet,
+			Map loadOptions, LoadingEMFResource resource) {
+		if (data.hashCode() != lastParsedHashCode) {
+			lastParsedHashCode = data.hashCode();
+			return;
+		}
+		Copier copier = new Copier(resource.getEObjectToIDMapCopy());
+		Collection contents = copier.copyAll(resource.getContents());
+		copier.copyReferences();
+		lastSnapshot = new SoftReference(new ClipboardSnapshot(data,
+			new HashMap(getLoadOptions(loadOptions)), copier.getEPackages(),
+			contents, copier.getEObjectToIDMap()));
+	}
+
+	private static Map getLoadOptions(Map loadOptions) {
+		return (loadOptions == null) ? Collections.EMPTY_MAP
+			: loadOptions;
+	}
+
+	/**
+	 * Queries whether the packages of my objects are those that a package
+	 * registry resolves their namespace URIs to, as the string would be
+	 * loaded with them.
+	 */
+	private boolean isRegistered(EPackage.Registry registry) {
+		for (Iterator iter = ePackages.iterator(); iter.hasNext();) {
+			EPackage next = (EPackage) iter.next();
+			if ((next.getNsURI() == null)
+				|| (registry.getEPackage(next.getNsURI()) != next)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Loads a copy of my objects, with their IDs, into a resource.
+	 *
+	 * @param resource the new resource to load
+	 */
+	public void load(LoadingEMFResource resource) {
+		Copier copier = new Copier(eObjectToIDMap);
+		Collection copies = copier.copyAll(contents);
+		copier.copyReferences();
+		resource.load(copies, copier.getEObjectToIDMap());
+	}
+
+	/**
+	 * A copier that copies objects as they are saved to and loaded from a
+	 * clipboard string, and maps the IDs of the originals to their copies.
+	 * The references to proxies, including those that have an opposite, are
+	 * copied as references to new proxies.
+	 */
+	private static class Copier
+		extends EcoreUtil.Copier {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The resource that saved the originals, or <code>null</code> if the
+		 * originals are the objects of a snapshot or of a loaded resource.
+		 */
+		private final SavingEMFResource savingResource;
+
+		private final Map originalEObjectToIDMap;
+
+		private final Map eObjectToIDMap;
+
+		private final Set ePackages = new HashSet();
+
+		private boolean unsupported = false;
+
+		Copier(Map originalEObjectToIDMap) {
+			this.savingResource = null;
+			this.originalEObjectToIDMap = originalEObjectToIDMap;
+			eObjectToIDMap = new HashMap(originalEObjectToIDMap.size());
+		}
+
+		Copier(SavingEMFResource savingResource) {
+			this.savingResource = savingResource;
+			this.originalEObjectToIDMap = null;
+			eObjectToIDMap = new HashMap();
+		}
+
+		public EObject copy(EObject eObject) {
+			EObject copy = super.copy(eObject);
+			if (copy != null) {
+				Object id = (savingResource != null) ? savingResource
+					.getID(eObject) : originalEObjectToIDMap.get(eObject);
+				if (id != null) {
+					eObjectToIDMap.put(copy, id);
+				}
+				ePackages.add(eObject.eClass().getEPackage());
+			}
+			return copy;
+		}
+
+		protected void copyContainment(EReference eReference,
+				EObject eObject, EObject copyEObject) {
+			if (!isSaved(eReference, eObject)) {
+				return;
+			}
+			EStructuralFeature target = getTarget(eReference);
+			if (eReference.isMany()) {
+				List children = (List) eObject.eGet(eReference);
+				List copies = new ArrayList(children.size());
+				for (Iterator iter = children.iterator(); iter.hasNext();) {
+					EObject next = (EObject) iter.next();
+					if (!isExcluded(next)) {
+						copies.add(copy(next));
+					}
+				}
+				copyEObject.eSet(target, copies);
+			} else {
+				EObject child = (EObject) eObject.eGet(eReference);
+				if (!isExcluded(child)) {
+					copyEObject.eSet(target, copy(child));
+				}
+			}
+		}
+
+		protected void copyAttribute(EAttribute eAttribute, EObject eObject,
+				EObject copyEObject) {
+			if (!isSaved(eAttribute, eObject)) {
+				return;
+			}
+			if (FeatureMapUtil.isFeatureMap(eAttribute)) {
+				// feature maps are not copied as they would be loaded
+				unsupported |= (savingResource != null);
+				super.copyAttribute(eAttribute, eObject, copyEObject);
+				return;
+			}
+			EDataType eDataType = eAttribute.getEAttributeType();
+			if (!eDataType.isSerializable()) {
+				return;
+			}
+			Object value = eObject.eGet(eAttribute);
+			if (eAttribute.isMany()) {
+				List values = (List) value;
+				List copies = new ArrayList(values.size());
+				for (Iterator iter = values.iterator(); iter.hasNext();) {
+					copies.add(copyValue(eDataType, iter.next()));
+				}
+				value = copies;
+			} else {
+				value = copyValue(eDataType, value);
+			}
+			copyEObject.eSet(getTarget(eAttribute), value);
+		}
+
+		/**
+		 * Copies a value that may be mutable by converting it to and from a
+		 * string, as it is saved and loaded.
+		 */
+		private Object copyValue(EDataType eDataType, Object value) {
+			if ((value == null) || (value instanceof String)
+				|| (value instanceof Number) || (value instanceof Boolean)
+				|| (value instanceof Character)
+				|| (value instanceof Enumerator)) {
+				return value;
+			}
+			return EcoreUtil.createFromString(eDataType, EcoreUtil
+				.convertToString(eDataType, value));
+		}
+
+		protected void copyReference(EReference eReference, EObject eObject,
+				EObject copyEObject) {
+			if (!isSaved(eReference, eObject)) {
+				return;
+			}
+			EStructuralFeature target = getTarget(eReference);
+			if (eReference.isMany()) {
+				InternalEList values = (InternalEList) eObject.eGet(
+					eReference, false);
+				boolean crossDoc = isCrossDocument(values);
+				InternalEList copies = (InternalEList) copyEObject
+					.eGet(target);
+				int index = 0;
+				for (Iterator iter = values.basicIterator(); iter.hasNext();) {
+					EObject copy = getReferencedCopy(eReference,
+						(EObject) iter.next(), crossDoc);
+					if (copy == null) {
+						continue;
+					}
+					// the copy of an opposite reference may have added it
+					int position = (eReference.getEOpposite() == null) ? -1
+						: copies.indexOf(copy);
+					if (position == -1) {
+						copies.addUnique(index, copy);
+					} else if (position != index) {
+						copies.move(index, copy);
+					}
+					index++;
+				}
+			} else {
+				EObject value = (EObject) eObject.eGet(eReference, false);
+				if (isLoadedByOpposite(eReference, value)) {
+					return;
+				}
+				EObject copy = getReferencedCopy(eReference, value, false);
+				if (copy != null) {
+					copyEObject.eSet(target, copy);
+				}
+			}
+		}
+
+		/**
+		 * Gets the object that a reference to an original is copied as, as it
+		 * would be saved and loaded.
+		 *
+		 * @param eReference the reference
+		 * @param eObject the referenced original
+		 * @param crossDoc whether all of the references of the feature to
+		 *     the originals are saved as references to other documents
+		 * @return the copy of the original, a new proxy of it, or
+		 *     <code>null</code> if the reference is dropped
+		 */
+		private EObject getReferencedCopy(EReference eReference,
+				EObject eObject, boolean crossDoc) {
+			if (eObject.eIsProxy()) {
+				return createProxy(eObject, ((InternalEObject) eObject)
+					.eProxyURI());
+			}
+			if (savingResource == null) {
+				EObject copy = (EObject) get(eObject);
+				return ((copy == null) && (eReference.getEOpposite() == null)) ? eObject
+					: copy;
+			}
+			if (crossDoc ? (eObject.eResource() == savingResource)
+				: savingResource.isInSavingResource(eObject)) {
+				return (EObject) get(eObject);
+			}
+			return (eObject.eResource() == null) ? null
+				: createProxy(eObject, EcoreUtil.getURI(eObject));
+		}
+
+		private EObject createProxy(EObject eObject, URI uri) {
+			InternalEObject proxy = (InternalEObject) EcoreUtil
+				.create(eObject.eClass());
+			proxy.eSetProxyURI(uri);
+			ePackages.add(eObject.eClass().getEPackage());
+			return proxy;
+		}
+
+		/**
+		 * Queries whether a reference to a saved object is left to be set by
+		 * the many-valued opposite reference, as the XMI load does.
+		 */
+		private boolean isLoadedByOpposite(EReference eReference,
+				EObject eObject) {
+			EReference eOpposite = eReference.getEOpposite();
+			return (savingResource != null) && (eOpposite != null)
+				&& !eOpposite.isTransient() && eOpposite.isMany()
+				&& !eObject.eIsProxy()
+				&& savingResource.isInSavingResource(eObject);
+		}
+
+		/**
+		 * Queries whether the references of a feature to the originals are
+		 * all saved as references to other documents, which is the case if
+		 * any of them is.
+		 */
+		private boolean isCrossDocument(InternalEList values) {
+			if (savingResource == null) {
+				return false;
+			}
+			for (Iterator iter = values.basicIterator(); iter.hasNext();) {
+				EObject next = (EObject) iter.next();
+				if (next.eIsProxy()
+					|| !savingResource.isInSavingResource(next)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isSaved(EStructuralFeature feature, EObject eObject) {
+			return !feature.isTransient() && eObject.eIsSet(feature);
+		}
+
+		private boolean isExcluded(EObject eObject) {
+			return (savingResource != null)
+				&& savingResource.isExcludedObject(eObject);
+		}
+
+		boolean isUnsupported() {
+			return unsupported;
+		}
+
+		Set getEPackages() {
+			return ePackages;
+		}
+
+		Map getEObjectToIDMap() {
+			return eObjectToIDMap;
+		}
+	}
+}
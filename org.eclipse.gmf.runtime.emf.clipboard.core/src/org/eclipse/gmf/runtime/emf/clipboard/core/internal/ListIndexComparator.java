@@ -11,15 +11,15 @@
 package org.eclipse.gmf.runtime.emf.clipboard.core.internal;
 
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 /**
  * A comparator that sorts elements according to their relative positions in
  * their containing <code>EList</code>s. The comparison is optimized by
- * caching the element indices so that they need not be repeatedly
- * recomputed (which would render the O(NlogN) algorithm as O(N <sup>2
- * </sup>logN)).
+ * indexing the list once, so that the indices need not be searched for
+ * (which would render the O(NlogN) algorithm as O(N <sup>2</sup>logN)).
  * 
  * @author Christian W. Damus (cdamus)
  */
@@ -28,28 +28,36 @@ public class ListIndexComparator
 
 	private List list;
 
-	private Map map;
+	private Map map = null;
 
 	public ListIndexComparator(List list) {
 		this.list = list;
-
-		// use an identity hash map because we are sorting based on the
-		//   order of object references, which are identities
-		map = new java.util.IdentityHashMap();
 	}
 
 	public int compare(Object obj_1, Object obj_2) {
-		Integer int_1 = (Integer) map.get(obj_1);
-		Integer int_2 = (Integer) map.get(obj_2);
-		if (int_1 == null) {
-			int_1 = Integer.valueOf(list.indexOf(obj_1));
-			map.put(obj_1, int_1);
-		}
-		if (int_2 == null) {
-			int_2 = Integer.valueOf(list.indexOf(obj_2));
-			map.put(obj_2, int_2);
-		}
+		return getIndex(obj_1) - getIndex(obj_2);
+	}
 
-		return int_1.intValue() - int_2.intValue();
+	/**
+	 * Gets the index of an element in the list. All the indices are computed
+	 * in a single pass over the list the first time that one is needed,
+	 * rather than by searching the list for each element sorted.
+	 */
+	private int getIndex(Object obj) {
+		if (map == null) {
+			// use an identity hash map because we are sorting based on the
+			//   order of object references, which are identities
+			map = new java.util.IdentityHashMap(list.size());
+			int index = 0;
+			for (Iterator iter = list.iterator(); iter.hasNext(); index++) {
+				Object next = iter.next();
+				if (!map.containsKey(next)) {
+					map.put(next, Integer.valueOf(index));
+				}
+			}
+		}
+		Integer index = (Integer) map.get(obj);
+		return (index == null) ? -1
+			: index.intValue();
 	}
 }
\ No newline at end of file
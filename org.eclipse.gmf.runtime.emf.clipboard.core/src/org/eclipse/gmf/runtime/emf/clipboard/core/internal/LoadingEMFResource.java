@@ -14,7 +14,9 @@ package org.eclipse.gmf.runtime.emf.clipboard.core.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.eclipse.emf.ecore.EObject;
@@ -69,6 +71,31 @@ public class LoadingEMFResource
 		}
 	}
 
+	/**
+	 * Loads objects copied from a {@link ClipboardSnapshot} rather than
+	 * parsed from a clipboard string.
+	 * 
+	 * @param contents the copied root objects
+	 * @param eObjectToIDMap the IDs of the copied objects
+	 */
+	void load(Collection contents, Map eObjectToIDMap) {
+		isLoading = true;
+		try {
+			// set the IDs first, so that none is generated on attaching
+			Iterator it = eObjectToIDMap.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry entry = (Map.Entry) it.next();
+				setID((EObject) entry.getKey(), (String) entry.getValue());
+			}
+			getContents().addAll(contents);
+			setLoaded(true);
+		} finally {
+			isLoading = false;
+		}
+		getIDToEObjectMapCopy().putAll(getIDToEObjectMap());
+		getEObjectToIDMapCopy().putAll(getEObjectToIDMap());
+	}
+
 	Map getIDToEObjectMapCopy() {
 		if (idToEObjectMapCopy == null) {
 			idToEObjectMapCopy = new HashMap();
@@ -12,7 +12,9 @@
 package org.eclipse.gmf.runtime.emf.clipboard.core.internal;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.emf.ecore.EObject;
 
@@ -25,12 +27,41 @@ public class MergedEObjectInfo {
 
 	public EObject mergedEObject;
 
+	/**
+	 * The objects merged into, in merge order. Must be added to with
+	 * {@link #addTargetEObject(EObject)}, which keeps them indexed.
+	 */
 	public List targetEObjects;
 
+	/** The objects merged into, keyed by identity. */
+	private final Map targetEObjectSet = new IdentityHashMap();
+
 	/**
 	 * 
 	 */
 	public MergedEObjectInfo() {
 		targetEObjects = new ArrayList();
 	}
+
+	/**
+	 * Records an object merged into, unless it is already recorded.
+	 * 
+	 * @param targetEObject the object merged into
+	 */
+	public void addTargetEObject(EObject targetEObject) {
+		if (targetEObjectSet.put(targetEObject, Boolean.TRUE) == null) {
+			targetEObjects.add(targetEObject);
+		}
+	}
+
+	/**
+	 * Queries whether the merged object was already merged into an object,
+	 * without searching the {@link #targetEObjects}.
+	 * 
+	 * @param targetEObject an object
+	 * @return whether it was merged into
+	 */
+	public boolean isTargetEObject(EObject targetEObject) {
+		return targetEObjectSet.containsKey(targetEObject);
+	}
 }
\ No newline at end of file
@@ -17,16 +17,19 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EAnnotation;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EReference;
 import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.util.EObjectWithInverseEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.util.FeatureMapUtil;
@@ -34,6 +37,7 @@ import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.gmf.runtime.emf.clipboard.core.BasePasteOperation;
 import org.eclipse.gmf.runtime.emf.clipboard.core.ClipboardSupportUtil;
 import org.eclipse.gmf.runtime.emf.clipboard.core.ClipboardUtil;
+import org.eclipse.gmf.runtime.emf.clipboard.core.NameRegistry;
 import org.eclipse.gmf.runtime.emf.clipboard.core.ObjectInfo;
 import org.eclipse.gmf.runtime.emf.clipboard.core.PasteChildOperation;
 import org.eclipse.gmf.runtime.emf.clipboard.core.PasteTarget;
@@ -62,10 +66,16 @@ public class PasteIntoParentOperation
 
 	private List containmentAnnotationReferences;
 
+	private Map containmentFeatureMap;
+
 	private EAnnotation serializationAnnotation;
 
 	private Map contentObject2ProxyMap;
 
+	private Map nameRegistryMap;
+
+	private Map mergeTargetMap;
+
 	private Map hintsMap = Collections.EMPTY_MAP;
 
 	/**
@@ -181,10 +191,13 @@ public class PasteIntoParentOperation
 		parentResource = pasteIntoParentOperation.getParentResource();
 		containmentAnnotationReferences = pasteIntoParentOperation
 			.getContainmentAnnotationReferences();
+		containmentFeatureMap = pasteIntoParentOperation
+			.getContainmentFeatureMap();
 		serializationAnnotation = pasteIntoParentOperation
 			.getSerializationAnnotation();
 		contentObject2ProxyMap = pasteIntoParentOperation
 			.getContentObject2ProxyMap();
+		nameRegistryMap = pasteIntoParentOperation.getNameRegistryMap();
 	}
 
 	/**
@@ -283,34 +296,7 @@ public class PasteIntoParentOperation
 				Object value = eObject.eIsSet(ref) ? eObject.eGet(ref, true) : null;
 				if (value != null) {
 					if (FeatureMapUtil.isMany(eObject, ref)) {
-						Collection collection = (Collection) value;
-						boolean withInverseElist = (collection instanceof EObjectWithInverseEList);
-						Iterator valIt = new ArrayList(collection).iterator();
-						while (valIt.hasNext()) {
-							EObject eObj = (EObject) valIt.next();
-							if (eObj.eIsProxy()) {
-								EObject resolved = ClipboardSupportUtil.resolve(eObj,
-									getLoadedResource().getIDToEObjectMapCopy());
-								if (resolved.eIsProxy() == false) {
-									//because we are resolving locally, the
-									// inverse-resolving list
-									//could get in a situation where the first
-									// element resolved itself
-									//and then added itself to the reverse list,
-									// and now we are trying to do the
-									//the same for the reversed list and hence we
-									// have this problem.
-									if (collection.contains(resolved)) {
-										collection.remove(eObj);
-									} else {
-										EcoreUtil.replace(eObject, ref, eObj,
-											resolved);
-									}
-								} else if (withInverseElist) {
-									collection.remove(eObj);
-								}
-							}
-						}
+						resolveLocalProxies((EList) value);
 					} else {
 						EObject eObj = (EObject) value;
 						if (eObj.eIsProxy()) {
@@ -331,6 +317,63 @@ public class PasteIntoParentOperation
 		}
 	}
 
+	/**
+	 * Resolves the proxies of a many-valued reference in place. The values
+	 * of the list are indexed in an identity set when the first proxy is
+	 * resolved, so that resolving the proxies of a list takes a time
+	 * proportional to its size.
+	 * 
+	 * @param list the values of the reference
+	 */
+	private void resolveLocalProxies(EList list) {
+		boolean withInverseElist = (list instanceof EObjectWithInverseEList);
+		Map values = null;
+		int size = list.size();
+		int i = 0;
+		while (i < size) {
+			EObject eObj = (EObject) list.get(i);
+			if (eObj.eIsProxy()) {
+				EObject resolved = ClipboardSupportUtil.resolve(eObj,
+					getLoadedResource().getIDToEObjectMapCopy());
+				if (resolved.eIsProxy() == false) {
+					if (values == null) {
+						values = new IdentityHashMap();
+						for (Iterator it = list.iterator(); it.hasNext();) {
+							Object next = it.next();
+							values.put(next, next);
+						}
+					}
+					//because we are resolving locally, the
+					// inverse-resolving list
+					//could get in a situation where the first
+					// element resolved itself
+					//and then added itself to the reverse list,
+					// and now we are trying to do the
+					//the same for the reversed list and hence we
+					// have this problem.
+					if (values.containsKey(resolved)) {
+						list.remove(i);
+						size--;
+						continue;
+					}
+					list.set(i, resolved);
+					values.put(resolved, resolved);
+					if (list.size() != size) {
+						// a reference that is its own opposite added the
+						// owner to the list
+						size = list.size();
+						values = null;
+					}
+				} else if (withInverseElist) {
+					list.remove(i);
+					size--;
+					continue;
+				}
+			}
+			i++;
+		}
+	}
+
 	public void paste()
 		throws Exception {
 		try {
@@ -450,15 +493,32 @@ public class PasteIntoParentOperation
 		}
 	}
 
+	/**
+	 * Loads the objects of the clipboard string into a new resource. The
+	 * string is not parsed if this VM keeps the {@link ClipboardSnapshot} of
+	 * its objects, taken when it was copied or when it was parsed again.
+	 * 
+	 * @return the new resource
+	 * @throws Exception if the string cannot be parsed
+	 */
 	protected LoadingEMFResource loadEObjects()
 		throws Exception {
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(
-			getResourceInfo().data.getBytes(getResourceInfo().encoding));
-		LoadingEMFResource resource = new LoadingEMFResource(
-			getParentResource().getResourceSet(),
+		String data = getResourceInfo().data;
+		ResourceSet resourceSet = getParentResource().getResourceSet();
+		LoadingEMFResource resource = new LoadingEMFResource(resourceSet,
 			getResourceInfo().encoding, getLoadOptionsMap(),
 			getClipboardOperationHelper());
-		resource.load(inputStream, null);
+		ClipboardSnapshot snapshot = ClipboardSnapshot.get(data, resourceSet,
+			getLoadOptionsMap());
+		if (snapshot != null) {
+			snapshot.load(resource);
+		} else {
+			ByteArrayInputStream inputStream = new ByteArrayInputStream(
+				data.getBytes(getResourceInfo().encoding));
+			resource.load(inputStream, null);
+			ClipboardSnapshot.put(data, resourceSet, getLoadOptionsMap(),
+				resource);
+		}
 		return resource;
 	}
 
@@ -611,33 +671,52 @@ public class PasteIntoParentOperation
 			//copyAlways for another + it also happened to be a child of an
 			// original element.
 			if (getEObjectID((EObject) resolvedReferencedEObjects[i]) == null) {
-				MergedEObjectInfo info = (MergedEObjectInfo) getAllMergedElementsMap()
-					.get(resolvedReferencedEObjects[i]);
-				if (info != null) {
-					if (info.targetEObjects.size() == 1) {
-						resolvedReferencedEObjects[i] = info.targetEObjects
-							.get(0);
-					} else if (info.targetEObjects.size() > 1) {
-						boolean found = false;
-						//got merged more than once, pick most suitable!
-						Iterator it = info.targetEObjects.iterator();
-						while (it.hasNext()) {
-							EObject mergeTarget = (EObject) it.next();
-							if (isChild(mergeTarget)) {
-								resolvedReferencedEObjects[i] = mergeTarget;
-								found = true;
-								break;
-							}
-						}
-						if (found == false) {
-							//no suitable one, then pick the first
-							resolvedReferencedEObjects[i] = info.targetEObjects
-								.get(0);
-						}
+				EObject mergeTarget = getMergeTarget((EObject) resolvedReferencedEObjects[i]);
+				if (mergeTarget != null) {
+					resolvedReferencedEObjects[i] = mergeTarget;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the object that a merged object is replaced with in the pasted
+	 * references. Called once the merges are done, so the choice is made once
+	 * per merged object and paste rather than once per reference to it.
+	 * 
+	 * @param eObject a referenced object
+	 * @return the object it was merged into that suits me best, or
+	 *     <code>null</code> if it was not merged
+	 */
+	private EObject getMergeTarget(EObject eObject) {
+		if (mergeTargetMap == null) {
+			mergeTargetMap = new IdentityHashMap();
+		}
+		if (mergeTargetMap.containsKey(eObject)) {
+			return (EObject) mergeTargetMap.get(eObject);
+		}
+		EObject result = null;
+		MergedEObjectInfo info = (MergedEObjectInfo) getAllMergedElementsMap()
+			.get(eObject);
+		if ((info != null) && !info.targetEObjects.isEmpty()) {
+			//got merged more than once, pick most suitable!
+			if (info.targetEObjects.size() > 1) {
+				Iterator it = info.targetEObjects.iterator();
+				while (it.hasNext()) {
+					EObject mergeTarget = (EObject) it.next();
+					if (isChild(mergeTarget)) {
+						result = mergeTarget;
+						break;
 					}
 				}
 			}
+			if (result == null) {
+				//no suitable one, then pick the first
+				result = (EObject) info.targetEObjects.get(0);
+			}
 		}
+		mergeTargetMap.put(eObject, result);
+		return result;
 	}
 
 	/**
@@ -729,15 +808,64 @@ public class PasteIntoParentOperation
 	 *     <code>null</code>, otherwise
 	 */
 	public EReference getContainmentFeature(EObject eObject) {
-		Iterator it = getContainmentAnnotationReferences().iterator();
-		while (it.hasNext()) {
-			Object obj = it.next();
-			Object ref = it.next();
-			if (eObject.equals(obj)) {
-				return (EReference) ref;
+		return (EReference) getContainmentFeatureMap().get(eObject);
+	}
+
+	/**
+	 * Indexes the original containment features of the copied objects, so
+	 * that each child paste operation looks its feature up rather than
+	 * searching the {@link #getContainmentAnnotationReferences() containment
+	 * annotations}.
+	 * 
+	 * @return the map of copied objects to their original containment
+	 *     features
+	 */
+	private Map getContainmentFeatureMap() {
+		if (containmentFeatureMap == null) {
+			containmentFeatureMap = new HashMap();
+			Iterator it = getContainmentAnnotationReferences().iterator();
+			while (it.hasNext()) {
+				Object obj = it.next();
+				Object ref = it.next();
+				// the first annotation of an object wins
+				if ((obj != null) && !containmentFeatureMap.containsKey(obj)) {
+					containmentFeatureMap.put(obj, ref);
+				}
 			}
 		}
-		return null;
+		return containmentFeatureMap;
+	}
+
+	/**
+	 * Gets the registry of the names of the elements of a list into which
+	 * my child paste operations paste their objects, so that the collisions
+	 * of the names of the pasted objects are found without comparing each
+	 * one with every element of the list.
+	 * 
+	 * @param list the current value of a many containment reference, or the
+	 *     contents of a resource
+	 * @return the name registry of the list
+	 */
+	public NameRegistry getNameRegistry(Collection list) {
+		NameRegistry result = (NameRegistry) getNameRegistryMap().get(list);
+		if (result == null) {
+			result = new NameRegistry(list);
+			getNameRegistryMap().put(list, result);
+		}
+		return result;
+	}
+
+	/**
+	 * The name registries of the lists pasted into, keyed by identity rather
+	 * than by the equality of their contents.
+	 * 
+	 * @return the map of lists to their name registries
+	 */
+	private Map getNameRegistryMap() {
+		if (nameRegistryMap == null) {
+			nameRegistryMap = new IdentityHashMap();
+		}
+		return nameRegistryMap;
 	}
 
 	private EAnnotation getSerializationAnnotation() {
@@ -14,6 +14,7 @@ package org.eclipse.gmf.runtime.emf.clipboard.core.internal;
 import java.io.BufferedReader;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -131,15 +132,14 @@ public class ResourceInfoProcessor {
 	}
 
 	private static void processOffset(ResourceInfo resourceInfo, String str) {
-		StringBuffer buffer = new StringBuffer(str);
+		// take the substrings of the clipboard string rather than copying it
+		//    in a buffer, as it may be very large
 		int baseLenStrOffset = str.lastIndexOf(BEGIN_COMMENT);
-		String baseLenStr = buffer.substring(baseLenStrOffset);
-		buffer.delete(baseLenStrOffset, buffer.length());
+		String baseLenStr = str.substring(baseLenStrOffset);
 		int infoStrOffset = Integer.parseInt(getProperties(baseLenStr)
 			.getProperty(OFFSET));
-		resourceInfo.info = buffer.substring(infoStrOffset);
-		buffer.delete(infoStrOffset, buffer.length());
-		resourceInfo.data = buffer.toString();
+		resourceInfo.info = str.substring(infoStrOffset, baseLenStrOffset);
+		resourceInfo.data = str.substring(0, infoStrOffset);
 	}
 
 	private static void processEObject(ResourceInfo resourceInfo, String line) {
@@ -162,7 +162,7 @@ public class ResourceInfoProcessor {
 
 	private static void processEObject(StringBuffer stringBuffer,
 			EObject eObject, SavingEMFResource emfResource, Map hintMap,
-			CopyObjects copyObjects) {
+			CopyObjects copyObjects, Set originalObjects) {
 
 		stringBuffer.append(BEGIN_COMMENT);
 
@@ -171,7 +171,7 @@ public class ResourceInfoProcessor {
 		String containerClass = null;
 		EObject eObjectWithValidContainer = eObject;
 
-		if (copyObjects.originalObjects.contains(eObject)) {
+		if (originalObjects.contains(eObject)) {
 			copyType = ObjectCopyType.OBJ_COPY_TYPE_ORIGINAL;
 		} else if (copyObjects.combinedCopyAlwaysSet.contains(eObject)) {
 			copyType = ObjectCopyType.OBJ_COPY_TYPE_ALWAYS;
@@ -262,7 +262,7 @@ public class ResourceInfoProcessor {
 		stringBuffer.append(ENDL);
 	}
 
-	static ResourceInfo getResourceInfo(String str)
+	public static ResourceInfo getResourceInfo(String str)
 		throws Exception {
 		ResourceInfo resourceInfo = new ResourceInfo();
 		processOffset(resourceInfo, str);
@@ -295,10 +295,11 @@ public class ResourceInfoProcessor {
 		//(3)generate ObjectInfo entries
 		Set objectInfoSet = new LinkedHashSet(copyObjects.totalCopyObjects);
 		objectInfoSet.addAll(copyObjects.originalObjects);
+		Set originalObjects = new HashSet(copyObjects.originalObjects);
 		Iterator it = objectInfoSet.iterator();
 		while (it.hasNext()) {
 			processEObject(stringBuffer, (EObject) it.next(), emfResource,
-				hintMap, copyObjects);
+				hintMap, copyObjects, originalObjects);
 		}
 
 		//write offset at the end
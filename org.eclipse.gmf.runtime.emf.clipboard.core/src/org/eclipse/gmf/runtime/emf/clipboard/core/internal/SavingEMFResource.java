@@ -18,6 +18,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -58,6 +59,12 @@ public class SavingEMFResource
 
 	private Collection excludedObjects;
 
+	/**
+	 * The original, copy-parent and copy-always objects, keyed by identity,
+	 * whose contents are saved in this resource. Built on first use.
+	 */
+	private Map savedRoots;
+
 	public SavingEMFResource(URI uri, String encoding, Map defaultSaveOptions,
 		Map copy2ObjectMap, CopyObjects copyObjects,
 		IClipboardSupport clipboardOperationHelper) {
@@ -279,23 +286,58 @@ public class SavingEMFResource
 	boolean isInSavingResource(EObject eObject) {
 		if (eObject.eResource() == this) {
 			return true;
-		} else if ((copyObjects.originalObjects.contains(eObject))
-			|| (copyObjects.copyParent2CopyMap.values().contains(eObject))
-			|| (copyObjects.combinedCopyAlwaysSet.contains(eObject))) {
-			return true;
 		}
-		EObject eContainer = eObject.eContainer();
-		while (eContainer != null) {
-			if ((copyObjects.originalObjects.contains(eContainer))
-				|| (copyObjects.copyParent2CopyMap.values().contains(eContainer))
-				|| (copyObjects.combinedCopyAlwaysSet.contains(eContainer))) {
+		Map roots = getSavedRoots();
+		for (EObject eContainer = eObject; eContainer != null; eContainer = eContainer
+			.eContainer()) {
+			if (roots.containsKey(eContainer)) {
 				return true;
 			}
-			eContainer = eContainer.eContainer();
 		}
 		return false;
 	}
 
+	/**
+	 * Indexes the original, copy-parent and copy-always objects once, so that
+	 * checking an object and its containers does not scan the collections of
+	 * the copy objects.
+	 */
+	private Map getSavedRoots() {
+		if (savedRoots == null) {
+			savedRoots = new IdentityHashMap();
+			addSavedRoots(copyObjects.originalObjects);
+			addSavedRoots(copyObjects.copyParent2CopyMap.values());
+			addSavedRoots(copyObjects.combinedCopyAlwaysSet);
+		}
+		return savedRoots;
+	}
+
+	private void addSavedRoots(Collection objects) {
+		for (Iterator it = objects.iterator(); it.hasNext();) {
+			savedRoots.put(it.next(), Boolean.TRUE);
+		}
+	}
+
+	boolean isExcludedObject(EObject eObject) {
+		return excludedObjects.contains(eObject);
+	}
+
+	/**
+	 * Keeps an in-memory snapshot of the objects that I saved, so that the
+	 * pastes of the string in this VM need not parse it. Must be called
+	 * before I am unloaded.
+	 * 
+	 * @param data the XMI data that I saved
+	 */
+	public void takeSnapshot(String data) {
+		try {
+			ClipboardSnapshot.put(data, this);
+		} catch (RuntimeException e) {
+			// the pastes will parse the string
+			ClipboardPlugin.catching(getClass(), "takeSnapshot", e); //$NON-NLS-1$
+		}
+	}
+
 	EObject getOriginalEObject(EObject copiedEObject) {
 		return (EObject) copy2ObjectMap.get(copiedEObject);
 	}
@@ -12,9 +12,13 @@
 package org.eclipse.gmf.runtime.emf.commands.core.command;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.operations.IOperationApprover;
@@ -25,6 +29,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.transaction.Transaction;
@@ -58,6 +63,14 @@ public abstract class AbstractTransactionalCommand
     extends AbstractEMFOperation
     implements ICommand, ICommandWithSettableResult {
 
+    /**
+     * The workspace files of the resources with platform resource URIs, keyed
+     * by resource. The resources are weakly referenced, and their URIs are
+     * kept with their files so that the file of a resource is resolved again
+     * when the resource is moved.
+     */
+    private static final Map resourceFiles = new WeakHashMap();
+
     /**
      * Convenience method to get a list of workspaces files associated with
      * <code>eObject</code>.
@@ -70,14 +83,10 @@ public abstract class AbstractTransactionalCommand
         List result = new ArrayList();
 
         if (eObject != null) {
-            Resource resource = eObject.eResource();
-            
-            if (resource != null) {
-                IFile file = WorkspaceSynchronizer.getFile(resource);
-    
-                if (file != null) {
-                    result.add(file);
-                }
+            IFile file = getWorkspaceFile(eObject.eResource());
+
+            if (file != null) {
+                result.add(file);
             }
         }
 
@@ -86,24 +95,27 @@ public abstract class AbstractTransactionalCommand
 
     /**
      * Convenience method to get a list of workspaces files associated with
-     * {@link EObject}s in <code>eObject</code>.
+     * {@link EObject}s in <code>eObject</code>. The file of each resource is
+     * resolved once, and appears once in the list however many of the
+     * objects are in the resource.
      * 
      * @param eObjects
      *            the list of model object
      * @return the list of {@link IFile}s
      */
     protected static List getWorkspaceFiles(List eObjects) {
-        List result = new ArrayList();
+        Set resources = new HashSet();
+        Set result = new LinkedHashSet();
 
         for (Iterator i = eObjects.iterator(); i.hasNext();) {
             Object next = i.next();
 
             if (next instanceof EObject) {
                 Resource resource = ((EObject) next).eResource();
-                
-                if (resource != null) {
-                    IFile file = WorkspaceSynchronizer.getFile(resource);
-    
+
+                if (resource != null && resources.add(resource)) {
+                    IFile file = getWorkspaceFile(resource);
+
                     if (file != null) {
                         result.add(file);
                     }
@@ -111,7 +123,63 @@ public abstract class AbstractTransactionalCommand
             }
         }
 
-        return result;
+        return new ArrayList(result);
+    }
+
+    /**
+     * Gets the workspace file of a resource. The files of the resources with
+     * platform resource URIs are cached, since they do not depend on the
+     * locations of the projects.
+     * 
+     * @param resource
+     *            the resource, may be <code>null</code>
+     * @return the file, or <code>null</code> if the resource is not in the
+     *         workspace
+     */
+    private static IFile getWorkspaceFile(Resource resource) {
+
+        if (resource == null) {
+            return null;
+        }
+
+        URI uri = resource.getURI();
+
+        if (uri == null || !uri.isPlatformResource()) {
+            return WorkspaceSynchronizer.getFile(resource);
+        }
+
+        synchronized (resourceFiles) {
+            ResourceFile resourceFile = (ResourceFile) resourceFiles
+                .get(resource);
+
+            if (resourceFile != null && resourceFile.uri.equals(uri)) {
+                return resourceFile.file;
+            }
+        }
+
+        IFile file = WorkspaceSynchronizer.getFile(resource);
+
+        synchronized (resourceFiles) {
+            resourceFiles.put(resource, new ResourceFile(uri, file));
+        }
+
+        return file;
+    }
+
+    /**
+     * The workspace file of a resource, resolved from the URI of the
+     * resource.
+     */
+    private static class ResourceFile {
+
+        final URI uri;
+
+        final IFile file;
+
+        ResourceFile(URI uri, IFile file) {
+            this.uri = uri;
+            this.file = file;
+        }
     }
 
     private final List affectedFiles;
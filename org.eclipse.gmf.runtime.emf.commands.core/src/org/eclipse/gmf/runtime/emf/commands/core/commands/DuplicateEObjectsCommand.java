@@ -11,7 +11,9 @@
 
 package org.eclipse.gmf.runtime.emf.commands.core.commands;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,7 @@ import org.eclipse.emf.ecore.util.FeatureMapUtil;
 import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.gmf.runtime.common.core.command.CommandResult;
 import org.eclipse.gmf.runtime.emf.clipboard.core.ClipboardSupportUtil;
+import org.eclipse.gmf.runtime.emf.clipboard.core.NameRegistry;
 import org.eclipse.gmf.runtime.emf.commands.core.command.AbstractTransactionalCommand;
 
 /**
@@ -140,6 +143,22 @@ public abstract class DuplicateEObjectsCommand
 		return objectsToBeDuplicated;
 	}
 
+	/**
+	 * Returns the prefix of the names given to the duplicates whose names
+	 * collide with those of the other elements of their container, such as
+	 * their originals. By default, the duplicates keep the names of their
+	 * originals; subclasses may return a prefix to have them renamed as
+	 * pasted elements are.
+	 * 
+	 * @return the prefix of the new names, or <code>null</code> to keep the
+	 *         names of the originals
+	 * 
+	 * @since 1.7
+	 */
+	protected String getDuplicateNamePrefix() {
+		return null;
+	}
+
 	/**
 	 * Verifies that the container of all the original objects can contain
 	 * multiple objects.
@@ -178,6 +197,11 @@ public abstract class DuplicateEObjectsCommand
 		// Update the map with all elements duplicated.
 		getAllDuplicatedObjectsMap().putAll(copier);
 
+		String prefix = getDuplicateNamePrefix();
+		if (prefix != null) {
+			assignUniqueNames(copier, prefix);
+		}
+
 		// Add the duplicates to the original's container.
 		for (Iterator i = objectsToBeDuplicated.iterator(); i.hasNext();) {
 			EObject original = (EObject) i.next();
@@ -196,4 +220,42 @@ public abstract class DuplicateEObjectsCommand
 		return CommandResult.newOKCommandResult(getAllDuplicatedObjectsMap());
 	}
 
+	/**
+	 * Renames the duplicates whose names collide in their containers. The
+	 * duplicates going into the same list are named in one batch, against a
+	 * single index of the names of the list.
+	 * 
+	 * @param duplicates
+	 *            the map of originals to their duplicates
+	 * @param prefix
+	 *            the prefix of the new names
+	 */
+	private void assignUniqueNames(Map duplicates, String prefix) {
+		Map batches = new IdentityHashMap();
+		List lists = new ArrayList();
+
+		for (Iterator i = objectsToBeDuplicated.iterator(); i.hasNext();) {
+			EObject original = (EObject) i.next();
+
+			EReference reference = original.eContainmentFeature();
+			if (reference != null
+				&& FeatureMapUtil.isMany(original.eContainer(), reference)) {
+				List values = (List) original.eContainer().eGet(reference);
+				List batch = (List) batches.get(values);
+				if (batch == null) {
+					batch = new ArrayList();
+					batches.put(values, batch);
+					lists.add(values);
+				}
+				batch.add(duplicates.get(original));
+			}
+		}
+
+		for (Iterator i = lists.iterator(); i.hasNext();) {
+			List values = (List) i.next();
+			new NameRegistry(values).assignUniqueNames((List) batches
+				.get(values), prefix);
+		}
+	}
+
 }
\ No newline at end of file
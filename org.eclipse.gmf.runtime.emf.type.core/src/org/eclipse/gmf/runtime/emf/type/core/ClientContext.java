@@ -118,11 +118,15 @@ public class ClientContext implements IClientContext {
 	}
 
 	public void bindId(String typeId) {
-		typeIdBindings.add(typeId);
+		if (typeIdBindings.add(typeId)) {
+			ClientContextManager.bindingsChanged();
+		}
 	}
 
 	public void bindPattern(Pattern pattern) {
-		patternBindings.add(pattern);
+		if (patternBindings.add(pattern)) {
+			ClientContextManager.bindingsChanged();
+		}
 	}
 
 	/**
@@ -137,7 +141,9 @@ public class ClientContext implements IClientContext {
 	 * @since 1.9
 	 */
 	public void unbindId(String typeId) {
-		typeIdBindings.remove(typeId);
+		if (typeIdBindings.remove(typeId)) {
+			ClientContextManager.bindingsChanged();
+		}
 	}
 
 	/**
@@ -163,6 +169,7 @@ public class ClientContext implements IClientContext {
 					iter.remove();
 				}
 			}
+			ClientContextManager.bindingsChanged();
 		}
 	}
 	
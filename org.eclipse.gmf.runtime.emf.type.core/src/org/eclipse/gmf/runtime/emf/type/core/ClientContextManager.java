@@ -12,12 +12,17 @@
 
 package org.eclipse.gmf.runtime.emf.type.core;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -29,7 +34,11 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.dynamichelpers.ExtensionTracker;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionChangeHandler;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.gmf.runtime.common.core.util.Log;
 import org.eclipse.gmf.runtime.common.core.util.Trace;
 import org.eclipse.gmf.runtime.emf.type.core.internal.EMFTypeDebugOptions;
@@ -71,12 +80,51 @@ public final class ClientContextManager {
 
 	private static final String A_PATTERN = "pattern"; //$NON-NLS-1$
 
+	/**
+	 * Incremented whenever a client context is added or removed, or the
+	 * bindings of a client context change. Lets the
+	 * {@link ElementTypeRegistry} know when the element type resolutions that
+	 * it has cached are stale. Initialized before the {@link #INSTANCE},
+	 * whose construction changes the bindings.
+	 */
+	private static final AtomicInteger bindingsModificationCount = new AtomicInteger();
+
 	private static final ClientContextManager INSTANCE = new ClientContextManager();
 
 	private final Set clientContexts = new java.util.HashSet();
 
 	private final Map clientContextMap = new java.util.HashMap();
 	
+	/**
+	 * The registered client contexts partitioned by the
+	 * {@linkplain IScopedElementMatcher#getScope() scope} of their matchers,
+	 * or <code>null</code> if they have to be partitioned again. Each element
+	 * is an array of client contexts.
+	 */
+	private IClientContext[][] clientContextsByScope;
+
+	/**
+	 * The number of registered client contexts when they were partitioned.
+	 */
+	private int partitionedClientContextsCount;
+
+	/**
+	 * The matching client contexts whose matchers depend only on the EClass
+	 * of the model element. Each key is an EClass and each value is a list of
+	 * client contexts. Guarded by this manager.
+	 */
+	private final Map eClassScopeMatches = new WeakHashMap();
+
+	/**
+	 * The matching client contexts whose matchers depend only on the resource
+	 * of the model element. Each key is a resource and each value is a
+	 * three-element array of the resource URI and a weak reference to the
+	 * resource set at the time of matching, and the list of client contexts.
+	 * The resource set is referenced weakly, since it references the
+	 * resource. Guarded by this manager.
+	 */
+	private final Map resourceScopeMatches = new WeakHashMap();
+
 	private final CopyOnWriteArrayList<IClientContextManagerListener> listeners = new CopyOnWriteArrayList<IClientContextManagerListener>();
 	
 	private ExtensionTracker extensionTracker;
@@ -178,42 +226,238 @@ public final class ClientContextManager {
 	 */
 	public IClientContext getClientContextFor(EObject eObject) {
 
+		IClientContext[][] partitions = getClientContextsByScope();
 		Collection contexts = new java.util.ArrayList();
 
-		for (Iterator iter = getClientContexts().iterator(); iter.hasNext();) {
-			IClientContext next = (IClientContext) iter.next();
-			IElementMatcher matcher = next.getMatcher();
+		contexts.addAll(getEClassScopeMatches(eObject,
+				partitions[IScopedElementMatcher.ECLASS_SCOPE]));
+		contexts.addAll(getResourceScopeMatches(eObject,
+				partitions[IScopedElementMatcher.RESOURCE_SCOPE]));
 
-			try {
-				if (matcher.matches(eObject)) {
-					contexts.add(next);
-				}
-			} catch (RuntimeException e) {
-				// client context matchers must not throw exceptions. This one
-				// will not be trusted in future validation operations. This
-				// is effected by removing it from the context manager
-				iter.remove();
-				clientContextMap.remove(next.getId());
-				// context
-
-				Trace.catching(EMFTypePlugin.getPlugin(),
-						EMFTypeDebugOptions.EXCEPTIONS_CATCHING, getClass(),
-						"getClientContextsFor", e); //$NON-NLS-1$
+		IClientContext[] elementScope = partitions[IScopedElementMatcher.ELEMENT_SCOPE];
 
-				Log
-						.error(
-								EMFTypePlugin.getPlugin(),
-								EMFTypePluginStatusCodes.CLIENT_MATCHER_FAILURE,
-								EMFTypeCoreMessages
-										.bind(
-												EMFTypeCoreMessages.client_matcherFailure_ERROR_,
-												next.getId()), e);
+		for (int i = 0; i < elementScope.length; i++) {
+			if (matches(elementScope[i], eObject)) {
+				contexts.add(elementScope[i]);
 			}
 		}
 
 		return getClientContext(contexts);
 	}
 
+	/**
+	 * Answers whether the matcher of a client <code>context</code> matches
+	 * <code>eObject</code>. A context whose matcher throws is removed from
+	 * the system.
+	 * 
+	 * @param context
+	 *            a registered client context
+	 * @param eObject
+	 *            a model element
+	 * @return whether the context matches the element
+	 */
+	private boolean matches(IClientContext context, EObject eObject) {
+		try {
+			return context.getMatcher().matches(eObject);
+
+		} catch (RuntimeException e) {
+			// client context matchers must not throw exceptions. This one
+			// will not be trusted in future validation operations. This
+			// is effected by removing it from the context manager
+			synchronized (this) {
+				clientContexts.remove(context);
+				clientContextMap.remove(context.getId());
+				clientContextsChanged();
+			}
+			bindingsChanged();
+
+			Trace.catching(EMFTypePlugin.getPlugin(),
+					EMFTypeDebugOptions.EXCEPTIONS_CATCHING, getClass(),
+					"getClientContextsFor", e); //$NON-NLS-1$
+
+			Log
+					.error(
+							EMFTypePlugin.getPlugin(),
+							EMFTypePluginStatusCodes.CLIENT_MATCHER_FAILURE,
+							EMFTypeCoreMessages
+									.bind(
+											EMFTypeCoreMessages.client_matcherFailure_ERROR_,
+											context.getId()), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the registered client contexts partitioned by the scope of their
+	 * matchers. Partitioning them again forgets the remembered matches.
+	 * 
+	 * @return an array of client context arrays, indexed by scope
+	 */
+	private synchronized IClientContext[][] getClientContextsByScope() {
+
+		if (clientContextsByScope == null
+				|| partitionedClientContextsCount != clientContexts.size()) {
+			eClassScopeMatches.clear();
+			resourceScopeMatches.clear();
+
+			List[] partitions = new List[] {new ArrayList(), new ArrayList(),
+					new ArrayList()};
+
+			for (Iterator iter = clientContexts.iterator(); iter.hasNext();) {
+				IClientContext next = (IClientContext) iter.next();
+				IElementMatcher matcher = next.getMatcher();
+				int scope = IScopedElementMatcher.ELEMENT_SCOPE;
+
+				if (matcher instanceof IScopedElementMatcher) {
+					scope = ((IScopedElementMatcher) matcher).getScope();
+
+					if (scope < 0 || scope >= partitions.length) {
+						scope = IScopedElementMatcher.ELEMENT_SCOPE;
+					}
+				}
+				partitions[scope].add(next);
+			}
+
+			clientContextsByScope = new IClientContext[partitions.length][];
+
+			for (int i = 0; i < partitions.length; i++) {
+				clientContextsByScope[i] = (IClientContext[]) partitions[i]
+						.toArray(new IClientContext[partitions[i].size()]);
+			}
+			partitionedClientContextsCount = clientContexts.size();
+		}
+		return clientContextsByScope;
+	}
+
+	/**
+	 * Gets the client contexts, amongst the <code>candidates</code> whose
+	 * matchers depend only on the EClass, that match <code>eObject</code>.
+	 * 
+	 * @param eObject
+	 *            a model element
+	 * @param candidates
+	 *            the client contexts of EClass scope
+	 * @return the matching client contexts
+	 */
+	private List getEClassScopeMatches(EObject eObject,
+			IClientContext[] candidates) {
+
+		if (candidates.length == 0) {
+			return Collections.EMPTY_LIST;
+		}
+
+		EClass eClass = eObject.eClass();
+		List result;
+
+		synchronized (this) {
+			result = (List) eClassScopeMatches.get(eClass);
+		}
+
+		if (result == null) {
+			result = getMatches(eObject, candidates);
+
+			synchronized (this) {
+				// don't remember matches against contexts that have since
+				// been added or removed
+				if (isPartition(candidates, IScopedElementMatcher.ECLASS_SCOPE)) {
+					eClassScopeMatches.put(eClass, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the client contexts, amongst the <code>candidates</code> whose
+	 * matchers depend only on the resource, that match <code>eObject</code>.
+	 * Elements that are not in a resource are matched every time.
+	 * 
+	 * @param eObject
+	 *            a model element
+	 * @param candidates
+	 *            the client contexts of resource scope
+	 * @return the matching client contexts
+	 */
+	private List getResourceScopeMatches(EObject eObject,
+			IClientContext[] candidates) {
+
+		if (candidates.length == 0) {
+			return Collections.EMPTY_LIST;
+		}
+
+		Resource resource = eObject.eResource();
+
+		if (resource == null) {
+			return getMatches(eObject, candidates);
+		}
+
+		URI uri = resource.getURI();
+		ResourceSet resourceSet = resource.getResourceSet();
+		Object[] entry;
+
+		synchronized (this) {
+			entry = (Object[]) resourceScopeMatches.get(resource);
+		}
+
+		if (entry != null
+				&& (uri == null ? entry[0] == null : uri.equals(entry[0]))
+				&& ((WeakReference) entry[1]).get() == resourceSet) {
+			return (List) entry[2];
+		}
+
+		List result = getMatches(eObject, candidates);
+
+		synchronized (this) {
+			// don't remember matches against contexts that have since been
+			// added or removed
+			if (isPartition(candidates, IScopedElementMatcher.RESOURCE_SCOPE)) {
+				resourceScopeMatches.put(resource, new Object[] {uri,
+						new WeakReference(resourceSet), result});
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Answers whether <code>candidates</code> is still the current partition
+	 * of the client contexts for the specified <code>scope</code>. Must be
+	 * called while synchronized on this manager.
+	 */
+	private boolean isPartition(IClientContext[] candidates, int scope) {
+		return clientContextsByScope != null
+				&& partitionedClientContextsCount == clientContexts.size()
+				&& clientContextsByScope[scope] == candidates;
+	}
+
+	/**
+	 * Gets the <code>candidates</code> that match <code>eObject</code>.
+	 * 
+	 * @param eObject
+	 *            a model element
+	 * @param candidates
+	 *            client contexts
+	 * @return the matching client contexts
+	 */
+	private List getMatches(EObject eObject, IClientContext[] candidates) {
+		List result = new ArrayList();
+
+		for (int i = 0; i < candidates.length; i++) {
+			if (matches(candidates[i], eObject)) {
+				result.add(candidates[i]);
+			}
+		}
+		return result.isEmpty() ? Collections.EMPTY_LIST : Collections
+				.unmodifiableList(result);
+	}
+
+	/**
+	 * Forgets the partitioned client contexts, and with them the matches
+	 * remembered for them, when client contexts are added or removed.
+	 */
+	private synchronized void clientContextsChanged() {
+		clientContextsByScope = null;
+	}
+
 	/**
 	 * Constructs and returns an <code>IClientContext</code> that represents
 	 * all of the <code>contexts</code>.
@@ -332,6 +576,26 @@ public final class ClientContextManager {
 		// Hence, this will loop over the elements twice
 		configureClientContexts(elements);
 		configureBindings(elements);
+		clientContextsChanged();
+		bindingsChanged();
+	}
+
+	/**
+	 * Notes that a client context was added or removed, or that the bindings
+	 * of a client context have changed.
+	 */
+	static void bindingsChanged() {
+		bindingsModificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Obtains a count that changes whenever a client context is added or
+	 * removed, or the bindings of a client context change.
+	 * 
+	 * @return the bindings modification count
+	 */
+	static int getBindingsModificationCount() {
+		return bindingsModificationCount.get();
 	}
 
 	/**
@@ -346,6 +610,8 @@ public final class ClientContextManager {
 		// prevent duplicates
 		if (clientContexts.add(clientContext)) {
 			clientContextMap.put(clientContext.getId(), clientContext);
+			clientContextsChanged();
+			bindingsChanged();
 			
 			fireClientContextAdded(clientContext);
 		}
@@ -413,6 +679,8 @@ public final class ClientContextManager {
 			} else {
 				clientContextMap.remove(clientContext.getId());
 				clientContexts.remove(clientContext);
+				clientContextsChanged();
+				bindingsChanged();
 
 				result = true;
 			}
@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -93,6 +94,33 @@ public class ElementTypeRegistry {
 	 */
 	private final Map metamodelTypeDescriptorsById;
 
+	/**
+	 * Marks a cached resolution for which there is no metamodel type
+	 * descriptor.
+	 */
+	private static final Object NO_METAMODEL_TYPE_DESCRIPTOR = new Object();
+
+	/**
+	 * Metamodel type descriptors resolved for EClasses, stored by client
+	 * context. Each key is a client context and each value is a weak map,
+	 * whose key is an EClass and whose value is the resolved
+	 * MetamodelTypeDescriptor or {@link #NO_METAMODEL_TYPE_DESCRIPTOR}.
+	 * Cleared when metamodel types are registered or deregistered, and when
+	 * the client context bindings change.
+	 */
+	private final Map metamodelTypeDescriptorCache;
+
+	/**
+	 * Incremented whenever the metamodel type descriptor cache is cleared.
+	 */
+	private int metamodelTypeDescriptorCacheGeneration;
+
+	/**
+	 * The client context bindings modification count for which the metamodel
+	 * type descriptor cache is valid.
+	 */
+	private int metamodelTypeDescriptorCacheBindings;
+
 	/**
 	 * ElementTypeFactories stored by kind. Each factory declares a string that
 	 * describes the kind of element that it is responsible for creating. Each
@@ -128,6 +156,9 @@ public class ElementTypeRegistry {
 		specializationTypeRegistry = new SpecializationTypeRegistry(this);
 		metamodelTypeDescriptorsByNsURI = new HashMap();
 		metamodelTypeDescriptorsById = new HashMap();
+		metamodelTypeDescriptorCache = new HashMap();
+		metamodelTypeDescriptorCacheBindings = ClientContextManager
+				.getBindingsModificationCount();
 		elementTypeFactoryMap = new HashMap();
 		elementTypeRegistryListeners = new ArrayList();
 		elementTypeRegistryListener2s = new ArrayList();
@@ -643,7 +674,86 @@ public class ElementTypeRegistry {
 			// use the default context
 			clientContext = ClientContextManager.getDefaultClientContext();
 		}
-		
+
+		int generation;
+
+		synchronized (metamodelTypeDescriptorCache) {
+			validateMetamodelTypeDescriptorCache();
+
+			Map descriptorsByEClass = (Map) metamodelTypeDescriptorCache
+					.get(clientContext);
+			Object cached = descriptorsByEClass != null ? descriptorsByEClass
+					.get(eClass)
+					: null;
+
+			if (cached != null) {
+				return cached == NO_METAMODEL_TYPE_DESCRIPTOR ? null
+						: (MetamodelTypeDescriptor) cached;
+			}
+			generation = metamodelTypeDescriptorCacheGeneration;
+		}
+
+		MetamodelTypeDescriptor result = resolveMetamodelTypeDescriptor(
+				eClass, clientContext);
+
+		synchronized (metamodelTypeDescriptorCache) {
+			validateMetamodelTypeDescriptorCache();
+
+			// don't cache a resolution that may have been made against
+			// registrations or bindings that have since changed
+			if (generation == metamodelTypeDescriptorCacheGeneration) {
+				Map descriptorsByEClass = (Map) metamodelTypeDescriptorCache
+						.get(clientContext);
+
+				if (descriptorsByEClass == null) {
+					descriptorsByEClass = new WeakHashMap();
+					metamodelTypeDescriptorCache.put(clientContext,
+							descriptorsByEClass);
+				}
+				descriptorsByEClass.put(eClass,
+						result != null ? (Object) result
+								: NO_METAMODEL_TYPE_DESCRIPTOR);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Clears the metamodel type descriptor cache if the client context
+	 * bindings have changed since it was last validated. Must be called while
+	 * synchronized on the cache.
+	 */
+	private void validateMetamodelTypeDescriptorCache() {
+		int bindings = ClientContextManager.getBindingsModificationCount();
+
+		if (bindings != metamodelTypeDescriptorCacheBindings) {
+			metamodelTypeDescriptorCacheBindings = bindings;
+			clearMetamodelTypeDescriptorCache();
+		}
+	}
+
+	/**
+	 * Clears the metamodel type descriptor cache. Must be called while
+	 * synchronized on the cache.
+	 */
+	private void clearMetamodelTypeDescriptorCache() {
+		metamodelTypeDescriptorCache.clear();
+		metamodelTypeDescriptorCacheGeneration++;
+	}
+
+	/**
+	 * Resolves the metamodel type descriptor for <code>eClass</code> in the
+	 * client <code>clientContext</code>, without consulting the cache.
+	 * 
+	 * @param eClass
+	 *            the model element eclass
+	 * @param clientContext
+	 *            the client context
+	 * @return the metamodel type descriptor
+	 */
+	private MetamodelTypeDescriptor resolveMetamodelTypeDescriptor(
+			EClass eClass, IClientContext clientContext) {
+
 		Map metamodelTypeDescriptorsByEClass = (Map) metamodelTypeDescriptorsByNsURI
 				.get(eClass.getEPackage().getNsURI());
 		Collection descriptors = metamodelTypeDescriptorsByEClass != null ? (Collection) metamodelTypeDescriptorsByEClass
@@ -1086,6 +1196,10 @@ public class ElementTypeRegistry {
 			}
 		}
 
+		synchronized (metamodelTypeDescriptorCache) {
+			clearMetamodelTypeDescriptorCache();
+		}
+
 		return metamodelTypeDescriptorsById.remove(typeDescriptor.getId()) != null;
 	}
 
@@ -1310,6 +1424,10 @@ public class ElementTypeRegistry {
 		metamodelTypeDescriptorsById
 				.put(typeDescriptor.getId(), typeDescriptor);
 
+		synchronized (metamodelTypeDescriptorCache) {
+			clearMetamodelTypeDescriptorCache();
+		}
+
 		return true;
 	}
 
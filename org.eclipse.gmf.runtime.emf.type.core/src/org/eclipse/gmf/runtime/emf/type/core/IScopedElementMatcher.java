@@ -0,0 +1,52 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.runtime.emf.type.core;
+
+/**
+ * An element matcher that declares what its answer depends on, so that the
+ * {@link ClientContextManager} can reuse it for other model elements in the
+ * same scope instead of asking the matcher again.
+ * <P>
+ * Client context matchers that do not implement this interface are asked
+ * about every model element. The matchers of the client contexts declared
+ * with an <code>enablement</code> expression infer their scope from the
+ * expression.
+ */
+public interface IScopedElementMatcher
+	extends IElementMatcher {
+
+	/**
+	 * The matcher's answer may depend on anything about the model element.
+	 */
+	public static final int ELEMENT_SCOPE = 0;
+
+	/**
+	 * The matcher's answer depends only on the EClass of the model element.
+	 */
+	public static final int ECLASS_SCOPE = 1;
+
+	/**
+	 * The matcher's answer depends only on the resource that contains the
+	 * model element, and does not change for as long as the resource keeps
+	 * its URI and its resource set. Model elements that are not in a
+	 * resource are matched every time.
+	 */
+	public static final int RESOURCE_SCOPE = 2;
+
+	/**
+	 * Gets the scope of my answers.
+	 *
+	 * @return one of {@link #ELEMENT_SCOPE}, {@link #ECLASS_SCOPE} or
+	 *         {@link #RESOURCE_SCOPE}
+	 */
+	public int getScope();
+}
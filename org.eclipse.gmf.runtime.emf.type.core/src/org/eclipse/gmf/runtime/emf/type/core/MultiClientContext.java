@@ -91,6 +91,7 @@ public class MultiClientContext implements IClientContext {
 		} else {
 			children.add(context);
 		}
+		ClientContextManager.bindingsChanged();
 	}
 
 	public final String getId() {
@@ -19,7 +19,7 @@ import org.eclipse.emf.ecore.EObject;
  * @author ldamus
  */
 public class NullElementMatcher
-	implements IElementMatcher {
+	implements IScopedElementMatcher {
 
 	/**
 	 * Always returns <code>false</code>.
@@ -28,4 +28,12 @@ public class NullElementMatcher
 		return false;
 	}
 
+	/**
+	 * My answer does not depend on the model element, so it can be reused for
+	 * all the elements of an EClass.
+	 */
+	public int getScope() {
+		return ECLASS_SCOPE;
+	}
+
 }
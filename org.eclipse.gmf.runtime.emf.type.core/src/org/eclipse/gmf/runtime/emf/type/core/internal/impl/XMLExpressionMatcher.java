@@ -15,28 +15,49 @@ import org.eclipse.core.expressions.EvaluationContext;
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
+import org.eclipse.core.expressions.ExpressionTagNames;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.emf.ecore.EObject;
 
 import org.eclipse.gmf.runtime.common.core.util.Log;
-import org.eclipse.gmf.runtime.emf.type.core.IElementMatcher;
+import org.eclipse.gmf.runtime.emf.type.core.IScopedElementMatcher;
 import org.eclipse.gmf.runtime.emf.type.core.internal.EMFTypePlugin;
 import org.eclipse.gmf.runtime.emf.type.core.internal.EMFTypePluginStatusCodes;
 import org.eclipse.gmf.runtime.emf.type.core.internal.l10n.EMFTypeCoreMessages;
 
 /**
  * Element matcher that matches model elements using an XML expression.
+ * <P>
+ * The scope of the matcher is inferred from the expression. An expression
+ * that only combines <code>instanceof</code> tests of the model element
+ * depends only on its EClass, which determines its Java class. An expression
+ * that only combines tests of the
+ * <code>org.eclipse.gmf.runtime.emf.core.editingDomain</code> property
+ * depends only on the resource set of its resource. Any other expression may
+ * depend on anything about the model element.
  * 
  * @author ldamus
  */
 public class XMLExpressionMatcher
-	implements IElementMatcher {
+	implements IScopedElementMatcher {
 	
 	/**
 	 * Variable representing the container of the element being tested.
 	 */
 	public static final String ECONTAINER_VARIABLE = "eContainer"; //$NON-NLS-1$
+
+	/**
+	 * The property of the model elements tested by the
+	 * <code>org.eclipse.gmf.runtime.emf.core</code> plug-in, which depends
+	 * only on the resource set of their resource.
+	 */
+	private static final String EDITING_DOMAIN_PROPERTY = "org.eclipse.gmf.runtime.emf.core.editingDomain"; //$NON-NLS-1$
+
+	/**
+	 * The scope of an expression whose value is constant.
+	 */
+	private static final int CONSTANT_SCOPE = -1;
 	
 	/**
 	 * The element ID in which this expression is contributed.
@@ -48,6 +69,11 @@ public class XMLExpressionMatcher
 	 */
 	private final Expression xmlExpression;
 
+	/**
+	 * The scope of the XML expression.
+	 */
+	private final int scope;
+
 	/**
 	 * Constructs a new XML expression matcher.
 	 * 
@@ -69,6 +95,61 @@ public class XMLExpressionMatcher
 							EMFTypeCoreMessages.element_reason_invalid_enablement_expression_WARN_,
 							e);
 		}
+
+		int configScope = getScope(config);
+		scope = configScope == CONSTANT_SCOPE ? ECLASS_SCOPE
+			: configScope;
+	}
+
+	/**
+	 * Infers the scope of an expression from its configuration.
+	 * 
+	 * @param config
+	 *            the expression configuration element
+	 * @return the scope of the expression, or {@link #CONSTANT_SCOPE} if it
+	 *         does not depend on the model element
+	 */
+	private static int getScope(IConfigurationElement config) {
+		String name = config.getName();
+
+		if (ExpressionTagNames.INSTANCEOF.equals(name)) {
+			return ECLASS_SCOPE;
+		}
+
+		if (ExpressionTagNames.TEST.equals(name)) {
+			return EDITING_DOMAIN_PROPERTY.equals(config
+				.getAttribute("property")) ? RESOURCE_SCOPE //$NON-NLS-1$
+				: ELEMENT_SCOPE;
+		}
+
+		if (!ExpressionTagNames.ENABLEMENT.equals(name)
+			&& !ExpressionTagNames.AND.equals(name)
+			&& !ExpressionTagNames.OR.equals(name)
+			&& !ExpressionTagNames.NOT.equals(name)) {
+			return ELEMENT_SCOPE;
+		}
+
+		int result = CONSTANT_SCOPE;
+		IConfigurationElement[] children = config.getChildren();
+
+		for (int i = 0; i < children.length; i++) {
+			int childScope = getScope(children[i]);
+
+			if (result == CONSTANT_SCOPE) {
+				result = childScope;
+
+			} else if (childScope != CONSTANT_SCOPE && childScope != result) {
+				return ELEMENT_SCOPE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the scope inferred from my XML expression.
+	 */
+	public int getScope() {
+		return scope;
 	}
 
 	/*
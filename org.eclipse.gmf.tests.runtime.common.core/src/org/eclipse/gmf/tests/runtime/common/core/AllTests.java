@@ -20,11 +20,14 @@ import junit.textui.TestRunner;
 
 import org.eclipse.core.runtime.IPlatformRunnable;
 import org.eclipse.gmf.tests.runtime.common.core.internal.command.AbstractCommandTest;
+import org.eclipse.gmf.tests.runtime.common.core.internal.command.BulkCompositeCommandTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.command.CompositeCommandTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.command.FileModificationApproverTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.command.OneTimeCommandTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.service.AbstractProviderTest;
+import org.eclipse.gmf.tests.runtime.common.core.internal.service.ConcurrentServiceTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.service.ExecutionStrategyTest;
+import org.eclipse.gmf.tests.runtime.common.core.internal.service.ProviderCriteriaTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.service.ProviderPriorityTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.service.ServiceTest;
 import org.eclipse.gmf.tests.runtime.common.core.internal.util.HashUtilTest;
@@ -41,7 +44,10 @@ public class AllTests extends TestCase implements IPlatformRunnable {
         TestSuite suite = new TestSuite();
         suite.addTest(AbstractCommandTest.suite());
         suite.addTest(AbstractProviderTest.suite());
+        suite.addTest(BulkCompositeCommandTest.suite());
         suite.addTest(CompositeCommandTest.suite());
+        suite.addTest(ConcurrentServiceTest.suite());
+        suite.addTest(ProviderCriteriaTest.suite());
 		suite.addTest(ExecutionStrategyTest.suite());
         suite.addTest(FileModificationApproverTest.suite());
         suite.addTest(HashUtilTest.suite());
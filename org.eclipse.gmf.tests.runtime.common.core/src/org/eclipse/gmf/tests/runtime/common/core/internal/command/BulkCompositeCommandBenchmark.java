@@ -0,0 +1,80 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.common.core.internal.command;
+
+import java.util.List;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.UndoContext;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.gmf.runtime.common.core.command.BulkCompositeCommand;
+
+/**
+ * Times the composition, the reduction and the execution of
+ * {@link BulkCompositeCommand}s of 1,000 to 200,000 children, nested by
+ * groups of 100 and sharing an undo context.
+ * <P>
+ * Running this class as a Java application prints the timings. It is not part
+ * of the test suite; {@link BulkCompositeCommandTest} only checks such a
+ * composite.
+ */
+public class BulkCompositeCommandBenchmark {
+
+    private static final int[] SIZES = new int[] {1000, 10000, 100000, 200000};
+
+    private static final int WARMUP_RUNS = 5;
+
+    private static final int RUNS = 10;
+
+    private BulkCompositeCommandBenchmark() {
+        // not instantiated
+    }
+
+    /**
+     * Prints the best times, after a few warm-up runs, of the composition,
+     * the reduction and the execution of each composite.
+     */
+    public static void main(String[] args)
+        throws ExecutionException {
+        IUndoContext ctx = new UndoContext();
+        for (int i = 0; i < SIZES.length; i++) {
+            long composed = Long.MAX_VALUE;
+            long reduced = Long.MAX_VALUE;
+            long executed = Long.MAX_VALUE;
+            for (int j = 0; j < WARMUP_RUNS + RUNS; j++) {
+                List children = BulkCompositeCommandTest.createChildren(
+                    SIZES[i], ctx);
+
+                long start = System.nanoTime();
+                BulkCompositeCommand composite = BulkCompositeCommandTest
+                    .composeGroups(children);
+                long composedAt = System.nanoTime();
+                composite.reduce();
+                long reducedAt = System.nanoTime();
+                composite.getAffectedFiles();
+                composite.execute(new NullProgressMonitor(), null);
+                long executedAt = System.nanoTime();
+
+                if (j >= WARMUP_RUNS) {
+                    composed = Math.min(composed, composedAt - start);
+                    reduced = Math.min(reduced, reducedAt - composedAt);
+                    executed = Math.min(executed, executedAt - reducedAt);
+                }
+            }
+            System.out.println(SIZES[i] + " children: best composed in " //$NON-NLS-1$
+                + composed / 1000000 + " ms, reduced in " //$NON-NLS-1$
+                + reduced / 1000000 + " ms, executed in " //$NON-NLS-1$
+                + executed / 1000000 + " ms"); //$NON-NLS-1$
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.common.core.internal.command;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.UndoContext;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.gmf.runtime.common.core.command.BulkCompositeCommand;
+import org.eclipse.gmf.runtime.common.core.command.CompositeCommand;
+import org.eclipse.gmf.runtime.common.core.command.ICommand;
+import org.eclipse.gmf.tests.runtime.common.core.internal.command.CompositeCommandTest.TestCommand;
+
+/**
+ * Tests the {@link BulkCompositeCommand}, including the composition of
+ * commands with many children.
+ */
+public class BulkCompositeCommandTest
+    extends TestCase {
+
+    public static void main(String[] args) {
+        TestRunner.run(suite());
+    }
+
+    public static Test suite() {
+        return new TestSuite(BulkCompositeCommandTest.class);
+    }
+
+    public BulkCompositeCommandTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Tests that the undo contexts of the composite are counted as the
+     * children having them are added and removed.
+     */
+    public void test_contexts() {
+        BulkCompositeCommand composite = new BulkCompositeCommand("Composite"); //$NON-NLS-1$
+
+        IUndoContext ctx1 = new UndoContext();
+        IUndoContext ctx2 = new UndoContext();
+
+        ICommand child1 = new TestCommand();
+        ICommand child2 = new TestCommand();
+        ICommand child3 = new TestCommand();
+
+        child1.addContext(ctx1);
+        child2.addContext(ctx1);
+        child2.addContext(ctx2);
+        child3.addContext(ctx2);
+
+        composite.add(child1);
+        composite.add(child2);
+        composite.add(child3);
+        assertEquals(Arrays.asList(new IUndoContext[] {ctx1, ctx2}), Arrays
+            .asList(composite.getContexts()));
+
+        // ctx1 is still used by child2
+        composite.remove(child1);
+        assertEquals(Arrays.asList(new IUndoContext[] {ctx1, ctx2}), Arrays
+            .asList(composite.getContexts()));
+
+        composite.remove(child2);
+        assertEquals(Arrays.asList(new IUndoContext[] {ctx2}), Arrays
+            .asList(composite.getContexts()));
+
+        // removing through the iterator uncounts the contexts too
+        Iterator iter = composite.iterator();
+        iter.next();
+        iter.remove();
+        assertEquals(Collections.EMPTY_LIST, Arrays.asList(composite
+            .getContexts()));
+    }
+
+    /**
+     * Tests that a child is added only once.
+     */
+    public void test_duplicates() {
+        ICommand child = new TestCommand();
+        List children = new ArrayList();
+        children.add(child);
+        children.add(child);
+
+        BulkCompositeCommand composite = new BulkCompositeCommand(
+            "Composite", children); //$NON-NLS-1$
+        assertEquals(1, composite.size());
+
+        composite.add(child);
+        composite.listIterator().add(child);
+        assertEquals(1, composite.size());
+    }
+
+    /**
+     * Tests that a child is removed by identity, not by equality.
+     */
+    public void test_removeByIdentity() {
+        ICommand child1 = new EqualCommand();
+        ICommand child2 = new EqualCommand();
+        ICommand other = new EqualCommand();
+
+        BulkCompositeCommand composite = new BulkCompositeCommand("Composite"); //$NON-NLS-1$
+        composite.add(child1);
+        composite.add(child2);
+
+        // an equal operation that is not a child is not removed
+        composite.remove(other);
+        assertEquals(2, composite.size());
+
+        composite.remove(child2);
+        assertEquals(1, composite.size());
+        assertSame(child1, composite.iterator().next());
+    }
+
+    /**
+     * Tests that the affected files of nested composites are not duplicated.
+     */
+    public void test_affectedFiles() {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot()
+            .getProject("BulkCompositeCommandTest"); //$NON-NLS-1$
+        IFile file1 = project.getFile("file1"); //$NON-NLS-1$
+        IFile file2 = project.getFile("file2"); //$NON-NLS-1$
+
+        BulkCompositeCommand nested = new BulkCompositeCommand("Nested"); //$NON-NLS-1$
+        nested.add(new TestCommand(Arrays.asList(new IFile[] {file1, file2})));
+        nested.add(new TestCommand(Collections.singletonList(file2)));
+
+        BulkCompositeCommand composite = new BulkCompositeCommand("Composite"); //$NON-NLS-1$
+        composite.add(new TestCommand(Collections.singletonList(file1)));
+        composite.add(nested);
+
+        assertEquals(Arrays.asList(new IFile[] {file1, file2}), composite
+            .getAffectedFiles());
+    }
+
+    /**
+     * Tests that reducing the composite flattens the nested bulk composites,
+     * but not the composites of other classes.
+     */
+    public void test_reduce() {
+        ICommand child1 = new TestCommand();
+        ICommand child2 = new TestCommand();
+        ICommand child3 = new TestCommand();
+        ICommand child4 = new TestCommand();
+
+        BulkCompositeCommand innermost = new BulkCompositeCommand("Innermost"); //$NON-NLS-1$
+        innermost.add(child2);
+        BulkCompositeCommand nested = new BulkCompositeCommand("Nested"); //$NON-NLS-1$
+        nested.add(innermost);
+        nested.add(child3);
+        CompositeCommand other = new CompositeCommand("Other"); //$NON-NLS-1$
+        other.add(child4);
+
+        BulkCompositeCommand composite = new BulkCompositeCommand("Composite"); //$NON-NLS-1$
+        composite.add(child1);
+        composite.add(nested);
+        composite.add(other);
+
+        assertSame(composite, composite.reduce());
+        List children = new ArrayList();
+        for (Iterator i = composite.iterator(); i.hasNext();) {
+            children.add(i.next());
+        }
+        assertEquals(Arrays.asList(new Object[] {child1, child2, child3,
+            other}), children);
+
+        // a composite of a single nested composite reduces to its child
+        BulkCompositeCommand single = new BulkCompositeCommand("Single"); //$NON-NLS-1$
+        BulkCompositeCommand wrapper = new BulkCompositeCommand("Wrapper"); //$NON-NLS-1$
+        wrapper.add(child1);
+        single.add(wrapper);
+        assertSame(child1, single.reduce());
+    }
+
+    /**
+     * Composes a composite of the children, nested by groups of 100.
+     */
+    static BulkCompositeCommand composeGroups(List children) {
+        BulkCompositeCommand composite = new BulkCompositeCommand("Composite"); //$NON-NLS-1$
+        BulkCompositeCommand group = null;
+        for (int i = 0; i < children.size(); i++) {
+            if (i % 100 == 0) {
+                group = new BulkCompositeCommand("Group"); //$NON-NLS-1$
+                composite.add(group);
+            }
+            group.add((ICommand) children.get(i));
+        }
+        return composite;
+    }
+
+    /**
+     * Creates children sharing an undo context.
+     */
+    static List createChildren(int count, IUndoContext ctx) {
+        List children = new ArrayList(count);
+        for (int i = 0; i < count; i++) {
+            ICommand child = new TestCommand();
+            child.addContext(ctx);
+            children.add(child);
+        }
+        return children;
+    }
+
+    /**
+     * Tests that a composite of 10,000 children nested by groups of 100
+     * reduces to its children, in order, keeps their shared undo context and
+     * executes each of them. {@link BulkCompositeCommandBenchmark} times
+     * such composites.
+     */
+    public void test_reduceAndExecuteNestedGroups()
+        throws Exception {
+        IUndoContext ctx = new UndoContext();
+        List children = createChildren(10000, ctx);
+        BulkCompositeCommand composite = composeGroups(children);
+        assertEquals(100, composite.size());
+
+        composite.reduce();
+        assertEquals(children.size(), composite.size());
+        Iterator i = composite.iterator();
+        for (int j = 0; j < children.size(); j++) {
+            assertSame(children.get(j), i.next());
+        }
+        assertTrue(composite.hasContext(ctx));
+
+        composite.execute(new NullProgressMonitor(), null);
+        for (int j = 0; j < children.size(); j++) {
+            ((TestCommand) children.get(j)).assertExecuted();
+        }
+    }
+
+    /**
+     * A command that is equal to any other of its class.
+     */
+    private static class EqualCommand
+        extends TestCommand {
+
+        public boolean equals(Object obj) {
+            return obj instanceof EqualCommand;
+        }
+
+        public int hashCode() {
+            return EqualCommand.class.hashCode();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.common.core.internal.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.gmf.runtime.common.core.service.AbstractProvider;
+import org.eclipse.gmf.runtime.common.core.service.ExecutionStrategy;
+import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.common.core.service.IProvider;
+import org.eclipse.gmf.runtime.common.core.service.IProviderPolicy;
+import org.eclipse.gmf.runtime.common.core.service.ProviderChangeEvent;
+import org.eclipse.gmf.runtime.common.core.service.ProviderPriority;
+import org.eclipse.gmf.runtime.common.core.service.Service;
+
+/**
+ * Tests a concurrent {@link Service} by executing operations from several
+ * threads against a service with hundreds of providers, while providers are
+ * being added and removed.
+ */
+public class ConcurrentServiceTest extends TestCase {
+
+	private static final int PROVIDER_COUNT = 300;
+
+	private static final int KEY_COUNT = 20;
+
+	private static final int THREAD_COUNT = 8;
+
+	private static final int ITERATIONS = 2000;
+
+	protected static class Operation implements IOperation {
+
+		private final int key;
+
+		protected Operation(int key) {
+			this.key = key;
+		}
+
+		protected int getKey() {
+			return key;
+		}
+
+		public Object execute(IProvider provider) {
+			return provider;
+		}
+	}
+
+	/**
+	 * Provides for the operations whose key is equal to its own.
+	 */
+	protected static class Provider extends AbstractProvider {
+
+		private final int key;
+
+		protected Provider(int key) {
+			this.key = key;
+		}
+
+		public boolean provides(IOperation operation) {
+			return ((Operation) operation).getKey() == key;
+		}
+
+		protected void changed() {
+			fireProviderChange(new ProviderChangeEvent(this));
+		}
+	}
+
+	protected static class Fixture extends Service {
+
+		protected static class ProviderDescriptor
+			extends Service.ProviderDescriptor {
+
+			protected ProviderDescriptor(IProvider provider) {
+				super(null);
+
+				this.provider = provider;
+				provider.addProviderChangeListener(this);
+			}
+
+			public IProvider getProvider() {
+				return provider;
+			}
+
+			protected IProviderPolicy getPolicy() {
+				return null;
+			}
+		}
+
+		protected Fixture() {
+			super(true, true, true);
+		}
+
+		protected Object getCachingKey(IOperation operation) {
+			return String.valueOf(((Operation) operation).getKey());
+		}
+
+		protected List executeFixture(IOperation operation) {
+			return execute(ExecutionStrategy.FORWARD, operation);
+		}
+
+		protected List getFixtureProviders(ProviderPriority priority,
+				IOperation operation) {
+			return getProviders(ExecutionStrategy.FORWARD, priority, operation);
+		}
+
+		protected void addFixtureProvider(ProviderPriority priority,
+				Service.ProviderDescriptor provider) {
+			addProvider(priority, provider);
+		}
+
+		protected void removeFixtureProvider(Service.ProviderDescriptor provider) {
+			removeProvider(provider);
+		}
+	}
+
+	private Fixture fixture = null;
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(ConcurrentServiceTest.class);
+	}
+
+	public ConcurrentServiceTest(String name) {
+		super(name);
+	}
+
+	protected Fixture getFixture() {
+		return fixture;
+	}
+
+	protected void setUp() {
+		fixture = new Fixture();
+
+		for (int i = 0; i < PROVIDER_COUNT; i++) {
+			fixture.addFixtureProvider(ExecutionStrategy.PRIORITIES[i
+				% ExecutionStrategy.PRIORITIES.length],
+				new Fixture.ProviderDescriptor(new Provider(i % KEY_COUNT)));
+		}
+	}
+
+	public void test_execute_concurrently() throws Exception {
+		final List failures = Collections.synchronizedList(new ArrayList());
+		Thread[] threads = new Thread[THREAD_COUNT];
+
+		for (int t = 0; t < THREAD_COUNT; t++) {
+			threads[t] = new Thread() {
+
+				public void run() {
+					try {
+						for (int i = 0; i < ITERATIONS; i++) {
+							int key = i % KEY_COUNT;
+							List results = getFixture().executeFixture(
+								new Operation(key));
+
+							// the extra provider may or may not be registered
+							int size = results.size();
+							if (size != PROVIDER_COUNT / KEY_COUNT
+								&& size != PROVIDER_COUNT / KEY_COUNT + 1) {
+								failures.add("Unexpected result count " + size); //$NON-NLS-1$
+							}
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			};
+		}
+
+		for (int t = 0; t < THREAD_COUNT; t++) {
+			threads[t].start();
+		}
+
+		// add and remove a provider while the operations are executed
+		for (int i = 0; i < ITERATIONS / 10; i++) {
+			Fixture.ProviderDescriptor descriptor = new Fixture.ProviderDescriptor(
+				new Provider(i % KEY_COUNT));
+			getFixture().addFixtureProvider(ProviderPriority.MEDIUM,
+				descriptor);
+			getFixture().removeFixtureProvider(descriptor);
+		}
+
+		for (int t = 0; t < THREAD_COUNT; t++) {
+			threads[t].join();
+		}
+
+		assertTrue(failures.toString(), failures.isEmpty());
+
+		for (int key = 0; key < KEY_COUNT; key++) {
+			assertEquals(PROVIDER_COUNT / KEY_COUNT, getFixture()
+				.executeFixture(new Operation(key)).size());
+		}
+	}
+
+	public void test_removeProvider_keepsUnrelatedEntries() {
+		Operation first = new Operation(2);
+		Operation second = new Operation(7);
+		Provider provider = new Provider(7);
+		Fixture.ProviderDescriptor descriptor = new Fixture.ProviderDescriptor(
+			provider);
+		getFixture().addFixtureProvider(ProviderPriority.MEDIUM, descriptor);
+
+		List firstProviders = getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, first);
+		assertTrue(getFixture().getFixtureProviders(ProviderPriority.MEDIUM,
+			second).contains(provider));
+
+		getFixture().removeFixtureProvider(descriptor);
+
+		// only the entry containing the removed provider is dropped
+		assertSame(firstProviders, getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, first));
+		assertFalse(getFixture().getFixtureProviders(ProviderPriority.MEDIUM,
+			second).contains(provider));
+	}
+
+	public void test_providerChanged_dropsTouchedEntries() {
+		Operation first = new Operation(2);
+		Operation second = new Operation(7);
+		List firstProviders = getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, first);
+		List secondProviders = getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, second);
+
+		((Provider) secondProviders.get(0)).changed();
+
+		assertSame(firstProviders, getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, first));
+		assertNotSame(secondProviders, getFixture().getFixtureProviders(
+			ProviderPriority.MEDIUM, second));
+	}
+
+}
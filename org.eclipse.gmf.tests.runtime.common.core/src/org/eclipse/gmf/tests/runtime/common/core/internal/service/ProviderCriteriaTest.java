@@ -0,0 +1,266 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.common.core.internal.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.gmf.runtime.common.core.service.AbstractProvider;
+import org.eclipse.gmf.runtime.common.core.service.ExecutionStrategy;
+import org.eclipse.gmf.runtime.common.core.service.IOperation;
+import org.eclipse.gmf.runtime.common.core.service.IProvider;
+import org.eclipse.gmf.runtime.common.core.service.IProviderPolicy;
+import org.eclipse.gmf.runtime.common.core.service.ProviderCriteria;
+import org.eclipse.gmf.runtime.common.core.service.ProviderPriority;
+import org.eclipse.gmf.runtime.common.core.service.Service;
+
+/**
+ * Tests the dispatch index that a {@link Service} builds from the
+ * {@link ProviderCriteria} of its provider descriptors.
+ */
+public class ProviderCriteriaTest extends TestCase {
+
+	protected static class Operation implements IOperation {
+
+		private final String kind;
+
+		private final String hint;
+
+		protected Operation(String kind, String hint) {
+			this.kind = kind;
+			this.hint = hint;
+		}
+
+		public Object execute(IProvider provider) {
+			return provider;
+		}
+	}
+
+	protected static class Fixture extends Service {
+
+		/**
+		 * A descriptor whose criteria are a kind and a set of hints, and
+		 * which records the operations it was asked about.
+		 */
+		protected static class ProviderDescriptor
+			extends Service.ProviderDescriptor {
+
+			private final String kind;
+
+			private final Set hints;
+
+			private boolean released = false;
+
+			protected final List asked = new ArrayList();
+
+			protected int criteriaCount = 0;
+
+			protected ProviderDescriptor(String kind, Set hints) {
+				super(null);
+
+				this.kind = kind;
+				this.hints = hints;
+				this.provider = new AbstractProvider() {
+
+					public boolean provides(IOperation operation) {
+						return true;
+					}
+				};
+			}
+
+			public IProvider getProvider() {
+				return provider;
+			}
+
+			protected IProviderPolicy getPolicy() {
+				return null;
+			}
+
+			public boolean provides(IOperation operation) {
+				asked.add(operation);
+				if (released)
+					return true;
+				Operation o = (Operation) operation;
+				return (kind == null || kind.equals(o.kind))
+					&& (hints == null || hints.contains(o.hint));
+			}
+
+			protected ProviderCriteria getCriteria() {
+				criteriaCount++;
+				if (released)
+					return null;
+				ProviderCriteria criteria = new ProviderCriteria(2);
+				criteria.addContext(new Set[] {
+					kind != null ? Collections.singleton(kind) : null, hints});
+				return criteria;
+			}
+
+			protected void release() {
+				released = true;
+				criteriaChanged();
+			}
+		}
+
+		protected Fixture() {
+			super(false);
+		}
+
+		protected Object[] getDispatchKeys(IOperation operation) {
+			Operation o = (Operation) operation;
+			return new Object[] {o.kind, o.hint};
+		}
+
+		protected List executeFixture(ExecutionStrategy strategy,
+				IOperation operation) {
+			return strategy.execute(this, operation);
+		}
+
+		protected void addFixtureProvider(Service.ProviderDescriptor provider) {
+			addProvider(ProviderPriority.MEDIUM, provider);
+		}
+	}
+
+	private Fixture fixture = null;
+
+	private Fixture.ProviderDescriptor nodeA;
+
+	private Fixture.ProviderDescriptor nodeAny;
+
+	private Fixture.ProviderDescriptor edgeB;
+
+	private Fixture.ProviderDescriptor anyA;
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(ProviderCriteriaTest.class);
+	}
+
+	public ProviderCriteriaTest(String name) {
+		super(name);
+	}
+
+	protected Fixture getFixture() {
+		return fixture;
+	}
+
+	protected void setUp() {
+		fixture = new Fixture();
+
+		nodeA = new Fixture.ProviderDescriptor("Node", hints("A")); //$NON-NLS-1$ //$NON-NLS-2$
+		nodeAny = new Fixture.ProviderDescriptor("Node", null); //$NON-NLS-1$
+		edgeB = new Fixture.ProviderDescriptor("Edge", hints("B")); //$NON-NLS-1$ //$NON-NLS-2$
+		anyA = new Fixture.ProviderDescriptor(null, hints("A")); //$NON-NLS-1$
+
+		fixture.addFixtureProvider(nodeA);
+		fixture.addFixtureProvider(nodeAny);
+		fixture.addFixtureProvider(edgeB);
+		fixture.addFixtureProvider(anyA);
+	}
+
+	private static Set hints(String hint) {
+		return new HashSet(Arrays.asList(new String[] {hint}));
+	}
+
+	public void test_onlyMatchingDescriptorsAreAsked() {
+		Operation operation = new Operation("Node", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		List results = getFixture().executeFixture(ExecutionStrategy.FORWARD,
+			operation);
+
+		// registration order is kept
+		assertEquals(Arrays.asList(new Object[] {nodeA.getProvider(),
+			nodeAny.getProvider(), anyA.getProvider()}), results);
+		assertTrue(edgeB.asked.isEmpty());
+	}
+
+	public void test_firstAndLast() {
+		Operation operation = new Operation("Node", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertSame(nodeA.getProvider(), getFixture().executeFixture(
+			ExecutionStrategy.FIRST, operation).get(0));
+		assertSame(anyA.getProvider(), getFixture().executeFixture(
+			ExecutionStrategy.LAST, operation).get(0));
+	}
+
+	public void test_noMatch() {
+		Operation operation = new Operation("Edge", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertTrue(getFixture().executeFixture(ExecutionStrategy.FORWARD,
+			operation).isEmpty());
+		assertTrue(nodeA.asked.isEmpty());
+		assertTrue(nodeAny.asked.isEmpty());
+		assertTrue(edgeB.asked.isEmpty());
+		assertTrue(anyA.asked.isEmpty());
+	}
+
+	public void test_criteriaChanged() {
+		Operation operation = new Operation("Edge", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertTrue(getFixture().executeFixture(ExecutionStrategy.FORWARD,
+			operation).isEmpty());
+
+		nodeA.release();
+
+		assertEquals(Collections.singletonList(nodeA.getProvider()),
+			getFixture().executeFixture(ExecutionStrategy.FORWARD, operation));
+	}
+
+	public void test_criteriaChangedKeepsIndex() {
+		Operation operation = new Operation("Edge", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		getFixture().executeFixture(ExecutionStrategy.FORWARD, operation);
+		int count = edgeB.criteriaCount;
+
+		// releasing the descriptors one by one does not rebuild the index
+		nodeA.release();
+		getFixture().executeFixture(ExecutionStrategy.FORWARD, operation);
+		anyA.release();
+
+		assertEquals(Arrays.asList(new Object[] {nodeA.getProvider(),
+			anyA.getProvider()}), getFixture().executeFixture(
+			ExecutionStrategy.FORWARD, operation));
+		assertEquals(count, edgeB.criteriaCount);
+		assertTrue(edgeB.asked.isEmpty());
+	}
+
+	public void test_criteriaChangedInOtherService() {
+		Operation operation = new Operation("Edge", "C"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		getFixture().executeFixture(ExecutionStrategy.FORWARD, operation);
+		int count = nodeA.criteriaCount;
+
+		Fixture other = new Fixture();
+		Fixture.ProviderDescriptor otherNodeA = new Fixture.ProviderDescriptor(
+			"Node", hints("A")); //$NON-NLS-1$ //$NON-NLS-2$
+		other.addFixtureProvider(otherNodeA);
+		other.executeFixture(ExecutionStrategy.FORWARD, operation);
+		otherNodeA.release();
+
+		// the index of this service is not rebuilt
+		getFixture().executeFixture(ExecutionStrategy.FORWARD, operation);
+		assertEquals(count, nodeA.criteriaCount);
+		assertEquals(Collections.singletonList(otherNodeA.getProvider()),
+			other.executeFixture(ExecutionStrategy.FORWARD, operation));
+	}
+
+}
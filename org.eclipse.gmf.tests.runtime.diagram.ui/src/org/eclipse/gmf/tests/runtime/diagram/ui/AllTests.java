@@ -22,6 +22,7 @@ import org.eclipse.gmf.tests.runtime.diagram.core.DiagramEditingDomainFactoryTes
 import org.eclipse.gmf.tests.runtime.diagram.ui.commands.CommandTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.commands.CommandUtilitiesTest;
 import org.eclipse.gmf.tests.runtime.diagram.ui.commands.SemanticCreateCommandTest;
+import org.eclipse.gmf.tests.runtime.diagram.ui.editpolicies.CanonicalEditPolicyTest;
 import org.eclipse.gmf.tests.runtime.diagram.ui.label.LabelTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.logic.DiagramAssistantTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.logic.DiagramGraphicalViewerTests;
@@ -40,7 +41,9 @@ import org.eclipse.gmf.tests.runtime.diagram.ui.parts.DiagramCommandStackTest;
 import org.eclipse.gmf.tests.runtime.diagram.ui.parts.GraphicalNodeEditPolicyTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.render.util.CopyToImageUtilTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.requests.RequestTests;
+import org.eclipse.gmf.tests.runtime.diagram.ui.services.DiagramEventBrokerDispatchTest;
 import org.eclipse.gmf.tests.runtime.diagram.ui.services.DiagramEventBrokerServiceTests;
+import org.eclipse.gmf.tests.runtime.diagram.ui.services.NotationGraphLayoutTest;
 import org.eclipse.gmf.tests.runtime.diagram.ui.services.PaletteServiceTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.tools.ConnectionToolTests;
 import org.eclipse.gmf.tests.runtime.diagram.ui.tools.RubberBandSelectionToolTest;
@@ -82,12 +85,15 @@ public class AllTests extends TestCase {
         suite.addTest(DiagramEditingDomainTestCase.suite());
         suite.addTest(CommandUtilitiesTest.suite());
         suite.addTest(DiagramEventBrokerServiceTests.suite());  
+        suite.addTest(DiagramEventBrokerDispatchTest.suite());
         suite.addTest(LabelTests.suite());        
         suite.addTest(GroupTests.suite());
         suite.addTest(GroupsInCompartmentTests.suite());
         suite.addTest(LayoutTests.suite());
+        suite.addTest(NotationGraphLayoutTest.suite());
         suite.addTest(TextAlignmentTests.suite());
         suite.addTest(DiagramEditingDomainFactoryTests.suite());
+        suite.addTest(CanonicalEditPolicyTest.suite());
 
 		return suite;
 	}
@@ -0,0 +1,216 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation 
+ ****************************************************************************/
+package org.eclipse.gmf.tests.runtime.diagram.ui.editpolicies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.gmf.runtime.diagram.ui.editpolicies.CanonicalEditPolicy;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.View;
+
+/**
+ * Tests the synchronization of view children with semantic children in the
+ * {@link CanonicalEditPolicy}, and how it scales with the size of the
+ * canonical container.
+ */
+public class CanonicalEditPolicyTest extends TestCase {
+
+	private static final int[] CONTAINER_SIZES = {100, 1000, 5000, 10000,
+		20000, 50000};
+
+	/**
+	 * Exposes the synchronization of a canonical edit policy.
+	 */
+	protected static class Fixture extends CanonicalEditPolicy {
+
+		protected List getSemanticChildrenList() {
+			return Collections.EMPTY_LIST;
+		}
+
+		protected List<View> clean(Collection<? extends View> viewChildren,
+				Collection<EObject> semanticChildren) {
+			return cleanCanonicalSemanticChildren(viewChildren,
+				semanticChildren);
+		}
+	}
+
+	private Fixture fixture;
+
+	public CanonicalEditPolicyTest(String name) {
+		super(name);
+	}
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(CanonicalEditPolicyTest.class,
+			"CanonicalEditPolicy tests"); //$NON-NLS-1$
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fixture = new Fixture();
+	}
+
+	protected Fixture getFixture() {
+		return fixture;
+	}
+
+	private static EObject createElement() {
+		return EcoreFactory.eINSTANCE.createEClass();
+	}
+
+	private static Node createView(EObject element, boolean mutable) {
+		Node view = NotationFactory.eINSTANCE.createNode();
+		view.setElement(element);
+		view.setMutable(mutable);
+		return view;
+	}
+
+	/**
+	 * Verifies that the semantic children that have a view are removed, in
+	 * order, and that the views of other elements are orphaned.
+	 */
+	public void test_cleanCanonicalSemanticChildren() {
+		EObject a = createElement();
+		EObject b = createElement();
+		EObject c = createElement();
+		EObject gone = createElement();
+
+		Node viewA = createView(a, false);
+		Node viewGone = createView(gone, false);
+		Node viewC = createView(c, false);
+
+		List<EObject> semanticChildren = new ArrayList<EObject>(Arrays.asList(
+			new EObject[] {a, b, c}));
+
+		List<View> orphaned = getFixture().clean(
+			Arrays.asList(new View[] {viewA, viewGone, viewC}),
+			semanticChildren);
+
+		assertEquals(Collections.singletonList(viewGone), orphaned);
+		assertEquals(Collections.singletonList(b), semanticChildren);
+	}
+
+	/**
+	 * Verifies that of two views of the same element, the second is orphaned
+	 * unless the first is mutable, in which case the first is orphaned.
+	 */
+	public void test_cleanCanonicalSemanticChildren_duplicateViews() {
+		EObject a = createElement();
+		EObject b = createElement();
+
+		Node viewA1 = createView(a, false);
+		Node viewA2 = createView(a, false);
+		Node viewB1 = createView(b, true);
+		Node viewB2 = createView(b, false);
+
+		List<EObject> semanticChildren = new ArrayList<EObject>(Arrays.asList(
+			new EObject[] {a, b}));
+
+		List<View> orphaned = getFixture().clean(
+			Arrays.asList(new View[] {viewA1, viewA2, viewB1, viewB2}),
+			semanticChildren);
+
+		assertEquals(Arrays.asList(new View[] {viewA2, viewB1}), orphaned);
+		assertTrue(semanticChildren.isEmpty());
+	}
+
+	/**
+	 * Verifies that an element that occurs twice in the semantic children
+	 * keeps one occurrence when it has only one view.
+	 */
+	public void test_cleanCanonicalSemanticChildren_duplicateElements() {
+		EObject a = createElement();
+		EObject b = createElement();
+
+		List<EObject> semanticChildren = new ArrayList<EObject>(Arrays.asList(
+			new EObject[] {a, b, a}));
+
+		List<View> orphaned = getFixture().clean(
+			Collections.singletonList(createView(a, false)), semanticChildren);
+
+		assertTrue(orphaned.isEmpty());
+		assertEquals(Arrays.asList(new EObject[] {b, a}), semanticChildren);
+	}
+
+	/**
+	 * Verifies that semantic children given as a set are synchronized too.
+	 */
+	public void test_cleanCanonicalSemanticChildren_set() {
+		EObject a = createElement();
+		EObject gone = createElement();
+		Node viewGone = createView(gone, false);
+
+		Set<EObject> semanticChildren = new HashSet<EObject>(Arrays.asList(
+			new EObject[] {a}));
+
+		List<View> orphaned = getFixture().clean(
+			Arrays.asList(new View[] {createView(a, false), viewGone}),
+			semanticChildren);
+
+		assertEquals(Collections.singletonList(viewGone), orphaned);
+		assertTrue(semanticChildren.isEmpty());
+	}
+
+	/**
+	 * Synchronizes containers of increasing size, in which every tenth
+	 * element has no view and every seventh view has no element, and checks
+	 * the orphaned views and the remaining elements for each size.
+	 */
+	public void test_cleanCanonicalSemanticChildren_scaling() {
+		for (int i = 0; i < CONTAINER_SIZES.length; i++) {
+			int size = CONTAINER_SIZES[i];
+			List<EObject> semanticChildren = new ArrayList<EObject>(size);
+			List<View> viewChildren = new ArrayList<View>(size);
+			List<EObject> expectedRemaining = new ArrayList<EObject>();
+			int expectedOrphans = 0;
+
+			for (int j = 0; j < size; j++) {
+				EObject element = createElement();
+				semanticChildren.add(element);
+
+				if (j % 10 == 0) {
+					expectedRemaining.add(element);
+				} else {
+					viewChildren.add(createView(element, false));
+				}
+				if (j % 7 == 0) {
+					viewChildren.add(createView(createElement(), false));
+					expectedOrphans++;
+				}
+			}
+
+			List<View> orphaned = getFixture().clean(viewChildren,
+				semanticChildren);
+
+			assertEquals(expectedOrphans, orphaned.size());
+			assertEquals(expectedRemaining, semanticChildren);
+		}
+	}
+
+}
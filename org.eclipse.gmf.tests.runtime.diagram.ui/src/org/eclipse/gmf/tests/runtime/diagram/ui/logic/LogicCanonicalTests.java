@@ -11,6 +11,7 @@
 package org.eclipse.gmf.tests.runtime.diagram.ui.logic;
 
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
@@ -18,19 +19,33 @@ import java.util.ListIterator;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.workspace.AbstractEMFOperation;
 import org.eclipse.gef.ConnectionEditPart;
 import org.eclipse.gmf.examples.runtime.diagram.logic.internal.editparts.LEDEditPart;
 import org.eclipse.gmf.examples.runtime.diagram.logic.internal.editparts.TerminalEditPart;
 import org.eclipse.gmf.examples.runtime.diagram.logic.semantic.Circuit;
 import org.eclipse.gmf.examples.runtime.diagram.logic.semantic.LED;
+import org.eclipse.gmf.examples.runtime.diagram.logic.semantic.SemanticFactory;
 import org.eclipse.gmf.examples.runtime.diagram.logic.semantic.Terminal;
 import org.eclipse.gmf.examples.runtime.diagram.logic.semantic.Wire;
 import org.eclipse.gmf.runtime.common.core.command.ICommand;
+import org.eclipse.gmf.runtime.diagram.core.DiagramEditingDomainFactory;
+import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
+import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
 import org.eclipse.gmf.runtime.diagram.core.util.ViewUtil;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IGraphicalEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IResizableCompartmentEditPart;
+import org.eclipse.gmf.runtime.diagram.ui.editpolicies.CanonicalRefreshScheduler;
 import org.eclipse.gmf.runtime.emf.type.core.ElementTypeRegistry;
 import org.eclipse.gmf.runtime.emf.type.core.IElementType;
 import org.eclipse.gmf.runtime.emf.type.core.requests.CreateRelationshipRequest;
@@ -182,6 +197,164 @@ public class LogicCanonicalTests extends AbstractTestBase {
 		}
 	}
 	
+	/**
+	 * Tests that the canonical editpolicy is refreshed once for all the LEDs
+	 * added by one transaction.
+	 */
+	public void test_CoalescedRefresh() throws Exception {
+		try {
+			println("test_CoalescedRefresh() starting ...");//$NON-NLS-1$
+			CanonicalTestFixture _testFixture = getCanonicalTestFixture();
+			IGraphicalEditPart logicCompartment = _testFixture.getCanonicalCompartment(0);
+			final Circuit circuit = (Circuit)ViewUtil.resolveSemanticElement(logicCompartment.getNotationView());
+			final int SIZE = logicCompartment.getChildren().size();
+			final int count = 5;
+			
+			CanonicalRefreshScheduler scheduler = CanonicalRefreshScheduler.getInstance(
+				DiagramEventBroker.getInstance(_testFixture.getEditingDomain()));
+			scheduler.resetCounters();
+			
+			AbstractEMFOperation operation = new AbstractEMFOperation(
+				_testFixture.getEditingDomain(), "") { //$NON-NLS-1$
+				protected IStatus doExecute(IProgressMonitor monitor,
+						IAdaptable info) throws ExecutionException {
+					for ( int i = 0; i < count; i++ ) {
+						circuit.getChildren().add(SemanticFactory.eINSTANCE.createLED());
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			operation.execute(new NullProgressMonitor(), null);
+			flushEventQueue();
+			
+			assertEquals( "Unexpected LED count.", SIZE + count, logicCompartment.getChildren().size() );//$NON-NLS-1$
+			assertTrue( "Refreshes not coalesced.", scheduler.getCoalescedRefreshCount() >= count - 1 );//$NON-NLS-1$
+			assertEquals( "Unexpected refresh count.", scheduler.getRequestedRefreshCount(),//$NON-NLS-1$
+				scheduler.getPerformedRefreshCount() + scheduler.getCoalescedRefreshCount() );
+		}
+		finally {
+			println("test_CoalescedRefresh() complete.");//$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * Tests that the canonical editpolicy is still refreshed, for the
+	 * transaction being handled and for the later ones, when a post commit
+	 * listener throws.
+	 */
+	public void test_RefreshAfterFailingListener() throws Exception {
+		try {
+			println("test_RefreshAfterFailingListener() starting ...");//$NON-NLS-1$
+			CanonicalTestFixture _testFixture = getCanonicalTestFixture();
+			IGraphicalEditPart logicCompartment = _testFixture.getCanonicalCompartment(0);
+			final Circuit circuit = (Circuit)ViewUtil.resolveSemanticElement(logicCompartment.getNotationView());
+			final int SIZE = logicCompartment.getChildren().size();
+			
+			DiagramEventBroker broker = DiagramEventBroker.getInstance(_testFixture.getEditingDomain());
+			// throws on the second notification, so that the canonical
+			// editpolicy has requested its refresh whatever the listener order
+			NotificationListener failingListener = new NotificationListener() {
+				private int count = 0;
+				public void notifyChanged(Notification notification) {
+					if (++count == 2) {
+						throw new IllegalStateException("test_RefreshAfterFailingListener"); //$NON-NLS-1$
+					}
+				}
+			};
+			broker.addNotificationListener(circuit, failingListener);
+			try {
+				AbstractEMFOperation operation = new AbstractEMFOperation(
+					_testFixture.getEditingDomain(), "") { //$NON-NLS-1$
+					protected IStatus doExecute(IProgressMonitor monitor,
+							IAdaptable info) throws ExecutionException {
+						circuit.getChildren().add(SemanticFactory.eINSTANCE.createLED());
+						circuit.getChildren().add(SemanticFactory.eINSTANCE.createLED());
+						return Status.OK_STATUS;
+					}
+				};
+				operation.execute(new NullProgressMonitor(), null);
+				flushEventQueue();
+			} finally {
+				broker.removeNotificationListener(circuit, failingListener);
+			}
+			assertEquals( "Unexpected LED count.", SIZE + 2, logicCompartment.getChildren().size() );//$NON-NLS-1$
+			
+			_testFixture.createLED(circuit);
+			assertEquals( "Unexpected LED count.", SIZE + 3, logicCompartment.getChildren().size() );//$NON-NLS-1$
+		}
+		finally {
+			println("test_RefreshAfterFailingListener() complete.");//$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * Tests that the views of the LEDs removed by one transaction are deleted
+	 * by one batched command.
+	 */
+	public void test_BatchedDelete() throws Exception {
+		try {
+			println("test_BatchedDelete() starting ...");//$NON-NLS-1$
+			CanonicalTestFixture _testFixture = getCanonicalTestFixture();
+			IGraphicalEditPart logicCompartment = _testFixture.getCanonicalCompartment(0);
+			final Circuit circuit = (Circuit)ViewUtil.resolveSemanticElement(logicCompartment.getNotationView());
+			final int SIZE = logicCompartment.getChildren().size();
+			final List leds = new ArrayList();
+			int count = 5;
+			for ( int i = 0; i < count; i++ ) {
+				leds.add(_testFixture.createLED(circuit));
+			}
+			assertEquals( "Unexpected LED count.", SIZE + count, logicCompartment.getChildren().size() );//$NON-NLS-1$
+			
+			CanonicalRefreshScheduler scheduler = CanonicalRefreshScheduler.getInstance(
+				DiagramEventBroker.getInstance(_testFixture.getEditingDomain()));
+			scheduler.resetCounters();
+			
+			AbstractEMFOperation operation = new AbstractEMFOperation(
+				_testFixture.getEditingDomain(), "") { //$NON-NLS-1$
+				protected IStatus doExecute(IProgressMonitor monitor,
+						IAdaptable info) throws ExecutionException {
+					circuit.getChildren().removeAll(leds);
+					return Status.OK_STATUS;
+				}
+			};
+			operation.execute(new NullProgressMonitor(), null);
+			flushEventQueue();
+			
+			assertEquals( "Unexpected LED count.", SIZE, logicCompartment.getChildren().size() );//$NON-NLS-1$
+			assertEquals( "Deletes not batched.", 1, scheduler.getDeleteBatchCount() );//$NON-NLS-1$
+		}
+		finally {
+			println("test_BatchedDelete() complete.");//$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * Tests that the refresh scheduler of a diagram event broker does not keep
+	 * the broker of a disposed editing domain from being garbage-collected.
+	 */
+	public void test_SchedulerReleasesBroker() {
+		TransactionalEditingDomain domain = DiagramEditingDomainFactory
+			.getInstance().createEditingDomain();
+		DiagramEventBroker broker = DiagramEventBroker.getInstance(domain);
+		assertNotNull(CanonicalRefreshScheduler.getInstance(broker));
+		WeakReference brokerRef = new WeakReference(broker);
+		broker = null;
+
+		DiagramEventBroker.stopListening(domain);
+		domain.dispose();
+		domain = null;
+
+		for (int i = 0; i < 20 && brokerRef.get() != null; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+		assertNull("Broker not collected.", brokerRef.get());//$NON-NLS-1$
+	}
+
 	public void test_AddDeleteWire() {
 		try {
 			println("test_AddDeleteWire() starting ...");//$NON-NLS-1$
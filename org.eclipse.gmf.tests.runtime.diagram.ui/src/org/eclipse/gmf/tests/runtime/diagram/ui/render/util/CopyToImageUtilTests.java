@@ -11,8 +11,20 @@
 
 package org.eclipse.gmf.tests.runtime.diagram.ui.render.util;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -20,6 +32,7 @@ import junit.framework.TestSuite;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.draw2d.ColorConstants;
@@ -31,6 +44,9 @@ import org.eclipse.gmf.runtime.diagram.ui.editparts.DiagramEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.editparts.IGraphicalEditPart;
 import org.eclipse.gmf.runtime.diagram.ui.geoshapes.internal.providers.GeoshapeConstants;
 import org.eclipse.gmf.runtime.diagram.ui.image.ImageFileFormat;
+import org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramImageGenerator;
+import org.eclipse.gmf.runtime.diagram.ui.render.clipboard.DiagramSVGGenerator;
+import org.eclipse.gmf.runtime.diagram.ui.render.util.BatchCopyToImageUtil;
 import org.eclipse.gmf.runtime.diagram.ui.render.util.CopyToImageUtil;
 import org.eclipse.gmf.runtime.diagram.ui.requests.ChangePropertyValueRequest;
 import org.eclipse.gmf.runtime.diagram.ui.requests.CreateViewRequest;
@@ -46,10 +62,17 @@ import org.eclipse.gmf.runtime.notation.datatype.GradientData;
 import org.eclipse.gmf.tests.runtime.diagram.ui.AbstractTestBase;
 import org.eclipse.gmf.tests.runtime.diagram.ui.logic.LogicTestFixture;
 import org.eclipse.swt.widgets.Shell;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
 
 public class CopyToImageUtilTests
     extends AbstractTestBase {
 
+    private static final String XLINK_NAMESPACE_URI = "http://www.w3.org/1999/xlink";//$NON-NLS-1$
+
     public CopyToImageUtilTests(String arg0) {
         super(arg0);
     }
@@ -153,6 +176,203 @@ public class CopyToImageUtilTests
        copyToImageTestForFormat(".svg", ImageFileFormat.SVG);//$NON-NLS-1$
     }
 
+    /**
+     * Checks that the SVG streamed while the editparts are rendered is a
+     * well formed SVG document, whose references to definitions resolve,
+     * and which has the same elements as the SVG document built in memory.
+     */
+    public void testStreamSVGForParts()
+        throws Exception {
+        DiagramEditPart diagramEP = getDiagramEditPart();
+        List editParts = diagramEP.getPrimaryEditParts();
+        DiagramSVGGenerator gen = new DiagramSVGGenerator(diagramEP);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        gen.streamSVGForParts(editParts, gen
+            .calculateImageRectangle(editParts), stream);
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(
+            new ByteArrayInputStream(stream.toByteArray()));
+        Element root = document.getDocumentElement();
+        assertEquals("svg", root.getLocalName());//$NON-NLS-1$
+        assertTrue(root.getAttribute("viewBox").length() > 0);//$NON-NLS-1$
+        assertTrue(root.getElementsByTagNameNS("*", "g").getLength() > 0);//$NON-NLS-1$ //$NON-NLS-2$
+        assertReferencesResolve(document);
+
+        DiagramSVGGenerator domGen = new DiagramSVGGenerator(diagramEP);
+        domGen.createSWTImageDescriptorForParts(editParts, domGen
+            .calculateImageRectangle(editParts));
+        ByteArrayOutputStream domStream = new ByteArrayOutputStream();
+        domGen.stream(domStream);
+        Document domDocument = factory.newDocumentBuilder().parse(
+            new ByteArrayInputStream(domStream.toByteArray()));
+        assertReferencesResolve(domDocument);
+        assertEquals(countElements(domDocument), countElements(document));
+    }
+
+    /**
+     * Asserts that every <code>url(#id)</code> and
+     * <code>xlink:href="#id"</code> of an SVG document refers to an element
+     * of the document.
+     */
+    private void assertReferencesResolve(Document document) {
+        Set ids = new HashSet();
+        Set references = new HashSet();
+        NodeList elements = document.getElementsByTagNameNS("*", "*");//$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 0; i < elements.getLength(); i++) {
+            NamedNodeMap attributes = elements.item(i).getAttributes();
+            for (int j = 0; j < attributes.getLength(); j++) {
+                Attr attribute = (Attr) attributes.item(j);
+                String value = attribute.getValue();
+                if ("id".equals(attribute.getName())) {//$NON-NLS-1$
+                    ids.add(value);
+                } else if (XLINK_NAMESPACE_URI.equals(attribute
+                    .getNamespaceURI())
+                    && "href".equals(attribute.getLocalName())//$NON-NLS-1$
+                    && value.startsWith("#")) {//$NON-NLS-1$
+                    references.add(value.substring(1));
+                }
+                int start = value.indexOf("url(#");//$NON-NLS-1$
+                while (start != -1) {
+                    int end = value.indexOf(')', start);
+                    references.add(value.substring(start + 5, end));
+                    start = value.indexOf("url(#", end);//$NON-NLS-1$
+                }
+            }
+        }
+        references.removeAll(ids);
+        assertTrue("unresolved references " + references, references.isEmpty());//$NON-NLS-1$
+    }
+
+    /**
+     * Counts the elements of an SVG document by name, except for the groups
+     * and the definition sets, which depend on when the elements are written.
+     */
+    private Map countElements(Document document) {
+        Map counts = new HashMap();
+        NodeList elements = document.getElementsByTagNameNS("*", "*");//$NON-NLS-1$ //$NON-NLS-2$
+        for (int i = 0; i < elements.getLength(); i++) {
+            String name = elements.item(i).getLocalName();
+            if (!"g".equals(name) && !"defs".equals(name)) {//$NON-NLS-1$ //$NON-NLS-2$
+                Integer count = (Integer) counts.get(name);
+                counts.put(name, Integer.valueOf((count == null) ? 1
+                    : count.intValue() + 1));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Checks that the image rendered tile by tile is the same as the image
+     * rendered in one piece, with tiles smaller than the diagram.
+     */
+    public void testCopyToTiledImage_PNG()
+        throws Exception {
+        IProgressMonitor monitor = new NullProgressMonitor();
+        File file = File.createTempFile("test", ".png");//$NON-NLS-1$ //$NON-NLS-2$
+        IPath tmpDest = new Path(file.getPath());
+
+        DiagramEditPart diagramEP = getDiagramEditPart();
+        List editParts = diagramEP.getPrimaryEditParts();
+        new CopyToImageUtil().copyToTiledImage(diagramEP, editParts, tmpDest,
+            ImageFileFormat.PNG, 37, monitor);
+
+        BufferedImage tiled = ImageIO.read(file);
+        file.delete();
+        assertNotNull("Tiled image is null", tiled);//$NON-NLS-1$
+
+        DiagramImageGenerator gen = new DiagramImageGenerator(diagramEP);
+        BufferedImage image = (BufferedImage) gen.createAWTImageForParts(
+            editParts, gen.calculateImageRectangle(editParts));
+        assertEquals(image.getWidth(), tiled.getWidth());
+        assertEquals(image.getHeight(), tiled.getHeight());
+        assertTrue(tiled.getWidth() > 37 && tiled.getHeight() > 37);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals("Pixel " + x + "," + y, //$NON-NLS-1$ //$NON-NLS-2$
+                    image.getRGB(x, y) & 0xffffff, tiled.getRGB(x, y) & 0xffffff);
+            }
+        }
+    }
+
+    /**
+     * Copies the same diagram several times in a batch, which names the
+     * image files uniquely.
+     */
+    public void testBatchCopyToImages()
+        throws Exception {
+        File folder = File.createTempFile("batch", "");//$NON-NLS-1$ //$NON-NLS-2$
+        folder.delete();
+        folder.mkdir();
+        try {
+            List diagrams = new ArrayList();
+            for (int i = 0; i < 5; i++) {
+                diagrams.add(getDiagram());
+            }
+            BatchCopyToImageUtil util = new BatchCopyToImageUtil();
+            util.setParallelism(2);
+            IStatus status = util.copyToImages(diagrams, new Path(folder
+                .getPath()), ImageFileFormat.PNG, new NullProgressMonitor(),
+                getDiagramEditPart().getDiagramPreferencesHint());
+            assertTrue(status.getMessage(), status.isOK());
+
+            File[] files = folder.listFiles();
+            assertEquals(5, files.length);
+            for (int i = 0; i < files.length; i++) {
+                assertTrue(files[i].getName().endsWith(".png"));//$NON-NLS-1$
+                assertNotNull(ImageIO.read(files[i]));
+            }
+        } finally {
+            File[] files = folder.listFiles();
+            for (int i = 0; i < files.length; i++) {
+                files[i].delete();
+            }
+            folder.delete();
+        }
+    }
+
+    /**
+     * Cancels a batch once the first image is written, which leaves out the
+     * images waiting to be encoded and writes no partial image.
+     */
+    public void testBatchCopyToImagesCanceled()
+        throws Exception {
+        File folder = File.createTempFile("batch", "");//$NON-NLS-1$ //$NON-NLS-2$
+        folder.delete();
+        folder.mkdir();
+        try {
+            List diagrams = new ArrayList();
+            for (int i = 0; i < 10; i++) {
+                diagrams.add(getDiagram());
+            }
+            IProgressMonitor monitor = new NullProgressMonitor() {
+
+                public void worked(int work) {
+                    setCanceled(true);
+                }
+            };
+            BatchCopyToImageUtil util = new BatchCopyToImageUtil();
+            util.setParallelism(1);
+            IStatus status = util.copyToImages(diagrams, new Path(folder
+                .getPath()), ImageFileFormat.PNG, monitor,
+                getDiagramEditPart().getDiagramPreferencesHint());
+            assertTrue(status.getMessage(), status.isOK());
+
+            File[] files = folder.listFiles();
+            assertTrue(files.length > 0 && files.length < 10);
+            for (int i = 0; i < files.length; i++) {
+                assertNotNull(ImageIO.read(files[i]));
+            }
+        } finally {
+            File[] files = folder.listFiles();
+            for (int i = 0; i < files.length; i++) {
+                files[i].delete();
+            }
+            folder.delete();
+        }
+    }
+
     private void copyToImageTestForFormat(String suffix, ImageFileFormat type)
         throws IOException, CoreException {
         IProgressMonitor monitor = new NullProgressMonitor();
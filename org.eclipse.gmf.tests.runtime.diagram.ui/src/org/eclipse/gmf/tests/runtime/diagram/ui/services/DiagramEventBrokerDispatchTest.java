@@ -0,0 +1,436 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.diagram.ui.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
+import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.diagram.core.listener.StateNotificationListener;
+import org.eclipse.gmf.runtime.diagram.ui.editparts.ShapeNodeEditPart;
+import org.eclipse.gmf.runtime.gef.ui.figures.NodeFigure;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.NotationPackage;
+import org.eclipse.gmf.runtime.notation.ShapeStyle;
+
+/**
+ * Tests how the {@link DiagramEventBroker} dispatches post commit
+ * notifications to the listeners of their notifier and of its containers,
+ * how it compacts them for {@link StateNotificationListener}s, and how it
+ * replays a large notification stream, see {@link DiagramEventBrokerReplay}.
+ */
+public class DiagramEventBrokerDispatchTest extends TestCase {
+
+	protected static class Broker extends DiagramEventBroker {
+
+		public Broker() {
+			super();
+		}
+	}
+
+	/**
+	 * A broker that looks up the interested listeners itself.
+	 */
+	protected static class FilteringBroker extends DiagramEventBroker {
+
+		private final Object excluded;
+
+		public FilteringBroker(Object excluded) {
+			super();
+			this.excluded = excluded;
+		}
+
+		protected Set getInterestedNotificationListeners(Notification event,
+				NotifierToKeyToListenersSetMap listeners) {
+			Set listenerSet = super.getInterestedNotificationListeners(event,
+				listeners);
+			listenerSet.remove(excluded);
+			return listenerSet;
+		}
+	}
+
+	protected static class Listener implements NotificationListener {
+
+		protected final List notifications = new ArrayList();
+
+		public void notifyChanged(Notification notification) {
+			notifications.add(notification);
+		}
+	}
+
+	protected static class StateListener extends Listener
+		implements StateNotificationListener {
+
+		public boolean isStateFeature(EStructuralFeature feature) {
+			return true;
+		}
+	}
+
+	/**
+	 * A state listener for the type of the views only.
+	 */
+	protected static class TypeStateListener extends Listener
+		implements StateNotificationListener {
+
+		public boolean isStateFeature(EStructuralFeature feature) {
+			return NotationPackage.Literals.VIEW__TYPE == feature;
+		}
+	}
+
+	/**
+	 * A broker that records the notifications it fires.
+	 */
+	protected static class RecordingBroker extends DiagramEventBroker {
+
+		protected final List notifications = new ArrayList();
+
+		public RecordingBroker() {
+			super();
+		}
+
+		protected void fireNotification(Notification event) {
+			notifications.add(event);
+			super.fireNotification(event);
+		}
+	}
+
+	private TransactionalEditingDomain domain;
+
+	private Diagram diagram;
+
+	private Node node;
+
+	private ShapeStyle style;
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(DiagramEventBrokerDispatchTest.class);
+	}
+
+	public DiagramEventBrokerDispatchTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() {
+		domain = TransactionalEditingDomain.Factory.INSTANCE
+			.createEditingDomain();
+		diagram = NotationFactory.eINSTANCE.createDiagram();
+		node = NotationFactory.eINSTANCE.createNode();
+		style = NotationFactory.eINSTANCE.createShapeStyle();
+		diagram.getPersistedChildren().add(node);
+		node.getStyles().add(style);
+	}
+
+	protected void tearDown() {
+		domain.dispose();
+	}
+
+	private static Notification set(EObject notifier,
+			EStructuralFeature feature, Object oldValue, Object newValue) {
+		return new ENotificationImpl((InternalEObject) notifier,
+			Notification.SET, feature, oldValue, newValue);
+	}
+
+	private void fire(DiagramEventBroker broker, List notifications) {
+		broker.resourceSetChanged(new ResourceSetChangeEvent(domain, null,
+			notifications));
+	}
+
+	private void fire(DiagramEventBroker broker, Notification notification) {
+		fire(broker, Collections.singletonList(notification));
+	}
+
+	public void test_featureAndWildcardListeners() {
+		DiagramEventBroker broker = new Broker();
+		Listener typeListener = new Listener();
+		Listener visibleListener = new Listener();
+		Listener wildcardListener = new Listener();
+		Listener bothListener = new Listener();
+
+		broker.addNotificationListener(node, NotationPackage.Literals.VIEW__TYPE,
+			typeListener);
+		broker.addNotificationListener(node,
+			NotationPackage.Literals.VIEW__VISIBLE, visibleListener);
+		broker.addNotificationListener(node, wildcardListener);
+		broker.addNotificationListener(node, NotationPackage.Literals.VIEW__TYPE,
+			bothListener);
+		broker.addNotificationListener(node, bothListener);
+
+		fire(broker, set(node, NotationPackage.Literals.VIEW__TYPE, null, "a")); //$NON-NLS-1$
+
+		assertEquals(1, typeListener.notifications.size());
+		assertEquals(0, visibleListener.notifications.size());
+		assertEquals(1, wildcardListener.notifications.size());
+		assertEquals(1, bothListener.notifications.size());
+
+		broker.removeNotificationListener(node,
+			NotationPackage.Literals.VIEW__TYPE, typeListener);
+		fire(broker, set(node, NotationPackage.Literals.VIEW__TYPE, "a", "b")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals(1, typeListener.notifications.size());
+		assertEquals(2, wildcardListener.notifications.size());
+		assertEquals(2, bothListener.notifications.size());
+	}
+
+	public void test_visibilityIsFiredToContainer() {
+		DiagramEventBroker broker = new Broker();
+		Listener diagramListener = new Listener();
+		Listener typeListener = new Listener();
+
+		broker.addNotificationListener(diagram, diagramListener);
+		broker.addNotificationListener(diagram,
+			NotationPackage.Literals.VIEW__TYPE, typeListener);
+
+		fire(broker, set(node, NotationPackage.Literals.VIEW__VISIBLE,
+			Boolean.TRUE, Boolean.FALSE));
+
+		assertEquals(1, diagramListener.notifications.size());
+		assertEquals(0, typeListener.notifications.size());
+	}
+
+	public void test_styleChangeIsFiredToView() {
+		DiagramEventBroker broker = new Broker();
+		Listener nodeListener = new Listener();
+		Listener sharedListener = new Listener();
+
+		broker.addNotificationListener(node, nodeListener);
+		broker.addNotificationListener(node, sharedListener);
+		broker.addNotificationListener(style, sharedListener);
+
+		fire(broker, set(style, NotationPackage.Literals.FILL_STYLE__FILL_COLOR,
+			new Integer(0), new Integer(1)));
+
+		assertEquals(1, nodeListener.notifications.size());
+		assertEquals(1, sharedListener.notifications.size());
+	}
+
+	public void test_listenerAddedWhileFiring() {
+		final DiagramEventBroker broker = new Broker();
+		final Listener addedListener = new Listener();
+
+		broker.addNotificationListener(node, new NotificationListener() {
+
+			public void notifyChanged(Notification notification) {
+				broker.addNotificationListener(node, addedListener);
+			}
+		});
+
+		fire(broker, set(node, NotationPackage.Literals.VIEW__TYPE, null, "a")); //$NON-NLS-1$
+		assertEquals(0, addedListener.notifications.size());
+
+		fire(broker, set(node, NotationPackage.Literals.VIEW__TYPE, "a", "b")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(1, addedListener.notifications.size());
+	}
+
+	public void test_overriddenListenerLookup() {
+		Listener excludedListener = new Listener();
+		Listener listener = new Listener();
+		DiagramEventBroker broker = new FilteringBroker(excludedListener);
+
+		broker.addNotificationListener(node, excludedListener);
+		broker.addNotificationListener(node, listener);
+
+		fire(broker, set(node, NotationPackage.Literals.VIEW__TYPE, null, "a")); //$NON-NLS-1$
+
+		assertEquals(0, excludedListener.notifications.size());
+		assertEquals(1, listener.notifications.size());
+	}
+
+	public void test_stateListenerGetsLastChange() {
+		DiagramEventBroker broker = new Broker();
+		Listener listener = new Listener();
+		StateListener stateListener = new StateListener();
+
+		broker.addNotificationListener(node, listener);
+		broker.addNotificationListener(node, stateListener);
+
+		Notification first = set(node, NotationPackage.Literals.VIEW__TYPE,
+			null, "a"); //$NON-NLS-1$
+		Notification visible = set(node, NotationPackage.Literals.VIEW__VISIBLE,
+			Boolean.TRUE, Boolean.FALSE);
+		Notification second = set(node, NotationPackage.Literals.VIEW__TYPE,
+			"a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+		Notification third = set(node, NotationPackage.Literals.VIEW__TYPE,
+			"b", "c"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		fire(broker, Arrays.asList(new Notification[] {first, visible, second,
+			third}));
+
+		assertEquals(Arrays.asList(new Notification[] {first, visible, second,
+			third}), listener.notifications);
+		assertEquals(Arrays.asList(new Notification[] {visible, third}),
+			stateListener.notifications);
+	}
+
+	public void test_stateListenerGetsListChanges() {
+		DiagramEventBroker broker = new Broker();
+		StateListener stateListener = new StateListener();
+		Node child = NotationFactory.eINSTANCE.createNode();
+
+		broker.addNotificationListener(diagram, stateListener);
+
+		Notification add = new ENotificationImpl((InternalEObject) diagram,
+			Notification.ADD, NotationPackage.Literals.VIEW__PERSISTED_CHILDREN,
+			null, child);
+		Notification remove = new ENotificationImpl((InternalEObject) diagram,
+			Notification.REMOVE,
+			NotationPackage.Literals.VIEW__PERSISTED_CHILDREN, child, null);
+		Notification first = set(style,
+			NotationPackage.Literals.FILL_STYLE__FILL_COLOR, new Integer(0),
+			new Integer(1));
+		Notification second = set(style,
+			NotationPackage.Literals.FILL_STYLE__FILL_COLOR, new Integer(1),
+			new Integer(2));
+
+		broker.addNotificationListener(node, stateListener);
+		fire(broker, Arrays.asList(new Notification[] {add, first, remove,
+			second}));
+
+		assertEquals(Arrays.asList(new Notification[] {add, remove, second}),
+			stateListener.notifications);
+	}
+
+	/**
+	 * Checks that a state listener gets every change of the features it does
+	 * not declare state features.
+	 */
+	public void test_stateListenerOptsInPerFeature() {
+		DiagramEventBroker broker = new Broker();
+		TypeStateListener stateListener = new TypeStateListener();
+
+		broker.addNotificationListener(node, stateListener);
+
+		Notification firstType = set(node, NotationPackage.Literals.VIEW__TYPE,
+			null, "a"); //$NON-NLS-1$
+		Notification firstVisible = set(node,
+			NotationPackage.Literals.VIEW__VISIBLE, Boolean.TRUE, Boolean.FALSE);
+		Notification secondType = set(node,
+			NotationPackage.Literals.VIEW__TYPE, "a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+		Notification secondVisible = set(node,
+			NotationPackage.Literals.VIEW__VISIBLE, Boolean.FALSE, Boolean.TRUE);
+
+		fire(broker, Arrays.asList(new Notification[] {firstType, firstVisible,
+			secondType, secondVisible}));
+
+		assertEquals(Arrays.asList(new Notification[] {firstVisible,
+			secondType, secondVisible}), stateListener.notifications);
+	}
+
+	/**
+	 * Checks that a subclass overriding fireNotification gets every
+	 * notification, while its state listeners get the last change only.
+	 */
+	public void test_overriddenFireNotification() {
+		RecordingBroker broker = new RecordingBroker();
+		StateListener stateListener = new StateListener();
+
+		broker.addNotificationListener(node, stateListener);
+
+		Notification first = set(node, NotationPackage.Literals.VIEW__TYPE,
+			null, "a"); //$NON-NLS-1$
+		Notification second = set(node, NotationPackage.Literals.VIEW__TYPE,
+			"a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		fire(broker, Arrays.asList(new Notification[] {first, second}));
+
+		assertEquals(Arrays.asList(new Notification[] {first, second}),
+			broker.notifications);
+		assertEquals(Collections.singletonList(second),
+			stateListener.notifications);
+	}
+
+	/**
+	 * Checks that the shape editparts opt in for their bounds only.
+	 */
+	public void test_shapeEditPartStateFeatures() {
+		ShapeNodeEditPart editPart = new ShapeNodeEditPart(node) {
+
+			protected NodeFigure createNodeFigure() {
+				return null;
+			}
+		};
+
+		assertTrue(editPart
+			.isStateFeature(NotationPackage.Literals.LOCATION__X));
+		assertTrue(editPart
+			.isStateFeature(NotationPackage.Literals.SIZE__HEIGHT));
+		assertFalse(editPart
+			.isStateFeature(NotationPackage.Literals.FILL_STYLE__FILL_COLOR));
+		assertFalse(editPart
+			.isStateFeature(NotationPackage.Literals.VIEW__VISIBLE));
+	}
+
+	/**
+	 * Checks that a state listener gets the change of a transaction that a
+	 * listener commits, and so fires, while a superseded change is fired.
+	 */
+	public void test_stateListenerGetsNestedChange() {
+		final DiagramEventBroker broker = new Broker();
+		StateListener stateListener = new StateListener();
+		final Notification first = set(node,
+			NotationPackage.Literals.VIEW__TYPE, null, "a"); //$NON-NLS-1$
+		Notification second = set(node, NotationPackage.Literals.VIEW__TYPE,
+			"a", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+		final Notification nested = set(node,
+			NotationPackage.Literals.VIEW__VISIBLE, Boolean.TRUE, Boolean.FALSE);
+
+		broker.addNotificationListener(node,
+			NotationPackage.Literals.VIEW__TYPE, new NotificationListener() {
+
+				public void notifyChanged(Notification notification) {
+					if (notification == first) {
+						fire(broker, nested);
+					}
+				}
+			});
+		broker.addNotificationListener(node, stateListener);
+
+		fire(broker, Arrays.asList(new Notification[] {first, second}));
+
+		assertEquals(Arrays.asList(new Notification[] {nested, second}),
+			stateListener.notifications);
+	}
+
+	/**
+	 * Checks that all the notifications of a large stream are fired.
+	 */
+	public void test_replay() {
+		Listener listener = new Listener();
+		new DiagramEventBrokerReplay(new Broker(), diagram, listener)
+			.replay(domain);
+
+		assertEquals(DiagramEventBrokerReplay.NOTIFICATION_COUNT,
+			listener.notifications.size());
+	}
+
+}
@@ -0,0 +1,146 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.diagram.ui.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.impl.ENotificationImpl;
+import org.eclipse.emf.transaction.ResourceSetChangeEvent;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.gmf.runtime.diagram.core.listener.DiagramEventBroker;
+import org.eclipse.gmf.runtime.diagram.core.listener.NotificationListener;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.NotationPackage;
+import org.eclipse.gmf.runtime.notation.ShapeStyle;
+
+/**
+ * Replays a stream of notifications on the nodes of a large diagram, the way
+ * the edit parts of the nodes and of their styles listen to them.
+ * <p>
+ * Running this class as a Java application times the replay. It is not part
+ * of the test suite; {@link DiagramEventBrokerDispatchTest} only checks that
+ * the replayed notifications are all fired.
+ */
+public class DiagramEventBrokerReplay {
+
+	static final int NODE_COUNT = 2000;
+
+	static final int NOTIFICATION_COUNT = 100000;
+
+	private static final int WARMUP_RUNS = 5;
+
+	private static final int RUNS = 20;
+
+	private final DiagramEventBroker broker;
+
+	private final List notifications = new ArrayList(NOTIFICATION_COUNT);
+
+	/**
+	 * Adds nodes to the diagram, and their listeners to the broker.
+	 *
+	 * @param broker
+	 *            the broker replaying the notifications
+	 * @param diagram
+	 *            the diagram to add the nodes to
+	 * @param listener
+	 *            the listener added to all the nodes
+	 */
+	DiagramEventBrokerReplay(DiagramEventBroker broker, Diagram diagram,
+			NotificationListener listener) {
+		this.broker = broker;
+		Node[] nodes = new Node[NODE_COUNT];
+		ShapeStyle[] styles = new ShapeStyle[NODE_COUNT];
+
+		for (int i = 0; i < NODE_COUNT; i++) {
+			nodes[i] = NotationFactory.eINSTANCE.createNode();
+			styles[i] = NotationFactory.eINSTANCE.createShapeStyle();
+			nodes[i].getStyles().add(styles[i]);
+			diagram.getPersistedChildren().add(nodes[i]);
+
+			broker.addNotificationListener(nodes[i], listener);
+			broker.addNotificationListener(nodes[i],
+				NotationPackage.Literals.VIEW__TYPE,
+				new DiagramEventBrokerDispatchTest.Listener());
+			broker.addNotificationListener(styles[i],
+				NotationPackage.Literals.FILL_STYLE__FILL_COLOR,
+				new DiagramEventBrokerDispatchTest.Listener());
+		}
+
+		for (int i = 0; i < NOTIFICATION_COUNT; i++) {
+			int n = (i * 7919) % NODE_COUNT;
+			if (i % 2 == 0) {
+				notifications.add(new ENotificationImpl(
+					(InternalEObject) nodes[n], Notification.SET,
+					NotationPackage.Literals.VIEW__TYPE, null, "a")); //$NON-NLS-1$
+			} else {
+				notifications.add(new ENotificationImpl(
+					(InternalEObject) styles[n], Notification.SET,
+					NotationPackage.Literals.FILL_STYLE__FILL_COLOR,
+					new Integer(0), new Integer(i)));
+			}
+		}
+	}
+
+	/**
+	 * Fires all the notifications in one resource set change event.
+	 *
+	 * @param domain
+	 *            the editing domain of the event
+	 */
+	void replay(TransactionalEditingDomain domain) {
+		broker.resourceSetChanged(new ResourceSetChangeEvent(domain, null,
+			notifications));
+	}
+
+	/**
+	 * Prints the best and average times of a number of replays, after a few
+	 * warm-up replays.
+	 */
+	public static void main(String[] args) {
+		TransactionalEditingDomain domain = TransactionalEditingDomain.Factory.INSTANCE
+			.createEditingDomain();
+		try {
+			DiagramEventBrokerDispatchTest.Listener listener = new DiagramEventBrokerDispatchTest.Listener();
+			DiagramEventBrokerReplay replay = new DiagramEventBrokerReplay(
+				new DiagramEventBrokerDispatchTest.Broker(),
+				NotationFactory.eINSTANCE.createDiagram(), listener);
+
+			for (int i = 0; i < WARMUP_RUNS; i++) {
+				replay.replay(domain);
+				listener.notifications.clear();
+			}
+
+			long best = Long.MAX_VALUE;
+			long total = 0;
+			for (int i = 0; i < RUNS; i++) {
+				long start = System.nanoTime();
+				replay.replay(domain);
+				long time = System.nanoTime() - start;
+				listener.notifications.clear();
+				best = Math.min(best, time);
+				total += time;
+			}
+
+			System.out.println("Replayed " + NOTIFICATION_COUNT //$NON-NLS-1$
+				+ " notifications on " + NODE_COUNT + " nodes: best " //$NON-NLS-1$ //$NON-NLS-2$
+				+ best / 1000000 + " ms, average " + total / RUNS / 1000000 //$NON-NLS-1$
+				+ " ms"); //$NON-NLS-1$
+		} finally {
+			domain.dispose();
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.diagram.ui.services;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.gmf.runtime.diagram.ui.services.layout.ConstraintSizeEstimator;
+import org.eclipse.gmf.runtime.diagram.ui.services.layout.INodeSizeEstimator;
+import org.eclipse.gmf.runtime.diagram.ui.services.layout.NotationGraphLayout;
+import org.eclipse.gmf.runtime.notation.Bounds;
+import org.eclipse.gmf.runtime.notation.Diagram;
+import org.eclipse.gmf.runtime.notation.Edge;
+import org.eclipse.gmf.runtime.notation.MeasurementUnit;
+import org.eclipse.gmf.runtime.notation.Node;
+import org.eclipse.gmf.runtime.notation.NotationFactory;
+import org.eclipse.gmf.runtime.notation.RelativeBendpoints;
+import org.eclipse.gmf.runtime.notation.datatype.RelativeBendpoint;
+
+/**
+ * Tests the layout of notation views by the {@link NotationGraphLayout},
+ * without edit parts, including the layout of generated diagrams.
+ */
+public class NotationGraphLayoutTest extends TestCase {
+
+	private final Random random = new Random(0);
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(NotationGraphLayoutTest.class);
+	}
+
+	private Node createNode(Diagram diagram, int x, int y, int width,
+			int height) {
+		Node node = NotationFactory.eINSTANCE.createNode();
+		Bounds bounds = NotationFactory.eINSTANCE.createBounds();
+		bounds.setX(x);
+		bounds.setY(y);
+		bounds.setWidth(width);
+		bounds.setHeight(height);
+		node.setLayoutConstraint(bounds);
+		diagram.getPersistedChildren().add(node);
+		return node;
+	}
+
+	private Edge createEdge(Diagram diagram, Node source, Node target) {
+		Edge edge = NotationFactory.eINSTANCE.createEdge();
+		RelativeBendpoints bendpoints = NotationFactory.eINSTANCE
+			.createRelativeBendpoints();
+		List points = new ArrayList(2);
+		points.add(new RelativeBendpoint());
+		points.add(new RelativeBendpoint());
+		bendpoints.setPoints(points);
+		edge.setBendpoints(bendpoints);
+		diagram.getPersistedEdges().add(edge);
+		edge.setSource(source);
+		edge.setTarget(target);
+		return edge;
+	}
+
+	/**
+	 * Creates a diagram whose nodes are connected to some of the nodes
+	 * created before them.
+	 */
+	private Diagram createDiagram(int nodeCount) {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setMeasurementUnit(MeasurementUnit.PIXEL_LITERAL);
+		Node[] nodes = new Node[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			nodes[i] = createNode(diagram, 0, 0, 40 + random.nextInt(80), -1);
+			if (i > 0) {
+				createEdge(diagram, nodes[random.nextInt(i)], nodes[i]);
+			}
+		}
+		return diagram;
+	}
+
+	private Bounds getBounds(Node node) {
+		return (Bounds) node.getLayoutConstraint();
+	}
+
+	public void testLayoutChain() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setMeasurementUnit(MeasurementUnit.PIXEL_LITERAL);
+		Node n1 = createNode(diagram, 0, 0, 50, 40);
+		Node n2 = createNode(diagram, 0, 0, 50, 40);
+		Node n3 = createNode(diagram, 0, 0, -1, -1);
+		Edge e1 = createEdge(diagram, n1, n2);
+		createEdge(diagram, n2, n3);
+
+		new NotationGraphLayout().layout(diagram);
+
+		assertTrue(getBounds(n1).getY() + 40 < getBounds(n2).getY());
+		assertTrue(getBounds(n2).getY() + 40 < getBounds(n3).getY());
+		// the sizes are estimated, not set
+		assertEquals(-1, getBounds(n3).getWidth());
+		assertEquals(-1, getBounds(n3).getHeight());
+
+		// the edge goes from the bottom of its source to the top of its target
+		List points = ((RelativeBendpoints) e1.getBendpoints()).getPoints();
+		assertTrue(points.size() >= 2);
+		RelativeBendpoint first = (RelativeBendpoint) points.get(0);
+		RelativeBendpoint last = (RelativeBendpoint) points.get(points
+			.size() - 1);
+		assertEquals(20, first.getSourceY());
+		assertEquals(-20, last.getTargetY());
+	}
+
+	public void testLayoutNodesFromBoundingBox() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setMeasurementUnit(MeasurementUnit.PIXEL_LITERAL);
+		Node n1 = createNode(diagram, 500, 300, 50, 40);
+		Node n2 = createNode(diagram, 700, 600, 50, 40);
+		Node other = createNode(diagram, 10, 10, 50, 40);
+		createEdge(diagram, n1, n2);
+		createEdge(diagram, other, n1);
+
+		List nodes = new ArrayList();
+		nodes.add(n1);
+		nodes.add(n2);
+		new NotationGraphLayout().layoutNodes(nodes);
+
+		assertEquals(300, Math.min(getBounds(n1).getY(), getBounds(n2).getY()));
+		assertEquals(500, Math.min(getBounds(n1).getX(), getBounds(n2).getX()));
+		assertTrue(getBounds(n1).getY() < getBounds(n2).getY());
+		assertEquals(10, getBounds(other).getX());
+		assertEquals(10, getBounds(other).getY());
+	}
+
+	public void testSizeEstimator() {
+		Diagram diagram = NotationFactory.eINSTANCE.createDiagram();
+		diagram.setMeasurementUnit(MeasurementUnit.HIMETRIC_LITERAL);
+		Node sized = createNode(diagram, 0, 0, 1000, 500);
+		Node autoSized = createNode(diagram, 0, 0, -1, -1);
+
+		INodeSizeEstimator estimator = new ConstraintSizeEstimator();
+		assertEquals(new Dimension(1000, 500), estimator.getSize(sized));
+		// 100 by 60 pixels, at 96 pixels per inch
+		assertEquals(new Dimension(2646, 1588), estimator.getSize(autoSized));
+
+		estimator = new ConstraintSizeEstimator(300, 200);
+		assertEquals(new Dimension(300, 200), estimator.getSize(autoSized));
+	}
+
+	/**
+	 * Lays out generated diagrams without creating their edit parts, and
+	 * checks that the targets of their edges are laid out below the sources.
+	 */
+	public void testLayoutPerformance() {
+		int[] sizes = new int[] {100, 500, 1000};
+		for (int i = 0; i < sizes.length; i++) {
+			List diagrams = new ArrayList();
+			for (int j = 0; j < 10; j++) {
+				diagrams.add(createDiagram(sizes[i]));
+			}
+			NotationGraphLayout layout = new NotationGraphLayout();
+			for (int j = 0; j < diagrams.size(); j++) {
+				Diagram diagram = (Diagram) diagrams.get(j);
+				layout.layout(diagram);
+
+				for (Iterator iter = diagram.getPersistedEdges().iterator(); iter
+					.hasNext();) {
+					Edge edge = (Edge) iter.next();
+					assertTrue(getBounds((Node) edge.getSource()).getY() < getBounds(
+						(Node) edge.getTarget()).getY());
+				}
+			}
+		}
+	}
+}
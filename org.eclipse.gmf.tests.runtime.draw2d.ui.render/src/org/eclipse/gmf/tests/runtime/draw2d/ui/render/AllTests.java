@@ -19,6 +19,10 @@ import junit.framework.TestSuite;
 import junit.textui.TestRunner;
 
 import org.eclipse.core.runtime.IPlatformRunnable;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.RenderingExecutorTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.factory.RenderedImageCacheTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.image.PNGStreamWriterTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.svg.SVGStreamWriterTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.svg.SVGTranscoderTest;
 
 public class AllTests extends TestCase implements IPlatformRunnable {
@@ -34,6 +38,10 @@ public class AllTests extends TestCase implements IPlatformRunnable {
         //suite.addTestSuite( SVGImageTest.class );
 		//suite.addTestSuite( Metafile2SvgTest.class );
 		suite.addTestSuite( SVGTranscoderTest.class );
+		suite.addTestSuite( RenderedImageCacheTest.class );
+		suite.addTestSuite( RenderingExecutorTest.class );
+		suite.addTestSuite( PNGStreamWriterTest.class );
+		suite.addTestSuite( SVGStreamWriterTest.class );
         return suite;
 	}
 
@@ -0,0 +1,288 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderInfo;
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.RenderingExecutor;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.RenderingListener;
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * Tests the scheduling, sharing, cancellation and batched notification of the
+ * {@link RenderingExecutor}.
+ */
+public class RenderingExecutorTest extends TestCase {
+
+	/**
+	 * An image whose rendering waits until the test opens the gate.
+	 */
+	private class Fixture implements RenderedImage {
+
+		private final String name;
+
+		private boolean rendered = false;
+
+		Fixture(String name) {
+			this.name = name;
+		}
+
+		public RenderInfo getRenderInfo() {
+			return null;
+		}
+
+		public RenderedImage getNewRenderedImage(RenderInfo info) {
+			return this;
+		}
+
+		public Image getSWTImage() {
+			renderOrder.add(name);
+			synchronized (gate) {
+				while (!open) {
+					try {
+						gate.wait();
+					} catch (InterruptedException e) {
+						return null;
+					}
+				}
+			}
+			rendered = true;
+			return null;
+		}
+
+		public boolean isRendered() {
+			return rendered;
+		}
+
+		public Object getAdapter(Class adapter) {
+			return null;
+		}
+	}
+
+	/**
+	 * Records the images it is notified about.
+	 */
+	private class Listener implements RenderingListener {
+
+		final List images = new ArrayList();
+
+		public void paintFigureWhileRendering(Graphics g) {
+			// do nothing
+		}
+
+		public void imageRendered(RenderedImage rndImg) {
+			images.add(rndImg);
+		}
+	}
+
+	private final Object gate = new Object();
+
+	private boolean open = false;
+
+	private final List renderOrder = Collections.synchronizedList(new ArrayList());
+
+	/** the notifications queued for the display thread */
+	private final List batches = Collections.synchronizedList(new ArrayList());
+
+	private RenderingExecutor executor = null;
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(RenderingExecutorTest.class);
+	}
+
+	public RenderingExecutorTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() {
+		executor = new RenderingExecutor(1) {
+
+			protected void asyncExec(Runnable runnable) {
+				batches.add(runnable);
+			}
+		};
+	}
+
+	protected void tearDown() {
+		openGate();
+	}
+
+	private void openGate() {
+		synchronized (gate) {
+			open = true;
+			gate.notifyAll();
+		}
+	}
+
+	private void waitForRendering(long count) throws InterruptedException {
+		for (int i = 0; i < 500 && executor.getRenderedCount() < count; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, executor.getRenderedCount());
+		// the notification is queued right after the rendering is counted
+		for (int i = 0; i < 500 && batches.isEmpty(); i++) {
+			Thread.sleep(10);
+		}
+	}
+
+	private void waitForStart(int count) throws InterruptedException {
+		for (int i = 0; i < 500 && renderOrder.size() < count; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, renderOrder.size());
+	}
+
+	private void runBatches() {
+		Runnable[] runnables = (Runnable[]) batches.toArray(new Runnable[batches.size()]);
+		batches.clear();
+		for (int i = 0; i < runnables.length; i++) {
+			runnables[i].run();
+		}
+	}
+
+	public void test_sameImageIsRenderedOnce() throws InterruptedException {
+		Fixture image = new Fixture("a"); //$NON-NLS-1$
+		Listener first = new Listener();
+		Listener second = new Listener();
+
+		executor.submit(image, first, RenderingExecutor.PRIORITY_VISIBLE);
+		executor.submit(image, second, RenderingExecutor.PRIORITY_VISIBLE);
+		openGate();
+		waitForRendering(1);
+		runBatches();
+
+		assertEquals(1, renderOrder.size());
+		assertEquals(1, executor.getSharedCount());
+		assertEquals(Collections.singletonList(image), first.images);
+		assertEquals(Collections.singletonList(image), second.images);
+	}
+
+	public void test_newRequestCancelsPrevious() throws InterruptedException {
+		Fixture busy = new Fixture("busy"); //$NON-NLS-1$
+		Fixture stale = new Fixture("stale"); //$NON-NLS-1$
+		Fixture current = new Fixture("current"); //$NON-NLS-1$
+		Listener listener = new Listener();
+
+		executor.submit(busy, new Listener(), RenderingExecutor.PRIORITY_VISIBLE);
+		waitForStart(1);
+		RenderingExecutor.RenderingRequest request = executor.submit(stale,
+			listener, RenderingExecutor.PRIORITY_VISIBLE);
+		executor.submit(current, listener, RenderingExecutor.PRIORITY_VISIBLE);
+		openGate();
+		waitForRendering(2);
+		runBatches();
+
+		assertTrue(request.isCancelled());
+		assertEquals(1, executor.getCancelledCount());
+		assertFalse(renderOrder.contains("stale")); //$NON-NLS-1$
+		assertEquals(Collections.singletonList(current), listener.images);
+	}
+
+	public void test_priorityThenMostRecentFirst() throws InterruptedException {
+		executor.submit(new Fixture("busy"), new Listener(), //$NON-NLS-1$
+			RenderingExecutor.PRIORITY_VISIBLE);
+		waitForStart(1);
+		executor.submit(new Fixture("background"), new Listener(), //$NON-NLS-1$
+			RenderingExecutor.PRIORITY_BACKGROUND);
+		executor.submit(new Fixture("old"), new Listener(), //$NON-NLS-1$
+			RenderingExecutor.PRIORITY_VISIBLE);
+		executor.submit(new Fixture("new"), new Listener(), //$NON-NLS-1$
+			RenderingExecutor.PRIORITY_VISIBLE);
+		openGate();
+		waitForRendering(4);
+
+		assertEquals("busy", renderOrder.get(0)); //$NON-NLS-1$
+		assertEquals("new", renderOrder.get(1)); //$NON-NLS-1$
+		assertEquals("old", renderOrder.get(2)); //$NON-NLS-1$
+		assertEquals("background", renderOrder.get(3)); //$NON-NLS-1$
+	}
+
+	public void test_notificationsAreBatched() throws InterruptedException {
+		List listeners = new ArrayList();
+		for (int i = 0; i < 10; i++) {
+			Listener listener = new Listener();
+			listeners.add(listener);
+			executor.submit(new Fixture(String.valueOf(i)), listener,
+				RenderingExecutor.PRIORITY_VISIBLE);
+		}
+		openGate();
+		waitForRendering(10);
+
+		// nothing ran on the display thread yet, so one notification is queued
+		assertEquals(1, batches.size());
+		runBatches();
+		assertEquals(1, executor.getBatchCount());
+		for (int i = 0; i < listeners.size(); i++) {
+			assertEquals(1, ((Listener) listeners.get(i)).images.size());
+		}
+	}
+
+	public void test_cancelledListenerIsNotNotified() throws InterruptedException {
+		Listener listener = new Listener();
+		RenderingExecutor.RenderingRequest request = executor.submit(
+			new Fixture("a"), listener, RenderingExecutor.PRIORITY_VISIBLE); //$NON-NLS-1$
+		openGate();
+		waitForRendering(1);
+		executor.cancel(request);
+		runBatches();
+
+		assertTrue(listener.images.isEmpty());
+	}
+
+	public void test_errorDoesNotLeakWorkerOrTask() throws InterruptedException {
+		final int[] failures = new int[] {1};
+		Fixture failing = new Fixture("failing") { //$NON-NLS-1$
+
+			public Image getSWTImage() {
+				if (failures[0] > 0) {
+					failures[0]--;
+					renderOrder.add("error"); //$NON-NLS-1$
+					throw new LinkageError("rendering failed"); //$NON-NLS-1$
+				}
+				return super.getSWTImage();
+			}
+		};
+		openGate();
+		executor.submit(failing, new Listener(), RenderingExecutor.PRIORITY_VISIBLE);
+		waitForStart(1);
+		for (int i = 0; i < 500 && executor.getRenderedCount() < 1; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, executor.getRenderedCount());
+
+		// the only worker slot is free again, and the image can be requested
+		// again
+		Listener listener = new Listener();
+		executor.submit(new Fixture("next"), new Listener(), //$NON-NLS-1$
+			RenderingExecutor.PRIORITY_VISIBLE);
+		executor.submit(failing, listener, RenderingExecutor.PRIORITY_VISIBLE);
+		waitForRendering(3);
+		runBatches();
+
+		assertEquals(Collections.singletonList(failing), listener.images);
+	}
+
+}
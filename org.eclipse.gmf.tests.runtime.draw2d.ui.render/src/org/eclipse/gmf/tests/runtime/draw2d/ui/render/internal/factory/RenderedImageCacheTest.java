@@ -0,0 +1,223 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.factory;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.gmf.runtime.draw2d.ui.render.RenderedImage;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.AbstractRenderedImage;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageCache;
+import org.eclipse.gmf.runtime.draw2d.ui.render.internal.factory.RenderedImageKey;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tests the byte accounting, eviction and statistics of the
+ * {@link RenderedImageCache}.
+ */
+public class RenderedImageCacheTest extends TestCase {
+
+	/**
+	 * An image that is never rasterized.
+	 */
+	protected static class Fixture extends AbstractRenderedImage {
+
+		public Fixture(byte[] buffer, RenderedImageKey key) {
+			super(buffer, key);
+		}
+
+		protected Image renderImage() {
+			return null;
+		}
+	}
+
+	/**
+	 * An image rasterized to a one pixel SWT image.
+	 */
+	protected static class RenderedFixture extends AbstractRenderedImage {
+
+		public RenderedFixture(byte[] buffer, RenderedImageKey key) {
+			super(buffer, key);
+		}
+
+		protected Image renderImage() {
+			return new Image(Display.getDefault(), 1, 1);
+		}
+
+		protected void finalize() {
+			// leaves the SWT image to be disposed by the cache
+		}
+	}
+
+	private RenderedImageCache cache = null;
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(RenderedImageCacheTest.class);
+	}
+
+	public RenderedImageCacheTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() {
+		// room for two 10x10 images of 100 bytes
+		cache = new RenderedImageCache(2 * (100 + 400), 1000);
+	}
+
+	private RenderedImageKey key(byte[] buffer, int size) {
+		RenderedImageKey key = new RenderedImageKey();
+		key.setValues(size, size, true, true, null, null);
+		return new RenderedImageKey(key, cache.getChecksum(buffer), null);
+	}
+
+	private RenderedImage put(byte[] buffer, RenderedImageKey key) {
+		RenderedImage image = new Fixture(buffer, key);
+		cache.putImage(key, image, buffer.length);
+		return image;
+	}
+
+	public void test_checksum() {
+		byte[] buffer = new byte[100];
+		byte[] same = new byte[100];
+		byte[] other = new byte[100];
+		other[50] = 1;
+
+		assertEquals(cache.getChecksum(buffer), cache.getChecksum(same));
+		assertFalse(cache.getChecksum(buffer) == cache.getChecksum(other));
+	}
+
+	public void test_hitAndMiss() {
+		byte[] buffer = new byte[100];
+
+		assertNull(cache.getImage(key(buffer, 10)));
+		RenderedImage image = put(buffer, key(buffer, 10));
+
+		assertSame(image, cache.getImage(key(buffer, 10)));
+		assertNull(cache.getImage(key(buffer, 20)));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(500, cache.getImageBytes());
+	}
+
+	public void test_leastRecentlyUsedIsEvicted() {
+		byte[] first = new byte[100];
+		byte[] second = new byte[100];
+		byte[] third = new byte[100];
+		second[0] = 1;
+		third[0] = 2;
+
+		put(first, key(first, 10));
+		put(second, key(second, 10));
+		// touch the first image so that the second one is evicted
+		cache.getImage(key(first, 10));
+		put(third, key(third, 10));
+
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(1000, cache.getImageBytes());
+	}
+
+	public void test_evictedImageInUseIsFound() {
+		byte[] first = new byte[100];
+		byte[] second = new byte[100];
+		byte[] third = new byte[100];
+		second[0] = 1;
+		third[0] = 2;
+
+		RenderedImage image = put(first, key(first, 10));
+		put(second, key(second, 10));
+		put(third, key(third, 10));
+		assertEquals(1, cache.getEvictionCount());
+
+		// still referenced, so it is found and kept again
+		assertSame(image, cache.getImage(key(first, 10)));
+	}
+
+	public void test_documents() {
+		Object document = new Object();
+
+		assertNull(cache.getDocument(1, "a.svg")); //$NON-NLS-1$
+		cache.putDocument(1, "a.svg", document, 100); //$NON-NLS-1$
+
+		assertSame(document, cache.getDocument(1, "a.svg")); //$NON-NLS-1$
+		assertNull(cache.getDocument(1, "b.svg")); //$NON-NLS-1$
+		assertEquals(1, cache.getDocumentHitCount());
+		assertEquals(2, cache.getDocumentMissCount());
+
+		// a document of 100 bytes is estimated at 800 bytes
+		cache.putDocument(2, "b.svg", new Object(), 100); //$NON-NLS-1$
+		assertEquals(1, cache.getDocumentEvictionCount());
+		assertNull(cache.getDocument(1, "a.svg")); //$NON-NLS-1$
+	}
+
+	public void test_setLimits() {
+		byte[] buffer = new byte[100];
+		put(buffer, key(buffer, 10));
+
+		cache.setLimits(0, 0);
+
+		assertEquals(0, cache.getImageBytes());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	public void test_entryCount() {
+		cache = new RenderedImageCache(Long.MAX_VALUE, Long.MAX_VALUE, 2);
+		byte[] first = new byte[100];
+		byte[] second = new byte[100];
+		byte[] third = new byte[100];
+		second[0] = 1;
+		third[0] = 2;
+
+		put(first, key(first, 10));
+		put(second, key(second, 10));
+		put(third, key(third, 10));
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(1000, cache.getImageBytes());
+
+		cache.putDocument(1, "a.svg", new Object(), 100); //$NON-NLS-1$
+		cache.putDocument(2, "b.svg", new Object(), 100); //$NON-NLS-1$
+		cache.putDocument(3, "c.svg", new Object(), 100); //$NON-NLS-1$
+		assertEquals(1, cache.getDocumentEvictionCount());
+		assertNull(cache.getDocument(1, "a.svg")); //$NON-NLS-1$
+	}
+
+	public void test_evictedImageIsDisposed() {
+		byte[] first = new byte[100];
+		byte[] second = new byte[100];
+		byte[] third = new byte[100];
+		second[0] = 1;
+		third[0] = 2;
+
+		RenderedImage image = new RenderedFixture(first, key(first, 10));
+		cache.putImage(key(first, 10), image, first.length);
+		Image swtImage = image.getSWTImage();
+		put(second, key(second, 10));
+		put(third, key(third, 10));
+		assertEquals(1, cache.getEvictionCount());
+		assertFalse(swtImage.isDisposed());
+
+		image = null;
+		for (int i = 0; i < 100 && cache.getDisposalCount() == 0; i++) {
+			System.gc();
+			cache.getImage(key(third, 10));
+		}
+		assertEquals(1, cache.getDisposalCount());
+		assertTrue(swtImage.isDisposed());
+	}
+
+}
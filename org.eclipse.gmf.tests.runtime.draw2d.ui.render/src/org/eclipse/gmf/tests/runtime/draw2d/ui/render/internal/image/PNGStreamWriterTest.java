@@ -0,0 +1,168 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.image.PNGStreamWriter;
+
+/**
+ * Tests that the images written band by band by the {@link PNGStreamWriter}
+ * are decoded to the pixels written.
+ */
+public class PNGStreamWriterTest extends TestCase {
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(PNGStreamWriterTest.class);
+	}
+
+	/**
+	 * Creates pixels with flat areas, as in diagrams, and some noise.
+	 */
+	private int[] createPixels(int width, int height) {
+		Random random = new Random(0);
+		int[] pixels = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int pixel = (x / 20 + y / 20) % 2 == 0 ? 0xffffff
+					: 0x3366cc;
+				if (random.nextInt(10) == 0) {
+					pixel = random.nextInt();
+				}
+				pixels[y * width + x] = pixel;
+			}
+		}
+		return pixels;
+	}
+
+	private BufferedImage writeAndRead(int[] pixels, int width, int height,
+			int bandHeight)
+		throws IOException {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		PNGStreamWriter writer = new PNGStreamWriter(stream, width, height);
+		for (int y = 0; y < height; y += bandHeight) {
+			writer.writeRows(pixels, y * width, width, Math.min(bandHeight,
+				height - y));
+		}
+		writer.close();
+		return ImageIO.read(new ByteArrayInputStream(stream.toByteArray()));
+	}
+
+	private void assertPixels(int[] pixels, BufferedImage image) {
+		int width = image.getWidth();
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < width; x++) {
+				assertEquals("Pixel " + x + "," + y, //$NON-NLS-1$ //$NON-NLS-2$
+					pixels[y * width + x] & 0xffffff, image.getRGB(x, y) & 0xffffff);
+			}
+		}
+	}
+
+	public void testWriteBands()
+		throws IOException {
+		int[] pixels = createPixels(317, 203);
+		int[] bandHeights = new int[] {1, 64, 203};
+		for (int i = 0; i < bandHeights.length; i++) {
+			BufferedImage image = writeAndRead(pixels, 317, 203,
+				bandHeights[i]);
+			assertEquals(317, image.getWidth());
+			assertEquals(203, image.getHeight());
+			assertPixels(pixels, image);
+		}
+	}
+
+	/**
+	 * Writes an image whose compressed data spans several IDAT chunks.
+	 */
+	public void testWriteLargeImage()
+		throws IOException {
+		int[] pixels = createPixels(1500, 1000);
+		assertPixels(pixels, writeAndRead(pixels, 1500, 1000, 256));
+	}
+
+	public void testWriteRowsWithOffset()
+		throws IOException {
+		// the image is the right half of the pixels
+		int[] pixels = createPixels(40, 10);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		PNGStreamWriter writer = new PNGStreamWriter(stream, 20, 10);
+		writer.writeRows(pixels, 20, 40, 10);
+		writer.close();
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(stream
+			.toByteArray()));
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 20; x++) {
+				assertEquals(pixels[y * 40 + 20 + x] & 0xffffff, image.getRGB(
+					x, y) & 0xffffff);
+			}
+		}
+	}
+
+	public void testRowCount()
+		throws IOException {
+		int[] pixels = createPixels(10, 10);
+		PNGStreamWriter writer = new PNGStreamWriter(
+			new ByteArrayOutputStream(), 10, 10);
+		writer.writeRows(pixels, 0, 10, 5);
+		try {
+			writer.close();
+			fail("Closed with missing rows"); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			writer.writeRows(pixels, 0, 10, 10);
+			fail("Wrote more rows than the height"); //$NON-NLS-1$
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		writer.writeRows(pixels, 50, 10, 5);
+		writer.close();
+	}
+
+	/**
+	 * Tests that a writer whose image is not complete can be disposed, and
+	 * that disposing a closed writer does nothing.
+	 */
+	public void testDispose()
+		throws IOException {
+		int[] pixels = createPixels(10, 10);
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		PNGStreamWriter writer = new PNGStreamWriter(stream, 10, 10);
+		writer.writeRows(pixels, 0, 10, 5);
+		int written = stream.size();
+		writer.dispose();
+		// no end of image is written
+		assertEquals(written, stream.size());
+		writer.dispose();
+
+		writer = new PNGStreamWriter(new ByteArrayOutputStream(), 10, 10);
+		writer.writeRows(pixels, 0, 10, 10);
+		writer.close();
+		writer.dispose();
+	}
+}
@@ -0,0 +1,153 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.render.internal.svg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+import org.eclipse.draw2d.ColorConstants;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export.GraphicsSVG;
+import org.eclipse.gmf.runtime.draw2d.ui.render.awt.internal.svg.export.SVGStreamWriter;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests that the SVG documents written while they are drawn by the
+ * {@link SVGStreamWriter} define all that their elements reference.
+ */
+public class SVGStreamWriterTest extends TestCase {
+
+	private static final Pattern URL_REFERENCE = Pattern
+		.compile("url\\(#([^)]*)\\)"); //$NON-NLS-1$
+
+	public static void main(String[] args) {
+		TestRunner.run(suite());
+	}
+
+	public static Test suite() {
+		return new TestSuite(SVGStreamWriterTest.class);
+	}
+
+	/**
+	 * Draws a clipped rectangle and a gradient on each side of a flush.
+	 */
+	private Document writeClippedFigures()
+		throws Exception {
+		GraphicsSVG graphics = GraphicsSVG.getInstance(new Rectangle(0, 0,
+			200, 100));
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		SVGStreamWriter writer = new SVGStreamWriter(graphics,
+			"0 0 200 100", stream); //$NON-NLS-1$
+		try {
+			graphics.setForegroundColor(ColorConstants.blue);
+			graphics.setBackgroundColor(ColorConstants.yellow);
+
+			graphics.pushState();
+			graphics.setClip(new Rectangle(10, 10, 50, 50));
+			graphics.fillRectangle(0, 0, 100, 100);
+			graphics.fillGradient(0, 0, 100, 100, true);
+			graphics.popState();
+			writer.flush();
+
+			graphics.pushState();
+			graphics.setClip(new Rectangle(110, 20, 40, 40));
+			graphics.fillRectangle(100, 0, 100, 100);
+			graphics.popState();
+			writer.close();
+		} finally {
+			graphics.dispose();
+		}
+		return parse(stream.toByteArray());
+	}
+
+	private Document parse(byte[] bytes)
+		throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		return factory.newDocumentBuilder().parse(
+			new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Collects the <code>url(#id)</code> references of the attributes of an
+	 * element and of its descendants.
+	 */
+	private void collectReferences(Element element, Set references) {
+		NamedNodeMap attributes = element.getAttributes();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Matcher matcher = URL_REFERENCE.matcher(((Attr) attributes
+				.item(i)).getValue());
+			while (matcher.find()) {
+				references.add(matcher.group(1));
+			}
+		}
+		NodeList children = element.getChildNodes();
+		for (int i = 0; i < children.getLength(); i++) {
+			if (children.item(i) instanceof Element) {
+				collectReferences((Element) children.item(i), references);
+			}
+		}
+	}
+
+	/**
+	 * Collects the IDs of the descendants of the <code>defs</code> elements.
+	 */
+	private Set collectDefinitionIds(Document document) {
+		Set ids = new HashSet();
+		NodeList defs = document.getElementsByTagNameNS("*", "defs"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 0; i < defs.getLength(); i++) {
+			NodeList definitions = ((Element) defs.item(i))
+				.getElementsByTagNameNS("*", "*"); //$NON-NLS-1$ //$NON-NLS-2$
+			for (int j = 0; j < definitions.getLength(); j++) {
+				String id = ((Element) definitions.item(j)).getAttribute("id"); //$NON-NLS-1$
+				if (id.length() > 0) {
+					ids.add(id);
+				}
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Tests that the clipping paths and the gradients referenced by the
+	 * elements flushed before the end of the document are defined.
+	 */
+	public void testDefinitionsOfFlushedElements()
+		throws Exception {
+		Document document = writeClippedFigures();
+		Set references = new HashSet();
+		collectReferences(document.getDocumentElement(), references);
+		// the clipping paths of the figures drawn before and after the
+		// flush
+		assertTrue(references.size() >= 2);
+
+		Set ids = collectDefinitionIds(document);
+		references.removeAll(ids);
+		assertTrue("Undefined references: " + references, //$NON-NLS-1$
+			references.isEmpty());
+	}
+}
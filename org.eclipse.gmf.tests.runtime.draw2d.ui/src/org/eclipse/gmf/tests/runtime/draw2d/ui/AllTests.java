@@ -20,11 +20,15 @@ import junit.textui.TestRunner;
 
 import org.eclipse.core.runtime.IPlatformRunnable;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.graph.CompositeGraphLayoutTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.graph.LayeredGraphLayoutTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.figures.ConnectionLayerExTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.parts.ThumbnailExTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers.AvoidObstructionsRoutingTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers.LeftRightForestRouterTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers.RectilinearRouterTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers.TopDownForestRouterTest;
 import org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers.TreeRouterTest;
+import org.eclipse.gmf.tests.runtime.draw2d.ui.text.TextUtilitiesExTest;
 
 public class AllTests extends TestCase implements IPlatformRunnable {
 
@@ -44,6 +48,10 @@ public class AllTests extends TestCase implements IPlatformRunnable {
 		suite.addTestSuite( RectilinearRouterTest.class );
         suite.addTestSuite( CompositeGraphLayoutTest.class );
         suite.addTestSuite( AvoidObstructionsRoutingTest.class );
+        suite.addTestSuite( ConnectionLayerExTest.class );
+        suite.addTestSuite( TextUtilitiesExTest.class );
+        suite.addTestSuite( LayeredGraphLayoutTest.class );
+        suite.addTestSuite( ThumbnailExTest.class );
 		
         return suite;
 	}
@@ -11,16 +11,23 @@
 
 package org.eclipse.gmf.tests.runtime.draw2d.ui.graph;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.eclipse.draw2d.graph.CompoundDirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
 import org.eclipse.draw2d.graph.Edge;
 import org.eclipse.draw2d.graph.EdgeList;
 import org.eclipse.draw2d.graph.Node;
 import org.eclipse.draw2d.graph.NodeList;
 import org.eclipse.draw2d.graph.Subgraph;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.graph.AdvancedSubGraph;
 import org.eclipse.gmf.runtime.draw2d.ui.internal.graph.CompositeDirectedGraphLayout;
 
 
@@ -82,6 +89,120 @@ public class CompositeGraphLayoutTest
         layout.visit(g);
         assertTrue(n1.x!=X);
     }
-    
-    
+
+    /**
+     * Builds shapes holding two compartments of connected nodes, the shapes
+     * being connected to each other, and a few edges between nodes of
+     * different shapes.
+     */
+    private CompoundDirectedGraph createCompartmentsGraph(int shapeCount) {
+        Random random = new Random(0);
+        NodeList nodes = new NodeList();
+        EdgeList edges = new EdgeList();
+        Node[] shapes = new Node[shapeCount];
+        Node[] firstNodes = new Node[shapeCount];
+        for (int i = 0; i < shapeCount; i++) {
+            AdvancedSubGraph shape = new AdvancedSubGraph("S" + i); //$NON-NLS-1$
+            shape.setAutoSize(true);
+            nodes.add(shapes[i] = shape);
+            for (int j = 0; j < 2; j++) {
+                AdvancedSubGraph compartment = new AdvancedSubGraph("C" + i + j, shape); //$NON-NLS-1$
+                compartment.setAutoSize(true);
+                compartment.setHasBufferedZone(true);
+                Node[] members = new Node[10 + random.nextInt(20)];
+                for (int k = 0; k < members.length; k++) {
+                    members[k] = new Node("N" + i + j + k, compartment); //$NON-NLS-1$
+                    members[k].width = 40 + random.nextInt(40);
+                    members[k].height = 30;
+                    if (k > 0) {
+                        edges.add(new Edge(members[random.nextInt(k)], members[k]));
+                    }
+                }
+                firstNodes[i] = members[0];
+            }
+            if (i > 0) {
+                edges.add(new Edge(shapes[random.nextInt(i)], shape));
+            }
+        }
+        for (int i = 0; i < shapeCount / 10; i++) {
+            edges.add(new Edge(firstNodes[random.nextInt(shapeCount)],
+                firstNodes[random.nextInt(shapeCount)]));
+        }
+        CompoundDirectedGraph g = new CompoundDirectedGraph();
+        g.nodes = nodes;
+        g.edges = edges;
+        return g;
+    }
+
+    private void assertSameLayout(NodeList expected, NodeList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Node e = expected.getNode(i);
+            Node a = actual.getNode(i);
+            assertEquals(e.data, a.data);
+            assertEquals(e.x, a.x);
+            assertEquals(e.y, a.y);
+            assertEquals(e.width, a.width);
+            assertEquals(e.height, a.height);
+            if (e instanceof Subgraph) {
+                assertSameLayout(((Subgraph) e).members, ((Subgraph) a).members);
+            }
+        }
+    }
+
+    public void testParallelLayout() {
+        CompoundDirectedGraph serial = createCompartmentsGraph(40);
+        new CompositeDirectedGraphLayout().visit(serial);
+
+        CompoundDirectedGraph parallel = createCompartmentsGraph(40);
+        CompositeDirectedGraphLayout layout = new CompositeDirectedGraphLayout();
+        layout.setParallelism(4);
+        layout.visit(parallel);
+
+        assertSameLayout(serial.nodes, parallel.nodes);
+    }
+
+    /**
+     * Lays out a single small shape, whose compartments are laid out on the
+     * calling thread whatever the parallelism.
+     */
+    public void testParallelLayoutOfSingleSubgraph() {
+        CompoundDirectedGraph serial = createCompartmentsGraph(1);
+        new CompositeDirectedGraphLayout().visit(serial);
+
+        CompoundDirectedGraph parallel = createCompartmentsGraph(1);
+        final Set threads = Collections.synchronizedSet(new HashSet());
+        CompositeDirectedGraphLayout layout = new CompositeDirectedGraphLayout() {
+
+            protected DirectedGraphLayout createLayout() {
+                threads.add(Thread.currentThread());
+                return super.createLayout();
+            }
+        };
+        layout.setParallelism(4);
+        layout.visit(parallel);
+
+        assertSameLayout(serial.nodes, parallel.nodes);
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    /**
+     * Lays out shapes with compartments one after the other and in parallel
+     * on all the processors, and checks that the layouts are the same.
+     */
+    public void testParallelLayoutPerformance() {
+        int[] sizes = new int[] {10, 40, 160};
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < sizes.length; i++) {
+            CompoundDirectedGraph serial = createCompartmentsGraph(sizes[i]);
+            new CompositeDirectedGraphLayout().visit(serial);
+
+            CompoundDirectedGraph parallel = createCompartmentsGraph(sizes[i]);
+            CompositeDirectedGraphLayout layout = new CompositeDirectedGraphLayout();
+            layout.setParallelism(processors);
+            layout.visit(parallel);
+
+            assertSameLayout(serial.nodes, parallel.nodes);
+        }
+    }
 }
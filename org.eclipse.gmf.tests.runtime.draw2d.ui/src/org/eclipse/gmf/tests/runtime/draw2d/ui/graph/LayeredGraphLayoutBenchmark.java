@@ -0,0 +1,90 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.graph;
+
+import org.eclipse.draw2d.PositionConstants;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.gmf.runtime.draw2d.ui.graph.GMFDirectedGraphLayout;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.graph.LayeredGraphLayout;
+
+/**
+ * Times the <code>LayeredGraphLayout</code> of generated graphs of up to
+ * 10,000 nodes and, for the smaller ones, the
+ * <code>GMFDirectedGraphLayout</code> of the same graphs.
+ * <P>
+ * Running this class as a Java application prints the timings. It is not part
+ * of the test suite; {@link LayeredGraphLayoutTest} only checks the layouts
+ * of such graphs.
+ */
+public class LayeredGraphLayoutBenchmark {
+
+	private static final int[] SIZES = new int[] {250, 500, 1000, 2000, 5000,
+		10000};
+
+	/**
+	 * The largest graphs also laid out with the
+	 * <code>GMFDirectedGraphLayout</code>
+	 */
+	private static final int DIRECTED_GRAPH_LAYOUT_MAX_SIZE = 500;
+
+	private static final int WARMUP_RUNS = 5;
+
+	private static final int RUNS = 5;
+
+	private LayeredGraphLayoutBenchmark() {
+		// not instantiated
+	}
+
+	/**
+	 * Returns the best time of a number of layouts of a generated graph,
+	 * after a few warm-up layouts, in milliseconds.
+	 */
+	private static long time(int size, long seed, boolean layered) {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+			DirectedGraph g = LayeredGraphLayoutTest.createGraph(size, seed,
+				PositionConstants.SOUTH);
+			long start = System.nanoTime();
+			if (layered) {
+				new LayeredGraphLayout().visit(g);
+			} else {
+				new GMFDirectedGraphLayout().visit(g);
+			}
+			long time = System.nanoTime() - start;
+			if (i >= WARMUP_RUNS) {
+				best = Math.min(best, time);
+			}
+		}
+		return best / 1000000;
+	}
+
+	/**
+	 * Prints the best layout time and the crossing count of each generated
+	 * graph.
+	 */
+	public static void main(String[] args) {
+		for (int i = 0; i < SIZES.length; i++) {
+			DirectedGraph g = LayeredGraphLayoutTest.createGraph(SIZES[i], i,
+				PositionConstants.SOUTH);
+			LayeredGraphLayout layout = new LayeredGraphLayout();
+			layout.visit(g);
+
+			String line = SIZES[i] + " nodes: " + time(SIZES[i], i, true) //$NON-NLS-1$
+				+ " ms, " + layout.getCrossingCount() + " crossings layered"; //$NON-NLS-1$ //$NON-NLS-2$
+			if (SIZES[i] <= DIRECTED_GRAPH_LAYOUT_MAX_SIZE) {
+				line += ", " + time(SIZES[i], i, false) //$NON-NLS-1$
+					+ " ms with the directed graph layout"; //$NON-NLS-1$
+			}
+			System.out.println(line);
+		}
+	}
+}
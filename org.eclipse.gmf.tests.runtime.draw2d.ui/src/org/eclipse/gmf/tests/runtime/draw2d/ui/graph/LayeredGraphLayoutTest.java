@@ -0,0 +1,199 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.draw2d.PositionConstants;
+import org.eclipse.draw2d.geometry.Insets;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Node;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.graph.LayeredGraphLayout;
+
+/**
+ * Tests the placement of the nodes and edges by the
+ * <code>LayeredGraphLayout</code>, including on large generated graphs.
+ */
+public class LayeredGraphLayoutTest
+	extends TestCase {
+
+	static final int PADDING = 30;
+
+	public static Test suite() {
+		return new TestSuite(LayeredGraphLayoutTest.class);
+	}
+
+	/**
+	 * Generates a graph whose edges mostly go from a node to one of the next
+	 * nodes, a tenth of them going back.
+	 */
+	static DirectedGraph createGraph(int nodeCount, long seed, int direction) {
+		Random random = new Random(seed);
+		DirectedGraph g = new DirectedGraph();
+		g.setDirection(direction);
+		for (int i = 0; i < nodeCount; i++) {
+			Node n = new Node("N" + i); //$NON-NLS-1$
+			n.width = 40 + random.nextInt(80);
+			n.height = 30 + random.nextInt(40);
+			n.setPadding(new Insets(PADDING));
+			g.nodes.add(n);
+		}
+		for (int i = 0; i < nodeCount * 3 / 2; i++) {
+			int source = random.nextInt(nodeCount);
+			int target = Math.min(nodeCount - 1, source + 1 + random.nextInt(20));
+			if (source == target) {
+				continue;
+			}
+			if (random.nextInt(10) == 0) {
+				int swap = source;
+				source = target;
+				target = swap;
+			}
+			g.edges.add(new Edge(g.nodes.getNode(source), g.nodes.getNode(target)));
+		}
+		return g;
+	}
+
+	/**
+	 * Asserts that the nodes laid out in the same layer are separated by
+	 * their paddings, and that the edges go from the side of their source
+	 * facing the next layer to the side of their target facing the previous
+	 * one. The nodes of each layer are sorted so that only neighbours are
+	 * compared.
+	 */
+	private void assertLaidOut(DirectedGraph g) {
+		final boolean horizontal = g.getDirection() == PositionConstants.EAST;
+		Map layers = new HashMap();
+		for (int i = 0; i < g.nodes.size(); i++) {
+			Node n = g.nodes.getNode(i);
+			Integer layer = new Integer(horizontal ? n.x : n.y);
+			List nodes = (List) layers.get(layer);
+			if (nodes == null) {
+				nodes = new ArrayList();
+				layers.put(layer, nodes);
+			}
+			nodes.add(n);
+		}
+		Comparator byPosition = new Comparator() {
+
+			public int compare(Object o1, Object o2) {
+				Node a = (Node) o1;
+				Node b = (Node) o2;
+				return horizontal ? a.y - b.y : a.x - b.x;
+			}
+		};
+		for (Iterator it = layers.values().iterator(); it.hasNext();) {
+			List nodes = (List) it.next();
+			Collections.sort(nodes, byPosition);
+			for (int i = 1; i < nodes.size(); i++) {
+				Node a = (Node) nodes.get(i - 1);
+				Node b = (Node) nodes.get(i);
+				int a1 = horizontal ? a.y + a.height : a.x + a.width;
+				int b0 = horizontal ? b.y : b.x;
+				assertTrue(a1 + 2 * PADDING <= b0 + 1);
+			}
+		}
+		for (int i = 0; i < g.edges.size(); i++) {
+			Edge e = g.edges.getEdge(i);
+			PointList points = e.getPoints();
+			assertTrue(points.size() >= 2);
+			assertOnBorder(e.source, points.getFirstPoint(), horizontal);
+			assertOnBorder(e.target, points.getLastPoint(), horizontal);
+		}
+	}
+
+	private void assertOnBorder(Node n, Point p, boolean horizontal) {
+		if (horizontal) {
+			assertTrue(p.y >= n.y && p.y <= n.y + n.height);
+			assertTrue(p.x == n.x || p.x == n.x + n.width);
+		} else {
+			assertTrue(p.x >= n.x && p.x <= n.x + n.width);
+			assertTrue(p.y == n.y || p.y == n.y + n.height);
+		}
+	}
+
+	public void testNodesAndEdgesPlacement() {
+		for (int seed = 0; seed < 10; seed++) {
+			DirectedGraph g = createGraph(100, seed, PositionConstants.SOUTH);
+			new LayeredGraphLayout().visit(g);
+			assertLaidOut(g);
+
+			g = createGraph(100, seed, PositionConstants.EAST);
+			new LayeredGraphLayout().visit(g);
+			assertLaidOut(g);
+		}
+	}
+
+	public void testEdgesPointDownUnlessInCycle() {
+		Node n1, n2, n3, n4;
+		DirectedGraph g = new DirectedGraph();
+		g.nodes.add(n1 = new Node("N1")); //$NON-NLS-1$
+		g.nodes.add(n2 = new Node("N2")); //$NON-NLS-1$
+		g.nodes.add(n3 = new Node("N3")); //$NON-NLS-1$
+		g.nodes.add(n4 = new Node("N4")); //$NON-NLS-1$
+		g.setDefaultPadding(new Insets(PADDING));
+		g.edges.add(new Edge(n1, n2));
+		g.edges.add(new Edge(n2, n3));
+		g.edges.add(new Edge(n1, n4));
+		// closes a cycle, so it is the one reversed
+		g.edges.add(new Edge(n3, n1));
+		new LayeredGraphLayout().visit(g);
+
+		assertTrue(n1.y < n2.y);
+		assertTrue(n2.y < n3.y);
+		assertTrue(n1.y < n4.y);
+		// the network simplex ranking keeps the edge to N4 short
+		assertEquals(n2.y, n4.y);
+		assertLaidOut(g);
+	}
+
+	public void testSweepsReduceCrossings() {
+		DirectedGraph g = createGraph(500, 0, PositionConstants.SOUTH);
+		LayeredGraphLayout layout = new LayeredGraphLayout();
+		layout.setMaxSweeps(0);
+		layout.visit(g);
+		long unswept = layout.getCrossingCount();
+
+		g = createGraph(500, 0, PositionConstants.SOUTH);
+		layout = new LayeredGraphLayout();
+		layout.visit(g);
+		assertTrue(layout.getCrossingCount() < unswept);
+	}
+
+	/**
+	 * Lays out large generated graphs with the <code>LayeredGraphLayout</code>
+	 * and checks their layouts. {@link LayeredGraphLayoutBenchmark} times the
+	 * layout of such graphs.
+	 */
+	public void testLayoutOfLargeGraphs() {
+		int[] sizes = new int[] {1000, 5000};
+		for (int i = 0; i < sizes.length; i++) {
+			DirectedGraph g = createGraph(sizes[i], i, PositionConstants.SOUTH);
+			new LayeredGraphLayout().visit(g);
+			assertLaidOut(g);
+		}
+	}
+}
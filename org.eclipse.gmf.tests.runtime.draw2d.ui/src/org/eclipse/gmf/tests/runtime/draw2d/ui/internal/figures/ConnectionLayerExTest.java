@@ -0,0 +1,224 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.internal.figures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.PointList;
+import org.eclipse.gmf.runtime.draw2d.ui.figures.PolylineConnectionEx;
+import org.eclipse.gmf.runtime.draw2d.ui.geometry.PointListUtilities;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.figures.ConnectionLayerEx;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tests the index the <code>ConnectionLayerEx</code> keeps of the segments of
+ * its connections to calculate the jump links.
+ */
+public class ConnectionLayerExTest extends TestCase {
+
+	/**
+	 * A connection that can be painted without a connection router.
+	 */
+	private static class TestConnection extends PolylineConnectionEx {
+
+		TestConnection() {
+			setJumpLinks(true);
+		}
+
+		void render(Graphics g) {
+			outlineShape(g);
+		}
+	}
+
+	/**
+	 * Graphics that records the polylines painted with it.
+	 */
+	private static class RecordingGraphics extends SWTGraphics {
+
+		final List polylines = new ArrayList();
+
+		RecordingGraphics(GC gc) {
+			super(gc);
+		}
+
+		public void drawPolyline(PointList points) {
+			polylines.add(points.getCopy());
+			super.drawPolyline(points);
+		}
+	}
+
+	private final Random random = new Random(0);
+
+	public ConnectionLayerExTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Creates a rectilinear line with a few long segments, so that the lines
+	 * of a diagram cross each other many times.
+	 */
+	private PointList createLine(int extent) {
+		PointList points = new PointList();
+		int x = random.nextInt(extent);
+		int y = random.nextInt(extent);
+		points.addPoint(x, y);
+		int segments = 1 + random.nextInt(3);
+		for (int i = 0; i < segments; i++) {
+			if (i % 2 == 0)
+				x = random.nextInt(extent);
+			else
+				y = random.nextInt(extent);
+			points.addPoint(x, y);
+		}
+		return points;
+	}
+
+	private List createConnections(IFigure parent, int count, int extent) {
+		List connections = new ArrayList(count);
+		for (int i = 0; i < count; i++) {
+			TestConnection connection = new TestConnection();
+			parent.add(connection);
+			connection.setPoints(createLine(extent));
+			connections.add(connection);
+		}
+		return connections;
+	}
+
+	private void assertCandidatesComplete(ConnectionLayerEx layer,
+			List connections) {
+		List children = layer.getChildren();
+		for (int i = 0; i < connections.size(); i++) {
+			PolylineConnectionEx connection = (PolylineConnectionEx) connections.get(i);
+			PointList line = connection.getSmoothPoints();
+			List candidates = layer.getJumpLinkCandidates(connection, line, true, true);
+
+			for (int j = 1; j < candidates.size(); j++) {
+				assertTrue(children.indexOf(candidates.get(j - 1)) < children
+					.indexOf(candidates.get(j)));
+			}
+			for (int j = 0; j < connections.size(); j++) {
+				PolylineConnectionEx other = (PolylineConnectionEx) connections.get(j);
+				if (other != connection
+					&& PointListUtilities.findIntersections(line, other
+						.getSmoothPoints(), new PointList(), new PointList())) {
+					assertTrue(candidates.contains(other));
+				}
+			}
+		}
+	}
+
+	public void testCandidatesIncludeIntersectingConnections() {
+		ConnectionLayerEx layer = new ConnectionLayerEx();
+		List connections = createConnections(layer, 300, 5000);
+		assertCandidatesComplete(layer, connections);
+
+		// move some connections and remove others
+		for (int i = 0; i < 30; i++) {
+			PolylineConnectionEx connection = (PolylineConnectionEx) connections
+				.get(random.nextInt(connections.size()));
+			connection.setPoints(createLine(5000));
+		}
+		for (int i = 0; i < 10; i++) {
+			PolylineConnectionEx connection = (PolylineConnectionEx) connections
+				.remove(random.nextInt(connections.size()));
+			layer.remove(connection);
+		}
+		assertCandidatesComplete(layer, connections);
+	}
+
+	public void testCandidatesBelowAndAbove() {
+		ConnectionLayerEx layer = new ConnectionLayerEx();
+		List connections = createConnections(layer, 100, 1000);
+		List children = layer.getChildren();
+
+		PolylineConnectionEx connection = (PolylineConnectionEx) connections.get(50);
+		int index = children.indexOf(connection);
+		List below = layer.getJumpLinkCandidates(connection, connection
+			.getSmoothPoints(), true, false);
+		List above = layer.getJumpLinkCandidates(connection, connection
+			.getSmoothPoints(), false, true);
+
+		for (int i = 0; i < below.size(); i++)
+			assertTrue(children.indexOf(below.get(i)) < index);
+		for (int i = 0; i < above.size(); i++)
+			assertTrue(children.indexOf(above.get(i)) > index);
+	}
+
+	/**
+	 * Checks that the connections of random diagrams paint the same jump
+	 * links inside a connection layer, which only tests the connections near
+	 * each one, and inside a plain figure, which makes each connection test
+	 * all the others.
+	 */
+	public void testJumpLinksMatchAllConnections() {
+		int[] sizes = new int[] {500, 1000, 2000};
+		Image image = new Image(Display.getDefault(), 200, 200);
+		GC gc = new GC(image);
+		try {
+			for (int i = 0; i < sizes.length; i++) {
+				// keep the density of the diagrams constant
+				int extent = (int) (100 * Math.sqrt(sizes[i]));
+
+				random.setSeed(i);
+				List connections = createConnections(new ConnectionLayerEx(),
+					sizes[i], extent);
+				List indexed = paint(connections, gc);
+				random.setSeed(i);
+				List all = paint(createConnections(new Figure(), sizes[i],
+					extent), gc);
+
+				assertEquals(sizes[i], indexed.size());
+				assertEquals(sizes[i], all.size());
+				int jumping = 0;
+				for (int j = 0; j < sizes[i]; j++) {
+					PointList points = (PointList) indexed.get(j);
+					assertTrue(Arrays.equals(((PointList) all.get(j))
+						.toIntArray(), points.toIntArray()));
+					if (points.size() > ((PolylineConnectionEx) connections
+						.get(j)).getSmoothPoints().size()) {
+						jumping++;
+					}
+				}
+				assertTrue(jumping > 0);
+			}
+		} finally {
+			gc.dispose();
+			image.dispose();
+		}
+	}
+
+	/**
+	 * @return the polyline painted by each connection
+	 */
+	private List paint(List connections, GC gc) {
+		RecordingGraphics graphics = new RecordingGraphics(gc);
+		try {
+			for (int i = 0; i < connections.size(); i++) {
+				((TestConnection) connections.get(i)).render(graphics);
+			}
+		} finally {
+			graphics.dispose();
+		}
+		return graphics.polylines;
+	}
+}
@@ -0,0 +1,333 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.internal.parts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.ScalableLayeredPane;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.gmf.runtime.draw2d.ui.internal.parts.ThumbnailEx;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tests the tiles of the <code>ThumbnailEx</code> updated for the regions
+ * repainted in its source figure, and the frames in which they are updated.
+ */
+public class ThumbnailExTest extends TestCase {
+
+	/** the number of milliseconds the source takes to paint a slow tile */
+	private static final int SLOW_PAINT = 15;
+
+	/** the size of the tiles of the 1600 pixels wide source, 16 per side */
+	private static final int TILE_SIZE = 100;
+
+	/**
+	 * A scaled source figure that records the area and time of each of its
+	 * paints.
+	 */
+	private static class Source extends ScalableLayeredPane {
+
+		final List paints = new ArrayList();
+
+		boolean slow = false;
+
+		public void paint(Graphics graphics) {
+			Rectangle clip = graphics.getClip(new Rectangle());
+			long start = System.currentTimeMillis();
+			if (slow) {
+				try {
+					Thread.sleep(SLOW_PAINT);
+				} catch (InterruptedException e) {
+					// paint now
+				}
+			}
+			super.paint(graphics);
+			paints.add(new Paint(clip, start, System.currentTimeMillis()));
+		}
+	}
+
+	private static class Paint {
+
+		final Rectangle clip;
+
+		final long start;
+
+		final long end;
+
+		Paint(Rectangle clip, long start, long end) {
+			this.clip = clip;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * Exposes the members of the <code>ThumbnailEx</code> used by the tests.
+	 */
+	private static class TestThumbnail extends ThumbnailEx {
+
+		static final int BUDGET = FRAME_BUDGET;
+
+		static final int DELAY = FRAME_DELAY;
+
+		TestThumbnail(IFigure source) {
+			super(source);
+		}
+
+		Image update() {
+			return getThumbnailImage();
+		}
+
+		boolean dirty() {
+			return isDirty();
+		}
+	}
+
+	private Figure root;
+
+	private Source source;
+
+	private IFigure child;
+
+	private IFigure outside;
+
+	private TestThumbnail thumbnail;
+
+	protected void setUp() {
+		root = new Figure();
+		root.setBounds(new Rectangle(0, 0, 2000, 2000));
+
+		// the source is scrolled by the local coordinates of its parent, and
+		// zoomed by its own scale
+		IFigure parent = new Figure() {
+
+			protected boolean useLocalCoordinates() {
+				return true;
+			}
+		};
+		parent.setBounds(new Rectangle(50, 50, 1700, 1700));
+		root.add(parent);
+
+		source = new Source();
+		source.setBounds(new Rectangle(0, 0, 1600, 1600));
+		source.setScale(2);
+		parent.add(source);
+
+		child = new Figure();
+		child.setBounds(new Rectangle(400, 400, 100, 100));
+		source.add(child);
+
+		outside = new Figure();
+		outside.setBounds(new Rectangle(1800, 1800, 50, 50));
+		root.add(outside);
+
+		thumbnail = new TestThumbnail(source);
+		thumbnail.setBounds(new Rectangle(0, 0, 160, 160));
+
+		// paint all the tiles once
+		thumbnail.update();
+		waitForUpdates();
+		assertEquals(256, getPaintedTiles().size());
+		source.paints.clear();
+	}
+
+	protected void tearDown() {
+		thumbnail.deactivate();
+	}
+
+	/**
+	 * Runs the event loop until the thumbnail has been clean and the source
+	 * unpainted for a few frames.
+	 */
+	private void waitForUpdates() {
+		Display display = Display.getDefault();
+		long timeout = System.currentTimeMillis() + 10000;
+		long quiet = System.currentTimeMillis();
+		int paintCount = source.paints.size();
+		while (System.currentTimeMillis() < timeout) {
+			if (!display.readAndDispatch()) {
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					break;
+				}
+			}
+			long now = System.currentTimeMillis();
+			if (thumbnail.dirty() || source.paints.size() != paintCount) {
+				paintCount = source.paints.size();
+				quiet = now;
+			} else if (now - quiet > 4 * TestThumbnail.DELAY) {
+				return;
+			}
+		}
+		fail("The thumbnail is still updated"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the indices, as <code>"h,v"</code>, of the tiles painted since
+	 *         the paints were last cleared
+	 */
+	private Set getPaintedTiles() {
+		Set tiles = new HashSet();
+		for (int i = 0; i < source.paints.size(); i++) {
+			Rectangle clip = ((Paint) source.paints.get(i)).clip;
+			tiles.add(((clip.x + clip.width / 2) / TILE_SIZE) + "," //$NON-NLS-1$
+				+ ((clip.y + clip.height / 2) / TILE_SIZE));
+		}
+		return tiles;
+	}
+
+	/**
+	 * Reports a repaint of a figure as the update manager does, with the
+	 * region already translated to absolute coordinates.
+	 */
+	private void notifyPainting(IFigure figure) {
+		Rectangle region = figure.getBounds().getCopy();
+		figure.translateToAbsolute(region);
+		thumbnail.notifyPainting(region.getCopy(), Collections.singletonMap(
+			figure, region));
+		thumbnail.update();
+	}
+
+	/**
+	 * Reports repaints of figures as the update manager does, with the
+	 * regions translated to absolute coordinates and clipped to the bounds of
+	 * the ancestors of the figures.
+	 */
+	private void notifyPaintingClipped(IFigure[] figures) {
+		Map regions = new HashMap();
+		Rectangle damage = new Rectangle();
+		for (int i = 0; i < figures.length; i++) {
+			Rectangle region = figures[i].getBounds().getCopy();
+			IFigure walker = figures[i].getParent();
+			while (!region.isEmpty() && walker != null) {
+				walker.translateToParent(region);
+				region.intersect(walker.getBounds());
+				walker = walker.getParent();
+			}
+			regions.put(figures[i], region);
+			damage.union(region);
+		}
+		thumbnail.notifyPainting(damage, regions);
+		thumbnail.update();
+	}
+
+	/**
+	 * Checks that the tiles of a child scrolled out of view are updated,
+	 * although its region is clipped away by the viewport, when a visible
+	 * child is repainted at the same time.
+	 */
+	public void testDirtyTilesOfClippedChild() {
+		// the parent of the source is now a viewport showing its top left
+		// corner only
+		source.getParent().setSize(500, 500);
+		IFigure visible = new Figure();
+		visible.setBounds(new Rectangle(10, 10, 20, 20));
+		source.add(visible);
+		waitForUpdates();
+		source.paints.clear();
+
+		notifyPaintingClipped(new IFigure[] {visible, child});
+		waitForUpdates();
+
+		// the visible child is painted on 20,20 40x40 in the source, and the
+		// clipped one on 800,800 200x200
+		Set expected = new HashSet();
+		expected.add("0,0"); //$NON-NLS-1$
+		for (int v = 7; v <= 10; v++) {
+			for (int h = 7; h <= 10; h++) {
+				expected.add(h + "," + v); //$NON-NLS-1$
+			}
+		}
+		assertEquals(expected, getPaintedTiles());
+	}
+
+	/**
+	 * Checks that the tiles updated for a child of a scrolled and zoomed
+	 * source are those covering the child, with the margin of one thumbnail
+	 * pixel, as painted by the source.
+	 */
+	public void testDirtyTilesOfTransformedChild() {
+		Rectangle absolute = child.getBounds().getCopy();
+		child.translateToAbsolute(absolute);
+		assertEquals(new Rectangle(850, 850, 200, 200), absolute);
+
+		notifyPainting(child);
+		waitForUpdates();
+
+		// the child is painted on 800,800 200x200 in the source, and one
+		// thumbnail pixel is 10 pixels of the source
+		Set expected = new HashSet();
+		for (int v = 7; v <= 10; v++) {
+			for (int h = 7; h <= 10; h++) {
+				expected.add(h + "," + v); //$NON-NLS-1$
+			}
+		}
+		assertEquals(expected, getPaintedTiles());
+	}
+
+	/**
+	 * Checks that the repaints of figures outside the source do not update
+	 * the thumbnail.
+	 */
+	public void testRepaintOutsideSource() {
+		notifyPainting(outside);
+		waitForUpdates();
+
+		assertFalse(thumbnail.dirty());
+		assertTrue(source.paints.isEmpty());
+	}
+
+	/**
+	 * Checks that the tiles are updated in frames that last about the frame
+	 * budget, separated by at least the frame delay.
+	 */
+	public void testFrameBudgetAndDelay() {
+		source.slow = true;
+		notifyPainting(child);
+		waitForUpdates();
+
+		List paints = source.paints;
+		assertEquals(16, paints.size());
+
+		int maxTilesPerFrame = TestThumbnail.BUDGET / SLOW_PAINT + 1;
+		int frameTiles = 1;
+		int frames = 1;
+		for (int i = 1; i < paints.size(); i++) {
+			Paint previous = (Paint) paints.get(i - 1);
+			Paint next = (Paint) paints.get(i);
+			long gap = next.start - previous.end;
+			if (gap < TestThumbnail.DELAY / 2) {
+				frameTiles++;
+				assertTrue(frameTiles <= maxTilesPerFrame);
+			} else {
+				// a few milliseconds of tolerance for the timer
+				assertTrue(gap >= TestThumbnail.DELAY - 5);
+				frameTiles = 1;
+				frames++;
+			}
+		}
+		assertTrue(frames >= paints.size() / maxTilesPerFrame);
+	}
+}
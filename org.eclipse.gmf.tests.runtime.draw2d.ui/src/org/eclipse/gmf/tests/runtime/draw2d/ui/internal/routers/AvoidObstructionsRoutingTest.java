@@ -10,6 +10,9 @@
  ****************************************************************************/
 package org.eclipse.gmf.tests.runtime.draw2d.ui.internal.routers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.eclipse.draw2d.BendpointConnectionRouter;
@@ -37,6 +40,22 @@ public class AvoidObstructionsRoutingTest extends TestCase {
 		super(name);
 	}
 	
+    /**
+     * An oblique router that records the connections it routes.
+     */
+    private static class RecordingRouter extends ObliqueRouter {
+
+        final List<Connection> routed = new ArrayList<Connection>();
+
+        public void routeLine(Connection conn, int nestedRoutingDepth,
+                PointList newLine) {
+            if (nestedRoutingDepth == 0) {
+                routed.add(conn);
+            }
+            super.routeLine(conn, nestedRoutingDepth, newLine);
+        }
+    }
+
 	private ObliqueRouter obliqueRouter;
     private RectilinearRouter rectilinearRouter;
 
@@ -271,4 +290,67 @@ public class AvoidObstructionsRoutingTest extends TestCase {
         
         assertFalse(isConnectionObstructed(conn1, obstruction.getBounds().getCopy()));
     }
-}
\ No newline at end of file
+
+    private RectangleFigure createNode(IFigure parent, int x, int y) {
+        RectangleFigure node = new RectangleFigure();
+        node.setSize(40, 40);
+        node.setLocation(new Point(x, y));
+        parent.add(node);
+        return node;
+    }
+
+    private PolylineConnectionEx createConnection(IFigure source,
+            IFigure target, ObliqueRouter router) {
+        PolylineConnectionEx conn = new PolylineConnectionEx();
+        conn.setSourceAnchor(new ChopboxAnchor(source));
+        conn.setTargetAnchor(new ChopboxAnchor(target));
+        conn.setConnectionRouter(router);
+        conn.setRoutingStyles(true, true);
+        return conn;
+    }
+
+    /**
+     * Routes two connections of the same container twice, and checks that
+     * the second routing only reroutes the connections whose path, obstacles
+     * or end figures changed.
+     */
+    public void testUnchangedConnectionIsNotRerouted() {
+        RectangleFigure topNode = new RectangleFigure();
+        topNode.setLayoutManager(new FreeformLayout());
+        topNode.setBounds(new Rectangle(0, 0, 400, 400));
+
+        IFigure node1 = createNode(topNode, 100, 100);
+        IFigure obstruction = createNode(topNode, 200, 100);
+        IFigure node3 = createNode(topNode, 300, 100);
+        IFigure node4 = createNode(topNode, 100, 300);
+        IFigure node5 = createNode(topNode, 300, 300);
+
+        RecordingRouter router = new RecordingRouter();
+        PolylineConnectionEx conn1 = createConnection(node1, node3, router);
+        PolylineConnectionEx conn2 = createConnection(node4, node5, router);
+        router.route(conn1);
+        router.route(conn2);
+        assertFalse(isConnectionObstructed(conn1, obstruction.getBounds()
+            .getCopy()));
+
+        // moving the obstruction reroutes the connection routed, but not the
+        // other connection of the container
+        router.routed.clear();
+        obstruction.setLocation(new Point(200, 110));
+        router.route(conn1);
+        assertEquals(1, router.routed.size());
+        assertSame(conn1, router.routed.get(0));
+        assertFalse(isConnectionObstructed(conn1, obstruction.getBounds()
+            .getCopy()));
+
+        // moving the source of the other connection reroutes it too
+        router.routed.clear();
+        PointList points = conn2.getPoints().getCopy();
+        node4.setLocation(new Point(100, 320));
+        router.route(conn1);
+        assertTrue(router.routed.contains(conn1));
+        assertTrue(router.routed.contains(conn2));
+        assertFalse(points.getFirstPoint().equals(conn2.getPoints()
+            .getFirstPoint()));
+    }
+}
@@ -0,0 +1,144 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.text;
+
+import java.util.Random;
+
+import org.eclipse.gmf.runtime.draw2d.ui.mapmode.MapModeTypes;
+import org.eclipse.gmf.runtime.draw2d.ui.text.TextUtilitiesEx;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Times the measurement and the truncation of the labels of large diagrams,
+ * whose labels repeat a smaller set of strings, with the
+ * <code>TextUtilitiesEx</code> and with a graphics context and the search the
+ * <code>TextUtilities</code> did before.
+ * <P>
+ * Running this class as a Java application prints the timings. It is not part
+ * of the test suite; {@link TextUtilitiesExTest} only checks the measurements
+ * of such labels.
+ */
+public class TextUtilitiesExBenchmark {
+
+	private static final int[] SIZES = new int[] {1000, 5000, 20000};
+
+	private static final int WARMUP_RUNS = 5;
+
+	private static final int RUNS = 20;
+
+	private final Font font;
+
+	private final GC gc;
+
+	TextUtilitiesExBenchmark(Font font, GC gc) {
+		this.font = font;
+		this.gc = gc;
+	}
+
+	/**
+	 * Measures the labels with the <code>TextUtilitiesEx</code> and truncates
+	 * them to half their width.
+	 */
+	void measureCached(TextUtilitiesEx utilities, String[] labels) {
+		for (int i = 0; i < labels.length; i++) {
+			int width = utilities.getTextExtents(labels[i], font).width;
+			utilities.getLargestSubstringConfinedTo(labels[i], font, width / 2);
+		}
+	}
+
+	/**
+	 * Measures the labels with the graphics context and truncates them to
+	 * half their width.
+	 */
+	void measureUncached(String[] labels) {
+		gc.setFont(font);
+		for (int i = 0; i < labels.length; i++) {
+			int width = gc.textExtent(labels[i]).x;
+			getLargestSubstringByAverage(labels[i], width / 2);
+		}
+	}
+
+	/**
+	 * The search of <code>TextUtilities</code>, guessing from the average
+	 * character width and measuring each guess.
+	 */
+	private int getLargestSubstringByAverage(String s, int availableWidth) {
+		float avg = gc.getFontMetrics().getAverageCharWidth();
+		int min = 0;
+		int max = s.length() + 1;
+		int guess = 0;
+		int guessSize = 0;
+		while ((max - min) > 1) {
+			guess = guess + (int) ((availableWidth - guessSize) / avg);
+			if (guess >= max)
+				guess = max - 1;
+			if (guess <= min)
+				guess = min + 1;
+			guessSize = gc.textExtent(s.substring(0, guess)).x;
+			if (guessSize < availableWidth)
+				min = guess;
+			else
+				max = guess;
+		}
+		return min;
+	}
+
+	/**
+	 * Prints the best times of a number of measurements of the labels of each
+	 * diagram, with and without the cache, after a few warm-up measurements.
+	 */
+	public static void main(String[] args) {
+		Display display = Display.getDefault();
+		Font font = new Font(display, "Arial", 9, SWT.NORMAL); //$NON-NLS-1$
+		Image image = new Image(display, 10, 10);
+		GC gc = new GC(image);
+		try {
+			gc.setAdvanced(true);
+			TextUtilitiesExBenchmark benchmark = new TextUtilitiesExBenchmark(
+				font, gc);
+			TextUtilitiesEx utilities = new TextUtilitiesEx(
+				MapModeTypes.IDENTITY_MM);
+			for (int i = 0; i < SIZES.length; i++) {
+				String[] labels = TextUtilitiesExTest.createDiagramLabels(
+					SIZES[i], new Random(i));
+				long cached = Long.MAX_VALUE;
+				long uncached = Long.MAX_VALUE;
+				for (int j = 0; j < WARMUP_RUNS + RUNS; j++) {
+					long start = System.nanoTime();
+					benchmark.measureCached(utilities, labels);
+					long time = System.nanoTime() - start;
+					if (j >= WARMUP_RUNS) {
+						cached = Math.min(cached, time);
+					}
+
+					start = System.nanoTime();
+					benchmark.measureUncached(labels);
+					time = System.nanoTime() - start;
+					if (j >= WARMUP_RUNS) {
+						uncached = Math.min(uncached, time);
+					}
+				}
+				System.out.println(SIZES[i] + " labels: best " //$NON-NLS-1$
+					+ cached / 1000000 + " ms with the cache, " //$NON-NLS-1$
+					+ uncached / 1000000 + " ms without"); //$NON-NLS-1$
+			}
+		} finally {
+			gc.dispose();
+			image.dispose();
+			font.dispose();
+		}
+	}
+}
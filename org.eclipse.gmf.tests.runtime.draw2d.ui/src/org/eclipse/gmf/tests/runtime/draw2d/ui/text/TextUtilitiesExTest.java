@@ -0,0 +1,180 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.draw2d.ui.text;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.geometry.Dimension;
+import org.eclipse.gmf.runtime.draw2d.ui.mapmode.IMapMode;
+import org.eclipse.gmf.runtime.draw2d.ui.mapmode.MapModeTypes;
+import org.eclipse.gmf.runtime.draw2d.ui.text.TextUtilitiesEx;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tests the measurements of the <code>TextUtilitiesEx</code>, which are
+ * cached, against the measurements of a graphics context.
+ */
+public class TextUtilitiesExTest extends TestCase {
+
+	private static final String[] WORDS = new String[] {"Class", "attribute", //$NON-NLS-1$ //$NON-NLS-2$
+		"operation", "a", "getName()", "W", "iiii", "<<interface>>", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		"\u00e9t\u00e9", "\u6f22\u5b57", "x:int", "WrappingLabel"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private final Random random = new Random(0);
+
+	private Font font;
+
+	private Font italicFont;
+
+	private Image image;
+
+	private GC gc;
+
+	public TextUtilitiesExTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() {
+		Display display = Display.getDefault();
+		font = new Font(display, "Arial", 9, SWT.NORMAL); //$NON-NLS-1$
+		italicFont = new Font(display, "Arial", 9, SWT.ITALIC); //$NON-NLS-1$
+		image = new Image(display, 10, 10);
+		gc = new GC(image);
+		gc.setAdvanced(true);
+	}
+
+	protected void tearDown() {
+		gc.dispose();
+		image.dispose();
+		italicFont.dispose();
+		font.dispose();
+	}
+
+	private String createLabel(int words) {
+		return createLabel(words, random);
+	}
+
+	static String createLabel(int words, Random random) {
+		StringBuffer label = new StringBuffer();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				label.append(' ');
+			}
+			label.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return label.toString();
+	}
+
+	public void testExtentsMatchGraphicsContext() {
+		TextUtilitiesEx utilities = new TextUtilitiesEx(MapModeTypes.IDENTITY_MM);
+		for (int i = 0; i < 200; i++) {
+			String label = createLabel(1 + random.nextInt(6));
+			if (i % 10 == 0) {
+				label += "\n" + createLabel(2); //$NON-NLS-1$
+			}
+			gc.setFont(font);
+			// measure twice, the second time from the cache
+			for (int j = 0; j < 2; j++) {
+				assertEquals(new Dimension(gc.stringExtent(label)), utilities
+					.getStringExtents(label, font));
+				assertEquals(new Dimension(gc.textExtent(label)), utilities
+					.getTextExtents(label, font));
+			}
+		}
+	}
+
+	public void testMapModeIsApplied() {
+		IMapMode mapMode = MapModeTypes.HIMETRIC_MM;
+		TextUtilitiesEx identity = new TextUtilitiesEx(MapModeTypes.IDENTITY_MM);
+		TextUtilitiesEx himetric = new TextUtilitiesEx(mapMode);
+		String label = createLabel(4);
+
+		Dimension pixels = identity.getTextExtents(label, font);
+		Dimension logical = himetric.getTextExtents(label, font);
+		assertEquals(mapMode.DPtoLP(pixels.width), logical.width);
+		assertEquals(mapMode.DPtoLP(pixels.height), logical.height);
+	}
+
+	public void testLargestSubstringConfinedTo() {
+		IMapMode[] mapModes = new IMapMode[] {MapModeTypes.IDENTITY_MM,
+			MapModeTypes.HIMETRIC_MM};
+		Font[] fonts = new Font[] {font, italicFont};
+		for (int m = 0; m < mapModes.length; m++) {
+			TextUtilitiesEx utilities = new TextUtilitiesEx(mapModes[m]);
+			for (int f = 0; f < fonts.length; f++) {
+				for (int i = 0; i < 100; i++) {
+					String label = createLabel(1 + random.nextInt(8));
+					int width = utilities.getTextExtents(label, fonts[f]).width;
+					int available = random.nextInt(width + 20) - 5;
+					int length = utilities.getLargestSubstringConfinedTo(label,
+						fonts[f], available);
+					// the substring fits, and one more character does not
+					if (length > 0) {
+						assertTrue(utilities.getTextExtents(
+							label.substring(0, length), fonts[f]).width < available);
+					}
+					if (length < label.length()) {
+						assertTrue(utilities.getTextExtents(
+							label.substring(0, length + 1), fonts[f]).width >= available);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Generates the labels of a diagram, which repeat a set of distinct
+	 * strings ten times smaller.
+	 */
+	static String[] createDiagramLabels(int count, Random random) {
+		String[] distinct = new String[Math.max(1, count / 10)];
+		for (int i = 0; i < distinct.length; i++) {
+			distinct[i] = createLabel(1 + random.nextInt(6), random);
+		}
+		String[] labels = new String[count];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = distinct[random.nextInt(distinct.length)];
+		}
+		return labels;
+	}
+
+	/**
+	 * Measures and truncates to half their width the labels of a large
+	 * diagram, whose labels repeat a smaller set of strings, and checks the
+	 * cached extents and substrings against the graphics context.
+	 * {@link TextUtilitiesExBenchmark} times these measurements.
+	 */
+	public void testLabelsOfLargeDiagram() {
+		String[] labels = createDiagramLabels(5000, random);
+		TextUtilitiesEx utilities = new TextUtilitiesEx(MapModeTypes.IDENTITY_MM);
+		gc.setFont(font);
+		for (int i = 0; i < labels.length; i++) {
+			int width = utilities.getTextExtents(labels[i], font).width;
+			assertEquals(gc.textExtent(labels[i]).x, width);
+
+			int length = utilities.getLargestSubstringConfinedTo(labels[i],
+				font, width / 2);
+			// the substring fits, and one more character does not
+			if (length > 0) {
+				assertTrue(gc.textExtent(labels[i].substring(0, length)).x < width / 2);
+			}
+			assertTrue(length < labels[i].length());
+			assertTrue(gc.textExtent(labels[i].substring(0, length + 1)).x >= width / 2);
+		}
+	}
+}
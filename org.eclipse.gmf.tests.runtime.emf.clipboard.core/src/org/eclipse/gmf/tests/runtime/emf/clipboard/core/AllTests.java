@@ -34,6 +34,7 @@ public class AllTests extends TestCase implements IPlatformRunnable {
 		TestSuite suite = new TestSuite();
 		
 		suite.addTest(RegressionTest.suite());
+		suite.addTest(ClipboardSnapshotTest.suite());
 		//suite.addTest(ClipboardUtilTest.suite());
 
 		return suite;
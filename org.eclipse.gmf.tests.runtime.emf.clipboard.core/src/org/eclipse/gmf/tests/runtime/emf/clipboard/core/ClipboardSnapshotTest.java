@@ -0,0 +1,245 @@
+/******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    IBM Corporation - initial API and implementation
+ ****************************************************************************/
+
+package org.eclipse.gmf.tests.runtime.emf.clipboard.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.InternalEObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.examples.extlibrary.Book;
+import org.eclipse.emf.examples.extlibrary.EXTLibraryFactory;
+import org.eclipse.emf.examples.extlibrary.Library;
+import org.eclipse.emf.examples.extlibrary.Writer;
+import org.eclipse.gmf.runtime.emf.clipboard.core.AbstractClipboardSupport;
+import org.eclipse.gmf.runtime.emf.clipboard.core.CopyOperation;
+import org.eclipse.gmf.runtime.emf.clipboard.core.IClipboardSupport;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.ClipboardSnapshot;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.DefaultClipboardSupport;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.LoadingEMFResource;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.ResourceInfo;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.ResourceInfoProcessor;
+import org.eclipse.gmf.runtime.emf.clipboard.core.internal.SerializationEMFResource;
+
+/**
+ * Tests that the objects loaded from a clipboard snapshot are those that the
+ * XMI of the clipboard string is parsed as.
+ */
+public class ClipboardSnapshotTest extends BaseClipboardTest {
+
+	public ClipboardSnapshotTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(ClipboardSnapshotTest.class, "Clipboard Snapshot Tests"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Copies objects with a clipboard support that excludes some objects.
+	 */
+	private ResourceInfo copy(Collection objects, final Collection excluded)
+		throws Exception {
+		IClipboardSupport support = new AbstractClipboardSupport() {
+
+			public Collection getExcludedCopyObjects(Set eObjects) {
+				return excluded;
+			}
+		};
+		String str = new CopyOperation(new NullProgressMonitor(), support,
+			objects, Collections.EMPTY_MAP).copy();
+		return ResourceInfoProcessor.getResourceInfo(str);
+	}
+
+	private LoadingEMFResource newResource(ResourceInfo info) {
+		return new LoadingEMFResource(domain.getResourceSet(), info.encoding,
+			SerializationEMFResource.LOAD_OPTIONS,
+			DefaultClipboardSupport.getInstance());
+	}
+
+	/**
+	 * Parses the XMI of a clipboard string.
+	 */
+	private LoadingEMFResource parse(ResourceInfo info) throws Exception {
+		LoadingEMFResource resource = newResource(info);
+		resource.load(new ByteArrayInputStream(info.data
+			.getBytes(info.encoding)), null);
+		return resource;
+	}
+
+	/**
+	 * Loads the snapshot kept for a clipboard string.
+	 */
+	private LoadingEMFResource loadSnapshot(ResourceInfo info) {
+		ClipboardSnapshot snapshot = ClipboardSnapshot.get(info.data, domain
+			.getResourceSet(), SerializationEMFResource.LOAD_OPTIONS);
+		assertNotNull("No snapshot", snapshot); //$NON-NLS-1$
+		LoadingEMFResource resource = newResource(info);
+		snapshot.load(resource);
+		return resource;
+	}
+
+	/**
+	 * Asserts that the objects, proxies included, and the IDs loaded from a
+	 * snapshot are those that were parsed.
+	 */
+	private void assertSameLoad(XMLResource parsed, XMLResource loaded) {
+		assertTrue("Snapshot differs from XMI", EcoreUtil.equals( //$NON-NLS-1$
+			parsed.getContents(), loaded.getContents()));
+		TreeIterator parsedIter = parsed.getAllContents();
+		TreeIterator loadedIter = loaded.getAllContents();
+		while (parsedIter.hasNext()) {
+			assertTrue(loadedIter.hasNext());
+			EObject parsedEObject = (EObject) parsedIter.next();
+			EObject loadedEObject = (EObject) loadedIter.next();
+			assertEquals(parsed.getID(parsedEObject), loaded
+				.getID(loadedEObject));
+		}
+		assertFalse(loadedIter.hasNext());
+	}
+
+	/**
+	 * Tests a reference whose opposite is not copied, and references with
+	 * opposites among the copied objects.
+	 */
+	public void test_opposites() throws Exception {
+		if (writing()) {
+			// the author of level1book is not copied
+			ResourceInfo info = copy(Collections.singletonList(level1book),
+				Collections.EMPTY_SET);
+			assertSameLoad(parse(info), loadSnapshot(info));
+
+			List objects = new ArrayList();
+			objects.add(level1book);
+			objects.add(level1writer);
+			info = copy(objects, Collections.EMPTY_SET);
+			assertSameLoad(parse(info), loadSnapshot(info));
+		}
+	}
+
+	/**
+	 * Tests references to objects of other resources, which are loaded as
+	 * proxies.
+	 */
+	public void test_proxies() throws Exception {
+		if (writing()) {
+			Resource other = domain.getResourceSet().createResource(
+				URI.createPlatformResourceURI("/" + PROJECT_NAME //$NON-NLS-1$
+					+ "/other.extlibrary", false)); //$NON-NLS-1$
+			Library library = EXTLibraryFactory.eINSTANCE.createLibrary();
+			Writer writer = EXTLibraryFactory.eINSTANCE.createWriter();
+			writer.setName("other writer"); //$NON-NLS-1$
+			library.getWriters().add(writer);
+			other.getContents().add(library);
+			level12book.setAuthor(writer);
+
+			ResourceInfo info = copy(Collections.singletonList(level12book),
+				Collections.EMPTY_SET);
+			LoadingEMFResource parsed = parse(info);
+			LoadingEMFResource loaded = loadSnapshot(info);
+			assertSameLoad(parsed, loaded);
+
+			Book book = (Book) loaded.getContents().get(0);
+			EObject author = (EObject) book.eGet(book.eClass()
+				.getEStructuralFeature("author"), false); //$NON-NLS-1$
+			assertTrue(author.eIsProxy());
+			assertEquals(EcoreUtil.getURI(writer), ((InternalEObject) author)
+				.eProxyURI());
+		}
+	}
+
+	/**
+	 * Tests that the objects excluded by the clipboard support are left out.
+	 */
+	public void test_excludedObjects() throws Exception {
+		if (writing()) {
+			Book book = EXTLibraryFactory.eINSTANCE.createBook();
+			book.setTitle("kept book"); //$NON-NLS-1$
+			Library branch = EXTLibraryFactory.eINSTANCE.createLibrary();
+			branch.setName("excluded branch"); //$NON-NLS-1$
+			level12.getStock().add(book);
+			level12.getBranches().add(branch);
+
+			ResourceInfo info = copy(Collections.singletonList(level12),
+				Collections.singleton(branch));
+			LoadingEMFResource parsed = parse(info);
+			LoadingEMFResource loaded = loadSnapshot(info);
+			assertSameLoad(parsed, loaded);
+
+			Library library = (Library) loaded.getContents().get(0);
+			assertEquals(1, library.getStock().size());
+			assertTrue(library.getBranches().isEmpty());
+		}
+	}
+
+	/**
+	 * Tests feature maps, which the copy operation does not snapshot, so that
+	 * the snapshot is taken from the string parsed the second time.
+	 */
+	public void test_featureMaps() throws Exception {
+		if (writing()) {
+			// the writers of a library are kept in its people feature map
+			ResourceInfo info = copy(Collections.singletonList(level1),
+				Collections.EMPTY_SET);
+			ResourceSet resourceSet = domain.getResourceSet();
+			assertNull(ClipboardSnapshot.get(info.data, resourceSet,
+				SerializationEMFResource.LOAD_OPTIONS));
+
+			LoadingEMFResource parsed = parse(info);
+			ClipboardSnapshot.put(info.data, resourceSet,
+				SerializationEMFResource.LOAD_OPTIONS, parsed);
+			parsed = parse(info);
+			ClipboardSnapshot.put(info.data, resourceSet,
+				SerializationEMFResource.LOAD_OPTIONS, parsed);
+
+			LoadingEMFResource loaded = loadSnapshot(info);
+			assertSameLoad(parse(info), loaded);
+			assertFalse(((Library) loaded.getContents().get(0)).getWriters()
+				.isEmpty());
+		}
+	}
+
+	/**
+	 * Tests that the snapshot taken on copy is not used by the pastes that
+	 * load the string with other options.
+	 */
+	public void test_loadOptions() throws Exception {
+		if (writing()) {
+			ResourceInfo info = copy(Collections.singletonList(level1book),
+				Collections.EMPTY_SET);
+			ResourceSet resourceSet = domain.getResourceSet();
+			assertNotNull(ClipboardSnapshot.get(info.data, resourceSet,
+				SerializationEMFResource.LOAD_OPTIONS));
+
+			Map options = new HashMap(SerializationEMFResource.LOAD_OPTIONS);
+			options.put(XMLResource.OPTION_RECORD_UNKNOWN_FEATURE,
+				Boolean.TRUE);
+			assertNull(ClipboardSnapshot.get(info.data, resourceSet, options));
+		}
+	}
+}
@@ -22,8 +22,10 @@ import junit.framework.TestSuite;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.examples.extlibrary.Book;
 import org.eclipse.emf.examples.extlibrary.EXTLibraryFactory;
 import org.eclipse.emf.examples.extlibrary.Library;
+import org.eclipse.emf.examples.extlibrary.Writer;
 import org.eclipse.gmf.runtime.emf.clipboard.core.ClipboardUtil;
 import org.eclipse.gmf.runtime.emf.clipboard.core.IClipboardSupport;
 
@@ -314,6 +316,169 @@ public class RegressionTest	extends BaseClipboardTest {
 		}
 	}
 	
+	/**
+	 * Tests pasting the same string twice from the snapshot of the copied
+	 * objects rather than from its XMI, with a reference that has an opposite
+	 * to an object that is not copied.
+	 */
+	public void test_pasteSameStringTwice() {
+		if (writing()) {
+			List objects = new ArrayList();
+			objects.add(level1book);
+			String copyStr = copy(objects, Collections.EMPTY_MAP);
+			assertNotNull(copyStr);
+
+			int size = root3.getStock().size();
+
+			Collection first = paste(copyStr, root3, Collections.EMPTY_MAP);
+			// a new string, as when it is obtained from the system clipboard
+			Collection second = paste(new String(copyStr), root3,
+				Collections.EMPTY_MAP);
+			assertEquals(1, first.size());
+			assertEquals(1, second.size());
+
+			Book firstBook = (Book) first.iterator().next();
+			Book secondBook = (Book) second.iterator().next();
+			assertNotSame(firstBook, secondBook);
+			assertEquals(size + 2, root3.getStock().size());
+			assertTrue(root3.getStock().contains(firstBook));
+			assertTrue(root3.getStock().contains(secondBook));
+			assertEquals(level1book.getTitle(), firstBook.getTitle());
+			assertEquals(level1book.getTitle(), secondBook.getTitle());
+
+			// the author is not copied, and both pastes resolve the reference
+			//    to it alike, keeping its opposite consistent
+			assertSame(level1writer, level1book.getAuthor());
+			assertTrue(level1writer.getBooks().contains(level1book));
+			assertSame(firstBook.getAuthor(), secondBook.getAuthor());
+			assertEquals(firstBook.getAuthor() == level1writer,
+				level1writer.getBooks().contains(firstBook));
+			assertEquals(secondBook.getAuthor() == level1writer,
+				level1writer.getBooks().contains(secondBook));
+		}
+	}
+
+	/**
+	 * Tests that elements pasted together are pasted into their original
+	 * containment features, and that their references to each other are
+	 * resolved to the pasted elements.
+	 */
+	public void test_pasteReferencesAmongPastedElements() {
+		if (writing()) {
+			List objects = new ArrayList();
+			objects.add(level1book);
+			objects.add(level1writer);
+			String copyStr = copy(objects, Collections.EMPTY_MAP);
+			assertNotNull(copyStr);
+
+			Collection eObjects = paste(copyStr, root3, Collections.EMPTY_MAP);
+			assertEquals(2, eObjects.size());
+			assertEquals(1, root3.getStock().size());
+			assertEquals(1, root3.getWriters().size());
+
+			Book book = (Book) root3.getStock().get(0);
+			Writer writer = (Writer) root3.getWriters().get(0);
+			assertNotSame(level1book, book);
+			assertNotSame(level1writer, writer);
+			assertSame(writer, book.getAuthor());
+			assertTrue(writer.getBooks().contains(book));
+		}
+	}
+
+	/**
+	 * Tests that elements pasted repeatedly into the container of their
+	 * originals are given the next free names.
+	 */
+	public void test_pasteUniqueNames() {
+		if (writing()) {
+			List objects = new ArrayList();
+			objects.add(level1writer);
+			String copyStr = copy(objects, Collections.EMPTY_MAP);
+			assertNotNull(copyStr);
+
+			String name = level1writer.getName();
+			int size = root1.getWriters().size();
+
+			Writer first = (Writer) paste(copyStr, root1,
+				Collections.EMPTY_MAP).iterator().next();
+			Writer second = (Writer) paste(copyStr, root1,
+				Collections.EMPTY_MAP).iterator().next();
+			Writer third = (Writer) paste(copyStr, root1,
+				Collections.EMPTY_MAP).iterator().next();
+
+			assertEquals(size + 3, root1.getWriters().size());
+			assertEquals(name, level1writer.getName());
+			assertEquals("Copy_1_" + name, first.getName()); //$NON-NLS-1$
+			assertEquals("Copy_2_" + name, second.getName()); //$NON-NLS-1$
+			assertEquals("Copy_3_" + name, third.getName()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that the time to paste a selection grows about linearly with its
+	 * size: pasting four times as many writers and books, which refer to each
+	 * other, must take well under the sixteen times a quadratic paste would.
+	 */
+	public void test_pasteTimeGrowsLinearly() {
+		if (writing()) {
+			final int size = 250;
+			// warm up
+			pasteWritersAndBooks(size);
+
+			long small = Long.MAX_VALUE;
+			long large = Long.MAX_VALUE;
+			for (int i = 0; i < 3; i++) {
+				small = Math.min(small, pasteWritersAndBooks(size));
+				large = Math.min(large, pasteWritersAndBooks(4 * size));
+			}
+			assertTrue("Paste time grows faster than linearly: " + small //$NON-NLS-1$
+				+ " ms for " + size + " writers, " + large + " ms for " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ 4 * size, large <= 8 * small + 100);
+		}
+	}
+
+	/**
+	 * Copies a new library of writers and books, each writer being the author
+	 * of one book, and pastes the writers and books into another new library.
+	 * 
+	 * @return the time taken by the paste, in milliseconds
+	 */
+	private long pasteWritersAndBooks(int count) {
+		Library source = EXTLibraryFactory.eINSTANCE.createLibrary();
+		Library target = EXTLibraryFactory.eINSTANCE.createLibrary();
+		testResource.getContents().add(source);
+		testResource.getContents().add(target);
+
+		List objects = new ArrayList();
+		for (int i = 0; i < count; i++) {
+			Writer writer = EXTLibraryFactory.eINSTANCE.createWriter();
+			writer.setName("writer" + i); //$NON-NLS-1$
+			Book book = EXTLibraryFactory.eINSTANCE.createBook();
+			book.setTitle("book" + i); //$NON-NLS-1$
+			book.setAuthor(writer);
+			source.getWriters().add(writer);
+			source.getBooks().add(book);
+			objects.add(writer);
+			objects.add(book);
+		}
+		String copyStr = copy(objects, Collections.EMPTY_MAP);
+		assertNotNull(copyStr);
+
+		long start = System.currentTimeMillis();
+		Collection eObjects = paste(copyStr, target, Collections.EMPTY_MAP);
+		long time = System.currentTimeMillis() - start;
+
+		assertEquals(2 * count, eObjects.size());
+		assertEquals(count, target.getWriters().size());
+		Writer writer = (Writer) target.getWriters().get(count - 1);
+		assertEquals(1, writer.getBooks().size());
+		assertSame(target, ((Book) writer.getBooks().get(0)).eContainer());
+
+		testResource.getContents().remove(source);
+		testResource.getContents().remove(target);
+		return time;
+	}
+
 	/**
 	 * Tests that the two <code>createClipboardSupport</code> methods will
 	 * return the same clipboard helper. The correct way is to call the method
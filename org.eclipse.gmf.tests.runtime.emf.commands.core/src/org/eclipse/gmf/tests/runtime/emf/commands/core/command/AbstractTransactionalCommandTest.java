@@ -11,6 +11,7 @@
 
 package org.eclipse.gmf.tests.runtime.emf.commands.core.command;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -32,12 +33,15 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.emf.common.command.Command;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EFactory;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.transaction.ResourceSetChangeEvent;
 import org.eclipse.emf.transaction.ResourceSetListenerImpl;
 import org.eclipse.emf.transaction.RollbackException;
@@ -182,6 +186,41 @@ public class AbstractTransactionalCommandTest
         assertTrue(c.getAffectedFiles().containsAll(affectedFiles));
     }
     
+    /**
+     * Tests that the workspace files of many objects in a few resources are
+     * listed once per resource, and follow a resource when it is moved.
+     */
+    public void test_getWorkspaceFiles() {
+        ResourceSet resourceSet = new ResourceSetImpl();
+        Resource resource1 = resourceSet.createResource(URI
+            .createPlatformResourceURI("/project/file1.logic", true)); //$NON-NLS-1$
+        Resource resource2 = resourceSet.createResource(URI
+            .createPlatformResourceURI("/project/file2.logic", true)); //$NON-NLS-1$
+
+        EFactory logicFactory = SemanticPackage.eINSTANCE
+            .getEFactoryInstance();
+        List eObjects = new ArrayList();
+        for (int i = 0; i < 1000; i++) {
+            EObject circuit = logicFactory.create(SemanticPackage.eINSTANCE
+                .getCircuit());
+            (i % 2 == 0 ? resource1
+                : resource2).getContents().add(circuit);
+            eObjects.add(circuit);
+        }
+
+        IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+        IFile file1 = workspaceRoot.getFile(new Path("/project/file1.logic")); //$NON-NLS-1$
+        IFile file2 = workspaceRoot.getFile(new Path("/project/file2.logic")); //$NON-NLS-1$
+        assertEquals(Arrays.asList(new IFile[] {file1, file2}), TestCommand
+            .getFiles(eObjects));
+
+        resource2.setURI(URI.createPlatformResourceURI(
+            "/project/file3.logic", true)); //$NON-NLS-1$
+        IFile file3 = workspaceRoot.getFile(new Path("/project/file3.logic")); //$NON-NLS-1$
+        assertEquals(Arrays.asList(new IFile[] {file1, file3}), TestCommand
+            .getFiles(eObjects));
+    }
+    
     /**
 	 * Verifies the when a precommit listener throws a rollback exception, the
 	 * command result status reflects this fact.
@@ -282,6 +321,10 @@ public class AbstractTransactionalCommandTest
             super(TransactionalEditingDomain.Factory.INSTANCE.createEditingDomain(), label, affectedFiles);
         }
 
+        public static List getFiles(List eObjects) {
+            return getWorkspaceFiles(eObjects);
+        }
+
         protected CommandResult doExecuteWithResult(
                 IProgressMonitor progressMonitor, IAdaptable info)
             throws ExecutionException {
@@ -11,13 +11,28 @@
  ****************************************************************************/
 package org.eclipse.gmf.tests.runtime.emf.type.core;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
 import java.util.Set;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import junit.textui.TestRunner;
 
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.gmf.runtime.emf.type.core.ClientContext;
 import org.eclipse.gmf.runtime.emf.type.core.ClientContextAddedEvent;
 import org.eclipse.gmf.runtime.emf.type.core.ClientContextManager;
@@ -25,7 +40,9 @@ import org.eclipse.gmf.runtime.emf.type.core.ClientContextManagerAdapter;
 import org.eclipse.gmf.runtime.emf.type.core.ClientContextRemovedEvent;
 import org.eclipse.gmf.runtime.emf.type.core.IClientContext;
 import org.eclipse.gmf.runtime.emf.type.core.IClientContextManagerListener;
+import org.eclipse.gmf.runtime.emf.type.core.IScopedElementMatcher;
 import org.eclipse.gmf.runtime.emf.type.core.NullElementMatcher;
+import org.eclipse.gmf.runtime.emf.type.core.internal.impl.XMLExpressionMatcher;
 import org.eclipse.gmf.tests.runtime.emf.type.core.employee.Department;
 import org.eclipse.gmf.tests.runtime.emf.type.core.employee.Employee;
 import org.eclipse.gmf.tests.runtime.emf.type.core.internal.EmployeeType;
@@ -171,6 +188,190 @@ public class ClientContextManagerTest extends AbstractEMFTypeTest {
 		assertTrue(notified[0]);
 	}
 
+	/**
+	 * A matcher of the specified scope that matches employees and counts the
+	 * number of times that it is asked.
+	 */
+	private static class CountingMatcher
+		implements IScopedElementMatcher {
+
+		private final int scope;
+
+		int count = 0;
+
+		CountingMatcher(int scope) {
+			this.scope = scope;
+		}
+
+		public boolean matches(EObject eObject) {
+			count++;
+			return eObject instanceof Employee;
+		}
+
+		public int getScope() {
+			return scope;
+		}
+	}
+
+	private static boolean includes(IClientContext result, IClientContext context) {
+		return result == context || result.getChildren().contains(context);
+	}
+
+	public void test_getClientContextFor_eClassScope() {
+
+		CountingMatcher matcher = new CountingMatcher(
+				IScopedElementMatcher.ECLASS_SCOPE);
+		IClientContext newContext = new ClientContext(
+				"ClientContextManagerTest.eClassScope", matcher); //$NON-NLS-1$
+		Employee other = (Employee) getEmployeeFactory().create(
+				getEmployeePackage().getEmployee());
+		department.getMembers().add(other);
+
+		ClientContextManager.getInstance().registerClientContext(newContext);
+
+		try {
+			assertTrue(includes(ClientContextManager.getInstance().getClientContextFor(
+					employee), newContext));
+			assertTrue(includes(ClientContextManager.getInstance().getClientContextFor(
+					other), newContext));
+			assertEquals(1, matcher.count);
+
+			assertFalse(includes(ClientContextManager.getInstance().getClientContextFor(
+					department), newContext));
+			assertEquals(2, matcher.count);
+		} finally {
+			ClientContextManager.getInstance().deregisterClientContext(newContext);
+		}
+
+		assertFalse(includes(ClientContextManager.getInstance().getClientContextFor(
+				employee), newContext));
+	}
+
+	public void test_getClientContextFor_resourceScope() {
+
+		CountingMatcher matcher = new CountingMatcher(
+				IScopedElementMatcher.RESOURCE_SCOPE);
+		IClientContext newContext = new ClientContext(
+				"ClientContextManagerTest.resourceScope", matcher); //$NON-NLS-1$
+
+		ClientContextManager.getInstance().registerClientContext(newContext);
+
+		try {
+			assertTrue(includes(ClientContextManager.getInstance().getClientContextFor(
+					employee), newContext));
+
+			// the department is in the same resource
+			assertTrue(includes(ClientContextManager.getInstance().getClientContextFor(
+					department), newContext));
+			assertEquals(1, matcher.count);
+
+			// but an element outside of any resource is matched every time
+			Employee detached = (Employee) getEmployeeFactory().create(
+					getEmployeePackage().getEmployee());
+			ClientContextManager.getInstance().getClientContextFor(detached);
+			ClientContextManager.getInstance().getClientContextFor(detached);
+			assertEquals(3, matcher.count);
+
+			// and a resource moved to another resource set is matched again
+			ResourceSet resourceSet = new ResourceSetImpl();
+			Resource resource = new ResourceImpl(URI
+				.createURI("null://ClientContextManagerTest.resourceScope")); //$NON-NLS-1$
+			resourceSet.getResources().add(resource);
+			resource.getContents().add(detached);
+			ClientContextManager.getInstance().getClientContextFor(detached);
+			ClientContextManager.getInstance().getClientContextFor(detached);
+			assertEquals(4, matcher.count);
+
+			new ResourceSetImpl().getResources().add(resource);
+			ClientContextManager.getInstance().getClientContextFor(detached);
+			assertEquals(5, matcher.count);
+		} finally {
+			ClientContextManager.getInstance().deregisterClientContext(newContext);
+		}
+	}
+
+	/**
+	 * Creates a configuration element of an expression.
+	 * 
+	 * @param name
+	 *            the name of the element
+	 * @param attributes
+	 *            the attributes of the element, or <code>null</code>
+	 * @param children
+	 *            the child elements
+	 */
+	private static IConfigurationElement config(final String name,
+			final Map attributes, final IConfigurationElement[] children) {
+		return (IConfigurationElement) Proxy.newProxyInstance(
+			ClientContextManagerTest.class.getClassLoader(),
+			new Class[] {IConfigurationElement.class},
+			new InvocationHandler() {
+
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					String methodName = method.getName();
+					if (methodName.equals("getName")) { //$NON-NLS-1$
+						return name;
+					} else if (methodName.equals("getChildren")) { //$NON-NLS-1$
+						return args == null ? children
+							: new IConfigurationElement[0];
+					} else if (methodName.equals("getAttribute")) { //$NON-NLS-1$
+						return attributes == null ? null
+							: attributes.get(args[0]);
+					} else if (methodName.equals("getAttributeNames")) { //$NON-NLS-1$
+						return attributes == null ? new String[0]
+							: (String[]) attributes.keySet().toArray(
+								new String[attributes.size()]);
+					} else if (methodName.equals("isValid")) { //$NON-NLS-1$
+						return Boolean.TRUE;
+					}
+					return null;
+				}
+			});
+	}
+
+	private static IConfigurationElement config(String name, String key,
+			String value) {
+		Map attributes = new java.util.HashMap();
+		attributes.put(key, value);
+		return config(name, attributes, new IConfigurationElement[0]);
+	}
+
+	private static int getScope(IConfigurationElement[] children)
+		throws Exception {
+		return new XMLExpressionMatcher(config("enablement", null, children), //$NON-NLS-1$
+			"ClientContextManagerTest.scope").getScope(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests the scopes inferred from the enablement expressions of client
+	 * contexts, and the scope of the null matcher.
+	 */
+	public void test_xmlExpressionMatcherScope()
+		throws Exception {
+
+		IConfigurationElement instanceOf = config("instanceof", "value", //$NON-NLS-1$ //$NON-NLS-2$
+			Employee.class.getName());
+		IConfigurationElement editingDomain = config("test", "property", //$NON-NLS-1$ //$NON-NLS-2$
+			"org.eclipse.gmf.runtime.emf.core.editingDomain"); //$NON-NLS-1$
+		IConfigurationElement resourceURI = config("test", "property", //$NON-NLS-1$ //$NON-NLS-2$
+			"org.eclipse.gmf.tests.runtime.emf.type.core.resourceURI"); //$NON-NLS-1$
+
+		assertEquals(IScopedElementMatcher.ECLASS_SCOPE,
+			getScope(new IConfigurationElement[] {instanceOf}));
+		assertEquals(IScopedElementMatcher.ECLASS_SCOPE,
+			getScope(new IConfigurationElement[] {config("not", null, //$NON-NLS-1$
+				new IConfigurationElement[] {instanceOf})}));
+		assertEquals(IScopedElementMatcher.RESOURCE_SCOPE,
+			getScope(new IConfigurationElement[] {editingDomain}));
+		assertEquals(IScopedElementMatcher.ELEMENT_SCOPE,
+			getScope(new IConfigurationElement[] {editingDomain, resourceURI}));
+		assertEquals(IScopedElementMatcher.ELEMENT_SCOPE,
+			getScope(new IConfigurationElement[] {instanceOf, editingDomain}));
+
+		assertEquals(IScopedElementMatcher.ECLASS_SCOPE,
+			new NullElementMatcher().getScope());
+	}
+
 	/**
 	 * Tests that a dynamically-registered client context can be removed.
 	 * 
@@ -259,4 +460,100 @@ public class ClientContextManagerTest extends AbstractEMFTypeTest {
 
 		assertFalse(notified[0]);
 	}
+
+	/**
+	 * Tests that the manager is created by the first use of its class, which
+	 * changes the bindings before the count of their modifications is read.
+	 * The class is loaded again, apart from the class used by the other
+	 * tests, so that its static initialization runs in this test.
+	 */
+	public void test_getInstanceFromFreshClassLoad()
+		throws Exception {
+		Class managerClass = new FreshClassLoader().loadClass(
+			ClientContextManager.class.getName());
+		assertNotSame(ClientContextManager.class, managerClass);
+
+		Object manager = managerClass.getMethod("getInstance").invoke(null); //$NON-NLS-1$
+		try {
+			assertNotNull(manager);
+			assertNotNull(managerClass.getMethod("getClientContext", //$NON-NLS-1$
+				new Class[] {String.class}).invoke(manager,
+				new Object[] {"org.eclipse.gmf.tests.runtime.emf.type.core.ClientContext1"})); //$NON-NLS-1$
+
+			Method count = managerClass
+				.getDeclaredMethod("getBindingsModificationCount"); //$NON-NLS-1$
+			count.setAccessible(true);
+			assertTrue(((Integer) count.invoke(null)).intValue() > 0);
+		} finally {
+			// stop listening to the extension registry
+			Field tracker = managerClass.getDeclaredField("extensionTracker"); //$NON-NLS-1$
+			tracker.setAccessible(true);
+			IExtensionTracker extensionTracker = (IExtensionTracker) tracker
+				.get(manager);
+			if (extensionTracker != null) {
+				extensionTracker.close();
+			}
+		}
+	}
+
+	/**
+	 * Loads the classes of the client context manager, and of the events
+	 * that it creates with their package-private constructors, again from
+	 * their class files, and the other classes from the bundle.
+	 */
+	private static class FreshClassLoader
+		extends ClassLoader {
+
+		FreshClassLoader() {
+			super(ClientContextManager.class.getClassLoader());
+		}
+
+		protected synchronized Class loadClass(String name, boolean resolve)
+			throws ClassNotFoundException {
+			if (!isLoadedAgain(name)) {
+				return super.loadClass(name, resolve);
+			}
+			Class result = findLoadedClass(name);
+			if (result == null) {
+				byte[] bytes = readClassFile(name);
+				result = defineClass(name, bytes, 0, bytes.length);
+			}
+			if (resolve) {
+				resolveClass(result);
+			}
+			return result;
+		}
+
+		private boolean isLoadedAgain(String name) {
+			String manager = ClientContextManager.class.getName();
+			return name.equals(manager) || name.startsWith(manager + '$')
+				|| name.equals(ClientContextAddedEvent.class.getName())
+				|| name.equals(ClientContextRemovedEvent.class.getName());
+		}
+
+		private byte[] readClassFile(String name)
+			throws ClassNotFoundException {
+			InputStream stream = getParent().getResourceAsStream(
+				name.replace('.', '/') + ".class"); //$NON-NLS-1$
+			if (stream == null) {
+				throw new ClassNotFoundException(name);
+			}
+			try {
+				try {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					int n = stream.read(buffer);
+					while (n != -1) {
+						bytes.write(buffer, 0, n);
+						n = stream.read(buffer);
+					}
+					return bytes.toByteArray();
+				} finally {
+					stream.close();
+				}
+			} catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+	}
 }
@@ -37,6 +37,7 @@ import org.eclipse.gmf.runtime.emf.type.core.AbstractAdviceBindingDescriptor;
 import org.eclipse.gmf.runtime.emf.type.core.AdviceBindingAddedEvent;
 import org.eclipse.gmf.runtime.emf.type.core.AdviceBindingInheritance;
 import org.eclipse.gmf.runtime.emf.type.core.AdviceBindingRemovedEvent;
+import org.eclipse.gmf.runtime.emf.type.core.ClientContext;
 import org.eclipse.gmf.runtime.emf.type.core.ClientContextManager;
 import org.eclipse.gmf.runtime.emf.type.core.EditHelperContext;
 import org.eclipse.gmf.runtime.emf.type.core.ElementTypeAddedEvent;
@@ -1406,6 +1407,49 @@ public class ElementTypeRegistryTest
 		assertNull(getFixture().getType(id));
 	}
 
+	/**
+	 * Tests that the metamodel type resolved for an EClass in a client context
+	 * follows changes to the registered metamodel types and to the bindings of
+	 * the context.
+	 */
+	public void test_getElementType_eClass_resolutionFollowsChanges() {
+		String id = "dynamic.metamodel.cachedLocation"; //$NON-NLS-1$
+		IMetamodelType dynamicMetamodelType = new MetamodelType(id, null, id,
+				EmployeePackage.eINSTANCE.getLocation(), null);
+		ClientContext context = new ClientContext(
+				"dynamic.org.eclipse.gmf.tests.runtime.emf.type.core.CachingContext", //$NON-NLS-1$
+				new IElementMatcher() {
+					public boolean matches(EObject eObject) {
+						return false;
+					}
+				});
+
+		ClientContextManager.getInstance().registerClientContext(context);
+		try {
+			assertSame(DefaultMetamodelType.getInstance(), getFixture()
+					.getElementType(EmployeePackage.eINSTANCE.getLocation(), context));
+
+			context.bindId(id);
+			getFixture().register(dynamicMetamodelType);
+			assertSame(dynamicMetamodelType, getFixture().getElementType(
+					EmployeePackage.eINSTANCE.getLocation(), context));
+
+			context.unbindId(id);
+			assertSame(DefaultMetamodelType.getInstance(), getFixture()
+					.getElementType(EmployeePackage.eINSTANCE.getLocation(), context));
+
+			context.bindId(id);
+			assertSame(dynamicMetamodelType, getFixture().getElementType(
+					EmployeePackage.eINSTANCE.getLocation(), context));
+
+			getFixture().deregister(dynamicMetamodelType);
+			assertSame(DefaultMetamodelType.getInstance(), getFixture()
+					.getElementType(EmployeePackage.eINSTANCE.getLocation(), context));
+		} finally {
+			ClientContextManager.getInstance().deregisterClientContext(context);
+		}
+	}
+
 	/**
 	 * Tests that dynamically-added specialization types can be removed from the
 	 * registry.